@@ -0,0 +1,212 @@
+#!/bin/bash
+
+# Shared read-write cache vs copy-on-write overlay benchmark.
+#
+# Starts N pods of the same Application at once against one DependencyCache, first with the cache
+# volume mounted read-write by every pod (default mode), then in overlay mode (spec.overlay: the
+# volume is the read-only base layer, each pod writes to a local emptyDir merged back later).
+#
+# Measures, for each mode:
+#   - time until the first and the last pod is Ready (build and start of the dev mode)
+#   - median time to Ready
+#   - container restarts (builds that failed, e.g. on a corrupt or locked download)
+#
+# Prerequisites: the operator and the quarkus-hello example deployed on the current kubectl
+# context (see ../pods/quarkus-hello/deploy-to-kind.sh), so that the Application and its
+# DependencyCache exist.
+#
+# Usage: ./benchmark-cache-overlay.sh [shared|overlay|compare|help]
+
+set -euo pipefail
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+
+BENCH_NAMESPACE="${BENCH_NAMESPACE:-shadok}"
+APPLICATION="${APPLICATION:-quarkus-hello-app}"
+DEPENDENCY_CACHE="${DEPENDENCY_CACHE:-java-cache}"
+POD_IMAGE="${POD_IMAGE:-localhost:5001/quarkus-hello:latest}"
+PODS="${PODS:-20}"
+READY_TIMEOUT_SECONDS="${READY_TIMEOUT_SECONDS:-900}"
+RESULTS_FILE="${RESULTS_FILE:-${SCRIPT_DIR}/build/benchmark-cache-overlay.md}"
+WORK_DIR="$(mktemp -d -t shadok-overlay-bench-XXXXXX)"
+
+function log() {
+  echo "[$(date +%H:%M:%S)] $*" >&2
+}
+
+function cleanup() {
+  delete_pods
+  rm -rf "${WORK_DIR}"
+}
+trap cleanup EXIT
+
+function now_millis() {
+  date +%s%3N
+}
+
+function set_mode() {
+  local mode=$1
+  log "⚙️  DependencyCache ${DEPENDENCY_CACHE} in ${mode} mode"
+  if [[ "${mode}" == "overlay" ]]; then
+    kubectl patch dependencycache "${DEPENDENCY_CACHE}" -n "${BENCH_NAMESPACE}" --type merge \
+      -p '{"spec":{"overlay":{"syncIntervalSeconds":60,"mergeIntervalMinutes":1}}}' >/dev/null
+  else
+    kubectl patch dependencycache "${DEPENDENCY_CACHE}" -n "${BENCH_NAMESPACE}" --type json \
+      -p '[{"op":"remove","path":"/spec/overlay"}]' >/dev/null 2>&1 || true
+  fi
+}
+
+function pod_manifest() {
+  local name=$1
+  cat <<EOF
+---
+apiVersion: v1
+kind: Pod
+metadata:
+  name: ${name}
+  labels:
+    shadok.org/benchmark: cache-overlay
+  annotations:
+    org.shadok/application: ${APPLICATION}
+spec:
+  restartPolicy: Always
+  containers:
+    - name: app
+      image: ${POD_IMAGE}
+      ports:
+        - containerPort: 8080
+      readinessProbe:
+        tcpSocket:
+          port: 8080
+        periodSeconds: 2
+EOF
+}
+
+function create_pods() {
+  local prefix=$1
+  local manifest="${WORK_DIR}/${prefix}.yaml"
+  : >"${manifest}"
+  for i in $(seq 1 "${PODS}"); do
+    pod_manifest "${prefix}-${i}" >>"${manifest}"
+  done
+  kubectl apply -n "${BENCH_NAMESPACE}" -f "${manifest}" >/dev/null
+}
+
+function delete_pods() {
+  kubectl delete pods -n "${BENCH_NAMESPACE}" -l shadok.org/benchmark=cache-overlay \
+    --wait=true --timeout=120s >/dev/null 2>&1 || true
+}
+
+# Milliseconds from creation to Ready of every benchmark pod, one per line
+function ready_times() {
+  kubectl get pods -n "${BENCH_NAMESPACE}" -l shadok.org/benchmark=cache-overlay -o json |
+    jq -r '.items[]
+      | (.metadata.creationTimestamp | fromdateiso8601) as $created
+      | (.status.conditions[]? | select(.type == "Ready" and .status == "True")
+          | .lastTransitionTime | fromdateiso8601) as $ready
+      | (($ready - $created) * 1000)'
+}
+
+function restarts() {
+  kubectl get pods -n "${BENCH_NAMESPACE}" -l shadok.org/benchmark=cache-overlay -o json |
+    jq '[.items[].status.containerStatuses[]?.restartCount] | add // 0'
+}
+
+function wait_for_ready() {
+  local started=$1
+  local deadline=$((started + READY_TIMEOUT_SECONDS * 1000))
+  while (($(now_millis) < deadline)); do
+    if (($(ready_times | wc -l) >= PODS)); then
+      return 0
+    fi
+    sleep 2
+  done
+  log "❌ Only $(ready_times | wc -l)/${PODS} pods Ready after ${READY_TIMEOUT_SECONDS}s"
+  return 1
+}
+
+function measure_mode() {
+  local mode=$1
+  set_mode "${mode}"
+  delete_pods
+
+  # One pod first, so that both modes start from a populated cache
+  log "🔥 Priming the cache with a single pod..."
+  PODS=1 create_pods "prime-${mode}"
+  PODS=1 wait_for_ready "$(now_millis)"
+  delete_pods
+  if [[ "${mode}" == "overlay" ]]; then
+    # Let the merge Job fold the primed artifacts into the base layer
+    sleep 90
+  fi
+
+  log "🚀 Starting ${PODS} pods in ${mode} mode..."
+  local started
+  started=$(now_millis)
+  create_pods "bench-${mode}"
+  wait_for_ready "${started}" || true
+
+  local sorted="${WORK_DIR}/${mode}-ready.txt"
+  ready_times | sort -n >"${sorted}"
+  local count first last median
+  count=$(wc -l <"${sorted}")
+  first=$(head -n 1 "${sorted}")
+  last=$(tail -n 1 "${sorted}")
+  median=$(sed -n "$(((count + 1) / 2))p" "${sorted}")
+  echo "| ${mode} | ${count}/${PODS} | ${first%.*} | ${median%.*} | ${last%.*} | $(restarts) |"
+  delete_pods
+}
+
+function report_header() {
+  echo "| Mode | Ready pods | First Ready (ms) | Median Ready (ms) | Last Ready (ms) | Restarts |"
+  echo "| ---- | ---------- | ---------------- | ----------------- | --------------- | -------- |"
+}
+
+function run_benchmark() {
+  local modes=("$@")
+  mkdir -p "$(dirname "${RESULTS_FILE}")"
+  {
+    report_header
+    for mode in "${modes[@]}"; do
+      measure_mode "${mode}"
+    done
+  } | tee "${RESULTS_FILE}"
+  set_mode shared
+  log "📊 Results written to ${RESULTS_FILE}"
+}
+
+function show_help() {
+  cat <<EOF
+Shared read-write cache vs copy-on-write overlay benchmark
+
+Usage: $0 [COMMAND]
+
+Commands:
+  shared     Benchmark ${PODS} concurrent pods on the read-write shared cache
+  overlay    Benchmark ${PODS} concurrent pods in overlay mode
+  compare    Benchmark both and print a comparison table (default)
+  help       Show this help
+
+Environment:
+  BENCH_NAMESPACE        Namespace of the Application (default: shadok)
+  APPLICATION            Application the pods are annotated with (default: quarkus-hello-app)
+  DEPENDENCY_CACHE       DependencyCache switched between modes (default: java-cache)
+  POD_IMAGE              Image of the benchmark pods (default: localhost:5001/quarkus-hello:latest)
+  PODS                   Concurrent pods (default: 20)
+  READY_TIMEOUT_SECONDS  Maximum wait for all pods to be Ready (default: 900)
+  RESULTS_FILE           Markdown output (default: build/benchmark-cache-overlay.md)
+
+Prerequisites: kubectl pointing at a cluster running the operator, jq.
+EOF
+}
+
+case "${1:-compare}" in
+  shared) run_benchmark shared ;;
+  overlay) run_benchmark overlay ;;
+  compare) run_benchmark shared overlay ;;
+  help | --help | -h) show_help ;;
+  *)
+    show_help
+    exit 1
+    ;;
+esac
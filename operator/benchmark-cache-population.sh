@@ -0,0 +1,236 @@
+#!/bin/bash
+
+# Cold start benchmark: uncoordinated vs single-writer first population of a DependencyCache.
+#
+# Empties the cache volume, then starts N pods of the same Application at once, first with every
+# pod resolving its dependencies into the shared cache (default), then with spec.population set:
+# the first pod admitted holds the population Lease and resolves alone while the others wait in
+# the cache-population-gate init container until the cache is marked populated.
+#
+# Measures, for each mode:
+#   - time until the first and the last pod is Ready (resolution, build and start of the dev mode)
+#   - median time to Ready
+#   - container restarts (builds that failed, e.g. on a cache lock timeout)
+#   - population duration reported in status.population (coordinated mode)
+#
+# Prerequisites: the operator and the quarkus-hello example deployed on the current kubectl
+# context (see ../pods/quarkus-hello/deploy-to-kind.sh), so that the Application and its
+# DependencyCache exist. The cache volume is emptied: do not run against a cache in use.
+#
+# Usage: ./benchmark-cache-population.sh [uncoordinated|coordinated|compare|help]
+
+set -euo pipefail
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+
+BENCH_NAMESPACE="${BENCH_NAMESPACE:-shadok}"
+APPLICATION="${APPLICATION:-quarkus-hello-app}"
+DEPENDENCY_CACHE="${DEPENDENCY_CACHE:-java-cache}"
+POD_IMAGE="${POD_IMAGE:-localhost:5001/quarkus-hello:latest}"
+PODS="${PODS:-30}"
+READY_TIMEOUT_SECONDS="${READY_TIMEOUT_SECONDS:-900}"
+RESULTS_FILE="${RESULTS_FILE:-${SCRIPT_DIR}/build/benchmark-cache-population.md}"
+WORK_DIR="$(mktemp -d -t shadok-population-bench-XXXXXX)"
+
+function log() {
+  echo "[$(date +%H:%M:%S)] $*" >&2
+}
+
+function cleanup() {
+  delete_pods
+  rm -rf "${WORK_DIR}"
+}
+trap cleanup EXIT
+
+function now_millis() {
+  date +%s%3N
+}
+
+function set_mode() {
+  local mode=$1
+  log "⚙️  DependencyCache ${DEPENDENCY_CACHE} in ${mode} mode"
+  if [[ "${mode}" == "coordinated" ]]; then
+    kubectl patch dependencycache "${DEPENDENCY_CACHE}" -n "${BENCH_NAMESPACE}" --type merge \
+      -p '{"spec":{"population":{"leaseDurationSeconds":60}}}' >/dev/null
+  else
+    kubectl patch dependencycache "${DEPENDENCY_CACHE}" -n "${BENCH_NAMESPACE}" --type json \
+      -p '[{"op":"remove","path":"/spec/population"}]' >/dev/null 2>&1 || true
+  fi
+}
+
+function wipe_pod_overrides() {
+  local pvc=$1
+  cat <<EOF
+{"spec":{"containers":[{"name":"wipe","image":"busybox:latest",
+  "command":["sh","-c","find /cache -mindepth 1 -delete"],
+  "volumeMounts":[{"name":"cache","mountPath":"/cache"}]}],
+  "volumes":[{"name":"cache","persistentVolumeClaim":{"claimName":"${pvc}"}}]}}
+EOF
+}
+
+# Cold cache: empty the volume (population marker included) and forget the last population
+function empty_cache() {
+  local pvc
+  pvc=$(kubectl get dependencycache "${DEPENDENCY_CACHE}" -n "${BENCH_NAMESPACE}" \
+    -o jsonpath='{.spec.pvcName}')
+  log "🧹 Emptying the volume of ${DEPENDENCY_CACHE} (${pvc})..."
+  kubectl run cache-population-wipe -n "${BENCH_NAMESPACE}" --rm -i --restart=Never \
+    --image=busybox:latest --overrides="$(wipe_pod_overrides "${pvc}")" >/dev/null
+  kubectl patch dependencycache "${DEPENDENCY_CACHE}" -n "${BENCH_NAMESPACE}" \
+    --subresource=status --type json -p '[{"op":"remove","path":"/status/population"}]' \
+    >/dev/null 2>&1 || true
+  kubectl delete lease "shadok-population-${DEPENDENCY_CACHE}" -n "${BENCH_NAMESPACE}" \
+    --ignore-not-found >/dev/null
+}
+
+function population_millis() {
+  kubectl get dependencycache "${DEPENDENCY_CACHE}" -n "${BENCH_NAMESPACE}" \
+    -o jsonpath='{.status.population.durationMillis}' 2>/dev/null || true
+}
+
+function pod_manifest() {
+  local name=$1
+  cat <<EOF
+---
+apiVersion: v1
+kind: Pod
+metadata:
+  name: ${name}
+  labels:
+    shadok.org/benchmark: cache-population
+  annotations:
+    org.shadok/application: ${APPLICATION}
+spec:
+  restartPolicy: Always
+  containers:
+    - name: app
+      image: ${POD_IMAGE}
+      ports:
+        - containerPort: 8080
+      readinessProbe:
+        tcpSocket:
+          port: 8080
+        periodSeconds: 2
+EOF
+}
+
+function create_pods() {
+  local prefix=$1
+  local manifest="${WORK_DIR}/${prefix}.yaml"
+  : >"${manifest}"
+  for i in $(seq 1 "${PODS}"); do
+    pod_manifest "${prefix}-${i}" >>"${manifest}"
+  done
+  kubectl apply -n "${BENCH_NAMESPACE}" -f "${manifest}" >/dev/null
+}
+
+function delete_pods() {
+  kubectl delete pods -n "${BENCH_NAMESPACE}" -l shadok.org/benchmark=cache-population \
+    --wait=true --timeout=120s >/dev/null 2>&1 || true
+}
+
+# Milliseconds from creation to Ready of every benchmark pod, one per line
+function ready_times() {
+  kubectl get pods -n "${BENCH_NAMESPACE}" -l shadok.org/benchmark=cache-population -o json |
+    jq -r '.items[]
+      | (.metadata.creationTimestamp | fromdateiso8601) as $created
+      | (.status.conditions[]? | select(.type == "Ready" and .status == "True")
+          | .lastTransitionTime | fromdateiso8601) as $ready
+      | (($ready - $created) * 1000)'
+}
+
+function restarts() {
+  kubectl get pods -n "${BENCH_NAMESPACE}" -l shadok.org/benchmark=cache-population -o json |
+    jq '[.items[].status.containerStatuses[]?.restartCount] | add // 0'
+}
+
+function wait_for_ready() {
+  local started=$1
+  local deadline=$((started + READY_TIMEOUT_SECONDS * 1000))
+  while (($(now_millis) < deadline)); do
+    if (($(ready_times | wc -l) >= PODS)); then
+      return 0
+    fi
+    sleep 2
+  done
+  log "❌ Only $(ready_times | wc -l)/${PODS} pods Ready after ${READY_TIMEOUT_SECONDS}s"
+  return 1
+}
+
+function measure_mode() {
+  local mode=$1
+  delete_pods
+  set_mode "${mode}"
+  empty_cache
+
+  log "🚀 Starting ${PODS} pods on a cold cache in ${mode} mode..."
+  local started
+  started=$(now_millis)
+  create_pods "bench-${mode}"
+  wait_for_ready "${started}" || true
+
+  local sorted="${WORK_DIR}/${mode}-ready.txt"
+  ready_times | sort -n >"${sorted}"
+  local count first last median population
+  count=$(wc -l <"${sorted}")
+  first=$(head -n 1 "${sorted}")
+  last=$(tail -n 1 "${sorted}")
+  median=$(sed -n "$(((count + 1) / 2))p" "${sorted}")
+  population=$(population_millis)
+  echo "| ${mode} | ${count}/${PODS} | ${first%.*} | ${median%.*} | ${last%.*} | $(restarts) | ${population:--} |"
+  delete_pods
+}
+
+function report_header() {
+  echo "| Mode | Ready pods | First Ready (ms) | Median Ready (ms) | Last Ready (ms) | Restarts | Population (ms) |"
+  echo "| ---- | ---------- | ---------------- | ----------------- | --------------- | -------- | --------------- |"
+}
+
+function run_benchmark() {
+  local modes=("$@")
+  mkdir -p "$(dirname "${RESULTS_FILE}")"
+  {
+    report_header
+    for mode in "${modes[@]}"; do
+      measure_mode "${mode}"
+    done
+  } | tee "${RESULTS_FILE}"
+  set_mode uncoordinated
+  log "📊 Results written to ${RESULTS_FILE}"
+}
+
+function show_help() {
+  cat <<EOF
+Cold start benchmark: uncoordinated vs single-writer first population of a DependencyCache
+
+Usage: $0 [COMMAND]
+
+Commands:
+  uncoordinated  Benchmark ${PODS} concurrent pods resolving into an empty cache (today)
+  coordinated    Benchmark ${PODS} concurrent pods with spec.population (one writer)
+  compare        Benchmark both and print a comparison table (default)
+  help           Show this help
+
+Environment:
+  BENCH_NAMESPACE        Namespace of the Application (default: shadok)
+  APPLICATION            Application the pods are annotated with (default: quarkus-hello-app)
+  DEPENDENCY_CACHE       DependencyCache emptied and switched between modes (default: java-cache)
+  POD_IMAGE              Image of the benchmark pods (default: localhost:5001/quarkus-hello:latest)
+  PODS                   Concurrent pods (default: 30)
+  READY_TIMEOUT_SECONDS  Maximum wait for all pods to be Ready (default: 900)
+  RESULTS_FILE           Markdown output (default: build/benchmark-cache-population.md)
+
+Prerequisites: kubectl pointing at a cluster running the operator, jq.
+EOF
+}
+
+case "${1:-compare}" in
+  uncoordinated) run_benchmark uncoordinated ;;
+  coordinated) run_benchmark coordinated ;;
+  compare) run_benchmark uncoordinated coordinated ;;
+  help | --help | -h) show_help ;;
+  *)
+    show_help
+    exit 1
+    ;;
+esac
@@ -0,0 +1,282 @@
+#!/bin/bash
+
+# JVM vs native benchmark for the Shadok operator.
+#
+# Measures, for each runtime mode:
+#   - time to first admission: process start until /mutate-pods answers a real AdmissionReview
+#   - RSS at idle: resident memory once the operator has settled
+#   - RSS with N cached CRs: resident memory after N Application CRs are watched by the informers
+#
+# The operator runs locally against the current kubectl context (e.g. the kind cluster started
+# by ../kind/start-kind.sh), with the CRDs from ./kubernetes applied.
+#
+# Usage: ./benchmark-native.sh [jvm|native|compare|build|help]
+
+set -euo pipefail
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+ROOT_DIR="$(cd "${SCRIPT_DIR}/.." && pwd)"
+
+BENCH_NAMESPACE="${BENCH_NAMESPACE:-shadok-bench}"
+CACHED_CRS="${CACHED_CRS:-5000}"
+SETTLE_SECONDS="${SETTLE_SECONDS:-15}"
+STARTUP_TIMEOUT_SECONDS="${STARTUP_TIMEOUT_SECONDS:-120}"
+HTTP_PORT="${HTTP_PORT:-18080}"
+WORK_DIR="$(mktemp -d -t shadok-bench-XXXXXX)"
+RESULTS_FILE="${RESULTS_FILE:-${SCRIPT_DIR}/build/benchmark-native.md}"
+
+JVM_COMMAND=(java -jar "${SCRIPT_DIR}/build/quarkus-app/quarkus-run.jar")
+NATIVE_BINARY_GLOB="${SCRIPT_DIR}/build/*-runner"
+
+OPERATOR_PID=""
+
+function log() {
+  echo "[$(date +%H:%M:%S)] $*" >&2
+}
+
+function cleanup() {
+  stop_operator
+  rm -rf "${WORK_DIR}"
+}
+trap cleanup EXIT
+
+function build_artifacts() {
+  log "🔨 Building JVM artifact..."
+  (cd "${ROOT_DIR}" && ./gradlew :operator:build -x test)
+  log "🔨 Building native executable (container build)..."
+  (cd "${ROOT_DIR}" && ./gradlew :operator:build -x test -Pnative)
+}
+
+function generate_tls() {
+  # The operator always starts its TLS configuration; use a throwaway self-signed certificate.
+  openssl req -x509 -newkey rsa:2048 -nodes -days 1 \
+    -subj "/CN=localhost" \
+    -keyout "${WORK_DIR}/tls.key" -out "${WORK_DIR}/tls.crt" >/dev/null 2>&1
+}
+
+function runtime_args() {
+  echo "-Dquarkus.http.port=${HTTP_PORT}" \
+    "-Dquarkus.http.insecure-requests=enabled" \
+    "-Dquarkus.tls.https.key-store.pem.0.cert=${WORK_DIR}/tls.crt" \
+    "-Dquarkus.tls.https.key-store.pem.0.key=${WORK_DIR}/tls.key" \
+    "-Dquarkus.log.category.\"org.shadok.operator\".level=INFO"
+}
+
+function prepare_namespace() {
+  log "📦 Preparing namespace ${BENCH_NAMESPACE}..."
+  kubectl create namespace "${BENCH_NAMESPACE}" --dry-run=client -o yaml | kubectl apply -f - >/dev/null
+  kubectl apply -f "${SCRIPT_DIR}/kubernetes/" >/dev/null
+  cat <<EOF | kubectl apply -n "${BENCH_NAMESPACE}" -f - >/dev/null
+apiVersion: shadok.org/v1
+kind: ProjectSource
+metadata:
+  name: bench-source
+spec:
+  persistentVolumeName: bench-source-pv
+  sourcePath: /sources/bench
+  pvcName: bench-source-pvc
+---
+apiVersion: shadok.org/v1
+kind: DependencyCache
+metadata:
+  name: bench-cache
+spec:
+  persistentVolumeName: bench-cache-pv
+  cachePath: /cache/bench
+  pvcName: bench-cache-pvc
+---
+apiVersion: shadok.org/v1
+kind: Application
+metadata:
+  name: bench-app
+spec:
+  applicationType: QUARKUS_GRADLE
+  projectSourceName: bench-source
+  dependencyCacheName: bench-cache
+EOF
+}
+
+function create_cached_crs() {
+  log "📚 Creating ${CACHED_CRS} Application CRs in ${BENCH_NAMESPACE}..."
+  local manifest="${WORK_DIR}/applications.yaml"
+  : >"${manifest}"
+  for i in $(seq 1 "${CACHED_CRS}"); do
+    cat <<EOF >>"${manifest}"
+---
+apiVersion: shadok.org/v1
+kind: Application
+metadata:
+  name: bench-app-${i}
+spec:
+  applicationType: QUARKUS_GRADLE
+  projectSourceName: bench-source
+  dependencyCacheName: bench-cache
+EOF
+  done
+  kubectl apply -n "${BENCH_NAMESPACE}" --server-side -f "${manifest}" >/dev/null
+}
+
+function delete_cached_crs() {
+  log "🧹 Deleting benchmark namespace..."
+  kubectl delete namespace "${BENCH_NAMESPACE}" --wait=false >/dev/null 2>&1 || true
+}
+
+function admission_review() {
+  cat <<EOF
+{
+  "apiVersion": "admission.k8s.io/v1",
+  "kind": "AdmissionReview",
+  "request": {
+    "uid": "bench-$(date +%s%N)",
+    "kind": {"group": "", "version": "v1", "kind": "Pod"},
+    "resource": {"group": "", "version": "v1", "resource": "pods"},
+    "namespace": "${BENCH_NAMESPACE}",
+    "operation": "CREATE",
+    "object": {
+      "apiVersion": "v1",
+      "kind": "Pod",
+      "metadata": {
+        "name": "bench-pod",
+        "namespace": "${BENCH_NAMESPACE}",
+        "annotations": {"org.shadok/application": "bench-app"}
+      },
+      "spec": {"containers": [{"name": "app", "image": "eclipse-temurin:21-jdk"}]}
+    }
+  }
+}
+EOF
+}
+
+function start_operator() {
+  local mode=$1
+  local command
+  if [[ "${mode}" == "native" ]]; then
+    # shellcheck disable=SC2206
+    local binaries=(${NATIVE_BINARY_GLOB})
+    if [[ ! -x "${binaries[0]}" ]]; then
+      log "❌ Native executable not found, run '$0 build' first"
+      exit 1
+    fi
+    command=("${binaries[0]}")
+  else
+    command=("${JVM_COMMAND[@]}")
+  fi
+
+  # shellcheck disable=SC2046
+  "${command[@]}" $(runtime_args) >"${WORK_DIR}/${mode}.log" 2>&1 &
+  OPERATOR_PID=$!
+}
+
+function stop_operator() {
+  if [[ -n "${OPERATOR_PID}" ]] && kill -0 "${OPERATOR_PID}" 2>/dev/null; then
+    kill "${OPERATOR_PID}"
+    wait "${OPERATOR_PID}" 2>/dev/null || true
+  fi
+  OPERATOR_PID=""
+}
+
+function now_millis() {
+  date +%s%3N
+}
+
+function rss_kb() {
+  ps -o rss= -p "${OPERATOR_PID}" | tr -d ' '
+}
+
+function wait_for_first_admission() {
+  local started=$1
+  local deadline=$((started + STARTUP_TIMEOUT_SECONDS * 1000))
+  while (($(now_millis) < deadline)); do
+    if admission_review | curl -sf -X POST "http://localhost:${HTTP_PORT}/mutate-pods" \
+      -H "Content-Type: application/json" -d @- 2>/dev/null | grep -q '"allowed":true'; then
+      echo $(($(now_millis) - started))
+      return 0
+    fi
+    sleep 0.05
+  done
+  log "❌ No admission answered within ${STARTUP_TIMEOUT_SECONDS}s, see ${WORK_DIR}/*.log"
+  tail -n 50 "${WORK_DIR}"/*.log >&2
+  return 1
+}
+
+function measure_mode() {
+  local mode=$1
+  log "🚀 Measuring ${mode} mode..."
+  local started
+  started=$(now_millis)
+  start_operator "${mode}"
+
+  local first_admission_ms
+  first_admission_ms=$(wait_for_first_admission "${started}")
+  sleep "${SETTLE_SECONDS}"
+  local idle_rss
+  idle_rss=$(rss_kb)
+
+  create_cached_crs
+  sleep "${SETTLE_SECONDS}"
+  local loaded_rss
+  loaded_rss=$(rss_kb)
+
+  stop_operator
+  kubectl delete applications.shadok.org -n "${BENCH_NAMESPACE}" --all --wait=false >/dev/null 2>&1 || true
+  prepare_namespace
+
+  echo "| ${mode} | ${first_admission_ms} | $((idle_rss / 1024)) | $((loaded_rss / 1024)) |"
+}
+
+function report_header() {
+  echo "| Mode | Time to first admission (ms) | RSS idle (MiB) | RSS with ${CACHED_CRS} CRs (MiB) |"
+  echo "| ---- | ---------------------------- | -------------- | -------------------------------- |"
+}
+
+function run_benchmark() {
+  local modes=("$@")
+  generate_tls
+  prepare_namespace
+  mkdir -p "$(dirname "${RESULTS_FILE}")"
+  {
+    report_header
+    for mode in "${modes[@]}"; do
+      measure_mode "${mode}"
+    done
+  } | tee "${RESULTS_FILE}"
+  delete_cached_crs
+  log "📊 Results written to ${RESULTS_FILE}"
+}
+
+function show_help() {
+  cat <<EOF
+JVM vs native benchmark for the Shadok operator
+
+Usage: $0 [COMMAND]
+
+Commands:
+  build      Build the JVM artifact and the native executable
+  jvm        Benchmark the JVM build (build/quarkus-app)
+  native     Benchmark the native executable (build/*-runner)
+  compare    Benchmark both and print a comparison table (default)
+  help       Show this help
+
+Environment:
+  BENCH_NAMESPACE          Namespace used for benchmark CRs (default: shadok-bench)
+  CACHED_CRS               Number of Application CRs for the loaded RSS sample (default: 5000)
+  SETTLE_SECONDS           Wait before each RSS sample (default: 15)
+  STARTUP_TIMEOUT_SECONDS  Maximum wait for the first admission (default: 120)
+  HTTP_PORT                Local HTTP port of the operator (default: 18080)
+  RESULTS_FILE             Markdown output (default: build/benchmark-native.md)
+
+Prerequisites: kubectl pointing at a test cluster, openssl, curl, java 21 and docker (native build).
+EOF
+}
+
+case "${1:-compare}" in
+  build) build_artifacts ;;
+  jvm) run_benchmark jvm ;;
+  native) run_benchmark native ;;
+  compare) run_benchmark jvm native ;;
+  help | --help | -h) show_help ;;
+  *)
+    show_help
+    exit 1
+    ;;
+esac
@@ -13,6 +13,12 @@ dependencies {
     implementation(libs.bundles.quarkus.core)
     implementation(libs.quarkus.operator.sdk)
     implementation(libs.quarkus.container.image.docker)
+
+    // Health checks (webhook readiness gating)
+    implementation(libs.quarkus.smallrye.health)
+
+    // Metrics (Prometheus endpoint on /q/metrics)
+    implementation(libs.quarkus.micrometer.registry.prometheus)
     
     // TLS support for webhooks
     implementation("io.quarkus:quarkus-vertx-http")
@@ -26,6 +32,7 @@ dependencies {
     
     // Test dependencies (using bundles)
     testImplementation(libs.bundles.testing)
+    testImplementation(libs.kubernetes.server.mock)
 }
 
 quarkus {
@@ -39,6 +46,11 @@ tasks.withType<Test> {
 
 // Native build profile
 if (project.hasProperty("native")) {
+    quarkus {
+        set("native.enabled", "true")
+        set("package.jar.enabled", "false")
+    }
+
     tasks.named("test") {
         enabled = false
     }
@@ -0,0 +1,35 @@
+package org.shadok.operator;
+
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.annotations.QuarkusMain;
+import java.util.Arrays;
+import org.shadok.operator.util.cache.CacheTool;
+
+/**
+ * Entry point of the operator image.
+ *
+ * <p>The image runs the operator, or the cache tool when its first argument is {@value
+ * CacheTool#COMMAND}: cache tool Jobs only pass arguments, so that the same Job runs the JVM image
+ * ({@code run-java.sh}) and the native one ({@code ./application}), which has no classpath to start
+ * another main class from. Leading {@code -D} options (set by the native image entrypoint) are
+ * skipped.
+ */
+@QuarkusMain
+public final class OperatorMain {
+
+  private OperatorMain() {
+    // Entry point only
+  }
+
+  public static void main(String... args) {
+    var first = 0;
+    while (first < args.length && args[first].startsWith("-D")) {
+      first++;
+    }
+    if (first < args.length && CacheTool.COMMAND.equals(args[first])) {
+      CacheTool.main(Arrays.copyOfRange(args, first + 1, args.length));
+      return;
+    }
+    Quarkus.run(args);
+  }
+}
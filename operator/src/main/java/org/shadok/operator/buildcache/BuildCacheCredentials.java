@@ -0,0 +1,65 @@
+package org.shadok.operator.buildcache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Basic credentials of the build cache, one pair per namespace: the user is the namespace and the
+ * password an HMAC of it under the operator secret ({@code shadok.build-cache.secret}). The webhook
+ * derives them for the pods it admits and the server checks them without storing any, so that a pod
+ * only reaches the entries of its own namespace.
+ */
+public final class BuildCacheCredentials {
+
+  private BuildCacheCredentials() {}
+
+  /**
+   * Password of the pods of a namespace.
+   *
+   * @param secret operator secret
+   * @param namespace namespace, also the user name
+   * @return the hex HMAC-SHA256 of the namespace
+   */
+  public static String password(String secret, String namespace) {
+    try {
+      var mac = Mac.getInstance("HmacSHA256");
+      mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+      return HexFormat.of().formatHex(mac.doFinal(namespace.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+      throw new IllegalStateException("HmacSHA256 is not available", e);
+    }
+  }
+
+  /**
+   * Whether an {@code Authorization} header carries the credentials of a namespace, compared in
+   * constant time.
+   *
+   * @param secret operator secret
+   * @param namespace namespace of the requested entry
+   * @param authorization {@code Authorization} header of the request, may be null
+   */
+  public static boolean authorizes(String secret, String namespace, String authorization) {
+    var expected = (namespace + ":" + password(secret, namespace)).getBytes(StandardCharsets.UTF_8);
+    return decode(authorization)
+        .map(credentials -> MessageDigest.isEqual(expected, credentials))
+        .orElse(false);
+  }
+
+  private static Optional<byte[]> decode(String authorization) {
+    if (authorization == null || !authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Base64.getDecoder().decode(authorization.substring(6).trim()));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,343 @@
+package org.shadok.operator.buildcache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.Vertx;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import org.shadok.operator.config.BuildCacheConfig;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.BuildCacheStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Gradle HTTP build cache node serving the Gradle dev pods ({@code shadok.build-cache.*}).
+ *
+ * <p>Implements the protocol of Gradle's {@code HttpBuildCache}: {@code GET
+ * /cache/<namespace>/<application>/<key>} loads an entry (404 when absent) and {@code PUT} stores
+ * one. Entries are scoped by namespace and shared by its Applications, the application segment only
+ * attributes the requests. Every request carries the Basic credentials of its namespace ({@link
+ * BuildCacheCredentials}), so that a pod can neither read nor poison the entries of another
+ * namespace. Served over plain HTTP on its own port like the artifact proxy, every replica serves
+ * from its own store; the dev pods reach the leader's through the {@code operator-leader} Service.
+ *
+ * <p>Requests are counted in {@code shadok_build_cache_requests_total} by operation and outcome,
+ * and the execution time of the tasks whose outputs were loaded in {@code
+ * shadok_build_cache_time_saved_seconds_total}; the per-Application usage is reported in the
+ * Application status instead of metric labels.
+ */
+@ApplicationScoped
+public class BuildCacheServer {
+
+  private static final Logger log = LoggerFactory.getLogger(BuildCacheServer.class);
+
+  private static final String PREFIX = "/cache/";
+  // Bound of the usage map, whose application segment comes from the request path
+  private static final int MAX_OWNERS = 10_000;
+
+  @Inject BuildCacheConfig config;
+  @Inject Vertx vertx;
+  @Inject MeterRegistry registry;
+
+  private final Map<String, Usage> usage = new ConcurrentHashMap<>();
+  private final Instant since = Instant.now();
+  private ExecutorService io;
+  private BuildCacheStore store;
+  private HttpServer server;
+
+  /** Lookups, stores and saved time of one Application. */
+  private static final class Usage {
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder stores = new LongAdder();
+    final LongAdder savedMillis = new LongAdder();
+  }
+
+  /**
+   * Namespace and Application a request is scoped to, from the {@code /cache/<ns>/<app>/} prefix.
+   */
+  record Route(String namespace, String application, String key) {
+
+    static Optional<Route> of(String path) {
+      if (path == null || !path.startsWith(PREFIX)) {
+        return Optional.empty();
+      }
+      var segments = path.substring(PREFIX.length()).split("/");
+      return segments.length == 3
+          ? Optional.of(new Route(segments[0], segments[1], segments[2]))
+          : Optional.empty();
+    }
+
+    String owner() {
+      return namespace + "/" + application;
+    }
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    if (!config.enabled()) {
+      return;
+    }
+    if (config.secret().isEmpty()) {
+      log.error("❌ Gradle build cache not served: shadok.build-cache.secret is not set");
+      return;
+    }
+    try {
+      store =
+          new BuildCacheStore(
+              Path.of(config.storage()), config.maxSize().asLongValue(), Clock.systemUTC());
+    } catch (IOException e) {
+      log.error("❌ Gradle build cache store {} unusable: {}", config.storage(), e.getMessage());
+      return;
+    }
+    io =
+        Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("shadok-build-cache-", 0).factory());
+    Gauge.builder("shadok.build.cache.size", store, BuildCacheStore::size)
+        .description("Total size of the Gradle build cache entries")
+        .baseUnit("bytes")
+        .register(registry);
+    Gauge.builder("shadok.build.cache.entries", store, BuildCacheStore::count)
+        .description("Number of Gradle build cache entries")
+        .register(registry);
+    server = vertx.createHttpServer().requestHandler(this::handle);
+    server
+        .listen(config.port())
+        .onSuccess(
+            started ->
+                log.info(
+                    "🏗️ Gradle build cache listening on port {} ({} entries)",
+                    config.port(),
+                    store.count()))
+        .onFailure(e -> log.error("❌ Gradle build cache failed to start: {}", e.getMessage()));
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    Optional.ofNullable(server).ifPresent(HttpServer::close);
+    Optional.ofNullable(io).ifPresent(ExecutorService::shutdownNow);
+  }
+
+  /**
+   * Build cache use by the pods of an Application, as seen by this replica: on the leader, which
+   * serves every pod, since its last start.
+   *
+   * @param application the Application
+   * @return the usage, empty when the build cache is disabled or the Application is not built with
+   *     Gradle
+   */
+  public Optional<BuildCacheStatus> usage(Application application) {
+    if (store == null
+        || !"gradle".equals(application.getSpec().applicationType().getBuildSystem())) {
+      return Optional.empty();
+    }
+    var owner =
+        application.getMetadata().getNamespace() + "/" + application.getMetadata().getName();
+    var counts = usage.getOrDefault(owner, new Usage());
+    var hits = counts.hits.sum();
+    var misses = counts.misses.sum();
+    return Optional.of(
+        new BuildCacheStatus(
+            hits,
+            misses,
+            counts.stores.sum(),
+            hits + misses == 0 ? 0 : (double) hits / (hits + misses),
+            Duration.ofMillis(counts.savedMillis.sum()).toSeconds(),
+            since.toString()));
+  }
+
+  private void handle(HttpServerRequest request) {
+    var response = request.response();
+    var route = Route.of(request.path());
+    if (route.isEmpty()) {
+      response.setStatusCode(404).end();
+      return;
+    }
+    if (!BuildCacheCredentials.authorizes(
+        config.secret().orElseThrow(),
+        route.get().namespace(),
+        request.getHeader(HttpHeaders.AUTHORIZATION))) {
+      count(request.method() == HttpMethod.PUT ? "store" : "load", "unauthorized");
+      response.setStatusCode(401).putHeader("WWW-Authenticate", "Basic realm=\"shadok\"").end();
+      return;
+    }
+    if (request.method() == HttpMethod.GET || request.method() == HttpMethod.HEAD) {
+      load(request, route.get());
+    } else if (request.method() == HttpMethod.PUT) {
+      store(request, route.get());
+    } else {
+      response.setStatusCode(405).end();
+    }
+  }
+
+  private void load(HttpServerRequest request, Route route) {
+    var context = vertx.getOrCreateContext();
+    CompletableFuture.supplyAsync(
+            () ->
+                store
+                    .load(route.namespace(), route.key())
+                    .map(file -> Map.entry(file, BuildCacheStore.executionTime(file))),
+            io)
+        .whenComplete(
+            (entry, error) ->
+                context.runOnContext(
+                    ignored -> {
+                      var response = request.response();
+                      if (error != null) {
+                        count("load", "invalid");
+                        response.setStatusCode(400).end();
+                      } else if (entry.isEmpty()) {
+                        count("load", "miss");
+                        usage(route).misses.increment();
+                        response.setStatusCode(404).end();
+                      } else {
+                        count("load", "hit");
+                        usage(route).hits.increment();
+                        entry.get().getValue().ifPresent(saved -> saved(route, saved));
+                        var file = entry.get().getKey();
+                        response.putHeader(HttpHeaders.CONTENT_TYPE, "application/octet-stream");
+                        if (request.method() == HttpMethod.HEAD) {
+                          response
+                              .putHeader(
+                                  HttpHeaders.CONTENT_LENGTH,
+                                  String.valueOf(file.toFile().length()))
+                              .end();
+                        } else {
+                          // Zero copy: the file is transferred by the kernel, not the JVM heap
+                          response.sendFile(file.toString());
+                        }
+                      }
+                    }));
+  }
+
+  /** Uploads are streamed to disk, never buffered; oversized ones get 413, which Gradle ignores. */
+  private void store(HttpServerRequest request, Route route) {
+    var response = request.response();
+    var maxEntrySize = config.maxEntrySize().asLongValue();
+    var length =
+        Optional.ofNullable(request.getHeader(HttpHeaders.CONTENT_LENGTH)).map(Long::valueOf);
+    if (length.filter(size -> size > maxEntrySize).isPresent()) {
+      count("store", "too_large");
+      response.setStatusCode(413).end();
+      return;
+    }
+    final Path upload;
+    try {
+      upload = store.upload();
+    } catch (IOException e) {
+      count("store", "error");
+      response.setStatusCode(500).end();
+      return;
+    }
+    // Paused until the upload file is open, so that no part of the body is lost
+    request.pause();
+    var context = vertx.getOrCreateContext();
+    vertx
+        .fileSystem()
+        .open(upload.toString(), new OpenOptions().setWrite(true).setTruncateExisting(true))
+        .compose(request::pipeTo)
+        .toCompletionStage()
+        .thenApplyAsync(
+            written -> {
+              try {
+                if (Files.size(upload) > maxEntrySize) {
+                  Files.deleteIfExists(upload);
+                  return Optional.<BuildCacheStore.Stored>empty();
+                }
+                return Optional.of(store.store(route.namespace(), route.key(), upload));
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            },
+            io)
+        .whenComplete(
+            (stored, error) ->
+                context.runOnContext(
+                    ignored -> {
+                      if (error != null) {
+                        deleteQuietly(upload);
+                        var invalid = error.getCause() instanceof IllegalArgumentException;
+                        count("store", invalid ? "invalid" : "error");
+                        if (!response.ended()) {
+                          response.setStatusCode(invalid ? 400 : 500).end();
+                        }
+                      } else if (stored.isEmpty()) {
+                        count("store", "too_large");
+                        response.setStatusCode(413).end();
+                      } else {
+                        count("store", "stored");
+                        usage(route).stores.increment();
+                        evicted(stored.get().evicted());
+                        response.setStatusCode(200).end();
+                      }
+                    }));
+  }
+
+  private static void deleteQuietly(Path upload) {
+    try {
+      Files.deleteIfExists(upload);
+    } catch (IOException e) {
+      log.debug("Upload {} not deleted: {}", upload, e.getMessage());
+    }
+  }
+
+  /** Usage of the Application of a request; beyond {@link #MAX_OWNERS} new ones go uncounted. */
+  private Usage usage(Route route) {
+    var counts = usage.get(route.owner());
+    if (counts != null) {
+      return counts;
+    }
+    return usage.size() < MAX_OWNERS
+        ? usage.computeIfAbsent(route.owner(), owner -> new Usage())
+        : new Usage();
+  }
+
+  private void saved(Route route, Duration saved) {
+    usage(route).savedMillis.add(saved.toMillis());
+    Counter.builder("shadok.build.cache.time.saved")
+        .description("Execution time of the tasks whose outputs were loaded from the build cache")
+        .baseUnit("seconds")
+        .register(registry)
+        .increment(saved.toMillis() / 1000.0);
+  }
+
+  private void evicted(int entries) {
+    if (entries > 0) {
+      Counter.builder("shadok.build.cache.evictions")
+          .description("Gradle build cache entries evicted, least recently used first")
+          .register(registry)
+          .increment(entries);
+    }
+  }
+
+  private void count(String operation, String outcome) {
+    Counter.builder("shadok.build.cache.requests")
+        .description("Gradle build cache requests by operation and outcome")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .register(registry)
+        .increment();
+  }
+}
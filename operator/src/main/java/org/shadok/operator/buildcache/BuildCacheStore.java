@@ -0,0 +1,214 @@
+package org.shadok.operator.buildcache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Disk-backed store of Gradle build cache entries, evicted least recently used first.
+ *
+ * <p>Entries are content addressed by the cache key Gradle computes from the task inputs, and
+ * scoped by namespace: the Applications and developers of a namespace share its entries, while a
+ * tenant can neither read nor overwrite the outputs of another one. Uploads are written to a
+ * temporary file and renamed into place, so that an entry present in the store is always complete
+ * and can be handed to the HTTP layer for zero-copy serving. Recency is kept in memory and in the
+ * file modification times, so the LRU order survives operator restarts.
+ */
+public final class BuildCacheStore {
+
+  /** Directory of the uploads in progress, relative to the store root. */
+  static final String UPLOAD_DIR = ".uploads";
+
+  // Gradle cache keys are hex digests (MD5 up to Gradle 7, SHA-256 since)
+  private static final Pattern KEY = Pattern.compile("[0-9a-f]{16,128}");
+  private static final Pattern NAMESPACE = Pattern.compile("[a-z0-9]([-a-z0-9]{0,61}[a-z0-9])?");
+
+  /** Result of a store: the stored size and the number of entries evicted to make room. */
+  public record Stored(long size, int evicted) {}
+
+  private final Path root;
+  private final long maxSize;
+  private final Clock clock;
+  // Entry (namespace/key) to entry size, in access order
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long size;
+
+  /**
+   * @param root store directory, indexed on creation
+   * @param maxSize total size above which the least recently used entries are evicted
+   * @param clock time recorded as the last access of an entry
+   */
+  public BuildCacheStore(Path root, long maxSize, Clock clock) throws IOException {
+    this.root = root.toAbsolutePath().normalize();
+    this.maxSize = maxSize;
+    this.clock = clock;
+    Files.createDirectories(this.root);
+    try (var files = Files.walk(this.root)) {
+      files
+          .filter(Files::isRegularFile)
+          .filter(this::isEntry)
+          .sorted(Comparator.comparingLong(file -> file.toFile().lastModified()))
+          .forEach(this::index);
+    }
+  }
+
+  /** Entries are stored as {@code <namespace>/<shard>/<key>}, other files are ignored. */
+  private boolean isEntry(Path file) {
+    var relative = root.relativize(file);
+    return relative.getNameCount() == 3
+        && NAMESPACE.matcher(relative.getName(0).toString()).matches()
+        && KEY.matcher(relative.getFileName().toString()).matches();
+  }
+
+  private void index(Path file) {
+    var length = file.toFile().length();
+    entries.put(root.relativize(file).getName(0) + "/" + file.getFileName(), length);
+    size += length;
+  }
+
+  /**
+   * Get an entry and mark it as recently used.
+   *
+   * @param namespace namespace the entry is scoped to
+   * @param key Gradle cache key
+   * @return the entry file, empty when not stored; fails with {@link IllegalArgumentException} on
+   *     keys that are not hex digests or invalid namespaces
+   */
+  public Optional<Path> load(String namespace, String key) {
+    var file = resolve(namespace, key);
+    synchronized (this) {
+      if (entries.get(namespace + "/" + key) == null) {
+        return Optional.empty();
+      }
+    }
+    try {
+      Files.setLastModifiedTime(file, FileTime.from(clock.instant()));
+      return Optional.of(file);
+    } catch (IOException e) {
+      // Evicted or removed meanwhile
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Create the temporary file of an upload, moved into the store by {@link #store}.
+   *
+   * @return an empty file in the upload directory
+   */
+  public Path upload() throws IOException {
+    var uploadDir = Files.createDirectories(root.resolve(UPLOAD_DIR));
+    return Files.createTempFile(uploadDir, "upload-", ".part");
+  }
+
+  /**
+   * Move an uploaded entry into the store and evict the least recently used entries beyond the
+   * maximum size. An entry already stored is replaced.
+   *
+   * @param namespace namespace the entry is scoped to
+   * @param key Gradle cache key
+   * @param upload file returned by {@link #upload()}, fully written
+   * @return the stored size and the number of evicted entries
+   */
+  public Stored store(String namespace, String key, Path upload) throws IOException {
+    final Path file;
+    try {
+      file = resolve(namespace, key);
+    } catch (IllegalArgumentException e) {
+      Files.deleteIfExists(upload);
+      throw e;
+    }
+    var length = Files.size(upload);
+    Files.createDirectories(file.getParent());
+    Files.move(upload, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+    var evicted = 0;
+    synchronized (this) {
+      var stored = namespace + "/" + key;
+      size += length - Optional.ofNullable(entries.put(stored, length)).orElse(0L);
+      var eldest = entries.entrySet().iterator();
+      while (size > maxSize && eldest.hasNext()) {
+        var entry = eldest.next();
+        if (entry.getKey().equals(stored)) {
+          continue;
+        }
+        var evictedEntry = entry.getKey().split("/", 2);
+        Files.deleteIfExists(resolve(evictedEntry[0], evictedEntry[1]));
+        size -= entry.getValue();
+        eldest.remove();
+        evicted++;
+      }
+    }
+    return new Stored(length, evicted);
+  }
+
+  /** Total size of the stored entries. */
+  public synchronized long size() {
+    return size;
+  }
+
+  /** Number of stored entries. */
+  public synchronized int count() {
+    return entries.size();
+  }
+
+  /** Entries are stored per namespace, sharded by the first two characters of their key. */
+  private Path resolve(String namespace, String key) {
+    if (namespace == null || !NAMESPACE.matcher(namespace).matches()) {
+      throw new IllegalArgumentException("Invalid build cache namespace: " + namespace);
+    }
+    if (key == null || !KEY.matcher(key).matches()) {
+      throw new IllegalArgumentException("Invalid build cache key: " + key);
+    }
+    return root.resolve(namespace).resolve(key.substring(0, 2)).resolve(key);
+  }
+
+  /**
+   * Execution time of the task that produced an entry, read from the {@code METADATA} file Gradle
+   * writes first in the entry archive (gzipped tar). A hit saves that time to the build.
+   *
+   * @param entry entry file
+   * @return the recorded execution time, empty when the entry carries none
+   */
+  public static Optional<Duration> executionTime(Path entry) {
+    try (var in = new GZIPInputStream(Files.newInputStream(entry))) {
+      var header = in.readNBytes(512);
+      if (header.length < 512 || !"METADATA".equals(field(header, 0, 100))) {
+        return Optional.empty();
+      }
+      var length = Long.parseLong(field(header, 124, 12).trim(), 8);
+      return executionTime(new ByteArrayInputStream(in.readNBytes((int) Math.min(length, 65536))));
+    } catch (IOException | NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static Optional<Duration> executionTime(InputStream metadata) throws IOException {
+    var properties = new Properties();
+    properties.load(metadata);
+    return Optional.ofNullable(properties.getProperty("executionTime"))
+        .map(Long::parseLong)
+        .map(Duration::ofMillis);
+  }
+
+  /** NUL-terminated tar header field. */
+  private static String field(byte[] header, int offset, int length) {
+    var end = offset;
+    while (end < offset + length && header[end] != 0) {
+      end++;
+    }
+    return new String(header, offset, end - offset, StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,50 @@
+package org.shadok.operator.config;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.time.Duration;
+import java.util.Optional;
+
+/** Runtime configuration of the in-operator Gradle build cache ({@code shadok.build-cache.*}). */
+@ConfigMapping(prefix = "shadok.build-cache")
+public interface BuildCacheConfig {
+
+  /** Whether the build cache is served and Gradle dev pods are pointed at it. */
+  @WithDefault("false")
+  boolean enabled();
+
+  /** Plain HTTP port of the build cache, separate from the webhook and proxy ports. */
+  @WithDefault("8082")
+  int port();
+
+  /**
+   * Base URL of the build cache as seen from the dev pods, injected by the webhook: the {@code
+   * operator-leader} Service, so that all pods share the store of one replica and the usage
+   * reported by the leader covers every request.
+   */
+  @WithDefault("http://operator-leader.shadok.svc:8082")
+  String url();
+
+  /**
+   * Secret the per-namespace credentials of the pods are derived from, the same on every replica;
+   * the build cache is not served without it.
+   */
+  Optional<String> secret();
+
+  /** Directory holding the cache entries. */
+  @WithDefault("/var/cache/shadok-build-cache")
+  String storage();
+
+  /** Total size of the entries above which the least recently used ones are evicted. */
+  @WithDefault("10G")
+  MemorySize maxSize();
+
+  /** Entries larger than this are refused, Gradle then runs the task without caching it. */
+  @WithDefault("100M")
+  MemorySize maxEntrySize();
+
+  /** How often the Application status is refreshed with the build cache usage. */
+  @WithDefault("1m")
+  Duration reportInterval();
+}
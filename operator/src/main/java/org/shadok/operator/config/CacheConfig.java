@@ -0,0 +1,98 @@
+package org.shadok.operator.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.time.Duration;
+import java.util.List;
+
+/** Runtime configuration of the dependency cache maintenance ({@code shadok.cache.*}). */
+@ConfigMapping(prefix = "shadok.cache")
+public interface CacheConfig {
+
+  /** Jobs running the cache tool against cache and source volumes. */
+  Tool tool();
+
+  /** Lockfile-keyed sharing of cache volumes. */
+  Sharing sharing();
+
+  /** Periodic usage measurement of cache volumes. */
+  Usage usage();
+
+  /** Cross-namespace federation of cache volumes. */
+  Federation federation();
+
+  /** Staggered restarts of Application pods when their cache or source volumes change. */
+  Rollout rollout();
+
+  interface Tool {
+
+    /** Image of the cache tool Jobs; the operator image ships the tool. */
+    @WithDefault(
+        "${quarkus.container-image.registry}/${quarkus.container-image.group}/${quarkus.container-image.name}:${quarkus.container-image.tag}")
+    String image();
+
+    /** Seconds a finished Job is kept before Kubernetes garbage collects it. */
+    @WithDefault("3600")
+    int ttlSecondsAfterFinished();
+  }
+
+  interface Sharing {
+
+    /** How often dependency manifests are fingerprinted and the sharing report is refreshed. */
+    @WithDefault("10m")
+    Duration refreshInterval();
+  }
+
+  interface Usage {
+
+    /** Whether cache volumes are scanned for usage telemetry. */
+    @WithDefault("true")
+    boolean enabled();
+
+    /** How often each cache volume is scanned. */
+    @WithDefault("15m")
+    Duration refreshInterval();
+
+    /** Scanning threads of the usage Job; the walk is bound by metadata latency, not CPU. */
+    @WithDefault("8")
+    int parallelism();
+  }
+
+  interface Federation {
+
+    /** Namespaces whose DependencyCaches may be federated to other namespaces. */
+    @WithDefault("shadok-shared")
+    List<String> namespaces();
+
+    /** How often consuming namespaces are looked up and their PVCs provisioned or released. */
+    @WithDefault("1m")
+    Duration refreshInterval();
+  }
+
+  interface Rollout {
+
+    /** Whether pods are restarted when the volumes they mount are swapped or repopulated. */
+    @WithDefault("true")
+    boolean enabled();
+
+    /** Restarted pods of an Application that may be not Ready at the same time. */
+    @WithDefault("2")
+    int maxConcurrent();
+
+    /** Lower bound of the delay between two restarts. */
+    @WithDefault("5s")
+    Duration minInterval();
+
+    /** Upper bound of the delay between two restarts. */
+    @WithDefault("2m")
+    Duration maxInterval();
+
+    /** Ready time of a pod assumed until replacement pods have been observed. */
+    @WithDefault("30s")
+    Duration initialReadyTime();
+
+    /** How often the revision of an Application is checked when no rollout is running. */
+    @WithDefault("1m")
+    Duration checkInterval();
+  }
+}
@@ -0,0 +1,63 @@
+package org.shadok.operator.config;
+
+import io.fabric8.kubernetes.client.extended.leaderelection.LeaderCallbacks;
+import io.javaoperatorsdk.operator.api.config.LeaderElectionConfiguration;
+import io.javaoperatorsdk.operator.api.config.LeaderElectionConfigurationBuilder;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Produces the leader election configuration picked up by the operator SDK.
+ *
+ * <p>Leader election is only activated for the profiles listed in {@code
+ * quarkus.operator-sdk.activate-leader-election-for-profiles}, so local dev mode keeps running a
+ * single, always-leading instance.
+ */
+public class LeaderElectionConfigurationProducer {
+
+  private static final Logger log =
+      LoggerFactory.getLogger(LeaderElectionConfigurationProducer.class);
+
+  @Produces
+  @Singleton
+  LeaderElectionConfiguration leaderElectionConfiguration(
+      ShadokLeaderElectionConfig config, LeaderPodLabel podLabel) {
+    return create(config, podLabel::acquired, podLabel::lost);
+  }
+
+  /** Build the operator SDK leader election configuration from the Shadok settings. */
+  static LeaderElectionConfiguration create(ShadokLeaderElectionConfig config) {
+    return create(config, () -> {}, () -> {});
+  }
+
+  /**
+   * Build the operator SDK leader election configuration from the Shadok settings.
+   *
+   * @param onAcquired run once this replica leads
+   * @param onLost run when this replica stops leading
+   */
+  static LeaderElectionConfiguration create(
+      ShadokLeaderElectionConfig config, Runnable onAcquired, Runnable onLost) {
+    var builder =
+        LeaderElectionConfigurationBuilder.aLeaderElectionConfiguration(config.leaseName())
+            .withLeaseDuration(config.leaseDuration())
+            .withRenewDeadline(config.renewDeadline())
+            .withRetryPeriod(config.retryPeriod())
+            .withLeaderCallbacks(
+                new LeaderCallbacks(
+                    () -> {
+                      log.info("👑 Acquired lease {}, starting reconcilers", config.leaseName());
+                      onAcquired.run();
+                    },
+                    () -> {
+                      log.info("Lost lease {}, stopping reconcilers", config.leaseName());
+                      onLost.run();
+                    },
+                    leader -> log.info("Current reconciler leader: {}", leader)));
+    config.leaseNamespace().ifPresent(builder::withLeaseNamespace);
+    config.identity().ifPresent(builder::withIdentity);
+    return builder.build();
+  }
+}
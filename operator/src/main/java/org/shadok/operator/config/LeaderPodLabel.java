@@ -0,0 +1,96 @@
+package org.shadok.operator.config;
+
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Labels the pod of the reconciler leader, the only endpoint of the {@code operator-leader}
+ * Service.
+ *
+ * <p>The artifact proxy keeps its store on the disk of the replica that serves it: routing the dev
+ * pods to a single replica keeps one store, one download per artifact and one hit rate instead of
+ * one per replica. The pod is found through the {@code POD_NAME} and {@code POD_NAMESPACE}
+ * variables (downward API); outside of a cluster nothing is labelled.
+ */
+@ApplicationScoped
+public class LeaderPodLabel {
+
+  private static final Logger log = LoggerFactory.getLogger(LeaderPodLabel.class);
+
+  /** Label of the leader pod, selected by the {@code operator-leader} Service. */
+  public static final String LABEL = "shadok.org/leader";
+
+  @Inject KubernetesClient client;
+
+  @ConfigProperty(name = "POD_NAME")
+  Optional<String> podName;
+
+  @ConfigProperty(name = "POD_NAMESPACE")
+  Optional<String> podNamespace;
+
+  /** Label this pod and remove the label from the pods of previous leaders still running. */
+  public void acquired() {
+    podName.ifPresent(
+        name ->
+            podNamespace.ifPresent(
+                namespace -> {
+                  try {
+                    label(namespace, name, true);
+                    client
+                        .pods()
+                        .inNamespace(namespace)
+                        .withLabel(LABEL, "true")
+                        .list()
+                        .getItems()
+                        .stream()
+                        .map(pod -> pod.getMetadata().getName())
+                        .filter(other -> !other.equals(name))
+                        .forEach(other -> label(namespace, other, false));
+                    log.info("👑 Pod {} now receives the leader traffic", name);
+                  } catch (KubernetesClientException e) {
+                    log.warn("⚠️ Unable to label the leader pod {}: {}", name, e.getMessage());
+                  }
+                }));
+  }
+
+  /** Remove the label from this pod. */
+  public void lost() {
+    podName.ifPresent(
+        name ->
+            podNamespace.ifPresent(
+                namespace -> {
+                  try {
+                    label(namespace, name, false);
+                  } catch (KubernetesClientException e) {
+                    log.warn("⚠️ Unable to unlabel the pod {}: {}", name, e.getMessage());
+                  }
+                }));
+  }
+
+  private void label(String namespace, String name, boolean leader) {
+    client
+        .pods()
+        .inNamespace(namespace)
+        .withName(name)
+        .edit(
+            pod ->
+                leader
+                    ? new PodBuilder(pod)
+                        .editMetadata()
+                        .addToLabels(LABEL, "true")
+                        .endMetadata()
+                        .build()
+                    : new PodBuilder(pod)
+                        .editMetadata()
+                        .removeFromLabels(LABEL)
+                        .endMetadata()
+                        .build());
+  }
+}
@@ -0,0 +1,168 @@
+package org.shadok.operator.config;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import org.shadok.operator.controller.PreResolution;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.InitContainerMountSpec;
+import org.shadok.operator.model.VolumeMountSpec;
+import org.shadok.operator.model.application.ApplicationSpec;
+import org.shadok.operator.model.application.ApplicationStatus;
+import org.shadok.operator.model.application.BuildCacheStatus;
+import org.shadok.operator.model.application.BuildDaemonSpec;
+import org.shadok.operator.model.application.BuildVolumeSpec;
+import org.shadok.operator.model.application.BuildVolumeStatus;
+import org.shadok.operator.model.application.ClassDataSharingSpec;
+import org.shadok.operator.model.application.ClassDataSharingStatus;
+import org.shadok.operator.model.application.IdleScaleDownSpec;
+import org.shadok.operator.model.application.IdleScaleDownStatus;
+import org.shadok.operator.model.application.ManifestPrefetchStatus;
+import org.shadok.operator.model.application.PodRolloutStatus;
+import org.shadok.operator.model.application.PreResolutionSpec;
+import org.shadok.operator.model.application.PreResolutionStatus;
+import org.shadok.operator.model.cache.CacheDedupSpec;
+import org.shadok.operator.model.cache.CacheDedupStatus;
+import org.shadok.operator.model.cache.CacheExpansionEvent;
+import org.shadok.operator.model.cache.CacheExpansionSpec;
+import org.shadok.operator.model.cache.CacheExpansionStatus;
+import org.shadok.operator.model.cache.CacheFederationConsumer;
+import org.shadok.operator.model.cache.CacheFederationSpec;
+import org.shadok.operator.model.cache.CacheFederationStatus;
+import org.shadok.operator.model.cache.CacheGcSpec;
+import org.shadok.operator.model.cache.CacheGcStatus;
+import org.shadok.operator.model.cache.CacheMergeStatus;
+import org.shadok.operator.model.cache.CacheOverlaySpec;
+import org.shadok.operator.model.cache.CachePopulationSpec;
+import org.shadok.operator.model.cache.CachePopulationStatus;
+import org.shadok.operator.model.cache.CacheSharingStatus;
+import org.shadok.operator.model.cache.CacheSnapshotSpec;
+import org.shadok.operator.model.cache.CacheSnapshotStatus;
+import org.shadok.operator.model.cache.CacheSnapshotTransfer;
+import org.shadok.operator.model.cache.CacheSubtreeUsage;
+import org.shadok.operator.model.cache.CacheUsageStatus;
+import org.shadok.operator.model.cache.CacheVerifySpec;
+import org.shadok.operator.model.cache.CacheVerifyStatus;
+import org.shadok.operator.model.cache.DependencyCacheSpec;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.cache.SharingMode;
+import org.shadok.operator.model.code.ProjectSourceSpec;
+import org.shadok.operator.model.code.ProjectSourceStatus;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.model.result.ResourceCheckResult;
+import org.shadok.operator.util.cache.CacheDedup;
+import org.shadok.operator.util.cache.CacheGc;
+import org.shadok.operator.util.cache.CacheOverlayMerge;
+import org.shadok.operator.util.cache.CachePopulationMarker;
+import org.shadok.operator.util.cache.CacheSnapshot;
+import org.shadok.operator.util.cache.CacheUsage;
+import org.shadok.operator.util.cache.CacheVerify;
+import org.shadok.operator.util.cache.CdsArchives;
+import org.shadok.operator.util.cache.ManifestFingerprint;
+import org.shadok.operator.util.cache.SourceActivity;
+import org.shadok.operator.webhook.PodMutatingWebhook;
+
+/**
+ * Native image reflection registration.
+ *
+ * <p>The custom resource classes themselves are registered by the operator SDK extension, but the
+ * spec/status records they reference are only reached through Jackson, and the sealed {@code
+ * PodMutation} and {@code ResourceCheckResult} hierarchies are only reached through pattern
+ * matching. Registering them here keeps the native operator behaving like the JVM one.
+ */
+@RegisterForReflection(
+    targets = {
+      // CRD spec and status payloads (Jackson deserialization of watched resources)
+      ApplicationSpec.class,
+      ApplicationStatus.class,
+      ApplicationStatus.State.class,
+      PreResolutionSpec.class,
+      BuildVolumeSpec.class,
+      BuildVolumeSpec.Type.class,
+      BuildVolumeStatus.class,
+      BuildCacheStatus.class,
+      BuildDaemonSpec.class,
+      ClassDataSharingSpec.class,
+      ClassDataSharingStatus.class,
+      IdleScaleDownSpec.class,
+      IdleScaleDownStatus.class,
+      IdleScaleDownStatus.Phase.class,
+      PreResolutionStatus.class,
+      PreResolutionStatus.Phase.class,
+      ManifestPrefetchStatus.class,
+      ManifestPrefetchStatus.Phase.class,
+      PodRolloutStatus.class,
+      PodRolloutStatus.Phase.class,
+      DependencyCacheSpec.class,
+      DependencyCacheStatus.class,
+      DependencyCacheStatus.State.class,
+      CacheSharingStatus.class,
+      CacheGcSpec.class,
+      CacheGcStatus.class,
+      CacheDedupSpec.class,
+      CacheDedupStatus.class,
+      CacheSnapshotSpec.class,
+      CacheSnapshotStatus.class,
+      CacheSnapshotTransfer.class,
+      CacheVerifySpec.class,
+      CacheVerifyStatus.class,
+      CacheUsageStatus.class,
+      CacheExpansionSpec.class,
+      CacheExpansionStatus.class,
+      CacheExpansionEvent.class,
+      CacheOverlaySpec.class,
+      CacheMergeStatus.class,
+      CacheFederationSpec.class,
+      CacheFederationStatus.class,
+      CacheFederationConsumer.class,
+      CachePopulationSpec.class,
+      CachePopulationStatus.class,
+      CachePopulationStatus.Phase.class,
+      CacheSubtreeUsage.class,
+      SharingMode.class,
+      ProjectSourceSpec.class,
+      ProjectSourceStatus.class,
+      ProjectSourceStatus.State.class,
+      VolumeMountSpec.class,
+      InitContainerMountSpec.class,
+      ApplicationType.class,
+      // Sealed result and mutation hierarchies
+      ResourceCheckResult.class,
+      ResourceCheckResult.Ready.class,
+      ResourceCheckResult.NotReady.class,
+      ResourceCheckResult.NotFound.class,
+      ResourceCheckResult.Failed.class,
+      JobResult.class,
+      JobResult.Running.class,
+      JobResult.Succeeded.class,
+      JobResult.Failed.class,
+      // Cache tool reports (Jackson deserialization of Job termination messages)
+      CacheUsage.Result.class,
+      CacheUsage.Subtree.class,
+      CacheGc.Result.class,
+      CacheDedup.Result.class,
+      CacheSnapshot.Result.class,
+      CacheSnapshot.Manifest.class,
+      CacheSnapshot.Layer.class,
+      CacheVerify.Result.class,
+      CdsArchives.Archive.class,
+      CdsArchives.Result.class,
+      CacheOverlayMerge.Result.class,
+      CachePopulationMarker.Result.class,
+      ManifestFingerprint.Result.class,
+      SourceActivity.Result.class,
+      PreResolution.Report.class,
+      PodMutatingWebhook.PodMutation.class,
+      PodMutatingWebhook.PodMutation.AddAnnotation.class,
+      PodMutatingWebhook.PodMutation.AddLabel.class,
+      PodMutatingWebhook.PodMutation.AddVolume.class,
+      PodMutatingWebhook.PodMutation.AddVolumeMount.class,
+      PodMutatingWebhook.PodMutation.AddInitContainer.class,
+      PodMutatingWebhook.PodMutation.TransformMainContainer.class,
+      PodMutatingWebhook.PodMutation.StartupProbe.class,
+      PodMutatingWebhook.PodMutation.PreferNode.class
+    })
+public final class NativeImageReflectionConfiguration {
+
+  private NativeImageReflectionConfiguration() {
+    // Registration holder only
+  }
+}
@@ -0,0 +1,59 @@
+package org.shadok.operator.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.time.Duration;
+
+/** Runtime configuration of the in-operator artifact proxy ({@code shadok.proxy.*}). */
+@ConfigMapping(prefix = "shadok.proxy")
+public interface ProxyConfig {
+
+  /** Whether the proxy is served and dev pods are pointed at it. */
+  @WithDefault("false")
+  boolean enabled();
+
+  /** Plain HTTP port of the proxy, separate from the TLS webhook port. */
+  @WithDefault("8081")
+  int port();
+
+  /**
+   * Base URL of the proxy as seen from the dev pods, injected by the webhook: the {@code
+   * operator-leader} Service, so that all pods share the store of one replica.
+   */
+  @WithDefault("http://operator-leader.shadok.svc:8081")
+  String url();
+
+  /** Directory holding the downloaded artifacts. */
+  @WithDefault("/var/cache/shadok-proxy")
+  String storage();
+
+  /** How long mutable documents (Maven metadata, npm packuments, PyPI indexes) are served. */
+  @WithDefault("10m")
+  Duration metadataTtl();
+
+  /** Maximum time to connect to an upstream registry and receive the response headers. */
+  @WithDefault("30s")
+  Duration upstreamTimeout();
+
+  /** Public registries the proxy mirrors. */
+  Upstream upstream();
+
+  interface Upstream {
+
+    /** Maven repository layout. */
+    @WithDefault("https://repo.maven.apache.org/maven2/")
+    String maven();
+
+    /** npm registry. */
+    @WithDefault("https://registry.npmjs.org/")
+    String npm();
+
+    /** PyPI simple index. */
+    @WithDefault("https://pypi.org/simple/")
+    String pypi();
+
+    /** Host of the files linked from the PyPI simple index. */
+    @WithDefault("https://files.pythonhosted.org/")
+    String pypiFiles();
+  }
+}
@@ -0,0 +1,39 @@
+package org.shadok.operator.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Leader election of the reconcilers ({@code shadok.leader-election.*}).
+ *
+ * <p>Every replica serves {@code /mutate-pods} from its own informer caches; only the Lease holder
+ * runs the Application, ProjectSource and DependencyCache reconcilers. The short defaults favour
+ * fast failover over API server write load.
+ */
+@ConfigMapping(prefix = "shadok.leader-election")
+public interface ShadokLeaderElectionConfig {
+
+  /** Name of the coordination.k8s.io Lease used for leader election. */
+  @WithDefault("shadok-operator-leader")
+  String leaseName();
+
+  /** Namespace of the Lease, defaults to the namespace the operator runs in. */
+  Optional<String> leaseNamespace();
+
+  /** Identity of this replica, defaults to the pod name (HOSTNAME). */
+  Optional<String> identity();
+
+  /** How long followers wait before taking over a Lease that is not renewed. */
+  @WithDefault("6s")
+  Duration leaseDuration();
+
+  /** How long the leader keeps retrying to renew before giving up leadership. */
+  @WithDefault("4s")
+  Duration renewDeadline();
+
+  /** Interval between acquire/renew attempts. */
+  @WithDefault("1s")
+  Duration retryPeriod();
+}
@@ -0,0 +1,32 @@
+package org.shadok.operator.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.shadok.operator.model.ApplicationType;
+
+/** Runtime configuration of the warm dev pod pools ({@code shadok.warm-pool.*}). */
+@ConfigMapping(prefix = "shadok.warm-pool")
+public interface WarmPoolConfig {
+
+  /** Whether pools are kept and claimed by the pods of new Applications. */
+  @WithDefault("false")
+  boolean enabled();
+
+  /** Application types with a pool, all types when unset. */
+  Optional<List<ApplicationType>> types();
+
+  /** Warm pods kept per application type and namespace. */
+  @WithDefault("1")
+  int size();
+
+  /** Pool pods created at most per replenishment, bounding the load of a refill. */
+  @WithDefault("1")
+  int replenishBatch();
+
+  /** Delay between two replenishments of a pool. */
+  @WithDefault("30s")
+  Duration replenishInterval();
+}
@@ -0,0 +1,59 @@
+package org.shadok.operator.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.time.Duration;
+
+/** Runtime configuration of the pod mutating webhook ({@code shadok.webhook.*}). */
+@ConfigMapping(prefix = "shadok.webhook")
+public interface WebhookConfig {
+
+  /** Warm-up performed before the webhook reports ready. */
+  Warmup warmup();
+
+  /** Circuit breaker and last-known cache around the API server reads of the admission path. */
+  Lookup lookup();
+
+  interface Warmup {
+
+    /** Whether synthetic admissions are replayed before the webhook reports ready. */
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * Number of synthetic AdmissionReviews replayed through the mutation pipeline. Raised to the
+     * number of application types when lower, so that every type is exercised at least once.
+     */
+    @WithDefault("200")
+    int admissions();
+
+    /** Time to wait for the Shadok informers to sync before deferring the warm-up until they do. */
+    @WithDefault("2m")
+    Duration syncTimeout();
+  }
+
+  interface Lookup {
+
+    /**
+     * Request timeout of the live reads, enforced by their HTTP client; timeouts count as failures.
+     */
+    @WithDefault("750ms")
+    Duration timeout();
+
+    /** Reads slower than this count as failures for the circuit breaker. */
+    @WithDefault("250ms")
+    Duration slowCallThreshold();
+
+    /** Consecutive failed or slow reads that open the circuit. */
+    @WithDefault("5")
+    int failureThreshold();
+
+    /** How long the circuit stays open before a single probe read is let through. */
+    @WithDefault("15s")
+    Duration openDuration();
+
+    /** Oldest last-known resource that may still be served while the API server is degraded. */
+    @WithDefault("10m")
+    Duration maxStaleness();
+  }
+}
@@ -11,13 +11,23 @@ import io.javaoperatorsdk.operator.api.reconciler.UpdateControl;
 import jakarta.inject.Inject;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Comparator;
+import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import org.shadok.operator.buildcache.BuildCacheServer;
+import org.shadok.operator.config.BuildCacheConfig;
+import org.shadok.operator.config.CacheConfig;
+import org.shadok.operator.dependent.DependencyCachePvcDependent;
 import org.shadok.operator.model.application.Application;
 import org.shadok.operator.model.application.ApplicationStatus;
 import org.shadok.operator.model.application.ApplicationTypeHelper;
+import org.shadok.operator.model.application.ManifestPrefetchStatus;
+import org.shadok.operator.model.application.PreResolutionStatus;
 import org.shadok.operator.model.cache.DependencyCache;
 import org.shadok.operator.model.code.ProjectSource;
 import org.shadok.operator.model.result.DependencyState;
+import org.shadok.operator.model.result.JobResult;
 import org.shadok.operator.model.result.ResourceCheckResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,13 +46,27 @@ public class ApplicationReconciler implements Reconciler<Application> {
 
   private static final Logger log = LoggerFactory.getLogger(ApplicationReconciler.class);
 
+  // Reconciliation delay after a failed step
+  private static final Duration FAILED_STEP_RETRY = Duration.ofSeconds(30);
+
   @Inject KubernetesClient client;
+  @Inject LockfileSharing lockfileSharing;
+  @Inject PreResolution preResolution;
+  @Inject ManifestPrefetch manifestPrefetch;
+  @Inject PodRollout podRollout;
+  @Inject BuildVolumes buildVolumes;
+  @Inject ClassDataSharing classDataSharing;
+  @Inject IdleScaleDown idleScaleDown;
+  @Inject WarmPool warmPool;
+  @Inject BuildCacheServer buildCacheServer;
+  @Inject BuildCacheConfig buildCacheConfig;
+  @Inject CacheConfig cacheConfig;
 
   // Functional style reconciliation logic
   private final Function<Application, UpdateControl<Application>> reconcileLogic =
       app ->
           checkDependencies(app)
-              .map(state -> handleDependencyState(app, state))
+              .map(dependencies -> handleDependencyState(app, dependencies))
               .orElseGet(
                   () ->
                       handleFailedReconciliation(
@@ -64,22 +88,29 @@ public class ApplicationReconciler implements Reconciler<Application> {
     }
   }
 
+  /** Combined dependency state, with the cache check result to report why it is not ready. */
+  private record Dependencies(DependencyState state, ResourceCheckResult<DependencyCache> cache) {}
+
   /** Check the state of all application dependencies. */
-  private java.util.Optional<DependencyState> checkDependencies(Application app) {
+  private java.util.Optional<Dependencies> checkDependencies(Application app) {
     var spec = app.getSpec();
     var namespace = app.getMetadata().getNamespace();
 
     var projectResult = checkProjectSource(spec.projectSourceName(), namespace);
-    var cacheResult = checkDependencyCache(spec.dependencyCacheName(), namespace);
+    var cacheResult =
+        checkDependencyCache(
+            spec.dependencyCacheName(), spec.dependencyCacheNamespace(namespace), namespace);
 
-    return java.util.Optional.of(DependencyState.from(projectResult, cacheResult));
+    return java.util.Optional.of(
+        new Dependencies(DependencyState.from(projectResult, cacheResult), cacheResult));
   }
 
   /** Handle the application state based on dependency readiness. */
-  private UpdateControl<Application> handleDependencyState(Application app, DependencyState state) {
-    return switch (state) {
+  private UpdateControl<Application> handleDependencyState(
+      Application app, Dependencies dependencies) {
+    return switch (dependencies.state()) {
       case BOTH_READY -> handleReadyState(app);
-      case BOTH_MISSING, PROJECT_MISSING, CACHE_MISSING -> handlePendingState(app, state);
+      case BOTH_MISSING, PROJECT_MISSING, CACHE_MISSING -> handlePendingState(app, dependencies);
     };
   }
 
@@ -106,20 +137,28 @@ public class ApplicationReconciler implements Reconciler<Application> {
     }
   }
 
-  /** Check if a DependencyCache exists and is ready. */
-  private ResourceCheckResult<DependencyCache> checkDependencyCache(String name, String namespace) {
+  /**
+   * Check if a DependencyCache exists and is ready.
+   *
+   * <p>A cache of another namespace must be federated to the application namespace: the cache
+   * namespace is a shared one, the application namespace is allowed and its PVC is bound.
+   */
+  private ResourceCheckResult<DependencyCache> checkDependencyCache(
+      String name, String namespace, String applicationNamespace) {
     try {
       return ofNullable(
               client.resources(DependencyCache.class).inNamespace(namespace).withName(name).get())
           .map(
               cache -> {
-                if (cache.getStatus() != null
-                    && cache.getStatus().getState()
-                        == org.shadok.operator.model.cache.DependencyCacheStatus.State.READY) {
-                  return new ResourceCheckResult.Ready<>(cache);
-                } else {
+                if (cache.getStatus() == null
+                    || cache.getStatus().getState()
+                        != org.shadok.operator.model.cache.DependencyCacheStatus.State.READY) {
                   return new ResourceCheckResult.NotReady<>(cache, "DependencyCache not ready");
                 }
+                if (namespace.equals(applicationNamespace)) {
+                  return new ResourceCheckResult.Ready<>(cache);
+                }
+                return checkFederation(cache, applicationNamespace);
               })
           .orElse(new ResourceCheckResult.NotFound<>(name, namespace));
     } catch (Exception e) {
@@ -128,6 +167,39 @@ public class ApplicationReconciler implements Reconciler<Application> {
     }
   }
 
+  /** Check that a cache of another namespace is federated to the application namespace. */
+  private ResourceCheckResult<DependencyCache> checkFederation(
+      DependencyCache cache, String applicationNamespace) {
+    var cacheNamespace = cache.getMetadata().getNamespace();
+    var federation = cache.getSpec().federation();
+    if (federation == null || !cacheConfig.federation().namespaces().contains(cacheNamespace)) {
+      return new ResourceCheckResult.NotReady<>(
+          cache, "DependencyCache of namespace " + cacheNamespace + " is not federated");
+    }
+    if (!federation.allows(applicationNamespace)) {
+      return new ResourceCheckResult.NotReady<>(
+          cache,
+          "Namespace "
+              + applicationNamespace
+              + " is not allowed by the DependencyCache federation");
+    }
+    var claimName = DependencyCachePvcDependent.claimName(cache, applicationNamespace);
+    var bound =
+        ofNullable(
+                client
+                    .persistentVolumeClaims()
+                    .inNamespace(applicationNamespace)
+                    .withName(claimName)
+                    .get())
+            .map(pvc -> pvc.getStatus())
+            .map(pvcStatus -> "Bound".equals(pvcStatus.getPhase()))
+            .orElse(false);
+    return bound
+        ? new ResourceCheckResult.Ready<>(cache)
+        : new ResourceCheckResult.NotReady<>(
+            cache, "Federated PVC " + claimName + " is not bound yet");
+  }
+
   private UpdateControl<Application> handleReadyState(Application application) {
     var name = application.getMetadata().getName();
     var applicationType = application.getSpec().applicationType();
@@ -141,44 +213,152 @@ public class ApplicationReconciler implements Reconciler<Application> {
     var intelligentLabels = ApplicationTypeHelper.generateIntelligentLabels(applicationType);
     log.debug("Generated intelligent labels for {}: {}", name, intelligentLabels);
 
-    var status =
-        new ApplicationStatus(
-            ApplicationStatus.State.READY,
-            String.format(
-                "All referenced resources are ready. Application type: %s, Build system: %s, Cache strategy: %s",
-                applicationType.getDisplayName(),
-                applicationType.getBuildSystem(),
-                ApplicationTypeHelper.getCacheStrategy(applicationType)));
+    // The existing status is patched: a failing step keeps its previous sub-status
+    var status = Optional.ofNullable(application.getStatus()).orElseGet(ApplicationStatus::new);
+    status.setState(ApplicationStatus.State.READY);
+    status.setMessage(
+        String.format(
+            "All referenced resources are ready. Application type: %s, Build system: %s, Cache strategy: %s",
+            applicationType.getDisplayName(),
+            applicationType.getBuildSystem(),
+            ApplicationTypeHelper.getCacheStrategy(applicationType)));
+    status.setDependencyCacheStatus(null);
+    status.setErrorMessage(null);
     status.setLastReconciled(Instant.now().toString());
+    var steps =
+        new StatusConditions(status.getConditions(), application.getMetadata().getGeneration());
+
+    // Build volumes: PVCs mounted at /build, owned by the Application
+    steps.run(
+        "BuildVolume",
+        () -> buildVolumes.provision(application),
+        result -> status.setBuildVolume(result.orElse(null)));
+
+    // Gradle build cache: hits and saved time of the Application pods, refreshed periodically
+    var buildCache =
+        steps.run(
+            "BuildCache",
+            () -> buildCacheServer.usage(application),
+            result -> status.setBuildCache(result.orElse(null)));
+
+    // Class-data sharing: archives written by the JVMs and startup time of the pods with them
+    var sharedArchives =
+        steps.run(
+            "ClassDataSharing",
+            () -> classDataSharing.report(application),
+            result ->
+                status.setClassDataSharing(
+                    result.map(ClassDataSharing.Outcome::status).orElse(null)));
+
+    // Lockfile sharing: keep the previous assignment while the fingerprint Job runs
+    var sharing =
+        steps.run(
+            "LockfileSharing",
+            () -> lockfileSharing.assign(application),
+            result ->
+                result.ifPresentOrElse(
+                    job -> {
+                      switch (job) {
+                        case JobResult.Succeeded<LockfileSharing.Assignment>(var assignment) ->
+                            assignment.applyTo(status);
+                        case JobResult.Running<LockfileSharing.Assignment> running -> {}
+                        case JobResult.Failed<LockfileSharing.Assignment>(var error) ->
+                            status.setErrorMessage(
+                                "Dependency manifest fingerprint failed: " + error);
+                      }
+                    },
+                    () -> new LockfileSharing.Assignment(null, null, null).applyTo(status)));
+
+    // Pre-resolution: pods may start while the Job runs unless the spec asks to wait for it
+    var resolution =
+        steps.run(
+            "PreResolution",
+            () -> preResolution.resolve(application),
+            result -> status.setPreResolution(result.orElse(null)));
+    resolution
+        .filter(result -> result.phase() == PreResolutionStatus.Phase.FAILED)
+        .ifPresent(
+            result ->
+                status.setErrorMessage("Dependency pre-resolution failed: " + result.message()));
+    var resolving =
+        resolution.filter(r -> r.phase() == PreResolutionStatus.Phase.RUNNING).isPresent();
+    if (resolving && application.getSpec().preResolution().waitBeforeReady()) {
+      status.setState(ApplicationStatus.State.PENDING);
+      status.setMessage("Pre-resolving dependencies: " + resolution.get().message());
+    }
+
+    // Manifest prefetch: pods are only restarted once changed manifests have been prefetched
+    var prefetch =
+        steps.run(
+            "ManifestPrefetch",
+            () -> manifestPrefetch.watch(application, resolution.orElse(null)),
+            result ->
+                status.setManifestPrefetch(
+                    result.map(ManifestPrefetch.Outcome::status).orElse(null)));
+    prefetch
+        .map(ManifestPrefetch.Outcome::status)
+        .filter(result -> result.phase() == ManifestPrefetchStatus.Phase.FAILED)
+        .ifPresent(
+            result -> status.setErrorMessage("Dependency prefetch failed: " + result.message()));
+
+    // Idle scale-down: checkpoint and scale to zero once idle, wake up on source change or request
+    var idle =
+        steps.run(
+            "IdleScaleDown",
+            () -> idleScaleDown.watch(application),
+            result ->
+                status.setIdleScaleDown(result.map(IdleScaleDown.Outcome::status).orElse(null)));
+
+    // Warm pool: keep pre-started pods of the Application type for the next Applications
+    var pool = steps.run("WarmPool", () -> warmPool.replenish(application));
+
+    // Rolling restart of the pods once the volumes they mount have changed
+    var rollout = steps.run("PodRollout", () -> podRollout.roll(application, status));
 
     application.setStatus(status);
-    return patchStatus(application);
+    var sharingRunning = sharing.filter(JobResult::isRunning).isPresent();
+    return Stream.of(
+            Optional.of(Duration.ofSeconds(10)).filter(delay -> resolving || sharingRunning),
+            Optional.of(FAILED_STEP_RETRY).filter(delay -> steps.failed()),
+            sharing.map(result -> cacheConfig.sharing().refreshInterval()),
+            prefetch.map(ManifestPrefetch.Outcome::recheckAfter),
+            buildCache.map(usage -> buildCacheConfig.reportInterval()),
+            sharedArchives.map(ClassDataSharing.Outcome::recheckAfter),
+            idle.map(IdleScaleDown.Outcome::recheckAfter),
+            pool,
+            rollout)
+        .flatMap(Optional::stream)
+        .min(Comparator.naturalOrder())
+        .map(delay -> UpdateControl.<Application>patchStatus(application).rescheduleAfter(delay))
+        .orElseGet(() -> patchStatus(application));
   }
 
   private UpdateControl<Application> handlePendingState(
-      Application application, DependencyState state) {
-    var message = state.getDescription(application);
-    return updateStatusAndReschedule(application, ApplicationStatus.State.PENDING, message);
+      Application application, Dependencies dependencies) {
+    // The existing status is patched: the rollout revision the pods run with while a volume is
+    // being swapped, the pre-resolution and prefetch outcomes and the other sub-statuses are kept
+    var status = Optional.ofNullable(application.getStatus()).orElseGet(ApplicationStatus::new);
+    status.setState(ApplicationStatus.State.PENDING);
+    status.setMessage(dependencies.state().getDescription(application));
+    status.setErrorMessage(null);
+    status.setDependencyCacheStatus(
+        dependencies.cache() instanceof ResourceCheckResult.NotReady<DependencyCache> notReady
+            ? notReady.reason()
+            : null);
+    application.setStatus(status);
+    return UpdateControl.<Application>patchStatus(application)
+        .rescheduleAfter(Duration.ofSeconds(15));
   }
 
   private UpdateControl<Application> handleFailedReconciliation(
       Application application, Exception error) {
-    var status =
-        new ApplicationStatus(
-            ApplicationStatus.State.FAILED, "Reconciliation failed: " + error.getMessage());
+    // The existing status is patched, keeping the sub-statuses of the features
+    var status = Optional.ofNullable(application.getStatus()).orElseGet(ApplicationStatus::new);
+    status.setState(ApplicationStatus.State.FAILED);
+    status.setMessage("Reconciliation failed: " + error.getMessage());
     status.setErrorMessage(error.getMessage());
 
     application.setStatus(status);
     return patchStatus(application);
   }
-
-  private UpdateControl<Application> updateStatusAndReschedule(
-      Application application, ApplicationStatus.State state, String message) {
-
-    var status = new ApplicationStatus(state, message);
-    application.setStatus(status);
-
-    return UpdateControl.<Application>patchStatus(application)
-        .rescheduleAfter(Duration.ofSeconds(15));
-  }
 }
@@ -0,0 +1,145 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaimBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.BuildVolumeSpec;
+import org.shadok.operator.model.application.BuildVolumeStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent build volumes of Applications with {@code spec.buildVolume.type: PERSISTENT}.
+ *
+ * <p>The operator provisions one PVC per Application, or one per pod ordinal for StatefulSet pods,
+ * which the webhook mounts at {@code /build} instead of an emptyDir. The PVCs are owned by the
+ * Application, so Kubernetes deletes them with it; PVCs no longer needed (volume disabled, fewer
+ * ordinals) are deleted by the operator.
+ */
+@ApplicationScoped
+public class BuildVolumes {
+
+  private static final Logger log = LoggerFactory.getLogger(BuildVolumes.class);
+
+  static final String LABEL_BUILD_VOLUME = "shadok.org/build-volume";
+
+  @Inject KubernetesClient client;
+
+  /**
+   * Create the missing build PVCs of an Application and delete the ones it no longer needs.
+   *
+   * @param application the Application
+   * @return the provisioned PVCs, empty when the Application has no persistent build volume
+   */
+  public Optional<BuildVolumeStatus> provision(Application application) {
+    var namespace = application.getMetadata().getNamespace();
+    var name = application.getMetadata().getName();
+    var buildVolume =
+        Optional.ofNullable(application.getSpec().buildVolume())
+            .filter(spec -> spec.type() == BuildVolumeSpec.Type.PERSISTENT);
+    var desired = buildVolume.map(spec -> claimNames(name, spec)).orElse(List.of());
+
+    var existing =
+        client
+            .persistentVolumeClaims()
+            .inNamespace(namespace)
+            .withLabel(LABEL_BUILD_VOLUME, name)
+            .list()
+            .getItems();
+    existing.stream()
+        .filter(pvc -> !desired.contains(pvc.getMetadata().getName()))
+        .forEach(
+            pvc -> {
+              log.info("🧹 Deleting build volume {}/{}", namespace, pvc.getMetadata().getName());
+              client.persistentVolumeClaims().resource(pvc).delete();
+            });
+    if (buildVolume.isEmpty()) {
+      return Optional.empty();
+    }
+
+    var spec = buildVolume.get();
+    var claims =
+        desired.stream()
+            .map(
+                claimName ->
+                    existing.stream()
+                        .filter(pvc -> claimName.equals(pvc.getMetadata().getName()))
+                        .findFirst()
+                        .orElseGet(() -> create(application, claimName, spec)))
+            .toList();
+    var bound =
+        (int)
+            claims.stream()
+                .filter(pvc -> pvc.getStatus() != null)
+                .filter(pvc -> "Bound".equals(pvc.getStatus().getPhase()))
+                .count();
+    return Optional.of(new BuildVolumeStatus(desired, bound, spec.size()));
+  }
+
+  private PersistentVolumeClaim create(
+      Application application, String claimName, BuildVolumeSpec spec) {
+    var pvc =
+        new PersistentVolumeClaimBuilder()
+            .withNewMetadata()
+            .withName(claimName)
+            .withNamespace(application.getMetadata().getNamespace())
+            .withLabels(
+                Map.of(
+                    "app.kubernetes.io/name",
+                    "shadok",
+                    "app.kubernetes.io/component",
+                    "build-volume",
+                    "app.kubernetes.io/managed-by",
+                    "shadok-operator",
+                    LABEL_BUILD_VOLUME,
+                    application.getMetadata().getName()))
+            .withOwnerReferences(
+                new OwnerReferenceBuilder()
+                    .withApiVersion(application.getApiVersion())
+                    .withKind(application.getKind())
+                    .withName(application.getMetadata().getName())
+                    .withUid(application.getMetadata().getUid())
+                    .build())
+            .endMetadata()
+            .withNewSpec()
+            .withAccessModes(spec.accessMode())
+            .withStorageClassName(spec.storageClass())
+            .withNewResources()
+            .withRequests(Map.of("storage", new Quantity(spec.size())))
+            .endResources()
+            .endSpec()
+            .build();
+    log.info(
+        "💾 Creating build volume {}/{} ({})",
+        application.getMetadata().getNamespace(),
+        claimName,
+        spec.size());
+    return client.persistentVolumeClaims().resource(pvc).create();
+  }
+
+  private static List<String> claimNames(String applicationName, BuildVolumeSpec spec) {
+    return spec.ordinals() == 0
+        ? List.of(claimName(applicationName, null))
+        : IntStream.range(0, spec.ordinals()).mapToObj(i -> claimName(applicationName, i)).toList();
+  }
+
+  /**
+   * Build PVC of an Application.
+   *
+   * @param applicationName name of the Application
+   * @param ordinal pod ordinal, or null for the PVC shared by all pods
+   * @return {@code <application>-build}, or {@code <application>-build-<ordinal>}
+   */
+  public static String claimName(String applicationName, Integer ordinal) {
+    return applicationName + "-build" + (ordinal == null ? "" : "-" + ordinal);
+  }
+}
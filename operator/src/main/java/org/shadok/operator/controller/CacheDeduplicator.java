@@ -0,0 +1,101 @@
+package org.shadok.operator.controller;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.model.cache.CacheDedupStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.CacheDedup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduled hardlink deduplication of DependencyCache volumes with {@code spec.dedup} set.
+ *
+ * <p>Every {@code intervalMinutes}, a cache tool Job mounts the cache volume read-write and links
+ * identical files to a content-addressed store on the volume. Hardlinks cannot cross volumes, so
+ * each cache volume is deduplicated on its own, across all the ecosystems it holds. The outcome of
+ * the last run is kept in {@code status.dedup}.
+ */
+@ApplicationScoped
+public class CacheDeduplicator implements CacheMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheDeduplicator.class);
+
+  static final String DEDUP_TASK = "dedup";
+
+  @Inject CacheToolJobs jobs;
+
+  @Override
+  public String name() {
+    return "Deduplication";
+  }
+
+  @Override
+  public Optional<Duration> maintain(
+      DependencyCache dependencyCache, DependencyCacheStatus status) {
+    var dedup = dependencyCache.getSpec().dedup();
+    if (dedup == null) {
+      status.setDedup(null);
+      return Optional.empty();
+    }
+
+    var interval = Duration.ofMinutes(dedup.intervalMinutes());
+    var last = Optional.ofNullable(status.getDedup());
+    var nextRun =
+        last.map(run -> Instant.parse(run.lastRunAt()).plus(interval)).orElse(Instant.MIN);
+    if (nextRun.isAfter(Instant.now())) {
+      return Optional.of(Duration.between(Instant.now(), nextRun));
+    }
+
+    var task =
+        new CacheToolJobs.Task(
+            dependencyCache,
+            DEDUP_TASK,
+            List.of(
+                "--root", "/cache",
+                "--grace-minutes", String.valueOf(dedup.graceMinutes()),
+                "--min-file-bytes", String.valueOf(dedup.minFileBytes()),
+                "--parallelism", String.valueOf(dedup.parallelism())),
+            List.of(new CacheToolJobs.Mount(dependencyCache.getSpec().pvcName(), "/cache", false)));
+
+    return Optional.of(
+        switch (jobs.run(task, CacheDedup.Result.class)) {
+          case JobResult.Succeeded<CacheDedup.Result>(var result) -> {
+            log.info(
+                "🔗 Linked {} duplicate files ({} bytes) of DependencyCache {}/{} in {} ms",
+                result.linkedFiles(),
+                result.reclaimedBytes(),
+                dependencyCache.getMetadata().getNamespace(),
+                dependencyCache.getMetadata().getName(),
+                result.durationMillis());
+            status.setDedup(
+                new CacheDedupStatus(
+                    Instant.now().toString(),
+                    result.scannedFiles(),
+                    result.scannedBytes(),
+                    result.hashedFiles(),
+                    result.linkedFiles(),
+                    result.reclaimedBytes(),
+                    last.map(CacheDedupStatus::totalReclaimedBytes).orElse(0L)
+                        + result.reclaimedBytes(),
+                    result.recentFiles(),
+                    result.storeFiles(),
+                    result.durationMillis(),
+                    result.millisPerGib()));
+            yield interval;
+          }
+          case JobResult.Running<CacheDedup.Result> running -> Duration.ofSeconds(15);
+          case JobResult.Failed<CacheDedup.Result>(var error) -> {
+            status.setErrorMessage("Deduplication failed: " + error);
+            yield interval;
+          }
+        });
+  }
+}
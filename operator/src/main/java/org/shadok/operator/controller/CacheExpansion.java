@@ -0,0 +1,353 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.api.model.EventBuilder;
+import io.fabric8.kubernetes.api.model.ObjectReferenceBuilder;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaimBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.storage.StorageClass;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.shadok.operator.dependent.DependencyCachePvcDependent;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.cache.CacheExpansionEvent;
+import org.shadok.operator.model.cache.CacheExpansionSpec;
+import org.shadok.operator.model.cache.CacheExpansionStatus;
+import org.shadok.operator.model.cache.CacheUsageStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Online expansion of DependencyCache PVCs with {@code spec.expansion} set.
+ *
+ * <p>When the usage measured by {@link CacheUsageCollector} crosses {@code thresholdPercent} of the
+ * PVC size, the PVC request is raised to the larger of:
+ *
+ * <ul>
+ *   <li>the sum of {@link ApplicationType#getRecommendedCacheSize()} over the distinct types of the
+ *       Applications using the cache;
+ *   <li>the usage projected over {@code growthHorizonHours} at the measured growth rate, divided by
+ *       {@code targetUsagePercent}.
+ * </ul>
+ *
+ * <p>Expansion only happens for storage classes with {@code allowVolumeExpansion}; the PVC is never
+ * shrunk and never grown beyond {@code maxSize}. Each expansion is recorded as a Kubernetes Event
+ * on the DependencyCache and in {@code status.expansion}, with the time the volume took to report
+ * its new capacity ({@code shadok_cache_expansion_duration_seconds}).
+ */
+@ApplicationScoped
+public class CacheExpansion implements CacheMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheExpansion.class);
+
+  static final long GIB = 1L << 30;
+  static final int HISTORY = 10;
+  private static final Duration RESIZE_POLL = Duration.ofSeconds(30);
+
+  @Inject KubernetesClient client;
+  @Inject MeterRegistry registry;
+
+  /** Size an expansion aims for and why. */
+  record Target(long bytes, String reason) {}
+
+  @Override
+  public String name() {
+    return "Expansion";
+  }
+
+  @Override
+  public Optional<Duration> maintain(
+      DependencyCache dependencyCache, DependencyCacheStatus status) {
+    var expansion = dependencyCache.getSpec().expansion();
+    if (expansion == null) {
+      status.setExpansion(null);
+      return Optional.empty();
+    }
+
+    var namespace = dependencyCache.getMetadata().getNamespace();
+    var pvc =
+        client
+            .persistentVolumeClaims()
+            .inNamespace(namespace)
+            .withName(dependencyCache.getSpec().pvcName())
+            .get();
+    if (pvc == null) {
+      return Optional.empty();
+    }
+
+    var previous = Optional.ofNullable(status.getExpansion());
+    var history = previous.map(CacheExpansionStatus::history).orElse(List.of());
+    var requested = requestedSize(pvc).orElse(dependencyCache.getSpec().storageSize());
+    var capacity = capacity(pvc).orElse(null);
+
+    // An expansion in flight completes when the volume reports the requested capacity
+    var pending = previous.map(CacheExpansionStatus::pending);
+    if (pending.isPresent()) {
+      var inFlight = pending.get();
+      if (capacity == null
+          || DependencyCachePvcDependent.bytes(capacity)
+              < DependencyCachePvcDependent.bytes(inFlight.toSize())) {
+        status.setExpansion(
+            new CacheExpansionStatus(
+                inFlight.toSize(),
+                capacity,
+                true,
+                "Waiting for the volume to report " + inFlight.toSize() + resizeConditions(pvc),
+                inFlight,
+                history));
+        return Optional.of(RESIZE_POLL);
+      }
+      var completedAt = Instant.now();
+      var duration = Duration.between(Instant.parse(inFlight.requestedAt()), completedAt);
+      var completed = inFlight.complete(completedAt.toString(), duration.toSeconds());
+      registry
+          .timer(
+              "shadok.cache.expansion.duration",
+              "namespace",
+              namespace,
+              "cache",
+              name(dependencyCache))
+          .record(duration);
+      event(
+          dependencyCache,
+          "CacheExpanded",
+          "Volume expanded from %s to %s in %ds"
+              .formatted(completed.fromSize(), completed.toSize(), duration.toSeconds()));
+      log.info(
+          "📈 DependencyCache {}/{} expanded to {} in {}s",
+          namespace,
+          name(dependencyCache),
+          completed.toSize(),
+          duration.toSeconds());
+      history = append(history, completed);
+    }
+
+    var storageClassName = pvc.getSpec().getStorageClassName();
+    var expandable =
+        Optional.ofNullable(storageClassName)
+            .map(name -> client.resources(StorageClass.class).withName(name).get())
+            .map(StorageClass::getAllowVolumeExpansion)
+            .orElse(false);
+    if (!expandable) {
+      status.setExpansion(
+          new CacheExpansionStatus(
+              requested,
+              capacity,
+              false,
+              "StorageClass " + storageClassName + " does not allow volume expansion",
+              null,
+              history));
+      return Optional.empty();
+    }
+
+    var usage = Optional.ofNullable(status.getUsage());
+    var requestedBytes = DependencyCachePvcDependent.bytes(requested);
+    var target =
+        usage
+            .filter(u -> u.usedBytes() * 100 >= requestedBytes * expansion.thresholdPercent())
+            .map(u -> target(expansion, u, recommendedGi(dependencyCache)));
+    if (target.isEmpty()) {
+      var message =
+          usage
+              .map(u -> "Usage below " + expansion.thresholdPercent() + "% of " + requested)
+              .orElse("Waiting for the first usage measurement");
+      status.setExpansion(
+          new CacheExpansionStatus(requested, capacity, true, message, null, history));
+      return Optional.empty();
+    }
+
+    var toSize = size(Math.max(target.get().bytes(), requestedBytes));
+    if (DependencyCachePvcDependent.bytes(toSize) <= requestedBytes) {
+      status.setExpansion(
+          new CacheExpansionStatus(
+              requested,
+              capacity,
+              true,
+              "Usage above "
+                  + expansion.thresholdPercent()
+                  + "% but the target size does not exceed "
+                  + requested,
+              null,
+              history));
+      return Optional.empty();
+    }
+
+    var expanding =
+        new CacheExpansionEvent(
+            requested, toSize, target.get().reason(), Instant.now().toString(), null, null);
+    resize(pvc, toSize);
+    event(
+        dependencyCache,
+        "CacheExpanding",
+        "Expanding volume from %s to %s: %s".formatted(requested, toSize, expanding.reason()));
+    log.info(
+        "📈 Expanding DependencyCache {}/{} from {} to {}: {}",
+        namespace,
+        name(dependencyCache),
+        requested,
+        toSize,
+        expanding.reason());
+    status.setExpansion(
+        new CacheExpansionStatus(
+            toSize, capacity, true, "Expansion requested", expanding, history));
+    return Optional.of(RESIZE_POLL);
+  }
+
+  /**
+   * Size an expansion should aim for, capped at {@code maxSize}.
+   *
+   * @param expansion expansion settings
+   * @param usage last usage measurement
+   * @param recommendedGi size recommended for the Applications using the cache, in GiB
+   */
+  static Target target(CacheExpansionSpec expansion, CacheUsageStatus usage, int recommendedGi) {
+    var growth =
+        Optional.ofNullable(usage.growthBytesPerHour())
+            .filter(rate -> rate > 0)
+            .map(rate -> (long) (rate * expansion.growthHorizonHours()))
+            .orElse(0L);
+    var projected = usage.usedBytes() + growth;
+    var forUsage = projected * 100 / expansion.targetUsagePercent();
+    var recommended = recommendedGi * GIB;
+    var max = DependencyCachePvcDependent.bytes(expansion.maxSize());
+    var bytes = Math.min(max, roundUpToGi(Math.max(forUsage, recommended)));
+
+    var reason =
+        "usage %d%% of capacity, projected %s in %dh, %s recommended for the application types"
+            .formatted(
+                Math.round(usage.usedPercent()),
+                size(roundUpToGi(projected)),
+                expansion.growthHorizonHours(),
+                recommendedGi + "Gi");
+    return new Target(bytes, bytes == max ? reason + ", capped at " + expansion.maxSize() : reason);
+  }
+
+  /** Sum of the recommended cache sizes of the distinct types of the Applications using a cache. */
+  private int recommendedGi(DependencyCache dependencyCache) {
+    var name = name(dependencyCache);
+    return client
+        .resources(Application.class)
+        .inNamespace(dependencyCache.getMetadata().getNamespace())
+        .list()
+        .getItems()
+        .stream()
+        .filter(
+            app ->
+                name.equals(app.getSpec().dependencyCacheName())
+                    || (app.getStatus() != null
+                        && name.equals(app.getStatus().getSharedDependencyCache())))
+        .map(app -> app.getSpec().applicationType())
+        .distinct()
+        .mapToInt(ApplicationType::getRecommendedCacheSize)
+        .sum();
+  }
+
+  private void resize(PersistentVolumeClaim pvc, String size) {
+    client
+        .persistentVolumeClaims()
+        .inNamespace(pvc.getMetadata().getNamespace())
+        .withName(pvc.getMetadata().getName())
+        .edit(
+            current ->
+                new PersistentVolumeClaimBuilder(current)
+                    .editSpec()
+                    .editResources()
+                    .addToRequests("storage", new Quantity(size))
+                    .endResources()
+                    .endSpec()
+                    .build());
+  }
+
+  private void event(DependencyCache dependencyCache, String reason, String message) {
+    var metadata = dependencyCache.getMetadata();
+    var now = Instant.now().toString();
+    try {
+      client
+          .v1()
+          .events()
+          .inNamespace(metadata.getNamespace())
+          .resource(
+              new EventBuilder()
+                  .withNewMetadata()
+                  .withGenerateName(metadata.getName() + "-")
+                  .withNamespace(metadata.getNamespace())
+                  .endMetadata()
+                  .withInvolvedObject(
+                      new ObjectReferenceBuilder()
+                          .withApiVersion(dependencyCache.getApiVersion())
+                          .withKind(dependencyCache.getKind())
+                          .withName(metadata.getName())
+                          .withNamespace(metadata.getNamespace())
+                          .withUid(metadata.getUid())
+                          .build())
+                  .withType("Normal")
+                  .withReason(reason)
+                  .withMessage(message)
+                  .withFirstTimestamp(now)
+                  .withLastTimestamp(now)
+                  .withCount(1)
+                  .withNewSource()
+                  .withComponent("shadok-operator")
+                  .endSource()
+                  .build())
+          .create();
+    } catch (Exception e) {
+      log.warn("Unable to record event {} for {}: {}", reason, metadata.getName(), e.getMessage());
+    }
+  }
+
+  private static Optional<String> requestedSize(PersistentVolumeClaim pvc) {
+    return Optional.ofNullable(pvc.getSpec().getResources())
+        .map(resources -> resources.getRequests())
+        .map(requests -> requests.get("storage"))
+        .map(Quantity::toString);
+  }
+
+  private static Optional<String> capacity(PersistentVolumeClaim pvc) {
+    return Optional.ofNullable(pvc.getStatus())
+        .map(status -> status.getCapacity())
+        .map(capacity -> capacity.get("storage"))
+        .map(Quantity::toString);
+  }
+
+  /** Resize conditions reported on the PVC (Resizing, FileSystemResizePending, ...). */
+  private static String resizeConditions(PersistentVolumeClaim pvc) {
+    var conditions =
+        Optional.ofNullable(pvc.getStatus()).map(status -> status.getConditions()).stream()
+            .flatMap(Collection::stream)
+            .filter(condition -> "True".equals(condition.getStatus()))
+            .map(condition -> condition.getType())
+            .toList();
+    return conditions.isEmpty() ? "" : " (" + String.join(", ", conditions) + ")";
+  }
+
+  private static List<CacheExpansionEvent> append(
+      List<CacheExpansionEvent> history, CacheExpansionEvent event) {
+    var all = new ArrayList<>(Stream.concat(history.stream(), Stream.of(event)).toList());
+    return List.copyOf(all.subList(Math.max(0, all.size() - HISTORY), all.size()));
+  }
+
+  private static long roundUpToGi(long bytes) {
+    return Math.max(1, (bytes + GIB - 1) / GIB) * GIB;
+  }
+
+  private static String size(long bytes) {
+    return bytes % GIB == 0 ? bytes / GIB + "Gi" : String.valueOf(bytes);
+  }
+
+  private static String name(DependencyCache dependencyCache) {
+    return dependencyCache.getMetadata().getName();
+  }
+}
@@ -0,0 +1,278 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.api.model.ObjectReferenceBuilder;
+import io.fabric8.kubernetes.api.model.PersistentVolume;
+import io.fabric8.kubernetes.api.model.PersistentVolumeBuilder;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaimBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.shadok.operator.config.CacheConfig;
+import org.shadok.operator.dependent.DependencyCachePvcDependent;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.cache.CacheFederationConsumer;
+import org.shadok.operator.model.cache.CacheFederationSpec;
+import org.shadok.operator.model.cache.CacheFederationStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cross-namespace federation of DependencyCaches with {@code spec.federation} set.
+ *
+ * <p>A cache of a designated shared namespace ({@code shadok.cache.federation.namespaces}) can be
+ * referenced by Applications of other namespaces through {@code spec.dependencyCacheNamespace}. A
+ * PersistentVolume can only be bound to a single claim, so for each consuming namespace allowed by
+ * {@code allowedNamespaces} the cache PersistentVolume is cloned (same volume source, {@code
+ * Retain} reclaim policy) and pre-bound to a PVC created in that namespace: every team reads and
+ * fills the same storage instead of its own copy.
+ *
+ * <p>Clones and their PVCs are labelled with the cache they come from and are released when the
+ * namespace no longer references the cache, is no longer allowed, or the cache is deleted. Deleting
+ * a clone never deletes data.
+ */
+@ApplicationScoped
+public class CacheFederation implements CacheMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheFederation.class);
+
+  static final String CACHE_LABEL = "shadok.org/federated-cache";
+  static final String CACHE_NAMESPACE_LABEL = "shadok.org/federated-cache-namespace";
+
+  @Inject KubernetesClient client;
+  @Inject CacheConfig config;
+
+  @Override
+  public String name() {
+    return "Federation";
+  }
+
+  @Override
+  public Optional<Duration> maintain(
+      DependencyCache dependencyCache, DependencyCacheStatus status) {
+    var federation = dependencyCache.getSpec().federation();
+    if (federation == null) {
+      if (status.getFederation() != null) {
+        release(dependencyCache, Set.of());
+        status.setFederation(null);
+      }
+      return Optional.empty();
+    }
+
+    var namespace = dependencyCache.getMetadata().getNamespace();
+    if (!isSharedNamespace(namespace)) {
+      release(dependencyCache, Set.of());
+      status.setFederation(
+          federationStatus(
+              List.of(),
+              List.of(),
+              "Namespace "
+                  + namespace
+                  + " is not a shared namespace (shadok.cache.federation.namespaces)"));
+      return Optional.empty();
+    }
+
+    var applications = referencingApplications(dependencyCache);
+    var allowed =
+        applications.entrySet().stream()
+            .filter(entry -> federation.allows(entry.getKey()))
+            .collect(
+                Collectors.toMap(
+                    Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, TreeMap::new));
+    var denied =
+        applications.entrySet().stream()
+            .filter(entry -> !federation.allows(entry.getKey()))
+            .flatMap(entry -> entry.getValue().stream().map(app -> entry.getKey() + "/" + app))
+            .toList();
+
+    var source =
+        client.persistentVolumes().withName(dependencyCache.getSpec().persistentVolumeName()).get();
+    if (source == null) {
+      status.setFederation(
+          federationStatus(
+              List.of(),
+              denied,
+              "PersistentVolume "
+                  + dependencyCache.getSpec().persistentVolumeName()
+                  + " not found"));
+      return Optional.of(config.federation().refreshInterval());
+    }
+
+    var consumers =
+        allowed.entrySet().stream()
+            .map(
+                entry ->
+                    provision(
+                        dependencyCache, federation, source, entry.getKey(), entry.getValue()))
+            .toList();
+    release(dependencyCache, allowed.keySet());
+
+    var bound = consumers.stream().filter(consumer -> "Bound".equals(consumer.phase())).count();
+    status.setFederation(
+        federationStatus(
+            consumers,
+            denied,
+            "%d consuming namespace(s), %d bound, %d denied application(s)"
+                .formatted(consumers.size(), bound, denied.size())));
+    return Optional.of(config.federation().refreshInterval());
+  }
+
+  /** Whether DependencyCaches of a namespace may be federated. */
+  boolean isSharedNamespace(String namespace) {
+    return config.federation().namespaces().contains(namespace);
+  }
+
+  /**
+   * Release every federated PVC and PersistentVolume clone of a cache, e.g. on its deletion.
+   *
+   * @param dependencyCache the cache
+   */
+  void releaseAll(DependencyCache dependencyCache) {
+    release(dependencyCache, Set.of());
+  }
+
+  /** Applications of other namespaces referencing the cache, by namespace. */
+  private Map<String, List<String>> referencingApplications(DependencyCache dependencyCache) {
+    var name = dependencyCache.getMetadata().getName();
+    var namespace = dependencyCache.getMetadata().getNamespace();
+    return client.resources(Application.class).inAnyNamespace().list().getItems().stream()
+        .filter(app -> !namespace.equals(app.getMetadata().getNamespace()))
+        .filter(app -> name.equals(app.getSpec().dependencyCacheName()))
+        .filter(
+            app ->
+                namespace.equals(
+                    app.getSpec().dependencyCacheNamespace(app.getMetadata().getNamespace())))
+        .collect(
+            Collectors.groupingBy(
+                app -> app.getMetadata().getNamespace(),
+                TreeMap::new,
+                Collectors.mapping(app -> app.getMetadata().getName(), Collectors.toList())));
+  }
+
+  /** Create the PersistentVolume clone and the PVC of a consuming namespace if missing. */
+  private CacheFederationConsumer provision(
+      DependencyCache dependencyCache,
+      CacheFederationSpec federation,
+      PersistentVolume source,
+      String consumer,
+      List<String> applications) {
+    var claimName = DependencyCachePvcDependent.claimName(dependencyCache, consumer);
+    var volumeName = volumeName(dependencyCache, consumer);
+    var labels = labels(dependencyCache);
+    var accessModes =
+        federation.readOnly() ? List.of("ReadOnlyMany") : source.getSpec().getAccessModes();
+
+    if (client.persistentVolumes().withName(volumeName).get() == null) {
+      var clone =
+          new PersistentVolumeBuilder()
+              .withNewMetadata()
+              .withName(volumeName)
+              .withLabels(labels)
+              .endMetadata()
+              .withSpec(source.getSpec())
+              .editSpec()
+              .withAccessModes(accessModes)
+              // The storage is shared: removing a consumer must never reclaim it
+              .withPersistentVolumeReclaimPolicy("Retain")
+              .withClaimRef(
+                  new ObjectReferenceBuilder()
+                      .withKind("PersistentVolumeClaim")
+                      .withNamespace(consumer)
+                      .withName(claimName)
+                      .build())
+              .endSpec()
+              .build();
+      client.persistentVolumes().resource(clone).create();
+      log.info(
+          "🔗 Cloned PersistentVolume {} as {} for namespace {}",
+          source.getMetadata().getName(),
+          volumeName,
+          consumer);
+    }
+
+    var pvc = client.persistentVolumeClaims().inNamespace(consumer).withName(claimName).get();
+    if (pvc == null) {
+      pvc =
+          new PersistentVolumeClaimBuilder()
+              .withNewMetadata()
+              .withName(claimName)
+              .withNamespace(consumer)
+              .withLabels(labels)
+              .addToAnnotations("shadok.com/cache-path", dependencyCache.getSpec().cachePath())
+              .addToAnnotations("shadok.com/pv-name", volumeName)
+              .endMetadata()
+              .withNewSpec()
+              .withAccessModes(accessModes)
+              .withVolumeName(volumeName)
+              .withStorageClassName(
+                  Optional.ofNullable(source.getSpec().getStorageClassName()).orElse(""))
+              .withNewResources()
+              .withRequests(Map.of("storage", source.getSpec().getCapacity().get("storage")))
+              .endResources()
+              .endSpec()
+              .build();
+      client.persistentVolumeClaims().inNamespace(consumer).resource(pvc).create();
+      log.info(
+          "🔗 Federated DependencyCache {}/{} to namespace {}",
+          dependencyCache.getMetadata().getNamespace(),
+          dependencyCache.getMetadata().getName(),
+          consumer);
+    }
+
+    var phase = Optional.ofNullable(pvc.getStatus()).map(s -> s.getPhase()).orElse("Pending");
+    return new CacheFederationConsumer(consumer, applications, claimName, volumeName, phase);
+  }
+
+  /** Delete the PVCs and PersistentVolume clones of the namespaces not in {@code keep}. */
+  private void release(DependencyCache dependencyCache, Set<String> keep) {
+    var labels = labels(dependencyCache);
+    client.persistentVolumeClaims().inAnyNamespace().withLabels(labels).list().getItems().stream()
+        .filter(pvc -> !keep.contains(pvc.getMetadata().getNamespace()))
+        .forEach(
+            pvc -> {
+              log.info(
+                  "🔓 Releasing federated cache PVC {}/{}",
+                  pvc.getMetadata().getNamespace(),
+                  pvc.getMetadata().getName());
+              client.persistentVolumeClaims().resource(pvc).delete();
+            });
+    client.persistentVolumes().withLabels(labels).list().getItems().stream()
+        .filter(pv -> !keep.contains(claimNamespace(pv)))
+        .forEach(pv -> client.persistentVolumes().resource(pv).delete());
+  }
+
+  private static String claimNamespace(PersistentVolume pv) {
+    return Optional.ofNullable(pv.getSpec().getClaimRef())
+        .map(ref -> ref.getNamespace())
+        .orElse("");
+  }
+
+  private static Map<String, String> labels(DependencyCache dependencyCache) {
+    return Map.of(
+        "app.kubernetes.io/managed-by",
+        "shadok-operator",
+        CACHE_LABEL,
+        dependencyCache.getMetadata().getName(),
+        CACHE_NAMESPACE_LABEL,
+        dependencyCache.getMetadata().getNamespace());
+  }
+
+  /** Name of the PersistentVolume clone bound to the PVC of a consuming namespace. */
+  static String volumeName(DependencyCache dependencyCache, String consumer) {
+    return dependencyCache.getSpec().persistentVolumeName() + "-" + consumer;
+  }
+
+  private static CacheFederationStatus federationStatus(
+      List<CacheFederationConsumer> consumers, List<String> denied, String message) {
+    return new CacheFederationStatus(consumers, denied, message, Instant.now().toString());
+  }
+}
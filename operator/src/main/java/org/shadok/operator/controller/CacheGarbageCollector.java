@@ -0,0 +1,104 @@
+package org.shadok.operator.controller;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.dependent.DependencyCachePvcDependent;
+import org.shadok.operator.model.cache.CacheGcStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.CacheGc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduled LRU garbage collection of DependencyCache volumes with {@code spec.gc} set.
+ *
+ * <p>Every {@code intervalMinutes}, a cache tool Job mounts the cache volume read-write and evicts
+ * least recently used entries between the high and low watermarks of the PVC size. The outcome of
+ * the last run is kept in {@code status.gc}.
+ */
+@ApplicationScoped
+public class CacheGarbageCollector implements CacheMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheGarbageCollector.class);
+
+  static final String GC_TASK = "gc";
+
+  @Inject CacheToolJobs jobs;
+
+  @Override
+  public String name() {
+    return "GarbageCollection";
+  }
+
+  @Override
+  public Optional<Duration> maintain(
+      DependencyCache dependencyCache, DependencyCacheStatus status) {
+    var gc = dependencyCache.getSpec().gc();
+    if (gc == null) {
+      status.setGc(null);
+      return Optional.empty();
+    }
+
+    var interval = Duration.ofMinutes(gc.intervalMinutes());
+    var nextRun =
+        Optional.ofNullable(status.getGc())
+            .map(last -> Instant.parse(last.lastRunAt()).plus(interval))
+            .orElse(Instant.MIN);
+    if (nextRun.isAfter(Instant.now())) {
+      return Optional.of(Duration.between(Instant.now(), nextRun));
+    }
+
+    var capacity =
+        DependencyCachePvcDependent.bytes(DependencyCachePvcDependent.storageSize(dependencyCache));
+    var task =
+        new CacheToolJobs.Task(
+            dependencyCache,
+            GC_TASK,
+            List.of(
+                "--root", "/cache",
+                "--capacity-bytes", String.valueOf(capacity),
+                "--high", String.valueOf(gc.highWatermarkPercent()),
+                "--low", String.valueOf(gc.lowWatermarkPercent()),
+                "--min-idle-minutes", String.valueOf(gc.minIdleMinutes())),
+            List.of(new CacheToolJobs.Mount(dependencyCache.getSpec().pvcName(), "/cache", false)));
+
+    return Optional.of(
+        switch (jobs.run(task, CacheGc.Result.class)) {
+          case JobResult.Succeeded<CacheGc.Result>(var result) -> {
+            if (result.triggered()) {
+              log.info(
+                  "🧹 Evicted {} entries ({} bytes) from DependencyCache {}/{} in {} ms",
+                  result.evictedEntries(),
+                  result.evictedBytes(),
+                  dependencyCache.getMetadata().getNamespace(),
+                  dependencyCache.getMetadata().getName(),
+                  result.durationMillis());
+            }
+            status.setGc(
+                new CacheGcStatus(
+                    Instant.now().toString(),
+                    result.triggered(),
+                    result.capacityBytes(),
+                    result.usedBytesBefore(),
+                    result.usedBytesAfter(),
+                    result.evictedEntries(),
+                    result.evictedBytes(),
+                    result.protectedEntries(),
+                    result.durationMillis()));
+            yield interval;
+          }
+          case JobResult.Running<CacheGc.Result> running -> Duration.ofSeconds(15);
+          case JobResult.Failed<CacheGc.Result>(var error) -> {
+            status.setErrorMessage("Garbage collection failed: " + error);
+            yield interval;
+          }
+        });
+  }
+}
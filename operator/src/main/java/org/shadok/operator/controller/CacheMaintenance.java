@@ -0,0 +1,33 @@
+package org.shadok.operator.controller;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+
+/**
+ * Periodic maintenance step of a ready DependencyCache.
+ *
+ * <p>Implementations are CDI beans picked up by the {@link DependencyCacheReconciler}. Each step
+ * owns one section of the status, usually fed by a cache tool Job, and tells when it wants the
+ * cache to be reconciled again. A step that throws is reported as a failed condition of the status;
+ * the other steps still run and its section keeps its last value.
+ */
+public interface CacheMaintenance {
+
+  /**
+   * Name of the step, the type of the status condition reporting its outcome.
+   *
+   * @return a CamelCase condition type, e.g. {@code GarbageCollection}
+   */
+  String name();
+
+  /**
+   * Run the step for a DependencyCache whose PVC is ready.
+   *
+   * @param dependencyCache the cache being reconciled
+   * @param status status to update, patched by the reconciler afterwards
+   * @return delay before the step needs another reconciliation, empty when it is not enabled
+   */
+  Optional<Duration> maintain(DependencyCache dependencyCache, DependencyCacheStatus status);
+}
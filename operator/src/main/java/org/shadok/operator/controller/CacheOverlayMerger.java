@@ -0,0 +1,101 @@
+package org.shadok.operator.controller;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.model.cache.CacheMergeStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.CacheOverlayMerge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single writer of DependencyCache volumes in overlay mode ({@code spec.overlay} set).
+ *
+ * <p>Pods only mount the cache read-only and stage their new files under {@code .shadok/incoming};
+ * every {@code mergeIntervalMinutes}, a cache tool Job mounts the volume read-write and merges the
+ * staged batches into the base tree. Being one Job per cache, the merge is the only process writing
+ * the base tree. The outcome of the last merge is kept in {@code status.merge}.
+ */
+@ApplicationScoped
+public class CacheOverlayMerger implements CacheMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheOverlayMerger.class);
+
+  static final String MERGE_TASK = "merge";
+
+  @Inject CacheToolJobs jobs;
+
+  @Override
+  public String name() {
+    return "OverlayMerge";
+  }
+
+  @Override
+  public Optional<Duration> maintain(
+      DependencyCache dependencyCache, DependencyCacheStatus status) {
+    var overlay = dependencyCache.getSpec().overlay();
+    if (overlay == null) {
+      status.setMerge(null);
+      return Optional.empty();
+    }
+
+    var interval = Duration.ofMinutes(overlay.mergeIntervalMinutes());
+    var nextRun =
+        Optional.ofNullable(status.getMerge())
+            .map(last -> Instant.parse(last.lastRunAt()).plus(interval))
+            .orElse(Instant.MIN);
+    if (nextRun.isAfter(Instant.now())) {
+      return Optional.of(Duration.between(Instant.now(), nextRun));
+    }
+
+    var task =
+        new CacheToolJobs.Task(
+            dependencyCache,
+            MERGE_TASK,
+            List.of(
+                "--root",
+                "/cache",
+                "--abandon-after-hours",
+                String.valueOf(overlay.abandonAfterHours())),
+            List.of(new CacheToolJobs.Mount(dependencyCache.getSpec().pvcName(), "/cache", false)));
+
+    return Optional.of(
+        switch (jobs.run(task, CacheOverlayMerge.Result.class)) {
+          case JobResult.Succeeded<CacheOverlayMerge.Result>(var result) -> {
+            if (result.mergedFiles() > 0) {
+              log.info(
+                  "🔀 Merged {} files ({} bytes) from {} overlay batches into DependencyCache {}/{}"
+                      + " in {} ms",
+                  result.mergedFiles(),
+                  result.mergedBytes(),
+                  result.batches(),
+                  dependencyCache.getMetadata().getNamespace(),
+                  dependencyCache.getMetadata().getName(),
+                  result.durationMillis());
+            }
+            status.setMerge(
+                new CacheMergeStatus(
+                    Instant.now().toString(),
+                    result.batches(),
+                    result.mergedFiles(),
+                    result.mergedBytes(),
+                    result.duplicateFiles(),
+                    result.discardedBatches(),
+                    result.durationMillis()));
+            yield interval;
+          }
+          case JobResult.Running<CacheOverlayMerge.Result> running -> Duration.ofSeconds(15);
+          case JobResult.Failed<CacheOverlayMerge.Result>(var error) -> {
+            status.setErrorMessage("Overlay merge failed: " + error);
+            yield interval;
+          }
+        });
+  }
+}
@@ -0,0 +1,339 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.model.cache.CachePopulationSpec;
+import org.shadok.operator.model.cache.CachePopulationStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.CachePopulationMarker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coordinated first population of DependencyCaches with {@code spec.population} set.
+ *
+ * <p>When a fresh cache is used by many pods at once, each build tool downloads the same dependency
+ * graph into the shared volume, multiplying registry traffic and running into cache lock timeouts.
+ * Instead, the webhook makes the pods wait in an init container for the {@link
+ * CachePopulationMarker#MARKER} file, labelled as candidates. This maintenance step elects the
+ * oldest candidate as the writer: it records it in a Lease ({@code shadok-population-<cache>}, in
+ * the cache namespace) and annotates the pod, whose gate then lets it resolve the dependencies
+ * alone. Only pods that exist take part, so that dry runs and rejected pods never block the others.
+ *
+ * <p>The Lease is renewed while the writer pod is starting. Once it is Ready, a cache tool Job
+ * writes the marker, the cache is reported {@code POPULATED} in {@code status.population} and pods
+ * are no longer gated. A writer pod that vanishes stops renewing its Lease, which is then released
+ * and handed over to the next candidate; pods still waiting resolve by themselves after {@code
+ * waitTimeoutMinutes}.
+ */
+@ApplicationScoped
+public class CachePopulation implements CacheMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(CachePopulation.class);
+
+  /** Label of the pods waiting for the population of their cache. */
+  public static final String LABEL_CANDIDATE = "org.shadok/cache-population-candidate";
+
+  /** Annotation of the candidate pods, naming their cache ({@code <namespace>/<name>}). */
+  public static final String ANNOTATION_CACHE = "org.shadok/cache-population";
+
+  /** Annotation of the writer pod, naming the cache it populates. */
+  public static final String ANNOTATION_WRITER = "org.shadok/cache-population-writer";
+
+  static final String POPULATED_TASK = "populated";
+
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(10);
+
+  @Inject KubernetesClient client;
+  @Inject CacheToolJobs jobs;
+
+  /**
+   * Whether the pods of a cache wait for its first population.
+   *
+   * @param dependencyCache cache mounted read-write by the pod
+   */
+  public static boolean coordinates(DependencyCache dependencyCache) {
+    return dependencyCache.getSpec().population() != null
+        && !isPopulated(dependencyCache.getStatus());
+  }
+
+  /** Reference of a cache in the candidate annotation. */
+  public static String cacheRef(DependencyCache dependencyCache) {
+    return namespace(dependencyCache) + "/" + dependencyCache.getMetadata().getName();
+  }
+
+  @Override
+  public String name() {
+    return "Population";
+  }
+
+  @Override
+  public Optional<Duration> maintain(
+      DependencyCache dependencyCache, DependencyCacheStatus status) {
+    var population = dependencyCache.getSpec().population();
+    if (population == null) {
+      status.setPopulation(null);
+      return Optional.empty();
+    }
+    if (isPopulated(status)) {
+      return Optional.empty();
+    }
+
+    var leases = client.resources(Lease.class).inNamespace(namespace(dependencyCache));
+    var lease = leases.withName(leaseName(dependencyCache)).get();
+    var current = Optional.ofNullable(status.getPopulation());
+    var now = Instant.now();
+    var takeovers = current.map(CachePopulationStatus::takeovers).orElse(0);
+    if (lease == null) {
+      return elect(dependencyCache, population, status, current, takeovers, now);
+    }
+
+    var startedAt =
+        current
+            .map(CachePopulationStatus::startedAt)
+            .orElseGet(
+                () ->
+                    Optional.ofNullable(lease.getSpec().getAcquireTime())
+                        .map(ZonedDateTime::toInstant)
+                        .orElse(now)
+                        .toString());
+    var holder = lease.getSpec().getHolderIdentity();
+    var writer = writerPod(holder);
+
+    if (writer.filter(CachePopulation::isReady).isPresent()) {
+      var writerName = name(writer.get());
+      var task =
+          new CacheToolJobs.Task(
+              dependencyCache,
+              POPULATED_TASK,
+              List.of("--root", "/cache", "--writer", writerName),
+              List.of(
+                  new CacheToolJobs.Mount(dependencyCache.getSpec().pvcName(), "/cache", false)));
+      return switch (jobs.run(task, CachePopulationMarker.Result.class)) {
+        case JobResult.Succeeded<CachePopulationMarker.Result>(var marker) -> {
+          var duration =
+              Duration.between(Instant.parse(startedAt), Instant.parse(marker.markedAt()));
+          log.info(
+              "✅ DependencyCache {}/{} populated by {} in {} ms",
+              namespace(dependencyCache),
+              dependencyCache.getMetadata().getName(),
+              writerName,
+              duration.toMillis());
+          status.setPopulation(
+              new CachePopulationStatus(
+                  CachePopulationStatus.Phase.POPULATED,
+                  writerName,
+                  startedAt,
+                  marker.markedAt(),
+                  duration.toMillis(),
+                  takeovers));
+          leases.resource(lease).delete();
+          yield Optional.empty();
+        }
+        case JobResult.Running<CachePopulationMarker.Result> running ->
+            Optional.of(Duration.ofSeconds(5));
+        case JobResult.Failed<CachePopulationMarker.Result>(var error) -> {
+          status.setErrorMessage("Cache population marker failed: " + error);
+          yield Optional.of(POLL_INTERVAL);
+        }
+      };
+    }
+
+    if (writer.filter(pod -> !isTerminated(pod)).isPresent()) {
+      lease.getSpec().setRenewTime(leaseTime(now));
+      leases.resource(lease).update();
+      status.setPopulation(
+          new CachePopulationStatus(
+              CachePopulationStatus.Phase.POPULATING,
+              name(writer.get()),
+              startedAt,
+              null,
+              null,
+              takeovers));
+      return Optional.of(Duration.ofSeconds(Math.max(1, population.leaseDurationSeconds() / 3)));
+    }
+
+    // Writer gone: release the Lease once expired and hand it over to the next candidate
+    if (!isExpired(lease, now)) {
+      status.setPopulation(
+          new CachePopulationStatus(
+              CachePopulationStatus.Phase.POPULATING, null, startedAt, null, null, takeovers));
+      return Optional.of(POLL_INTERVAL);
+    }
+    log.warn(
+        "⚠️ Writer {} of DependencyCache {}/{} vanished, releasing the population Lease",
+        holder,
+        namespace(dependencyCache),
+        dependencyCache.getMetadata().getName());
+    leases.resource(lease).delete();
+    return elect(dependencyCache, population, status, current, takeovers + 1, now);
+  }
+
+  /**
+   * Elect the oldest candidate pod of a cache as its writer: the Lease records it, the annotation
+   * releases its gate. Without candidate, the cache waits for its first pod.
+   */
+  private Optional<Duration> elect(
+      DependencyCache dependencyCache,
+      CachePopulationSpec population,
+      DependencyCacheStatus status,
+      Optional<CachePopulationStatus> current,
+      int takeovers,
+      Instant now) {
+    var cacheRef = cacheRef(dependencyCache);
+    var candidate =
+        client.pods().inAnyNamespace().withLabel(LABEL_CANDIDATE).list().getItems().stream()
+            .filter(pod -> cacheRef.equals(annotation(pod, ANNOTATION_CACHE)))
+            .filter(pod -> annotation(pod, ANNOTATION_WRITER) == null && !isTerminated(pod))
+            .min(
+                Comparator.comparing(
+                        (Pod pod) -> Objects.toString(pod.getMetadata().getCreationTimestamp(), ""))
+                    .thenComparing(CachePopulation::name));
+    if (candidate.isEmpty()) {
+      if (current.isPresent() || takeovers > 0) {
+        status.setPopulation(
+            new CachePopulationStatus(
+                CachePopulationStatus.Phase.POPULATING,
+                null,
+                current.map(CachePopulationStatus::startedAt).orElse(now.toString()),
+                null,
+                null,
+                takeovers));
+      }
+      return Optional.of(POLL_INTERVAL);
+    }
+
+    var writer = candidate.get();
+    client
+        .resources(Lease.class)
+        .inNamespace(namespace(dependencyCache))
+        .resource(newLease(dependencyCache, population, name(writer), now))
+        .create();
+    client
+        .pods()
+        .inNamespace(writer.getMetadata().getNamespace())
+        .withName(writer.getMetadata().getName())
+        .edit(
+            pod ->
+                new PodBuilder(pod)
+                    .editMetadata()
+                    .addToAnnotations(ANNOTATION_WRITER, cacheRef)
+                    .endMetadata()
+                    .build());
+    log.info(
+        "🔑 Pod {} populates DependencyCache {}/{}",
+        name(writer),
+        namespace(dependencyCache),
+        dependencyCache.getMetadata().getName());
+    status.setPopulation(
+        new CachePopulationStatus(
+            CachePopulationStatus.Phase.POPULATING,
+            name(writer),
+            current.map(CachePopulationStatus::startedAt).orElse(now.toString()),
+            null,
+            null,
+            takeovers));
+    return Optional.of(Duration.ofSeconds(Math.max(1, population.leaseDurationSeconds() / 3)));
+  }
+
+  private static boolean isPopulated(DependencyCacheStatus status) {
+    return Optional.ofNullable(status)
+        .map(DependencyCacheStatus::getPopulation)
+        .filter(population -> population.phase() == CachePopulationStatus.Phase.POPULATED)
+        .isPresent();
+  }
+
+  /** Pod holding the Lease ({@code <namespace>/<name>}). */
+  private Optional<Pod> writerPod(String holder) {
+    if (holder == null || !holder.contains("/")) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(
+        client
+            .pods()
+            .inNamespace(holder.substring(0, holder.indexOf('/')))
+            .withName(holder.substring(holder.indexOf('/') + 1))
+            .get());
+  }
+
+  private static String annotation(Pod pod, String key) {
+    return Optional.ofNullable(pod.getMetadata().getAnnotations())
+        .map(annotations -> annotations.get(key))
+        .orElse(null);
+  }
+
+  private static boolean isReady(Pod pod) {
+    return Optional.ofNullable(pod.getStatus()).map(status -> status.getConditions()).stream()
+        .flatMap(List::stream)
+        .anyMatch(
+            condition ->
+                "Ready".equals(condition.getType()) && "True".equals(condition.getStatus()));
+  }
+
+  private static boolean isTerminated(Pod pod) {
+    var phase = Optional.ofNullable(pod.getStatus()).map(status -> status.getPhase()).orElse("");
+    return pod.getMetadata().getDeletionTimestamp() != null
+        || "Failed".equals(phase)
+        || "Succeeded".equals(phase);
+  }
+
+  private static boolean isExpired(Lease lease, Instant now) {
+    var renewed =
+        Optional.ofNullable(lease.getSpec().getRenewTime())
+            .or(() -> Optional.ofNullable(lease.getSpec().getAcquireTime()))
+            .map(ZonedDateTime::toInstant)
+            .orElse(Instant.MIN);
+    var duration =
+        Optional.ofNullable(lease.getSpec().getLeaseDurationSeconds()).orElse(0).longValue();
+    return renewed.plusSeconds(duration).isBefore(now);
+  }
+
+  private static Lease newLease(
+      DependencyCache dependencyCache, CachePopulationSpec population, String holder, Instant now) {
+    return new LeaseBuilder()
+        .withNewMetadata()
+        .withName(leaseName(dependencyCache))
+        .withNamespace(namespace(dependencyCache))
+        .addToLabels("app.kubernetes.io/managed-by", "shadok-operator")
+        .endMetadata()
+        .withNewSpec()
+        .withHolderIdentity(holder)
+        .withLeaseDurationSeconds(population.leaseDurationSeconds())
+        .withAcquireTime(leaseTime(now))
+        .withRenewTime(leaseTime(now))
+        .endSpec()
+        .build();
+  }
+
+  static String leaseName(DependencyCache dependencyCache) {
+    return "shadok-population-" + dependencyCache.getMetadata().getName();
+  }
+
+  private static String namespace(DependencyCache dependencyCache) {
+    return dependencyCache.getMetadata().getNamespace();
+  }
+
+  private static String name(Pod pod) {
+    return pod.getMetadata().getNamespace() + "/" + pod.getMetadata().getName();
+  }
+
+  private static ZonedDateTime leaseTime(Instant instant) {
+    return ZonedDateTime.ofInstant(instant, ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,156 @@
+package org.shadok.operator.controller;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.model.cache.CacheSnapshotSpec;
+import org.shadok.operator.model.cache.CacheSnapshotStatus;
+import org.shadok.operator.model.cache.CacheSnapshotTransfer;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.CacheSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Snapshot export and import of DependencyCache volumes with {@code spec.snapshot} set.
+ *
+ * <p>With {@code importFrom}, a cache tool Job mounting the snapshot store read-only extracts the
+ * snapshot layers missing from the cache volume, once per generation of the DependencyCache. With
+ * {@code exportAs}, a Job mounting the cache volume read-only writes its changed layers to the
+ * store every {@code exportIntervalMinutes}; a cache seeded from a snapshot is only exported once
+ * its import is over. The outcome of the last transfers is kept in {@code status.snapshot}.
+ */
+@ApplicationScoped
+public class CacheSnapshots implements CacheMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheSnapshots.class);
+
+  static final String EXPORT_TASK = "snapshot-export";
+  static final String IMPORT_TASK = "snapshot-import";
+
+  private static final String CACHE_PATH = "/cache";
+  private static final String STORE_PATH = "/snapshots";
+  private static final Duration RETRY_DELAY = Duration.ofMinutes(5);
+
+  @Inject CacheToolJobs jobs;
+
+  @Override
+  public String name() {
+    return "Snapshot";
+  }
+
+  @Override
+  public Optional<Duration> maintain(
+      DependencyCache dependencyCache, DependencyCacheStatus status) {
+    var snapshot = dependencyCache.getSpec().snapshot();
+    if (snapshot == null) {
+      status.setSnapshot(null);
+      return Optional.empty();
+    }
+
+    var generation = dependencyCache.getMetadata().getGeneration();
+    var current = Optional.ofNullable(status.getSnapshot());
+    var lastImport = current.map(CacheSnapshotStatus::lastImport);
+    var lastExport = current.map(CacheSnapshotStatus::lastExport);
+
+    if (snapshot.importFrom() != null
+        && lastImport
+            .filter(run -> snapshot.importFrom().equals(run.snapshot()))
+            .filter(run -> Objects.equals(generation, run.observedGeneration()))
+            .isEmpty()) {
+      return Optional.of(
+          switch (transfer(dependencyCache, snapshot, IMPORT_TASK, snapshot.importFrom())) {
+            case JobResult.Succeeded<CacheSnapshot.Result>(var result) -> {
+              status.setSnapshot(
+                  new CacheSnapshotStatus(
+                      lastExport.orElse(null), transferStatus(result, generation)));
+              // Export, if any, right after the import
+              yield Duration.ofSeconds(1);
+            }
+            case JobResult.Running<CacheSnapshot.Result> running -> Duration.ofSeconds(15);
+            case JobResult.Failed<CacheSnapshot.Result>(var error) -> {
+              status.setErrorMessage("Snapshot import failed: " + error);
+              yield RETRY_DELAY;
+            }
+          });
+    }
+
+    if (snapshot.exportAs() == null) {
+      return Optional.empty();
+    }
+    var interval = Duration.ofMinutes(snapshot.exportIntervalMinutes());
+    var nextExport =
+        lastExport
+            .filter(run -> snapshot.exportAs().equals(run.snapshot()))
+            .map(run -> Instant.parse(run.at()).plus(interval))
+            .orElse(Instant.MIN);
+    if (nextExport.isAfter(Instant.now())) {
+      return Optional.of(Duration.between(Instant.now(), nextExport));
+    }
+    return Optional.of(
+        switch (transfer(dependencyCache, snapshot, EXPORT_TASK, snapshot.exportAs())) {
+          case JobResult.Succeeded<CacheSnapshot.Result>(var result) -> {
+            status.setSnapshot(
+                new CacheSnapshotStatus(
+                    transferStatus(result, generation), lastImport.orElse(null)));
+            yield interval;
+          }
+          case JobResult.Running<CacheSnapshot.Result> running -> Duration.ofSeconds(15);
+          case JobResult.Failed<CacheSnapshot.Result>(var error) -> {
+            status.setErrorMessage("Snapshot export failed: " + error);
+            yield RETRY_DELAY;
+          }
+        });
+  }
+
+  private JobResult<CacheSnapshot.Result> transfer(
+      DependencyCache dependencyCache, CacheSnapshotSpec snapshot, String taskName, String name) {
+    var exporting = EXPORT_TASK.equals(taskName);
+    var task =
+        new CacheToolJobs.Task(
+            dependencyCache,
+            taskName,
+            List.of("--root", CACHE_PATH, "--store", STORE_PATH, "--name", name),
+            List.of(
+                new CacheToolJobs.Mount(dependencyCache.getSpec().pvcName(), CACHE_PATH, exporting),
+                new CacheToolJobs.Mount(snapshot.storeClaimName(), STORE_PATH, !exporting)));
+
+    var result = jobs.run(task, CacheSnapshot.Result.class);
+    if (result instanceof JobResult.Succeeded<CacheSnapshot.Result>(var transfer)) {
+      log.info(
+          "📸 {} snapshot '{}' {} DependencyCache {}/{}: {}/{} layers, {} bytes in {} ms",
+          exporting ? "Exported" : "Imported",
+          name,
+          exporting ? "from" : "into",
+          dependencyCache.getMetadata().getNamespace(),
+          dependencyCache.getMetadata().getName(),
+          transfer.transferredLayers(),
+          transfer.layers(),
+          transfer.transferredBytes(),
+          transfer.durationMillis());
+    }
+    return result;
+  }
+
+  private static CacheSnapshotTransfer transferStatus(
+      CacheSnapshot.Result result, Long generation) {
+    return new CacheSnapshotTransfer(
+        result.snapshot(),
+        Instant.now().toString(),
+        generation,
+        result.layers(),
+        result.transferredLayers(),
+        result.reusedLayers(),
+        result.transferredBytes(),
+        result.snapshotBytes(),
+        result.files(),
+        result.durationMillis());
+  }
+}
@@ -0,0 +1,149 @@
+package org.shadok.operator.controller;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.shadok.operator.config.CacheConfig;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.dependent.DependencyCachePvcDependent;
+import org.shadok.operator.model.cache.CacheSubtreeUsage;
+import org.shadok.operator.model.cache.CacheUsageStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.CacheUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodic usage telemetry of DependencyCache volumes.
+ *
+ * <p>Every {@code shadok.cache.usage.refresh-interval}, a cache tool Job mounts the cache volume
+ * read-only and scans it in parallel. Used bytes and files, per ecosystem subtree, and the growth
+ * rate since the previous scan are kept in {@code status.usage} and published as Prometheus gauges
+ * by {@link CacheUsageMetrics}.
+ */
+@ApplicationScoped
+public class CacheUsageCollector implements CacheMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheUsageCollector.class);
+
+  static final String USAGE_TASK = "usage";
+
+  @Inject CacheToolJobs jobs;
+  @Inject CacheConfig config;
+  @Inject CacheUsageMetrics metrics;
+
+  @Override
+  public String name() {
+    return "Usage";
+  }
+
+  @Override
+  public Optional<Duration> maintain(
+      DependencyCache dependencyCache, DependencyCacheStatus status) {
+    if (!config.usage().enabled()) {
+      status.setUsage(null);
+      metrics.forget(dependencyCache);
+      return Optional.empty();
+    }
+
+    // Keep the gauges populated from status, e.g. after a leader change
+    var previous = Optional.ofNullable(status.getUsage());
+    previous.ifPresent(usage -> metrics.record(dependencyCache, usage));
+
+    var interval = config.usage().refreshInterval();
+    var nextRun =
+        previous.map(usage -> Instant.parse(usage.measuredAt()).plus(interval)).orElse(Instant.MIN);
+    if (nextRun.isAfter(Instant.now())) {
+      return Optional.of(Duration.between(Instant.now(), nextRun));
+    }
+
+    var task =
+        new CacheToolJobs.Task(
+            dependencyCache,
+            USAGE_TASK,
+            List.of(
+                "--root", "/cache", "--parallelism", String.valueOf(config.usage().parallelism())),
+            List.of(new CacheToolJobs.Mount(dependencyCache.getSpec().pvcName(), "/cache", true)));
+
+    return Optional.of(
+        switch (jobs.run(task, CacheUsage.Result.class)) {
+          case JobResult.Succeeded<CacheUsage.Result>(var result) -> {
+            var usage = usageStatus(dependencyCache, result, previous, Instant.now());
+            log.debug(
+                "DependencyCache {}/{} uses {} bytes in {} files (scanned in {} ms)",
+                dependencyCache.getMetadata().getNamespace(),
+                dependencyCache.getMetadata().getName(),
+                usage.usedBytes(),
+                usage.files(),
+                usage.scanMillis());
+            status.setUsage(usage);
+            metrics.record(dependencyCache, usage);
+            yield interval;
+          }
+          case JobResult.Running<CacheUsage.Result> running -> Duration.ofSeconds(10);
+          case JobResult.Failed<CacheUsage.Result>(var error) -> {
+            log.warn(
+                "Usage measurement of DependencyCache {}/{} failed: {}",
+                dependencyCache.getMetadata().getNamespace(),
+                dependencyCache.getMetadata().getName(),
+                error);
+            yield interval;
+          }
+        });
+  }
+
+  /** Usage status of a scan, with growth rates relative to the previous measurement. */
+  static CacheUsageStatus usageStatus(
+      DependencyCache dependencyCache,
+      CacheUsage.Result result,
+      Optional<CacheUsageStatus> previous,
+      Instant now) {
+    var capacity =
+        DependencyCachePvcDependent.bytes(DependencyCachePvcDependent.storageSize(dependencyCache));
+    var hours =
+        previous
+            .map(usage -> Duration.between(Instant.parse(usage.measuredAt()), now))
+            .filter(elapsed -> !elapsed.isNegative() && !elapsed.isZero())
+            .map(elapsed -> elapsed.toMillis() / 3_600_000.0);
+    var previousSubtrees =
+        previous.map(CacheUsageStatus::subtrees).orElse(List.of()).stream()
+            .collect(Collectors.toMap(CacheSubtreeUsage::path, Function.identity()));
+
+    var subtrees =
+        result.subtrees().stream()
+            .map(
+                subtree ->
+                    new CacheSubtreeUsage(
+                        subtree.path(),
+                        subtree.usedBytes(),
+                        subtree.files(),
+                        growth(
+                            subtree.usedBytes(),
+                            Optional.ofNullable(previousSubtrees.get(subtree.path()))
+                                .map(CacheSubtreeUsage::usedBytes),
+                            hours)))
+            .toList();
+    return new CacheUsageStatus(
+        now.toString(),
+        result.usedBytes(),
+        result.files(),
+        capacity,
+        capacity > 0 ? Math.round(result.usedBytes() * 1000.0 / capacity) / 10.0 : 0,
+        growth(result.usedBytes(), previous.map(CacheUsageStatus::usedBytes), hours),
+        result.scanMillis(),
+        subtrees);
+  }
+
+  private static Double growth(long usedBytes, Optional<Long> before, Optional<Double> hours) {
+    return before
+        .flatMap(bytes -> hours.map(h -> Math.round((usedBytes - bytes) / h * 10) / 10.0))
+        .orElse(null);
+  }
+}
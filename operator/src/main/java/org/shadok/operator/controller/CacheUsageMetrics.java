@@ -0,0 +1,164 @@
+package org.shadok.operator.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+import org.shadok.operator.config.CacheConfig;
+import org.shadok.operator.model.cache.CacheSubtreeUsage;
+import org.shadok.operator.model.cache.CacheUsageStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+
+/**
+ * Prometheus gauges of the DependencyCache usage measured by {@link CacheUsageCollector}.
+ *
+ * <ul>
+ *   <li>{@code shadok_cache_used_bytes}, {@code shadok_cache_files}, {@code
+ *       shadok_cache_capacity_bytes} and {@code shadok_cache_growth_bytes_per_hour} per cache
+ *       ({@code namespace}, {@code cache} tags)
+ *   <li>{@code shadok_cache_subtree_used_bytes}, {@code shadok_cache_subtree_files} and {@code
+ *       shadok_cache_subtree_growth_bytes_per_hour} per ecosystem subtree (additional {@code
+ *       subtree} tag)
+ * </ul>
+ *
+ * <p>Rows are replaced on every measurement, so that subtrees that disappeared stop being reported.
+ * Caches that have not been measured for three refresh intervals (deleted, or reconciled by another
+ * replica since a leader change) are dropped as well.
+ */
+@Singleton
+public class CacheUsageMetrics implements MeterBinder {
+
+  private record Key(String namespace, String cache) {
+
+    static Key of(DependencyCache dependencyCache) {
+      return new Key(
+          dependencyCache.getMetadata().getNamespace(), dependencyCache.getMetadata().getName());
+    }
+
+    Tags tags() {
+      return Tags.of("namespace", namespace, "cache", cache);
+    }
+  }
+
+  private record Gauges(
+      MultiGauge usedBytes,
+      MultiGauge files,
+      MultiGauge capacityBytes,
+      MultiGauge growth,
+      MultiGauge subtreeUsedBytes,
+      MultiGauge subtreeFiles,
+      MultiGauge subtreeGrowth) {}
+
+  @Inject CacheConfig config;
+
+  private final Map<Key, CacheUsageStatus> usages = new ConcurrentHashMap<>();
+  private volatile Gauges gauges;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    gauges =
+        new Gauges(
+            gauge(registry, "shadok.cache.used.bytes", "Bytes used by the cache volume"),
+            gauge(registry, "shadok.cache.files", "Regular files in the cache volume"),
+            gauge(
+                registry,
+                "shadok.cache.capacity.bytes",
+                "Requested storage size of the cache volume"),
+            gauge(
+                registry,
+                "shadok.cache.growth.bytes.per.hour",
+                "Growth of the cache volume since the previous measurement"),
+            gauge(
+                registry,
+                "shadok.cache.subtree.used.bytes",
+                "Bytes used by an ecosystem subtree of the cache volume"),
+            gauge(
+                registry,
+                "shadok.cache.subtree.files",
+                "Regular files in an ecosystem subtree of the cache volume"),
+            gauge(
+                registry,
+                "shadok.cache.subtree.growth.bytes.per.hour",
+                "Growth of an ecosystem subtree since the previous measurement"));
+    refresh();
+  }
+
+  /** Publish the latest measurement of a cache. */
+  void record(DependencyCache dependencyCache, CacheUsageStatus usage) {
+    var previous = usages.put(Key.of(dependencyCache), usage);
+    if (!usage.equals(previous)) {
+      refresh();
+    }
+  }
+
+  /** Stop reporting a cache. */
+  void forget(DependencyCache dependencyCache) {
+    if (usages.remove(Key.of(dependencyCache)) != null) {
+      refresh();
+    }
+  }
+
+  private synchronized void refresh() {
+    var expired = Instant.now().minus(config.usage().refreshInterval().multipliedBy(3));
+    usages.values().removeIf(usage -> Instant.parse(usage.measuredAt()).isBefore(expired));
+    var current = gauges;
+    if (current == null) {
+      return;
+    }
+    current.usedBytes().register(rows(CacheUsageStatus::usedBytes), true);
+    current.files().register(rows(CacheUsageStatus::files), true);
+    current.capacityBytes().register(rows(CacheUsageStatus::capacityBytes), true);
+    current.growth().register(rows(optional(CacheUsageStatus::growthBytesPerHour)), true);
+    current.subtreeUsedBytes().register(subtreeRows(CacheSubtreeUsage::usedBytes), true);
+    current.subtreeFiles().register(subtreeRows(CacheSubtreeUsage::files), true);
+    current
+        .subtreeGrowth()
+        .register(subtreeRows(optional(CacheSubtreeUsage::growthBytesPerHour)), true);
+  }
+
+  private List<MultiGauge.Row<?>> rows(ToDoubleFunction<CacheUsageStatus> value) {
+    return rows(value, usage -> Stream.of(usage), usage -> Tags.empty());
+  }
+
+  private List<MultiGauge.Row<?>> subtreeRows(ToDoubleFunction<CacheSubtreeUsage> value) {
+    return rows(
+        value, usage -> usage.subtrees().stream(), subtree -> Tags.of("subtree", subtree.path()));
+  }
+
+  private <T> List<MultiGauge.Row<?>> rows(
+      ToDoubleFunction<T> value,
+      Function<CacheUsageStatus, Stream<T>> items,
+      Function<T, Tags> itemTags) {
+    return usages.entrySet().stream()
+        .<MultiGauge.Row<?>>flatMap(
+            entry ->
+                items
+                    .apply(entry.getValue())
+                    .filter(item -> !Double.isNaN(value.applyAsDouble(item)))
+                    .map(
+                        item ->
+                            MultiGauge.Row.of(
+                                entry.getKey().tags().and(itemTags.apply(item)),
+                                value.applyAsDouble(item))))
+        .toList();
+  }
+
+  /** Absent growth rates (first measurement) are not reported. */
+  private static <T> ToDoubleFunction<T> optional(Function<T, Double> value) {
+    return item -> Optional.ofNullable(value.apply(item)).orElse(Double.NaN);
+  }
+
+  private static MultiGauge gauge(MeterRegistry registry, String name, String description) {
+    return MultiGauge.builder(name).description(description).register(registry);
+  }
+}
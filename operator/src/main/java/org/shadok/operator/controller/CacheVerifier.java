@@ -0,0 +1,98 @@
+package org.shadok.operator.controller;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.model.cache.CacheVerifyStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.CacheVerify;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduled integrity verification of DependencyCache volumes with {@code spec.verify} set.
+ *
+ * <p>Every {@code intervalMinutes}, a cache tool Job mounts the cache volume read-write, checks its
+ * files against the checksums recorded by the build tools and quarantines the corrupt ones. The
+ * outcome of the last run is kept in {@code status.verify}.
+ */
+@ApplicationScoped
+public class CacheVerifier implements CacheMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheVerifier.class);
+
+  static final String VERIFY_TASK = "verify";
+
+  @Inject CacheToolJobs jobs;
+
+  @Override
+  public String name() {
+    return "Verification";
+  }
+
+  @Override
+  public Optional<Duration> maintain(
+      DependencyCache dependencyCache, DependencyCacheStatus status) {
+    var verify = dependencyCache.getSpec().verify();
+    if (verify == null) {
+      status.setVerify(null);
+      return Optional.empty();
+    }
+
+    var interval = Duration.ofMinutes(verify.intervalMinutes());
+    var last = Optional.ofNullable(status.getVerify());
+    var nextRun =
+        last.map(run -> Instant.parse(run.lastRunAt()).plus(interval)).orElse(Instant.MIN);
+    if (nextRun.isAfter(Instant.now())) {
+      return Optional.of(Duration.between(Instant.now(), nextRun));
+    }
+
+    var task =
+        new CacheToolJobs.Task(
+            dependencyCache,
+            VERIFY_TASK,
+            List.of(
+                "--root", "/cache",
+                "--grace-minutes", String.valueOf(verify.graceMinutes()),
+                "--parallelism", String.valueOf(verify.parallelism()),
+                "--quarantine-retention-hours", String.valueOf(verify.quarantineRetentionHours())),
+            List.of(new CacheToolJobs.Mount(dependencyCache.getSpec().pvcName(), "/cache", false)));
+
+    return Optional.of(
+        switch (jobs.run(task, CacheVerify.Result.class)) {
+          case JobResult.Succeeded<CacheVerify.Result>(var result) -> {
+            if (result.corruptFiles() > 0) {
+              log.warn(
+                  "🩺 Quarantined {} corrupt files of DependencyCache {}/{}: {}",
+                  result.corruptFiles(),
+                  dependencyCache.getMetadata().getNamespace(),
+                  dependencyCache.getMetadata().getName(),
+                  result.quarantined());
+            }
+            status.setVerify(
+                new CacheVerifyStatus(
+                    Instant.now().toString(),
+                    result.verifiedFiles(),
+                    result.verifiedBytes(),
+                    result.corruptFiles(),
+                    last.map(CacheVerifyStatus::totalCorruptFiles).orElse(0L)
+                        + result.corruptFiles(),
+                    result.quarantined(),
+                    result.durationMillis(),
+                    result.gigabytesPerSecond()));
+            yield interval;
+          }
+          case JobResult.Running<CacheVerify.Result> running -> Duration.ofSeconds(15);
+          case JobResult.Failed<CacheVerify.Result>(var error) -> {
+            status.setErrorMessage("Integrity verification failed: " + error);
+            yield interval;
+          }
+        });
+  }
+}
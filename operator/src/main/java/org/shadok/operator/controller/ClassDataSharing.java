@@ -0,0 +1,175 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.dependent.DependencyCachePvcDependent;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationStatus;
+import org.shadok.operator.model.application.ClassDataSharingStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.CdsArchives;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application class-data sharing archives of Applications with {@code spec.classDataSharing}.
+ *
+ * <p>The archives are written by the JVMs themselves (see {@link CdsArchives}). Every {@code
+ * checkMinutes}, a cache tool Job lists them and deletes the ones beyond {@code keepArchives}. The
+ * startup time (creation to readiness) of the ready pods of the Application is averaged separately
+ * for the pods created after the last archive was written and for the others, so that {@code
+ * status.classDataSharing} tells what the archive saves.
+ */
+@ApplicationScoped
+public class ClassDataSharing {
+
+  private static final Logger log = LoggerFactory.getLogger(ClassDataSharing.class);
+
+  static final String TASK = "cds-archives";
+
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(10);
+
+  @Inject KubernetesClient client;
+  @Inject CacheToolJobs jobs;
+  @Inject PodRollout podRollout;
+
+  /** Class-data sharing status and the delay before the next check. */
+  public record Outcome(ClassDataSharingStatus status, Duration recheckAfter) {}
+
+  /**
+   * List the archives of an Application and measure the startup time of its pods.
+   *
+   * @param application the Application
+   * @return empty when class-data sharing is not enabled or the Application is not JVM based
+   */
+  public Optional<Outcome> report(Application application) {
+    var spec = application.getSpec();
+    var classDataSharing = spec.classDataSharing();
+    if (classDataSharing == null || !spec.applicationType().isJvmBased()) {
+      return Optional.empty();
+    }
+
+    var namespace = application.getMetadata().getNamespace();
+    var previous =
+        Optional.ofNullable(application.getStatus()).map(ApplicationStatus::getClassDataSharing);
+    var interval = Duration.ofMinutes(classDataSharing.checkMinutes());
+    var nextCheck =
+        previous
+            .map(ClassDataSharingStatus::checkedAt)
+            .map(checkedAt -> Instant.parse(checkedAt).plus(interval))
+            .orElse(Instant.MIN);
+    if (nextCheck.isAfter(Instant.now())) {
+      return Optional.of(new Outcome(previous.get(), Duration.between(Instant.now(), nextCheck)));
+    }
+
+    var cache =
+        client
+            .resources(DependencyCache.class)
+            .inNamespace(spec.dependencyCacheNamespace(namespace))
+            .withName(spec.dependencyCacheName())
+            .get();
+    if (cache == null) {
+      return Optional.of(new Outcome(previous.orElse(null), interval));
+    }
+
+    var task =
+        new CacheToolJobs.Task(
+            application,
+            TASK,
+            List.of(
+                "--root",
+                "/cache",
+                "--namespace",
+                namespace,
+                "--name",
+                application.getMetadata().getName(),
+                "--keep",
+                String.valueOf(classDataSharing.keepArchives())),
+            List.of(
+                new CacheToolJobs.Mount(
+                    DependencyCachePvcDependent.claimName(cache, namespace), "/cache", false)));
+    return Optional.of(
+        switch (jobs.run(task, CdsArchives.Result.class)) {
+          case JobResult.Succeeded<CdsArchives.Result>(var report) -> {
+            if (!report.pruned().isEmpty()) {
+              log.info(
+                  "🧹 Deleted class-data sharing archives {} of Application {}/{}",
+                  report.pruned(),
+                  namespace,
+                  application.getMetadata().getName());
+            }
+            yield new Outcome(status(application, report, previous), interval);
+          }
+          case JobResult.Running<CdsArchives.Result> running ->
+              new Outcome(previous.orElse(null), POLL_INTERVAL);
+          case JobResult.Failed<CdsArchives.Result>(var error) -> {
+            log.warn(
+                "Class-data sharing archives of Application {}/{} not listed: {}",
+                namespace,
+                application.getMetadata().getName(),
+                error);
+            yield new Outcome(previous.orElse(null), interval);
+          }
+        });
+  }
+
+  private ClassDataSharingStatus status(
+      Application application,
+      CdsArchives.Result report,
+      Optional<ClassDataSharingStatus> previous) {
+    var archivedAt =
+        report.archives().stream()
+            .map(CdsArchives.Archive::writtenAt)
+            .map(Instant::parse)
+            .max(Instant::compareTo);
+    var with = new Startup();
+    var without = new Startup();
+    for (var pod : podRollout.pods(application)) {
+      var createdAt = PodRollout.createdAt(pod);
+      PodRollout.readyAt(pod)
+          .ifPresent(
+              readyAt ->
+                  (archivedAt.filter(createdAt::isAfter).isPresent() ? with : without)
+                      .add(Duration.between(createdAt, readyAt)));
+    }
+    // Without ready pods in a group, its last average is kept
+    return new ClassDataSharingStatus(
+        report.archives().stream().map(CdsArchives.Archive::name).toList(),
+        archivedAt.map(Instant::toString).orElse(null),
+        Instant.now().toString(),
+        with.pods,
+        without.pods,
+        with.averageMillis()
+            .orElseGet(
+                () -> previous.map(ClassDataSharingStatus::startupWithArchiveMillis).orElse(null)),
+        without
+            .averageMillis()
+            .orElseGet(
+                () ->
+                    previous
+                        .map(ClassDataSharingStatus::startupWithoutArchiveMillis)
+                        .orElse(null)));
+  }
+
+  /** Startup times of a group of pods. */
+  private static final class Startup {
+    int pods;
+    long totalMillis;
+
+    void add(Duration startup) {
+      pods++;
+      totalMillis += startup.toMillis();
+    }
+
+    Optional<Long> averageMillis() {
+      return pods == 0 ? Optional.empty() : Optional.of(totalMillis / pods);
+    }
+  }
+}
@@ -1,16 +1,23 @@
 package org.shadok.operator.controller;
 
-import static io.javaoperatorsdk.operator.api.reconciler.UpdateControl.noUpdate;
 import static io.javaoperatorsdk.operator.api.reconciler.UpdateControl.patchStatus;
 
+import io.javaoperatorsdk.operator.api.reconciler.Cleaner;
 import io.javaoperatorsdk.operator.api.reconciler.Context;
 import io.javaoperatorsdk.operator.api.reconciler.ControllerConfiguration;
+import io.javaoperatorsdk.operator.api.reconciler.DeleteControl;
 import io.javaoperatorsdk.operator.api.reconciler.Reconciler;
 import io.javaoperatorsdk.operator.api.reconciler.UpdateControl;
 import io.javaoperatorsdk.operator.api.reconciler.Workflow;
 import io.javaoperatorsdk.operator.api.reconciler.dependent.Dependent;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Stream;
 import org.shadok.operator.dependent.DependencyCachePvcDependent;
 import org.shadok.operator.model.cache.DependencyCache;
 import org.shadok.operator.model.cache.DependencyCacheStatus;
@@ -22,14 +29,27 @@ import org.slf4j.LoggerFactory;
  *
  * <p>Manages the lifecycle of dependency cache PVCs by creating them from existing PVs according to
  * the DependencyCache specification.
+ *
+ * <p>Once the PVC is ready, the {@link CacheMaintenance} steps enabled for the cache (lockfile
+ * sharing report, garbage collection, ...) run and decide when the cache is reconciled again. Each
+ * step reports its outcome as a status condition: a failing step is retried after {@link
+ * #FAILED_STEP_RETRY} without failing the cache or the other steps.
+ *
+ * <p>On deletion, the PVCs and PersistentVolume clones federating the cache to other namespaces are
+ * released: they cannot be owned by the cache across namespaces.
  */
 @ControllerConfiguration(name = "dependency-cache-controller")
 @Workflow(dependents = {@Dependent(type = DependencyCachePvcDependent.class)})
-public class DependencyCacheReconciler implements Reconciler<DependencyCache> {
+public class DependencyCacheReconciler
+    implements Reconciler<DependencyCache>, Cleaner<DependencyCache> {
 
   private static final Logger log = LoggerFactory.getLogger(DependencyCacheReconciler.class);
 
+  static final Duration FAILED_STEP_RETRY = Duration.ofMinutes(1);
+
   @Inject DependencyCachePvcDependent pvcDependent;
+  @Inject @Any Instance<CacheMaintenance> maintenance;
+  @Inject CacheFederation federation;
 
   @Override
   public UpdateControl<DependencyCache> reconcile(
@@ -46,7 +66,7 @@ public class DependencyCacheReconciler implements Reconciler<DependencyCache> {
 
       return pvcResult
           .filter(result -> result.allDependentResourcesReady())
-          .map(this::handleSuccessfulReconciliation)
+          .map(result -> handleSuccessfulReconciliation(dependencyCache))
           .orElseGet(() -> this.handlePendingReconciliation(dependencyCache));
 
     } catch (Exception e) {
@@ -56,10 +76,43 @@ public class DependencyCacheReconciler implements Reconciler<DependencyCache> {
     }
   }
 
+  @Override
+  public DeleteControl cleanup(DependencyCache dependencyCache, Context<DependencyCache> context) {
+    if (dependencyCache.getSpec().federation() != null) {
+      federation.releaseAll(dependencyCache);
+    }
+    return DeleteControl.defaultDelete();
+  }
+
   /** Handle successful reconciliation when all dependent resources are ready. */
-  private UpdateControl<DependencyCache> handleSuccessfulReconciliation(Object workflowResult) {
+  private UpdateControl<DependencyCache> handleSuccessfulReconciliation(
+      DependencyCache dependencyCache) {
     log.debug("All dependent resources are ready");
-    return noUpdate();
+    var status =
+        Optional.ofNullable(dependencyCache.getStatus()).orElseGet(DependencyCacheStatus::new);
+    status.setState(DependencyCacheStatus.State.READY);
+    status.setMessage("Dependency cache PVC is ready");
+    status.setErrorMessage(null);
+    status.setCreatedPvcName(dependencyCache.getSpec().pvcName());
+    status.setObservedGeneration(dependencyCache.getMetadata().getGeneration());
+    status.setLastReconciled(Instant.now().toString());
+    dependencyCache.setStatus(status);
+
+    // Periodic maintenance (sharing report, garbage collection, ...) sets the next reconciliation
+    var steps =
+        new StatusConditions(status.getConditions(), dependencyCache.getMetadata().getGeneration());
+    var delays =
+        maintenance.stream()
+            .map(step -> steps.run(step.name(), () -> step.maintain(dependencyCache, status)))
+            .flatMap(Optional::stream)
+            .toList();
+    var retry = Optional.of(FAILED_STEP_RETRY).filter(delay -> steps.failed());
+    return Stream.concat(delays.stream(), retry.stream())
+        .min(Comparator.naturalOrder())
+        .map(
+            delay ->
+                UpdateControl.<DependencyCache>patchStatus(dependencyCache).rescheduleAfter(delay))
+        .orElseGet(() -> patchStatus(dependencyCache));
   }
 
   /** Handle pending reconciliation when dependent resources are not yet ready. */
@@ -68,12 +121,15 @@ public class DependencyCacheReconciler implements Reconciler<DependencyCache> {
     var name = dependencyCache.getMetadata().getName();
     log.info("DependencyCache {} is not ready yet, rescheduling", name);
 
-    // Update status if necessary
+    // Update status if necessary, keeping the reports of the maintenance steps
     if (dependencyCache.getStatus() == null
         || !DependencyCacheStatus.State.PENDING.equals(dependencyCache.getStatus().getState())) {
 
-      dependencyCache.setStatus(
-          new DependencyCacheStatus(DependencyCacheStatus.State.PENDING, "Creating PVC from PV"));
+      var status =
+          Optional.ofNullable(dependencyCache.getStatus()).orElseGet(DependencyCacheStatus::new);
+      status.setState(DependencyCacheStatus.State.PENDING);
+      status.setMessage("Creating PVC from PV");
+      dependencyCache.setStatus(status);
 
       return UpdateControl.<DependencyCache>patchStatus(dependencyCache)
           .rescheduleAfter(Duration.ofSeconds(10));
@@ -82,12 +138,15 @@ public class DependencyCacheReconciler implements Reconciler<DependencyCache> {
     return UpdateControl.<DependencyCache>noUpdate().rescheduleAfter(Duration.ofSeconds(10));
   }
 
-  /** Handle failed reconciliation with appropriate error status. */
+  /** Handle failed reconciliation, keeping the reports of the maintenance steps. */
   private UpdateControl<DependencyCache> handleFailedReconciliation(
       DependencyCache dependencyCache, Exception error) {
-    dependencyCache.setStatus(
-        new DependencyCacheStatus(
-            DependencyCacheStatus.State.FAILED, "Reconciliation failed: " + error.getMessage()));
+    var status =
+        Optional.ofNullable(dependencyCache.getStatus()).orElseGet(DependencyCacheStatus::new);
+    status.setState(DependencyCacheStatus.State.FAILED);
+    status.setMessage("Reconciliation failed: " + error.getMessage());
+    status.setErrorMessage(error.getMessage());
+    dependencyCache.setStatus(status);
 
     return patchStatus(dependencyCache);
   }
@@ -0,0 +1,681 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.ResourceRequirements;
+import io.fabric8.kubernetes.api.model.apps.ReplicaSet;
+import io.fabric8.kubernetes.api.model.metrics.v1beta1.ContainerMetrics;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationStatus;
+import org.shadok.operator.model.application.IdleScaleDownSpec;
+import org.shadok.operator.model.application.IdleScaleDownStatus;
+import org.shadok.operator.model.application.IdleScaleDownStatus.Phase;
+import org.shadok.operator.model.code.ProjectSource;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.SourceActivity;
+import org.shadok.operator.webhook.CheckpointRestoreMutator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scale-to-zero of idle Applications with {@code spec.idleScaleDown}.
+ *
+ * <p>While its pods run, an Application is active as long as one of them uses more than {@code
+ * idleCpuMillicores} (metrics API) or is not Ready; a dev-mode process serving no request and
+ * reloading nothing barely uses any CPU. After {@code idleMinutes} without activity, and once a
+ * cache tool Job has checked that the sources were not modified meanwhile, the operator:
+ *
+ * <ol>
+ *   <li>checkpoints the application JVM of each pod with {@code jcmd <pid> JDK.checkpoint} (CRaC,
+ *       see {@link org.shadok.operator.model.application.ApplicationSpec#checkpointsWhenIdle()}),
+ *       to the persistent build volume where the webhook pointed {@code -XX:CRaCCheckpointTo}. The
+ *       pods are checkpointed in parallel, off the reconciler threads, while the phase is {@code
+ *       CHECKPOINTING}; the reconciler polls them, so that an Application with many replicas does
+ *       not hold a reconciler thread for as many checkpoint timeouts;
+ *   <li>scales the Deployment or StatefulSet owning the pods to zero, recording its replicas.
+ * </ol>
+ *
+ * <p>The sources are then checked every {@code sourceCheckSeconds}: a modification, or the {@code
+ * org.shadok/wake} annotation set on the Application (by an IDE, a CLI or an ingress hook), scales
+ * the workload back up and the containers restore the JVM from the checkpoint. A workload found at
+ * zero replicas is only taken as scaled down when the status records a scale-down of the operator
+ * since the last wake-up: one scaled to zero by its user is left alone. The memory requests
+ * released and the time from wake-up to the first Ready pod are kept in {@code
+ * status.idleScaleDown}.
+ */
+@ApplicationScoped
+public class IdleScaleDown {
+
+  private static final Logger log = LoggerFactory.getLogger(IdleScaleDown.class);
+
+  static final String ANNOTATION_WAKE = "org.shadok/wake";
+  static final String SOURCE_TASK = "source-activity";
+
+  private static final Duration SAMPLE_INTERVAL = Duration.ofMinutes(1);
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(10);
+  private static final Duration CHECKPOINT_TIMEOUT = Duration.ofSeconds(90);
+
+  /**
+   * Checkpoint the application JVM of the container, the only process started with {@code
+   * -XX:CRaCCheckpointTo} as an option of its own (see {@link CheckpointRestoreMutator}), and wait
+   * for it to exit with a checkpoint written to the directory of that option, emptied beforehand.
+   * It is {@code CHECKPOINT_DIR/$SHADOK_POD_UID}, or for a JVM restored from the checkpoint of
+   * another pod, the directory of that pod, which no other pod uses any longer.
+   */
+  private static final String CHECKPOINT_SCRIPT =
+      String.join(
+          " ",
+          "pid=;",
+          "for cmdline in /proc/[0-9]*/cmdline; do",
+          "tr '\\0' '\\n' < \"$cmdline\" 2>/dev/null | grep -q '^-XX:CRaCCheckpointTo='",
+          "&& pid=${cmdline#/proc/} && pid=${pid%/cmdline};",
+          "done;",
+          "[ -n \"$pid\" ] || exit 1;",
+          "dir=$(tr '\\0' '\\n' < /proc/\"$pid\"/cmdline | sed -n 's/^-XX:CRaCCheckpointTo=//p');",
+          "case \"$dir\" in "
+              + CheckpointRestoreMutator.CHECKPOINT_DIR
+              + "/?*) ;; *) exit 1;; esac;",
+          "rm -rf \"$dir\" && jcmd \"$pid\" JDK.checkpoint || exit 1;",
+          "for i in $(seq 60); do",
+          "if ! kill -0 \"$pid\" 2>/dev/null; then",
+          "[ -n \"$(ls -A \"$dir\" 2>/dev/null)\" ]; exit $?;",
+          "fi; sleep 1; done; exit 1");
+
+  @Inject KubernetesClient client;
+  @Inject CacheToolJobs jobs;
+  @Inject PodRollout podRollout;
+
+  // Checkpoints run off the reconciler threads, one virtual thread per pod
+  ExecutorService checkpoints =
+      Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("shadok-checkpoint-", 0).factory());
+
+  // Pods checkpointed by the running checkpoints of an Application, by Application UID
+  private final Map<String, CompletableFuture<Integer>> running = new ConcurrentHashMap<>();
+
+  /** Idle scale-down status and the delay before the next check. */
+  public record Outcome(IdleScaleDownStatus status, Duration recheckAfter) {}
+
+  /** Deployment or StatefulSet owning the pods of an Application. */
+  record Workload(String kind, String name) {
+
+    static Optional<Workload> parse(String workload) {
+      return Optional.ofNullable(workload)
+          .map(value -> value.split("/", 2))
+          .filter(parts -> parts.length == 2)
+          .map(parts -> new Workload(parts[0], parts[1]));
+    }
+
+    @Override
+    public String toString() {
+      return kind + "/" + name;
+    }
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    checkpoints.shutdownNow();
+  }
+
+  /**
+   * Sample the activity of an Application, scale it down once idle and up again when needed.
+   *
+   * @param application the Application
+   * @return empty when idle scale-down is not enabled
+   */
+  public Optional<Outcome> watch(Application application) {
+    var idle = application.getSpec().idleScaleDown();
+    if (idle == null) {
+      return Optional.empty();
+    }
+    var previous =
+        Optional.ofNullable(application.getStatus()).map(ApplicationStatus::getIdleScaleDown);
+    var now = Instant.now();
+    var phase = previous.map(IdleScaleDownStatus::phase).orElse(Phase.ACTIVE);
+    if (phase == Phase.ACTIVE) {
+      // A status that lost its phase after our scale-down says ACTIVE: the workload still at zero
+      // says otherwise, and only the SCALED_DOWN phase wakes it up. A workload scaled to zero by
+      // its user, without a scale-down of ours since the last wake-up, stays there
+      var scaledDown =
+          previous
+              .filter(IdleScaleDown::scaledDownLast)
+              .filter(status -> atZero(application, status));
+      if (scaledDown.isPresent()) {
+        return Optional.of(
+            scaledDown(application, idle, withPhase(scaledDown.get(), Phase.SCALED_DOWN), now));
+      }
+    }
+    return Optional.of(
+        switch (phase) {
+          case ACTIVE -> active(application, idle, previous, now);
+          case CHECKPOINTING -> checkpointing(application, idle, previous.get(), now);
+          case SCALED_DOWN -> scaledDown(application, idle, previous.get(), now);
+          case WAKING -> waking(application, previous.get(), now);
+        });
+  }
+
+  /** Whether the last transition recorded in a status is a scale-down of the operator. */
+  private static boolean scaledDownLast(IdleScaleDownStatus status) {
+    return Optional.ofNullable(status.scaledDownAt())
+        .map(Instant::parse)
+        .filter(
+            scaledDownAt ->
+                Optional.ofNullable(status.wokenAt())
+                    .map(Instant::parse)
+                    .filter(wokenAt -> !wokenAt.isBefore(scaledDownAt))
+                    .isEmpty())
+        .isPresent();
+  }
+
+  /** Whether the workload recorded in a status is scaled to zero. */
+  private boolean atZero(Application application, IdleScaleDownStatus status) {
+    return Workload.parse(status.workload())
+        .flatMap(workload -> replicas(application.getMetadata().getNamespace(), workload))
+        .filter(replicas -> replicas == 0)
+        .isPresent();
+  }
+
+  private Outcome active(
+      Application application,
+      IdleScaleDownSpec idle,
+      Optional<IdleScaleDownStatus> previous,
+      Instant now) {
+    var pods = podRollout.pods(application);
+    // Without pods (scaled down by hand), there is nothing to scale down
+    var lastActiveAt =
+        pods.isEmpty() || pods.stream().anyMatch(pod -> busy(pod, idle))
+            ? now
+            : previous.map(IdleScaleDownStatus::lastActiveAt).map(Instant::parse).orElse(now);
+    // The workload is recorded as soon as there are pods, so that the phase can be derived from it
+    if (!pods.isEmpty() && previous.map(IdleScaleDownStatus::workload).isEmpty()) {
+      var workload = workload(application.getMetadata().getNamespace(), pods.getFirst());
+      if (workload.isPresent()) {
+        previous = Optional.of(withWorkload(active(previous, lastActiveAt), workload.get()));
+      }
+    }
+    var deadline = lastActiveAt.plus(Duration.ofMinutes(idle.idleMinutes()));
+    if (deadline.isAfter(now)) {
+      return new Outcome(
+          active(previous, lastActiveAt), min(Duration.between(now, deadline), SAMPLE_INTERVAL));
+    }
+
+    // Quarkus dev mode only reloads on the next request: a source change may leave no CPU trace
+    return switch (sourceActivity(application)) {
+      case JobResult.Succeeded<SourceActivity.Result>(var report) -> {
+        var modifiedAt = Optional.ofNullable(report.modifiedAt()).map(Instant::parse);
+        if (modifiedAt.filter(lastActiveAt::isBefore).isPresent()) {
+          yield new Outcome(active(previous, modifiedAt.get()), SAMPLE_INTERVAL);
+        }
+        yield application.getSpec().checkpointsWhenIdle()
+            ? startCheckpoints(application, pods, previous, lastActiveAt)
+            : scaleDown(application, idle, pods, previous, lastActiveAt, 0, now);
+      }
+      case JobResult.Running<SourceActivity.Result> running ->
+          new Outcome(active(previous, lastActiveAt), POLL_INTERVAL);
+      case JobResult.Failed<SourceActivity.Result>(var error) -> {
+        log.warn(
+            "Sources of Application {}/{} not checked, not scaling down: {}",
+            application.getMetadata().getNamespace(),
+            application.getMetadata().getName(),
+            error);
+        yield new Outcome(active(previous, lastActiveAt), SAMPLE_INTERVAL);
+      }
+    };
+  }
+
+  /** Checkpoint the pods in parallel; the reconciler polls them in the CHECKPOINTING phase. */
+  private Outcome startCheckpoints(
+      Application application,
+      List<Pod> pods,
+      Optional<IdleScaleDownStatus> previous,
+      Instant lastActiveAt) {
+    var checkpointed =
+        pods.stream()
+            .map(
+                pod ->
+                    CompletableFuture.supplyAsync(() -> checkpoint(pod), checkpoints)
+                        .exceptionally(error -> false))
+            .toList();
+    running.put(
+        application.getMetadata().getUid(),
+        CompletableFuture.allOf(checkpointed.toArray(CompletableFuture[]::new))
+            .thenApply(
+                done -> (int) checkpointed.stream().filter(CompletableFuture::join).count()));
+    log.info(
+        "📸 Application {}/{} idle since {}, checkpointing the JVM of {} pods",
+        application.getMetadata().getNamespace(),
+        application.getMetadata().getName(),
+        lastActiveAt,
+        pods.size());
+    return new Outcome(
+        withPhase(active(previous, lastActiveAt), Phase.CHECKPOINTING), POLL_INTERVAL);
+  }
+
+  /**
+   * Scale down once the checkpoints are over. Checkpoints started by another operator run (restart,
+   * leader change) are not known here: the workload is scaled down without counting them.
+   */
+  private Outcome checkpointing(
+      Application application, IdleScaleDownSpec idle, IdleScaleDownStatus status, Instant now) {
+    var uid = application.getMetadata().getUid();
+    var checkpoint = Optional.ofNullable(running.get(uid));
+    if (checkpoint.filter(future -> !future.isDone()).isPresent()) {
+      return new Outcome(status, POLL_INTERVAL);
+    }
+    running.remove(uid);
+    return scaleDown(
+        application,
+        idle,
+        podRollout.pods(application),
+        Optional.of(status),
+        Instant.parse(status.lastActiveAt()),
+        checkpoint.map(future -> future.getNow(0)).orElse(0),
+        now);
+  }
+
+  private Outcome scaleDown(
+      Application application,
+      IdleScaleDownSpec idle,
+      List<Pod> pods,
+      Optional<IdleScaleDownStatus> previous,
+      Instant lastActiveAt,
+      int checkpointed,
+      Instant now) {
+    var namespace = application.getMetadata().getNamespace();
+    var workload =
+        previous
+            .flatMap(status -> Workload.parse(status.workload()))
+            .or(() -> pods.stream().findFirst().flatMap(pod -> workload(namespace, pod)));
+    if (workload.isEmpty()) {
+      log.warn(
+          "Pods of Application {}/{} are not owned by a Deployment or StatefulSet, not scaling"
+              + " down",
+          namespace,
+          application.getMetadata().getName());
+      return new Outcome(active(previous, now), SAMPLE_INTERVAL);
+    }
+
+    var reclaimed =
+        pods.stream()
+            .flatMap(pod -> pod.getSpec().getContainers().stream())
+            .map(Container::getResources)
+            .filter(Objects::nonNull)
+            .map(ResourceRequirements::getRequests)
+            .filter(Objects::nonNull)
+            .map(requests -> requests.get("memory"))
+            .filter(Objects::nonNull)
+            .reduce(Quantity::add);
+    var replicas = scale(namespace, workload.get(), 0);
+    log.info(
+        "💤 Application {}/{} idle since {}, scaled {} down from {} replicas ({} checkpointed)",
+        namespace,
+        application.getMetadata().getName(),
+        lastActiveAt,
+        workload.get(),
+        replicas,
+        checkpointed);
+    return new Outcome(
+        new IdleScaleDownStatus(
+            Phase.SCALED_DOWN,
+            lastActiveAt.toString(),
+            workload.get().toString(),
+            replicas,
+            now.toString(),
+            checkpointed,
+            reclaimed.map(Quantity::toString).orElse(null),
+            previous.map(IdleScaleDownStatus::wokenAt).orElse(null),
+            previous.map(IdleScaleDownStatus::wakeReason).orElse(null),
+            previous.map(IdleScaleDownStatus::restoreMillis).orElse(null),
+            now.toString()),
+        Duration.ofSeconds(idle.sourceCheckSeconds()));
+  }
+
+  private Outcome scaledDown(
+      Application application, IdleScaleDownSpec idle, IdleScaleDownStatus status, Instant now) {
+    var interval = Duration.ofSeconds(idle.sourceCheckSeconds());
+    var requested =
+        Optional.ofNullable(application.getMetadata().getAnnotations())
+            .filter(annotations -> annotations.containsKey(ANNOTATION_WAKE))
+            .isPresent();
+    if (requested) {
+      client
+          .resources(Application.class)
+          .inNamespace(application.getMetadata().getNamespace())
+          .withName(application.getMetadata().getName())
+          .edit(
+              edited -> {
+                edited.getMetadata().getAnnotations().remove(ANNOTATION_WAKE);
+                return edited;
+              });
+      return wake(application, status, "request", now);
+    }
+
+    var nextCheck =
+        Optional.ofNullable(status.sourceCheckedAt())
+            .map(checkedAt -> Instant.parse(checkedAt).plus(interval))
+            .orElse(Instant.MIN);
+    if (nextCheck.isAfter(now)) {
+      return new Outcome(status, Duration.between(now, nextCheck));
+    }
+    return switch (sourceActivity(application)) {
+      case JobResult.Succeeded<SourceActivity.Result>(var report) -> {
+        var scaledDownAt = Instant.parse(status.scaledDownAt());
+        if (Optional.ofNullable(report.modifiedAt())
+            .map(Instant::parse)
+            .filter(scaledDownAt::isBefore)
+            .isPresent()) {
+          yield wake(application, status, "source change: " + report.file(), now);
+        }
+        yield new Outcome(sourceChecked(status, now), interval);
+      }
+      case JobResult.Running<SourceActivity.Result> running -> new Outcome(status, POLL_INTERVAL);
+      case JobResult.Failed<SourceActivity.Result>(var error) -> {
+        log.warn(
+            "Sources of scaled down Application {}/{} not checked: {}",
+            application.getMetadata().getNamespace(),
+            application.getMetadata().getName(),
+            error);
+        yield new Outcome(sourceChecked(status, now), interval);
+      }
+    };
+  }
+
+  private Outcome wake(
+      Application application, IdleScaleDownStatus status, String reason, Instant now) {
+    var namespace = application.getMetadata().getNamespace();
+    var replicas = Optional.ofNullable(status.replicas()).filter(count -> count > 0).orElse(1);
+    Workload.parse(status.workload()).ifPresent(workload -> scale(namespace, workload, replicas));
+    log.info(
+        "⏰ Waking Application {}/{} up ({}), scaling {} to {} replicas",
+        namespace,
+        application.getMetadata().getName(),
+        reason,
+        status.workload(),
+        replicas);
+    return new Outcome(
+        new IdleScaleDownStatus(
+            Phase.WAKING,
+            now.toString(),
+            status.workload(),
+            status.replicas(),
+            status.scaledDownAt(),
+            status.checkpointedPods(),
+            status.reclaimedMemory(),
+            now.toString(),
+            reason,
+            status.restoreMillis(),
+            status.sourceCheckedAt()),
+        POLL_INTERVAL);
+  }
+
+  private Outcome waking(Application application, IdleScaleDownStatus status, Instant now) {
+    var wokenAt = Instant.parse(status.wokenAt());
+    var readyAt =
+        podRollout.pods(application).stream()
+            .filter(pod -> !PodRollout.createdAt(pod).isBefore(wokenAt.minusSeconds(1)))
+            .flatMap(pod -> PodRollout.readyAt(pod).stream())
+            .min(Instant::compareTo);
+    if (readyAt.isEmpty()) {
+      return new Outcome(status, POLL_INTERVAL);
+    }
+    var restoreMillis = Duration.between(wokenAt, readyAt.get()).toMillis();
+    log.info(
+        "🌅 Application {}/{} Ready {} ms after wake-up",
+        application.getMetadata().getNamespace(),
+        application.getMetadata().getName(),
+        restoreMillis);
+    return new Outcome(
+        new IdleScaleDownStatus(
+            Phase.ACTIVE,
+            now.toString(),
+            status.workload(),
+            status.replicas(),
+            status.scaledDownAt(),
+            status.checkpointedPods(),
+            status.reclaimedMemory(),
+            status.wokenAt(),
+            status.wakeReason(),
+            restoreMillis,
+            status.sourceCheckedAt()),
+        SAMPLE_INTERVAL);
+  }
+
+  /** A pod is busy while starting or above the CPU threshold; without metrics, it is busy. */
+  private boolean busy(Pod pod, IdleScaleDownSpec idle) {
+    if (PodRollout.readyAt(pod).isEmpty()) {
+      return true;
+    }
+    try {
+      var metrics =
+          client
+              .top()
+              .pods()
+              .metrics(pod.getMetadata().getNamespace(), pod.getMetadata().getName());
+      var millicores =
+          metrics.getContainers().stream()
+              .map(ContainerMetrics::getUsage)
+              .filter(Objects::nonNull)
+              .map(usage -> usage.get("cpu"))
+              .filter(Objects::nonNull)
+              .map(Quantity::getAmountInBytes)
+              .reduce(BigDecimal.ZERO, BigDecimal::add)
+              .multiply(BigDecimal.valueOf(1000));
+      return millicores.compareTo(BigDecimal.valueOf(idle.idleCpuMillicores())) > 0;
+    } catch (KubernetesClientException e) {
+      log.debug("No metrics for pod {}: {}", pod.getMetadata().getName(), e.getMessage());
+      return true;
+    }
+  }
+
+  private JobResult<SourceActivity.Result> sourceActivity(Application application) {
+    var projectSource =
+        client
+            .resources(ProjectSource.class)
+            .inNamespace(application.getMetadata().getNamespace())
+            .withName(application.getSpec().projectSourceName())
+            .get();
+    if (projectSource == null) {
+      return new JobResult.Failed<>("ProjectSource not found");
+    }
+    var task =
+        new CacheToolJobs.Task(
+            application,
+            SOURCE_TASK,
+            List.of("--root", "/workspace"),
+            List.of(
+                new CacheToolJobs.Mount(projectSource.getSpec().pvcName(), "/workspace", true)));
+    return jobs.run(task, SourceActivity.Result.class);
+  }
+
+  /** Checkpoint the application JVM of a pod; a failure only means a cold start at wake-up. */
+  private boolean checkpoint(Pod pod) {
+    var name = pod.getMetadata().getName();
+    try (var exec =
+        client
+            .pods()
+            .inNamespace(pod.getMetadata().getNamespace())
+            .withName(name)
+            .inContainer(pod.getSpec().getContainers().getFirst().getName())
+            .exec("sh", "-c", CHECKPOINT_SCRIPT)) {
+      var exitCode = exec.exitCode().get(CHECKPOINT_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+      if (exitCode != null && exitCode == 0) {
+        return true;
+      }
+      log.warn("⚠️ JVM of pod {} not checkpointed (exit code {})", name, exitCode);
+    } catch (ExecutionException | TimeoutException | KubernetesClientException e) {
+      log.warn("⚠️ JVM of pod {} not checkpointed: {}", name, e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  /** Owner of a pod, following ReplicaSets up to their Deployment. */
+  private Optional<Workload> workload(String namespace, Pod pod) {
+    return controller(pod.getMetadata().getOwnerReferences())
+        .flatMap(
+            owner ->
+                switch (owner.getKind()) {
+                  case "StatefulSet" -> Optional.of(new Workload("StatefulSet", owner.getName()));
+                  case "ReplicaSet" ->
+                      Optional.ofNullable(
+                              client
+                                  .apps()
+                                  .replicaSets()
+                                  .inNamespace(namespace)
+                                  .withName(owner.getName())
+                                  .get())
+                          .map(ReplicaSet::getMetadata)
+                          .flatMap(metadata -> controller(metadata.getOwnerReferences()))
+                          .filter(deployment -> "Deployment".equals(deployment.getKind()))
+                          .map(deployment -> new Workload("Deployment", deployment.getName()));
+                  default -> Optional.empty();
+                });
+  }
+
+  private static Optional<OwnerReference> controller(List<OwnerReference> owners) {
+    return Optional.ofNullable(owners).stream()
+        .flatMap(List::stream)
+        .filter(owner -> Boolean.TRUE.equals(owner.getController()))
+        .findFirst();
+  }
+
+  /** Replicas of a workload, empty when it does not exist. */
+  private Optional<Integer> replicas(String namespace, Workload workload) {
+    return switch (workload.kind()) {
+      case "Deployment" ->
+          Optional.ofNullable(
+                  client
+                      .apps()
+                      .deployments()
+                      .inNamespace(namespace)
+                      .withName(workload.name())
+                      .get())
+              .map(found -> found.getSpec().getReplicas());
+      case "StatefulSet" ->
+          Optional.ofNullable(
+                  client
+                      .apps()
+                      .statefulSets()
+                      .inNamespace(namespace)
+                      .withName(workload.name())
+                      .get())
+              .map(found -> found.getSpec().getReplicas());
+      default -> Optional.empty();
+    };
+  }
+
+  /** Scale a workload and return its replicas before scaling. */
+  private int scale(String namespace, Workload workload, int replicas) {
+    return switch (workload.kind()) {
+      case "Deployment" -> {
+        var deployment =
+            client.apps().deployments().inNamespace(namespace).withName(workload.name());
+        var current =
+            Optional.ofNullable(deployment.get())
+                .map(found -> found.getSpec().getReplicas())
+                .orElse(1);
+        deployment.scale(replicas);
+        yield current;
+      }
+      case "StatefulSet" -> {
+        var statefulSet =
+            client.apps().statefulSets().inNamespace(namespace).withName(workload.name());
+        var current =
+            Optional.ofNullable(statefulSet.get())
+                .map(found -> found.getSpec().getReplicas())
+                .orElse(1);
+        statefulSet.scale(replicas);
+        yield current;
+      }
+      default -> throw new IllegalArgumentException("Unsupported workload: " + workload);
+    };
+  }
+
+  private static IdleScaleDownStatus active(
+      Optional<IdleScaleDownStatus> previous, Instant lastActiveAt) {
+    return new IdleScaleDownStatus(
+        Phase.ACTIVE,
+        lastActiveAt.toString(),
+        previous.map(IdleScaleDownStatus::workload).orElse(null),
+        previous.map(IdleScaleDownStatus::replicas).orElse(null),
+        previous.map(IdleScaleDownStatus::scaledDownAt).orElse(null),
+        previous.map(IdleScaleDownStatus::checkpointedPods).orElse(0),
+        previous.map(IdleScaleDownStatus::reclaimedMemory).orElse(null),
+        previous.map(IdleScaleDownStatus::wokenAt).orElse(null),
+        previous.map(IdleScaleDownStatus::wakeReason).orElse(null),
+        previous.map(IdleScaleDownStatus::restoreMillis).orElse(null),
+        previous.map(IdleScaleDownStatus::sourceCheckedAt).orElse(null));
+  }
+
+  private static IdleScaleDownStatus withPhase(IdleScaleDownStatus status, Phase phase) {
+    return new IdleScaleDownStatus(
+        phase,
+        status.lastActiveAt(),
+        status.workload(),
+        status.replicas(),
+        status.scaledDownAt(),
+        status.checkpointedPods(),
+        status.reclaimedMemory(),
+        status.wokenAt(),
+        status.wakeReason(),
+        status.restoreMillis(),
+        status.sourceCheckedAt());
+  }
+
+  private static IdleScaleDownStatus withWorkload(IdleScaleDownStatus status, Workload workload) {
+    return new IdleScaleDownStatus(
+        status.phase(),
+        status.lastActiveAt(),
+        workload.toString(),
+        status.replicas(),
+        status.scaledDownAt(),
+        status.checkpointedPods(),
+        status.reclaimedMemory(),
+        status.wokenAt(),
+        status.wakeReason(),
+        status.restoreMillis(),
+        status.sourceCheckedAt());
+  }
+
+  private static IdleScaleDownStatus sourceChecked(IdleScaleDownStatus status, Instant now) {
+    return new IdleScaleDownStatus(
+        status.phase(),
+        status.lastActiveAt(),
+        status.workload(),
+        status.replicas(),
+        status.scaledDownAt(),
+        status.checkpointedPods(),
+        status.reclaimedMemory(),
+        status.wokenAt(),
+        status.wakeReason(),
+        status.restoreMillis(),
+        now.toString());
+  }
+
+  private static Duration min(Duration a, Duration b) {
+    return a.compareTo(b) <= 0 ? a : b;
+  }
+}
@@ -0,0 +1,241 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.shadok.operator.config.CacheConfig;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationStatus;
+import org.shadok.operator.model.cache.CacheSharingStatus;
+import org.shadok.operator.model.cache.CacheUsageStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.cache.SharingMode;
+import org.shadok.operator.model.code.ProjectSource;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.ManifestFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lockfile-keyed sharing of dependency cache volumes.
+ *
+ * <p>For Applications referencing a DependencyCache with {@code sharing: LOCKFILE}, the dependency
+ * manifests of the ProjectSource are fingerprinted by a cache tool Job. Applications of a namespace
+ * with the same fingerprint are then mapped to a single cache volume: the DependencyCache of the
+ * oldest of them. The webhook mounts that volume instead of the referenced one.
+ *
+ * <p>On the DependencyCache side, the deduplication ratio and the bytes saved by a shared volume
+ * are reported from its last usage measurement ({@link CacheUsageCollector}).
+ */
+@ApplicationScoped
+public class LockfileSharing implements CacheMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(LockfileSharing.class);
+
+  static final String FINGERPRINT_TASK = "fingerprint";
+
+  @Inject KubernetesClient client;
+  @Inject CacheToolJobs jobs;
+  @Inject CacheConfig config;
+
+  /** Fingerprint of an Application's dependency manifests and the cache volume it mounts. */
+  public record Assignment(
+      String fingerprint, String fingerprintedAt, String sharedDependencyCache) {
+
+    /** Record the assignment in the Application status. */
+    public void applyTo(ApplicationStatus status) {
+      status.setDependencyFingerprint(fingerprint);
+      status.setFingerprintedAt(fingerprintedAt);
+      status.setSharedDependencyCache(sharedDependencyCache);
+    }
+
+    static Optional<Assignment> of(ApplicationStatus status) {
+      return Optional.ofNullable(status)
+          .filter(s -> s.getFingerprintedAt() != null)
+          .map(
+              s ->
+                  new Assignment(
+                      s.getDependencyFingerprint(),
+                      s.getFingerprintedAt(),
+                      s.getSharedDependencyCache()));
+    }
+  }
+
+  /**
+   * Fingerprint the Application's manifests if needed and pick its shared cache volume.
+   *
+   * @param application an Application whose ProjectSource and DependencyCache are ready
+   * @return empty when the referenced DependencyCache does not use lockfile sharing
+   */
+  public Optional<JobResult<Assignment>> assign(Application application) {
+    var namespace = application.getMetadata().getNamespace();
+    var spec = application.getSpec();
+    if (!isLockfileShared(spec.dependencyCacheName(), namespace)) {
+      return Optional.empty();
+    }
+
+    var previous = Assignment.of(application.getStatus());
+    if (previous.filter(this::isFresh).isPresent()) {
+      // Fingerprint still valid, only refresh the group mapping
+      return previous.map(p -> new JobResult.Succeeded<>(group(application, p)));
+    }
+
+    var projectSource =
+        client
+            .resources(ProjectSource.class)
+            .inNamespace(namespace)
+            .withName(spec.projectSourceName())
+            .get();
+    var task =
+        new CacheToolJobs.Task(
+            application,
+            FINGERPRINT_TASK,
+            List.of("--root", "/workspace", "--type", spec.applicationType().name()),
+            List.of(
+                new CacheToolJobs.Mount(projectSource.getSpec().pvcName(), "/workspace", true)));
+
+    return Optional.of(
+        switch (jobs.run(task, ManifestFingerprint.Result.class)) {
+          case JobResult.Succeeded<ManifestFingerprint.Result>(var report) -> {
+            log.info(
+                "Fingerprinted {} manifests of Application {}/{}: {}",
+                report.manifests().size(),
+                namespace,
+                application.getMetadata().getName(),
+                report.fingerprint());
+            var fingerprinted =
+                new Assignment(report.fingerprint(), Instant.now().toString(), null);
+            yield new JobResult.Succeeded<>(group(application, fingerprinted));
+          }
+          case JobResult.Running<ManifestFingerprint.Result>(var jobName) ->
+              new JobResult.Running<>(jobName);
+          case JobResult.Failed<ManifestFingerprint.Result>(var error) ->
+              new JobResult.Failed<>(error);
+        });
+  }
+
+  /** Map the Application to the cache of the oldest Application with the same fingerprint. */
+  private Assignment group(Application application, Assignment assignment) {
+    var ownCache = application.getSpec().dependencyCacheName();
+    if (assignment.fingerprint() == null) {
+      return new Assignment(null, assignment.fingerprintedAt(), ownCache);
+    }
+
+    var namespace = application.getMetadata().getNamespace();
+    var name = application.getMetadata().getName();
+    var lockfileShared = new HashMap<String, Boolean>();
+    var shared =
+        client.resources(Application.class).inNamespace(namespace).list().getItems().stream()
+            .filter(
+                other ->
+                    name.equals(other.getMetadata().getName())
+                        || (other.getStatus() != null
+                            && assignment
+                                .fingerprint()
+                                .equals(other.getStatus().getDependencyFingerprint())))
+            .filter(
+                other ->
+                    lockfileShared.computeIfAbsent(
+                        other.getSpec().dependencyCacheName(),
+                        cache -> isLockfileShared(cache, namespace)))
+            .min(
+                Comparator.comparing(
+                        (Application other) ->
+                            Objects.toString(other.getMetadata().getCreationTimestamp(), ""))
+                    .thenComparing(other -> other.getMetadata().getName()))
+            .map(other -> other.getSpec().dependencyCacheName())
+            .orElse(ownCache);
+
+    if (!shared.equals(ownCache)) {
+      log.debug("Application {}/{} shares dependency cache {}", namespace, name, shared);
+    }
+    return new Assignment(assignment.fingerprint(), assignment.fingerprintedAt(), shared);
+  }
+
+  @Override
+  public String name() {
+    return "Sharing";
+  }
+
+  /** Report the deduplication achieved on a DependencyCache used as a shared volume. */
+  @Override
+  public Optional<Duration> maintain(
+      DependencyCache dependencyCache, DependencyCacheStatus status) {
+    if (dependencyCache.getSpec().sharing() != SharingMode.LOCKFILE) {
+      status.setSharing(null);
+      return Optional.empty();
+    }
+    return Optional.of(report(dependencyCache, status));
+  }
+
+  private Duration report(DependencyCache dependencyCache, DependencyCacheStatus status) {
+    var name = dependencyCache.getMetadata().getName();
+    var namespace = dependencyCache.getMetadata().getNamespace();
+    var consumers =
+        client.resources(Application.class).inNamespace(namespace).list().getItems().stream()
+            .filter(app -> app.getStatus() != null)
+            .filter(app -> name.equals(app.getStatus().getSharedDependencyCache()))
+            .toList();
+    if (consumers.isEmpty()) {
+      status.setSharing(null);
+      return config.sharing().refreshInterval();
+    }
+
+    // Usage comes from the last measurement of the CacheUsageCollector
+    var usage = Optional.ofNullable(status.getUsage());
+    status.setSharing(
+        sharingStatus(
+            consumers,
+            usage.map(CacheUsageStatus::usedBytes).orElse(0L),
+            usage.map(CacheUsageStatus::measuredAt).orElse(null)));
+    return config.sharing().refreshInterval();
+  }
+
+  /**
+   * Deduplication report: every referenced DependencyCache would otherwise hold its own copy of the
+   * shared volume content.
+   */
+  private static CacheSharingStatus sharingStatus(
+      List<Application> consumers, long usedBytes, String measuredAt) {
+    var applications = consumers.stream().map(app -> app.getMetadata().getName()).sorted().toList();
+    var referencedCaches =
+        consumers.stream()
+            .map(app -> app.getSpec().dependencyCacheName())
+            .distinct()
+            .sorted()
+            .toList();
+    return new CacheSharingStatus(
+        applications,
+        referencedCaches,
+        referencedCaches.size(),
+        usedBytes,
+        (referencedCaches.size() - 1) * usedBytes,
+        measuredAt);
+  }
+
+  private boolean isFresh(Assignment assignment) {
+    return Instant.parse(assignment.fingerprintedAt())
+        .plus(config.sharing().refreshInterval())
+        .isAfter(Instant.now());
+  }
+
+  private boolean isLockfileShared(String dependencyCacheName, String namespace) {
+    return Optional.ofNullable(
+            client
+                .resources(DependencyCache.class)
+                .inNamespace(namespace)
+                .withName(dependencyCacheName)
+                .get())
+        .map(cache -> cache.getSpec().sharing() == SharingMode.LOCKFILE)
+        .orElse(false);
+  }
+}
@@ -0,0 +1,237 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationStatus;
+import org.shadok.operator.model.application.ApplicationTypeHelper;
+import org.shadok.operator.model.application.ManifestPrefetchStatus;
+import org.shadok.operator.model.application.PreResolutionStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.code.ProjectSource;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.ManifestFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prefetch of dependency manifest changes for Applications with {@code
+ * spec.preResolution.prefetchOnManifestChange} set.
+ *
+ * <p>Once pre-resolution has succeeded, a cache tool Job fingerprints the manifests of the
+ * ProjectSource ({@link ApplicationTypeHelper#getRecommendedInitMounts}) every {@code
+ * manifestCheckSeconds}. When some of them changed, the resolve-only Job of {@link PreResolution}
+ * runs again: it only downloads what the cache is missing, i.e. the dependency delta. Its
+ * completion is part of the revision followed by {@link PodRollout}, so the pods of the Application
+ * are only restarted once the cache holds the new dependencies. The outcome is kept in {@code
+ * status.manifestPrefetch}.
+ */
+@ApplicationScoped
+public class ManifestPrefetch {
+
+  private static final Logger log = LoggerFactory.getLogger(ManifestPrefetch.class);
+
+  static final String CHECK_TASK = "manifest-check";
+  static final String PREFETCH_TASK = "prefetch";
+
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(10);
+
+  @Inject KubernetesClient client;
+  @Inject CacheToolJobs jobs;
+
+  /** Manifest prefetch status and the delay before the next check. */
+  public record Outcome(ManifestPrefetchStatus status, Duration recheckAfter) {}
+
+  /**
+   * Check the dependency manifests of an Application and prefetch their changes.
+   *
+   * @param application the Application
+   * @param resolution outcome of its pre-resolution
+   * @return empty when prefetch is not enabled or pre-resolution has not succeeded
+   */
+  public Optional<Outcome> watch(Application application, PreResolutionStatus resolution) {
+    var preResolution = application.getSpec().preResolution();
+    if (preResolution == null
+        || !preResolution.prefetchOnManifestChange()
+        || resolution == null
+        || resolution.phase() != PreResolutionStatus.Phase.SUCCEEDED) {
+      return Optional.empty();
+    }
+
+    var namespace = application.getMetadata().getNamespace();
+    var spec = application.getSpec();
+    var projectSource =
+        client
+            .resources(ProjectSource.class)
+            .inNamespace(namespace)
+            .withName(spec.projectSourceName())
+            .get();
+    var cache =
+        client
+            .resources(DependencyCache.class)
+            .inNamespace(spec.dependencyCacheNamespace(namespace))
+            .withName(spec.dependencyCacheName())
+            .get();
+    if (projectSource == null || cache == null) {
+      return Optional.empty();
+    }
+
+    var previous =
+        Optional.ofNullable(application.getStatus()).map(ApplicationStatus::getManifestPrefetch);
+    var interval = Duration.ofSeconds(preResolution.manifestCheckSeconds());
+    if (previous.filter(p -> p.phase() == ManifestPrefetchStatus.Phase.PREFETCHING).isPresent()) {
+      return Optional.of(prefetch(application, resolution, projectSource, cache, previous.get()));
+    }
+
+    var nextCheck =
+        previous.map(p -> Instant.parse(p.checkedAt()).plus(interval)).orElse(Instant.MIN);
+    if (nextCheck.isAfter(Instant.now())) {
+      return Optional.of(new Outcome(previous.get(), Duration.between(Instant.now(), nextCheck)));
+    }
+
+    var task =
+        new CacheToolJobs.Task(
+            application,
+            CHECK_TASK,
+            List.of("--root", "/workspace", "--type", spec.applicationType().name()),
+            List.of(
+                new CacheToolJobs.Mount(projectSource.getSpec().pvcName(), "/workspace", true)));
+    var checkedAt = Instant.now().toString();
+    return Optional.of(
+        switch (jobs.run(task, ManifestFingerprint.Result.class)) {
+          case JobResult.Succeeded<ManifestFingerprint.Result>(var report) ->
+              previous
+                  .map(p -> compare(application, resolution, projectSource, cache, p, report))
+                  .orElseGet(
+                      // Pre-resolution covered the manifests as they are now
+                      () ->
+                          new Outcome(
+                              new ManifestPrefetchStatus(
+                                  ManifestPrefetchStatus.Phase.WATCHING,
+                                  report.fingerprint(),
+                                  report.digests(),
+                                  List.of(),
+                                  checkedAt,
+                                  null,
+                                  null,
+                                  null,
+                                  null,
+                                  null),
+                              interval));
+          case JobResult.Running<ManifestFingerprint.Result> running ->
+              new Outcome(previous.orElse(null), POLL_INTERVAL);
+          case JobResult.Failed<ManifestFingerprint.Result>(var error) -> {
+            log.warn(
+                "Manifest check of Application {}/{} failed: {}",
+                namespace,
+                application.getMetadata().getName(),
+                error);
+            yield new Outcome(previous.map(p -> p.checkedAt(checkedAt)).orElse(null), interval);
+          }
+        });
+  }
+
+  /** Start a prefetch when manifests changed since the previous check. */
+  private Outcome compare(
+      Application application,
+      PreResolutionStatus resolution,
+      ProjectSource projectSource,
+      DependencyCache cache,
+      ManifestPrefetchStatus previous,
+      ManifestFingerprint.Result report) {
+    var now = Instant.now().toString();
+    var changed =
+        ManifestFingerprint.changedManifests(
+            Optional.ofNullable(previous.manifestDigests()).orElse(Map.of()), report.digests());
+    if (changed.isEmpty()) {
+      return new Outcome(
+          previous.checkedAt(now),
+          Duration.ofSeconds(application.getSpec().preResolution().manifestCheckSeconds()));
+    }
+
+    log.info(
+        "📜 Dependency manifests {} of Application {}/{} changed, prefetching",
+        changed,
+        application.getMetadata().getNamespace(),
+        application.getMetadata().getName());
+    var prefetching =
+        new ManifestPrefetchStatus(
+            ManifestPrefetchStatus.Phase.PREFETCHING,
+            report.fingerprint(),
+            report.digests(),
+            changed,
+            now,
+            now,
+            null,
+            previous.prefetchedAt(),
+            null,
+            null);
+    return prefetch(application, resolution, projectSource, cache, prefetching);
+  }
+
+  /** Start or follow the prefetch Job. */
+  private Outcome prefetch(
+      Application application,
+      PreResolutionStatus resolution,
+      ProjectSource projectSource,
+      DependencyCache cache,
+      ManifestPrefetchStatus prefetching) {
+    var command =
+        ApplicationTypeHelper.getOfflineResolveCommand(application.getSpec().applicationType());
+    var interval = Duration.ofSeconds(application.getSpec().preResolution().manifestCheckSeconds());
+    var task =
+        PreResolution.task(
+            application,
+            PREFETCH_TASK,
+            resolution.image(),
+            command.orElseThrow(),
+            projectSource,
+            cache);
+    return switch (jobs.run(task, PreResolution.Report.class)) {
+      case JobResult.Succeeded<PreResolution.Report>(var report) -> {
+        log.info(
+            "📥 Prefetched dependencies of Application {}/{} in {} s",
+            application.getMetadata().getNamespace(),
+            application.getMetadata().getName(),
+            report.durationSeconds());
+        yield new Outcome(
+            completed(
+                prefetching, ManifestPrefetchStatus.Phase.WATCHING, report.durationSeconds(), null),
+            interval);
+      }
+      case JobResult.Running<PreResolution.Report> running ->
+          new Outcome(prefetching, POLL_INTERVAL);
+        // The pods are not restarted: they would resolve the new dependencies themselves
+      case JobResult.Failed<PreResolution.Report>(var error) ->
+          new Outcome(
+              completed(prefetching, ManifestPrefetchStatus.Phase.FAILED, null, error), interval);
+    };
+  }
+
+  private static ManifestPrefetchStatus completed(
+      ManifestPrefetchStatus prefetching,
+      ManifestPrefetchStatus.Phase phase,
+      Long durationSeconds,
+      String message) {
+    return new ManifestPrefetchStatus(
+        phase,
+        prefetching.fingerprint(),
+        prefetching.manifestDigests(),
+        prefetching.changedManifests(),
+        Instant.now().toString(),
+        prefetching.startedAt(),
+        Instant.now().toString(),
+        phase == ManifestPrefetchStatus.Phase.WATCHING
+            ? Instant.now().toString()
+            : prefetching.prefetchedAt(),
+        durationSeconds,
+        message);
+  }
+}
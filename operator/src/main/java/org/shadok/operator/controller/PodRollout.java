@@ -0,0 +1,491 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodCondition;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.shadok.operator.config.CacheConfig;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationStatus;
+import org.shadok.operator.model.application.ManifestPrefetchStatus;
+import org.shadok.operator.model.application.PodRolloutStatus;
+import org.shadok.operator.model.cache.CachePopulationStatus;
+import org.shadok.operator.model.cache.CacheSnapshotStatus;
+import org.shadok.operator.model.cache.CacheSnapshotTransfer;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.code.ProjectSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Staggered restarts of Application pods when the volumes they mount change.
+ *
+ * <p>Pods are tied to their Application by the {@code org.shadok/application} annotation, and so to
+ * its ProjectSource and DependencyCache. The revision of an Application covers what its pods mount:
+ * the volumes of both resources, the first population or snapshot import of the cache, the shared
+ * volume picked by lockfile sharing and the last manifest prefetch. When it changes, the pods
+ * created before the change are evicted one at a time, oldest first, so that their controller
+ * recreates them; evictions honour the PodDisruptionBudgets of the pods:
+ *
+ * <ul>
+ *   <li>at most {@code shadok.cache.rollout.max-concurrent} restarted pods may be not Ready at the
+ *       same time;
+ *   <li>two restarts are spaced by the observed ready time of the replacement pods divided by that
+ *       window, within {@code min-interval} and {@code max-interval}.
+ * </ul>
+ *
+ * <p>The load on the cache volume and registries is thus bounded by the window, whatever the number
+ * of pods. Pods without controller are left alone: nothing would recreate them. The webhook labels
+ * the pods with their Application, and an informer on that label serves them without listing the
+ * namespace at each step. The informer starts with the first reconciliation that needs the pods of
+ * an Application (rollouts, idle scale-down, class-data sharing or the warm pool), so only on the
+ * leader and only when one of them is in use. Pods admitted before the label existed only carry the
+ * annotation: they are labelled the first time the pods of their Application are needed.
+ */
+@ApplicationScoped
+public class PodRollout {
+
+  private static final Logger log = LoggerFactory.getLogger(PodRollout.class);
+
+  static final String ANNOTATION_APPLICATION = "org.shadok/application";
+
+  /** Label of the pods of an Application, set by the webhook (see {@link #labelValue}). */
+  public static final String LABEL_APPLICATION = "org.shadok/application";
+
+  private static final int LABEL_VALUE_LENGTH = 63;
+
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
+
+  @Inject KubernetesClient client;
+  @Inject CacheConfig config;
+
+  // Whether pods are served from an informer, or listed at each call
+  boolean cached = true;
+
+  private volatile SharedIndexInformer<Pod> informer;
+  private final Set<String> relabelled = ConcurrentHashMap.newKeySet();
+
+  void onStop(@Observes ShutdownEvent event) {
+    Optional.ofNullable(informer).ifPresent(SharedIndexInformer::close);
+  }
+
+  /**
+   * Record the revision of an Application and restart its outdated pods.
+   *
+   * @param application an Application whose ProjectSource and DependencyCache are ready
+   * @param status the status being built, with the lockfile sharing and prefetch outcomes
+   * @return the delay before the next rollout step, empty when rollouts are disabled
+   */
+  public Optional<Duration> roll(Application application, ApplicationStatus status) {
+    if (!config.rollout().enabled()) {
+      return Optional.empty();
+    }
+
+    var namespace = application.getMetadata().getNamespace();
+    var spec = application.getSpec();
+    var projectSource =
+        client
+            .resources(ProjectSource.class)
+            .inNamespace(namespace)
+            .withName(spec.projectSourceName())
+            .get();
+    var cache =
+        client
+            .resources(DependencyCache.class)
+            .inNamespace(spec.dependencyCacheNamespace(namespace))
+            .withName(spec.dependencyCacheName())
+            .get();
+    var previous = Optional.ofNullable(application.getStatus()).map(ApplicationStatus::getRollout);
+    if (projectSource == null || cache == null) {
+      previous.ifPresent(status::setRollout);
+      return Optional.of(config.rollout().checkInterval());
+    }
+
+    var revision = revision(projectSource, cache, status);
+    if (previous.isEmpty()) {
+      // Running pods were started with the volumes as they are now
+      status.setRollout(
+          new PodRolloutStatus(
+              revision, PodRolloutStatus.Phase.IDLE, null, null, 0, 0, 0, null, null));
+      return Optional.of(config.rollout().checkInterval());
+    }
+
+    var rollout = previous.get();
+    if (!revision.equals(rollout.revision())) {
+      log.info(
+          "🔁 Volumes of Application {}/{} changed, rolling its pods",
+          namespace,
+          application.getMetadata().getName());
+      rollout =
+          new PodRolloutStatus(
+              revision,
+              PodRolloutStatus.Phase.ROLLING,
+              Instant.now().toString(),
+              null,
+              0,
+              0,
+              0,
+              null,
+              rollout.averageReadyMillis());
+    }
+    if (rollout.phase() == PodRolloutStatus.Phase.IDLE) {
+      status.setRollout(rollout);
+      return Optional.of(config.rollout().checkInterval());
+    }
+    return Optional.of(step(application, rollout, status));
+  }
+
+  /** Restart the next outdated pod if the window and pacing allow it. */
+  private Duration step(
+      Application application, PodRolloutStatus rollout, ApplicationStatus status) {
+    var now = Instant.now();
+    var startedAt = Instant.parse(rollout.startedAt());
+    var pods = pods(application);
+    var outdated =
+        pods.stream()
+            .filter(pod -> pod.getMetadata().getDeletionTimestamp() == null)
+            .filter(pod -> createdAt(pod).isBefore(startedAt))
+            .sorted(Comparator.comparing(PodRollout::createdAt))
+            .toList();
+    var replacements = pods.stream().filter(pod -> !createdAt(pod).isBefore(startedAt)).toList();
+    var terminating =
+        pods.stream().filter(pod -> pod.getMetadata().getDeletionTimestamp() != null).count();
+    var notReady =
+        replacements.stream()
+            .filter(pod -> pod.getMetadata().getDeletionTimestamp() == null)
+            .filter(pod -> readyAt(pod).isEmpty())
+            .count();
+    var observed =
+        replacements.stream()
+            .flatMap(pod -> readyAt(pod).map(at -> Duration.between(createdAt(pod), at)).stream())
+            .mapToLong(Duration::toMillis)
+            .average();
+    long averageReadyMillis =
+        observed.isPresent()
+            ? Math.round(observed.getAsDouble())
+            : Optional.ofNullable(rollout.averageReadyMillis())
+                .orElse(config.rollout().initialReadyTime().toMillis());
+
+    var window = config.rollout().maxConcurrent();
+    var inFlight = (int) (terminating + notReady);
+    if (outdated.isEmpty() && inFlight == 0) {
+      log.info(
+          "🔁 Rolled {} pods of Application {}/{}",
+          rollout.restartedPods(),
+          application.getMetadata().getNamespace(),
+          application.getMetadata().getName());
+      status.setRollout(
+          new PodRolloutStatus(
+              rollout.revision(),
+              PodRolloutStatus.Phase.IDLE,
+              rollout.startedAt(),
+              now.toString(),
+              rollout.restartedPods(),
+              0,
+              0,
+              rollout.lastRestartAt(),
+              averageReadyMillis));
+      return config.rollout().checkInterval();
+    }
+
+    var pacing = pacing(Duration.ofMillis(averageReadyMillis), window);
+    var nextRestart =
+        Optional.ofNullable(rollout.lastRestartAt())
+            .map(Instant::parse)
+            .map(last -> last.plus(pacing))
+            .orElse(now);
+    var restarted = rollout.restartedPods();
+    var lastRestartAt = rollout.lastRestartAt();
+    var pending = outdated.size();
+    if (pending > 0 && inFlight < window && !nextRestart.isAfter(now)) {
+      var pod = outdated.getFirst();
+      var evicted =
+          client
+              .pods()
+              .inNamespace(pod.getMetadata().getNamespace())
+              .withName(pod.getMetadata().getName())
+              .evict();
+      if (!evicted) {
+        // Refused by a PodDisruptionBudget: retried at the next step
+        log.info(
+            "🔁 Eviction of pod {}/{} refused by its disruption budget",
+            pod.getMetadata().getNamespace(),
+            pod.getMetadata().getName());
+        status.setRollout(
+            new PodRolloutStatus(
+                rollout.revision(),
+                PodRolloutStatus.Phase.ROLLING,
+                rollout.startedAt(),
+                null,
+                restarted,
+                pending,
+                inFlight,
+                lastRestartAt,
+                averageReadyMillis));
+        return POLL_INTERVAL;
+      }
+      log.info(
+          "🔁 Restarted pod {}/{} ({} of {} outdated pods left, {} in flight)",
+          pod.getMetadata().getNamespace(),
+          pod.getMetadata().getName(),
+          pending - 1,
+          pending,
+          inFlight + 1);
+      restarted++;
+      pending--;
+      inFlight++;
+      lastRestartAt = now.toString();
+      nextRestart = now.plus(pacing);
+    }
+
+    status.setRollout(
+        new PodRolloutStatus(
+            rollout.revision(),
+            PodRolloutStatus.Phase.ROLLING,
+            rollout.startedAt(),
+            null,
+            restarted,
+            pending,
+            inFlight,
+            lastRestartAt,
+            averageReadyMillis));
+    var untilNext = Duration.between(now, nextRestart);
+    return untilNext.isPositive() && untilNext.compareTo(POLL_INTERVAL) < 0
+        ? untilNext
+        : POLL_INTERVAL;
+  }
+
+  /** Delay between two restarts: one ready time per window slot, within the configured bounds. */
+  Duration pacing(Duration readyTime, int window) {
+    var pacing = readyTime.dividedBy(Math.max(window, 1));
+    if (pacing.compareTo(config.rollout().minInterval()) < 0) {
+      return config.rollout().minInterval();
+    }
+    if (pacing.compareTo(config.rollout().maxInterval()) > 0) {
+      return config.rollout().maxInterval();
+    }
+    return pacing;
+  }
+
+  /** Pods of the Application that a controller would recreate. */
+  List<Pod> pods(Application application) {
+    var name = application.getMetadata().getName();
+    var namespace = application.getMetadata().getNamespace();
+    var legacy = relabel(application);
+    var labelled =
+        cached
+            ? informer().getStore().list().stream()
+                .filter(pod -> namespace.equals(pod.getMetadata().getNamespace()))
+                .filter(
+                    pod ->
+                        labelValue(name)
+                            .equals(pod.getMetadata().getLabels().get(LABEL_APPLICATION)))
+            : client
+                .pods()
+                .inNamespace(namespace)
+                .withLabel(LABEL_APPLICATION, labelValue(name))
+                .list()
+                .getItems()
+                .stream();
+    // The informer may not have seen the relabelled pods yet
+    var seen = new HashSet<String>();
+    return Stream.concat(labelled, legacy.stream())
+        .filter(pod -> seen.add(pod.getMetadata().getName()))
+        .filter(
+            pod ->
+                Optional.ofNullable(pod.getMetadata().getAnnotations())
+                    .map(annotations -> annotations.get(ANNOTATION_APPLICATION))
+                    .filter(name::equals)
+                    .isPresent())
+        .filter(
+            pod ->
+                Optional.ofNullable(pod.getMetadata().getOwnerReferences()).stream()
+                    .flatMap(List::stream)
+                    .map(OwnerReference::getController)
+                    .anyMatch(Boolean.TRUE::equals))
+        .toList();
+  }
+
+  /** Informer of the labelled pods, started by the first call. */
+  private SharedIndexInformer<Pod> informer() {
+    var pods = informer;
+    if (pods == null) {
+      synchronized (this) {
+        pods = informer;
+        if (pods == null) {
+          // Returns once the initial list is in the store
+          pods = client.pods().inAnyNamespace().withLabel(LABEL_APPLICATION).inform();
+          informer = pods;
+        }
+      }
+    }
+    return pods;
+  }
+
+  /**
+   * Label the pods of an Application admitted before {@link #LABEL_APPLICATION} existed, once per
+   * Application and operator run.
+   *
+   * @return the pods labelled by this call
+   */
+  private List<Pod> relabel(Application application) {
+    var name = application.getMetadata().getName();
+    var namespace = application.getMetadata().getNamespace();
+    if (!relabelled.add(namespace + "/" + name)) {
+      return List.of();
+    }
+    var legacy =
+        client
+            .pods()
+            .inNamespace(namespace)
+            .withoutLabel(LABEL_APPLICATION)
+            .list()
+            .getItems()
+            .stream()
+            .filter(
+                pod ->
+                    Optional.ofNullable(pod.getMetadata().getLabels())
+                        .filter(labels -> labels.containsKey(LABEL_APPLICATION))
+                        .isEmpty())
+            .filter(
+                pod ->
+                    name.equals(
+                        Optional.ofNullable(pod.getMetadata().getAnnotations())
+                            .map(annotations -> annotations.get(ANNOTATION_APPLICATION))
+                            .orElse(null)))
+            .toList();
+    var labelled = new ArrayList<Pod>();
+    for (var pod : legacy) {
+      try {
+        labelled.add(
+            client
+                .pods()
+                .inNamespace(namespace)
+                .withName(pod.getMetadata().getName())
+                .edit(
+                    edited ->
+                        new PodBuilder(edited)
+                            .editMetadata()
+                            .addToLabels(LABEL_APPLICATION, labelValue(name))
+                            .endMetadata()
+                            .build()));
+      } catch (KubernetesClientException e) {
+        log.debug(
+            "Pod {}/{} not labelled: {}", namespace, pod.getMetadata().getName(), e.getMessage());
+      }
+    }
+    if (!labelled.isEmpty()) {
+      log.info(
+          "🏷️ Labelled {} pods of Application {}/{} admitted before the label",
+          labelled.size(),
+          namespace,
+          name);
+    }
+    return labelled;
+  }
+
+  /**
+   * Value of {@link #LABEL_APPLICATION} for an Application: its name, or a prefix and digest of it
+   * when longer than a label value allows.
+   */
+  public static String labelValue(String applicationName) {
+    if (applicationName.length() <= LABEL_VALUE_LENGTH) {
+      return applicationName;
+    }
+    try {
+      var digest =
+          MessageDigest.getInstance("SHA-256")
+              .digest(applicationName.getBytes(StandardCharsets.UTF_8));
+      return applicationName.substring(0, LABEL_VALUE_LENGTH - 9)
+          + "-"
+          + HexFormat.of().formatHex(digest, 0, 4);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Revision of the volumes mounted by the pods of an Application.
+   *
+   * @param projectSource the ProjectSource of the Application
+   * @param cache the DependencyCache of the Application
+   * @param status the Application status, with lockfile sharing and prefetch outcomes
+   * @return a short hexadecimal digest
+   */
+  static String revision(
+      ProjectSource projectSource, DependencyCache cache, ApplicationStatus status) {
+    var cacheStatus = Optional.ofNullable(cache.getStatus());
+    var parts =
+        Stream.of(
+                projectSource.getSpec().persistentVolumeName(),
+                projectSource.getSpec().sourcePath(),
+                projectSource.getSpec().pvcName(),
+                cache.getMetadata().getNamespace() + "/" + cache.getMetadata().getName(),
+                cache.getSpec().persistentVolumeName(),
+                cache.getSpec().cachePath(),
+                cache.getSpec().pvcName(),
+                cacheStatus
+                    .map(DependencyCacheStatus::getPopulation)
+                    .map(CachePopulationStatus::populatedAt)
+                    .orElse(null),
+                cacheStatus
+                    .map(DependencyCacheStatus::getSnapshot)
+                    .map(CacheSnapshotStatus::lastImport)
+                    .map(CacheSnapshotTransfer::at)
+                    .orElse(null),
+                status.getSharedDependencyCache(),
+                Optional.ofNullable(status.getManifestPrefetch())
+                    .map(ManifestPrefetchStatus::prefetchedAt)
+                    .orElse(null))
+            .map(part -> Objects.toString(part, ""))
+            .collect(Collectors.joining("\0"));
+    try {
+      var digest =
+          MessageDigest.getInstance("SHA-256").digest(parts.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest, 0, 8);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  static Instant createdAt(Pod pod) {
+    return Optional.ofNullable(pod.getMetadata().getCreationTimestamp())
+        .map(Instant::parse)
+        .orElse(Instant.EPOCH);
+  }
+
+  static Optional<Instant> readyAt(Pod pod) {
+    return Optional.ofNullable(pod.getStatus()).map(podStatus -> podStatus.getConditions()).stream()
+        .flatMap(List::stream)
+        .filter(condition -> "Ready".equals(condition.getType()))
+        .filter(condition -> "True".equals(condition.getStatus()))
+        .map(PodCondition::getLastTransitionTime)
+        .filter(Objects::nonNull)
+        .map(Instant::parse)
+        .findFirst();
+  }
+}
@@ -0,0 +1,204 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.shadok.operator.dependent.CacheToolJobs;
+import org.shadok.operator.dependent.DependencyCachePvcDependent;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationTypeHelper;
+import org.shadok.operator.model.application.PreResolutionStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.code.ProjectSource;
+import org.shadok.operator.model.result.JobResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dependency pre-resolution of Applications with {@code spec.preResolution} set.
+ *
+ * <p>Without it, dependencies are only downloaded when a dev pod starts its live-reload command, so
+ * the first pod start is dominated by resolution. Once the ProjectSource and DependencyCache are
+ * ready, a Job runs the resolve-only command of the application type ({@link
+ * ApplicationTypeHelper#getOfflineResolveCommand}) in its recommended base image, against a copy of
+ * the sources (the ProjectSource volume is read-only) and the cache volume. It runs once per
+ * Application generation; the outcome is kept in {@code status.preResolution}.
+ *
+ * <p>Caches in overlay mode and read-only federated caches are skipped: the Job would bypass their
+ * single writer.
+ */
+@ApplicationScoped
+public class PreResolution {
+
+  private static final Logger log = LoggerFactory.getLogger(PreResolution.class);
+
+  static final String PRE_RESOLVE_TASK = "pre-resolve";
+
+  /** Report written by the resolve script to the termination message. */
+  public record Report(long durationSeconds) {}
+
+  @Inject KubernetesClient client;
+  @Inject CacheToolJobs jobs;
+
+  /**
+   * Start or follow the pre-resolution of an Application whose dependencies are ready.
+   *
+   * @param application the Application
+   * @return the pre-resolution status, empty when pre-resolution is not enabled
+   */
+  public Optional<PreResolutionStatus> resolve(Application application) {
+    var spec = application.getSpec();
+    var preResolution = spec.preResolution();
+    if (preResolution == null) {
+      return Optional.empty();
+    }
+
+    var generation = application.getMetadata().getGeneration();
+    var previous =
+        Optional.ofNullable(application.getStatus()).map(status -> status.getPreResolution());
+    if (previous.filter(status -> status.isCompleted(generation)).isPresent()) {
+      return previous;
+    }
+
+    var type = spec.applicationType();
+    var image =
+        Optional.ofNullable(preResolution.image())
+            .orElseGet(() -> ApplicationTypeHelper.getRecommendedBaseImage(type));
+    var command = ApplicationTypeHelper.getOfflineResolveCommand(type);
+    if (command.isEmpty()) {
+      return Optional.of(
+          skipped(generation, image, "No resolve-only command for application type " + type));
+    }
+
+    var namespace = application.getMetadata().getNamespace();
+    var cache =
+        client
+            .resources(DependencyCache.class)
+            .inNamespace(spec.dependencyCacheNamespace(namespace))
+            .withName(spec.dependencyCacheName())
+            .get();
+    var projectSource =
+        client
+            .resources(ProjectSource.class)
+            .inNamespace(namespace)
+            .withName(spec.projectSourceName())
+            .get();
+    if (cache == null || projectSource == null) {
+      return Optional.empty();
+    }
+    if (cache.getSpec().overlay() != null) {
+      return Optional.of(
+          skipped(generation, image, "DependencyCache in overlay mode has a single writer"));
+    }
+    var federation = cache.getSpec().federation();
+    if (!namespace.equals(cache.getMetadata().getNamespace())
+        && federation != null
+        && federation.readOnly()) {
+      return Optional.of(skipped(generation, image, "Federated DependencyCache is read-only"));
+    }
+
+    var task = task(application, PRE_RESOLVE_TASK, image, command.get(), projectSource, cache);
+
+    var startedAt =
+        previous
+            .filter(status -> status.phase() == PreResolutionStatus.Phase.RUNNING)
+            .map(PreResolutionStatus::startedAt)
+            .orElseGet(() -> Instant.now().toString());
+    return Optional.of(
+        switch (jobs.run(task, Report.class)) {
+          case JobResult.Succeeded<Report>(var report) -> {
+            log.info(
+                "📥 Pre-resolved dependencies of Application {}/{} in {} s",
+                namespace,
+                application.getMetadata().getName(),
+                report.durationSeconds());
+            yield new PreResolutionStatus(
+                PreResolutionStatus.Phase.SUCCEEDED,
+                generation,
+                image,
+                startedAt,
+                Instant.now().toString(),
+                report.durationSeconds(),
+                null);
+          }
+          case JobResult.Running<Report>(var jobName) ->
+              new PreResolutionStatus(
+                  PreResolutionStatus.Phase.RUNNING,
+                  generation,
+                  image,
+                  startedAt,
+                  null,
+                  null,
+                  "Job " + jobName + " is resolving dependencies");
+          case JobResult.Failed<Report>(var error) ->
+              new PreResolutionStatus(
+                  PreResolutionStatus.Phase.FAILED,
+                  generation,
+                  image,
+                  startedAt,
+                  Instant.now().toString(),
+                  null,
+                  error);
+        });
+  }
+
+  /**
+   * Resolve-only Job of an Application, against a copy of its sources and its cache volume.
+   *
+   * @param application the Application, owner of the Job
+   * @param taskName name of the task
+   * @param image image of the Job
+   * @param command resolve-only command of the application type
+   * @param projectSource the ProjectSource of the Application
+   * @param cache the DependencyCache of the Application
+   * @return the script task, reporting a {@link Report}
+   */
+  static CacheToolJobs.ScriptTask task(
+      Application application,
+      String taskName,
+      String image,
+      String command,
+      ProjectSource projectSource,
+      DependencyCache cache) {
+    var spec = application.getSpec();
+    var namespace = application.getMetadata().getNamespace();
+    return new CacheToolJobs.ScriptTask(
+        application,
+        taskName,
+        image,
+        script(command),
+        cacheEnvironment(spec.applicationType()),
+        List.of(
+            new CacheToolJobs.Mount(projectSource.getSpec().pvcName(), "/workspace", true),
+            new CacheToolJobs.Mount(
+                DependencyCachePvcDependent.claimName(cache, namespace), "/cache", false)),
+        Duration.ofMinutes(spec.preResolution().timeoutMinutes()));
+  }
+
+  /** Resolve in a writable copy of the sources and report the duration. */
+  static String script(String command) {
+    return "set -e; start=$(date +%s); mkdir -p /tmp/project; cp -a /workspace/. /tmp/project;"
+        + " cd /tmp/project; "
+        + command
+        + "; printf '{\"durationSeconds\":%d}' $(($(date +%s) - start)) > /dev/termination-log";
+  }
+
+  /** Cache locations of the build tools; other build variables depend on the pod image. */
+  private static Map<String, String> cacheEnvironment(
+      org.shadok.operator.model.ApplicationType type) {
+    return ApplicationTypeHelper.getBuildEnvironmentVariables(type).entrySet().stream()
+        .filter(entry -> entry.getValue().contains("/cache"))
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
+  private static PreResolutionStatus skipped(Long generation, String image, String reason) {
+    return new PreResolutionStatus(
+        PreResolutionStatus.Phase.SKIPPED, generation, image, null, null, null, reason);
+  }
+}
@@ -0,0 +1,99 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.api.model.Condition;
+import io.fabric8.kubernetes.api.model.ConditionBuilder;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Steps of a reconciliation reported as status conditions.
+ *
+ * <p>Each step (maintenance of a cache, feature of an Application) runs on its own: when it throws,
+ * its condition turns {@code False} with the error and the other steps still run. A step that is
+ * not enabled has no condition.
+ */
+final class StatusConditions {
+
+  private static final Logger log = LoggerFactory.getLogger(StatusConditions.class);
+
+  private final List<Condition> conditions;
+  private final Long generation;
+  private boolean failed;
+
+  /**
+   * @param conditions conditions of the status, updated in place
+   * @param generation generation of the reconciled resource
+   */
+  StatusConditions(List<Condition> conditions, Long generation) {
+    this.conditions = conditions;
+    this.generation = generation;
+  }
+
+  /**
+   * Run a step.
+   *
+   * @param type condition type of the step
+   * @param step the step, returning empty when it is not enabled
+   * @return the result of the step, empty when it is not enabled or failed
+   */
+  <T> Optional<T> run(String type, Supplier<Optional<T>> step) {
+    return run(type, step, result -> {});
+  }
+
+  /**
+   * Run a step and record its result in the status.
+   *
+   * @param type condition type of the step
+   * @param step the step, returning empty when it is not enabled
+   * @param report records the result in the status; not called when the step fails, so that the
+   *     status keeps the previous result
+   * @return the result of the step, empty when it is not enabled or failed
+   */
+  <T> Optional<T> run(String type, Supplier<Optional<T>> step, Consumer<Optional<T>> report) {
+    try {
+      var result = step.get();
+      report.accept(result);
+      if (result.isPresent()) {
+        set(type, "True", "Succeeded", null);
+      } else {
+        conditions.removeIf(condition -> type.equals(condition.getType()));
+      }
+      return result;
+    } catch (RuntimeException e) {
+      log.warn("Step {} failed: {}", type, e.getMessage(), e);
+      failed = true;
+      set(type, "False", "Failed", e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /** Whether a step failed, to be retried at the next reconciliation. */
+  boolean failed() {
+    return failed;
+  }
+
+  private void set(String type, String status, String reason, String message) {
+    var previous = conditions.stream().filter(c -> type.equals(c.getType())).findFirst();
+    var transition =
+        previous
+            .filter(c -> status.equals(c.getStatus()))
+            .map(Condition::getLastTransitionTime)
+            .orElseGet(() -> Instant.now().toString());
+    var condition =
+        new ConditionBuilder()
+            .withType(type)
+            .withStatus(status)
+            .withReason(reason)
+            .withMessage(message)
+            .withLastTransitionTime(transition)
+            .withObservedGeneration(generation)
+            .build();
+    previous.ifPresentOrElse(
+        c -> conditions.set(conditions.indexOf(c), condition), () -> conditions.add(condition));
+  }
+}
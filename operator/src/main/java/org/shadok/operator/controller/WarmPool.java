@@ -0,0 +1,499 @@
+package org.shadok.operator.controller;
+
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.shadok.operator.config.WarmPoolConfig;
+import org.shadok.operator.dependent.DependencyCachePvcDependent;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationTypeHelper;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pools of warm dev pods per application type ({@code shadok.warm-pool.*}).
+ *
+ * <p>In every namespace holding Applications of a pooled type, the operator keeps {@code size} pods
+ * of the {@link ApplicationTypeHelper#getRecommendedBaseImage recommended base image}, with the
+ * DependencyCache of the Application mounted: the image is pulled, the cache volume attached to the
+ * node, the build tool started once and the dependencies of the type read into the page cache of
+ * the node. Missing pods are recreated at most {@code replenish-batch} at a time every {@code
+ * replenish-interval}.
+ *
+ * <p>A running pod cannot be given another volume or command, so a pool pod is not turned into the
+ * Application pod: the pool only brings node locality. When the webhook admits the pod of an
+ * Application, it claims a Ready pool pod of the same type, labels the pod with it and makes the
+ * scheduler prefer its node, where all of the above is already done. The claim is held in memory by
+ * the replica that admitted the pod, so that concurrent admissions claim distinct pool pods; it
+ * lapses after {@link #CLAIM_TTL}, so that pods denied by a later webhook leave the pool untouched,
+ * and dry runs claim nothing. The creation event of the pod, seen by an informer on {@link
+ * #LABEL_SELECTED}, makes that replica delete the claimed pool pod at once, handing its node
+ * resources over while the pod is being scheduled. The reconciler of the Application deletes the
+ * pool pods selected by existing pods that no replica released (operator restarted meanwhile), and
+ * replenishes the pool. Pool pods are owned by every Application of their type in the namespace, so
+ * that the pool lives as long as one of them.
+ *
+ * <p>Selections are counted in {@code shadok_warm_pool_selections_total}, the time the webhook
+ * takes to select in {@code shadok_warm_pool_selection_time}, released pool pods in {@code
+ * shadok_warm_pool_releases_total} and the Ready pool pods in {@code shadok_warm_pool_ready}; the
+ * startup time of the Application pods stays in {@code status.rollout.averageReadyMillis}.
+ */
+@ApplicationScoped
+public class WarmPool {
+
+  private static final Logger log = LoggerFactory.getLogger(WarmPool.class);
+
+  static final String LABEL_POOL = "shadok.org/warm-pool";
+  static final String ANNOTATION_CACHE_CLAIM = "shadok.org/warm-pool-cache";
+  static final String WARM_MARKER = "/tmp/shadok-warm";
+
+  /** Label of an Application pod naming the pool pod selected at its admission. */
+  public static final String LABEL_SELECTED = "shadok.org/warm-pool-pod";
+
+  /** UID of the selected pool pod, so that a pool pod recreated under its name is not released. */
+  public static final String ANNOTATION_SELECTED_UID = "shadok.org/warm-pool-pod-uid";
+
+  /** How long a claim waits for the creation of the admitted pod: the longest admission. */
+  static final Duration CLAIM_TTL = Duration.ofSeconds(30);
+
+  @Inject KubernetesClient client;
+  @Inject WarmPoolConfig config;
+  @Inject MeterRegistry registry;
+  @Inject PodRollout podRollout;
+
+  private final Set<String> gauges = ConcurrentHashMap.newKeySet();
+  // Pool pods claimed by the admissions of this replica, by UID, until the claim lapses
+  private final Map<String, Instant> claims = new ConcurrentHashMap<>();
+  private SharedIndexInformer<Pod> informer;
+  private SharedIndexInformer<Pod> selections;
+
+  /** Pool pod selected for an Application pod, with the node it runs on. */
+  public record Selection(String pod, String uid, String node) {}
+
+  void onStart(@Observes StartupEvent event) {
+    if (config.enabled()) {
+      // Every replica claims and releases, the leader only replenishes: all of them watch the
+      // pools and the pods created with a claim
+      informer = client.pods().inAnyNamespace().withLabel(LABEL_POOL).inform();
+      selections =
+          client
+              .pods()
+              .inAnyNamespace()
+              .withLabel(LABEL_SELECTED)
+              .inform(
+                  new ResourceEventHandler<>() {
+                    @Override
+                    public void onAdd(Pod pod) {
+                      // Only the replica that claimed the pool pod releases it
+                      var uid = annotation(pod, ANNOTATION_SELECTED_UID);
+                      if (uid != null && claims.remove(uid) != null) {
+                        release(pod);
+                      }
+                    }
+
+                    @Override
+                    public void onUpdate(Pod oldPod, Pod newPod) {}
+
+                    @Override
+                    public void onDelete(Pod pod, boolean deletedFinalStateUnknown) {}
+                  });
+    }
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    Optional.ofNullable(selections).ifPresent(SharedIndexInformer::close);
+    Optional.ofNullable(informer).ifPresent(SharedIndexInformer::close);
+  }
+
+  /**
+   * Release the pool pods selected for the pods of an Application, then create the missing pods of
+   * the pool of its type and namespace.
+   *
+   * @param application an Application whose dependencies are ready
+   * @return the delay before the next replenishment, empty when its type has no pool
+   */
+  public Optional<Duration> replenish(Application application) {
+    var type = application.getSpec().applicationType();
+    if (!pooled(type)) {
+      return Optional.empty();
+    }
+    var namespace = application.getMetadata().getNamespace();
+    var spec = application.getSpec();
+    var cache =
+        client
+            .resources(DependencyCache.class)
+            .inNamespace(spec.dependencyCacheNamespace(namespace))
+            .withName(spec.dependencyCacheName())
+            .get();
+    if (cache == null) {
+      return Optional.of(config.replenishInterval());
+    }
+    registerGauge(namespace, type);
+    podRollout.pods(application).forEach(this::release);
+
+    var pool =
+        client.pods().inNamespace(namespace).withLabel(LABEL_POOL, type.name()).list().getItems();
+    for (var pod : pool) {
+      adopt(pod, application);
+    }
+    var existing =
+        pool.stream().map(pod -> pod.getMetadata().getName()).collect(Collectors.toSet());
+    var missing =
+        IntStream.range(0, config.size())
+            .mapToObj(slot -> podName(type, slot))
+            .filter(name -> !existing.contains(name))
+            .limit(config.replenishBatch())
+            .toList();
+    if (missing.isEmpty()) {
+      return Optional.of(config.replenishInterval());
+    }
+    var owners =
+        client.resources(Application.class).inNamespace(namespace).list().getItems().stream()
+            .filter(owner -> owner.getSpec().applicationType() == type)
+            .filter(owner -> owner.getMetadata().getDeletionTimestamp() == null)
+            .toList();
+    if (owners.isEmpty()) {
+      return Optional.of(config.replenishInterval());
+    }
+    for (var name : missing) {
+      try {
+        client
+            .pods()
+            .inNamespace(namespace)
+            .resource(
+                pod(owners, name, type, DependencyCachePvcDependent.claimName(cache, namespace)))
+            .create();
+        log.info("🔥 Warming pool pod {}/{} for {}", namespace, name, type);
+        Counter.builder("shadok.warm.pool.replenished")
+            .description("Warm pool pods created to replace claimed or lost ones")
+            .tag("type", type.name())
+            .register(registry)
+            .increment();
+      } catch (KubernetesClientException e) {
+        // Created meanwhile for another Application of the same type
+        if (e.getCode() != 409) {
+          log.warn("Warm pool pod {}/{} not created: {}", namespace, name, e.getMessage());
+        }
+      }
+    }
+    return Optional.of(config.replenishInterval());
+  }
+
+  /**
+   * Claim a Ready pool pod for a pod being admitted: the pool pod is only released once the
+   * admitted pod exists, and the claim lapses after {@link #CLAIM_TTL} otherwise. Pool pods claimed
+   * by another admission are skipped; pods mounting the same cache volume are preferred, then the
+   * longest warm.
+   *
+   * @param type application type of the admitted pod
+   * @param namespace namespace of the admitted pod
+   * @param cacheClaim cache volume claim the admitted pod mounts
+   * @return the selected pod, empty when the pool is disabled or has no Ready pod
+   */
+  public Optional<Selection> select(
+      ApplicationType type, String namespace, Optional<String> cacheClaim) {
+    if (informer == null || !pooled(type)) {
+      return Optional.empty();
+    }
+    var sample = Timer.start(registry);
+    var now = Instant.now();
+    var selected =
+        candidates(informer.getStore().list(), type, namespace, cacheClaim).stream()
+            .filter(pod -> claim(pod.getMetadata().getUid(), now))
+            .findFirst()
+            .map(
+                pod ->
+                    new Selection(
+                        pod.getMetadata().getName(),
+                        pod.getMetadata().getUid(),
+                        pod.getSpec().getNodeName()));
+    sample.stop(
+        Timer.builder("shadok.warm.pool.selection.time")
+            .description("Time taken by the webhook to select a warm pool pod")
+            .tag("type", type.name())
+            .register(registry));
+    Counter.builder("shadok.warm.pool.selections")
+        .description("Warm pool selections by application type and outcome")
+        .tag("type", type.name())
+        .tag("outcome", selected.isPresent() ? "selected" : "empty")
+        .register(registry)
+        .increment();
+    return selected;
+  }
+
+  /**
+   * Claim a pool pod unless another admission holds an unlapsed claim on it.
+   *
+   * @param uid UID of the pool pod
+   * @param now time of the admission
+   * @return true when the claim is taken
+   */
+  boolean claim(String uid, Instant now) {
+    var claimed = new AtomicBoolean();
+    claims.compute(
+        uid,
+        (key, until) -> {
+          if (until != null && until.isAfter(now)) {
+            return until;
+          }
+          claimed.set(true);
+          return now.plus(CLAIM_TTL);
+        });
+    claims.values().removeIf(until -> !until.isAfter(now));
+    return claimed.get();
+  }
+
+  /**
+   * Delete the pool pod selected for an existing Application pod, if it is still the one selected:
+   * its admission went through. A pool pod is released once.
+   */
+  private void release(Pod pod) {
+    var namespace = pod.getMetadata().getNamespace();
+    var name =
+        Optional.ofNullable(pod.getMetadata().getLabels())
+            .map(labels -> labels.get(LABEL_SELECTED));
+    var selected =
+        name.flatMap(
+                pool -> Optional.ofNullable(informer.getStore().getByKey(namespace + "/" + pool)))
+            .filter(pool -> pool.getMetadata().getDeletionTimestamp() == null)
+            .filter(
+                pool ->
+                    pool.getMetadata().getUid().equals(annotation(pod, ANNOTATION_SELECTED_UID)));
+    if (selected.isEmpty()) {
+      return;
+    }
+    try {
+      client.pods().inNamespace(namespace).withName(name.get()).withGracePeriod(0).delete();
+      log.info(
+          "🎯 Released warm pool pod {}/{} to pod {}",
+          namespace,
+          name.get(),
+          pod.getMetadata().getName());
+      Counter.builder("shadok.warm.pool.releases")
+          .description("Warm pool pods deleted to hand their node over to an Application pod")
+          .tag("type", selected.get().getMetadata().getLabels().get(LABEL_POOL))
+          .register(registry)
+          .increment();
+    } catch (KubernetesClientException e) {
+      log.debug("Warm pool pod {}/{} not released: {}", namespace, name.get(), e.getMessage());
+    }
+  }
+
+  /** Add an Application of the type to the owners of a pool pod, which it then keeps alive. */
+  private void adopt(Pod pod, Application application) {
+    var uid = application.getMetadata().getUid();
+    var owned =
+        Optional.ofNullable(pod.getMetadata().getOwnerReferences()).stream()
+            .flatMap(List::stream)
+            .anyMatch(owner -> uid.equals(owner.getUid()));
+    if (owned || pod.getMetadata().getDeletionTimestamp() != null) {
+      return;
+    }
+    try {
+      client
+          .pods()
+          .inNamespace(pod.getMetadata().getNamespace())
+          .withName(pod.getMetadata().getName())
+          .edit(
+              edited ->
+                  new PodBuilder(edited)
+                      .editMetadata()
+                      .addToOwnerReferences(ownerReference(application))
+                      .endMetadata()
+                      .build());
+    } catch (KubernetesClientException e) {
+      log.debug(
+          "Warm pool pod {} not adopted by {}: {}",
+          pod.getMetadata().getName(),
+          application.getMetadata().getName(),
+          e.getMessage());
+    }
+  }
+
+  /** Ready pool pods of a type, same cache volume first, then the longest warm. */
+  static List<Pod> candidates(
+      List<Pod> pods, ApplicationType type, String namespace, Optional<String> cacheClaim) {
+    Comparator<Pod> sameCacheFirst =
+        Comparator.comparing(
+            pod ->
+                !cacheClaim
+                    .filter(claim -> claim.equals(annotation(pod, ANNOTATION_CACHE_CLAIM)))
+                    .isPresent());
+    return pods.stream()
+        .filter(pod -> namespace.equals(pod.getMetadata().getNamespace()))
+        .filter(
+            pod ->
+                type.name()
+                    .equals(
+                        Optional.ofNullable(pod.getMetadata().getLabels())
+                            .map(labels -> labels.get(LABEL_POOL))
+                            .orElse(null)))
+        .filter(pod -> pod.getMetadata().getDeletionTimestamp() == null)
+        .filter(pod -> pod.getSpec().getNodeName() != null)
+        .filter(pod -> PodRollout.readyAt(pod).isPresent())
+        .sorted(sameCacheFirst.thenComparing(pod -> PodRollout.readyAt(pod).orElse(Instant.MAX)))
+        .toList();
+  }
+
+  /**
+   * Pool pod of an application type: the recommended base image with the cache mounted read-only
+   * and the build environment of the type, Ready once the build tool ran and the dependency
+   * subtrees of the cache were read. Owned by the Applications of the type, none controlling it.
+   */
+  static Pod pod(List<Application> owners, String name, ApplicationType type, String cacheClaim) {
+    var namespace = owners.getFirst().getMetadata().getNamespace();
+    var subtrees =
+        ApplicationTypeHelper.getCacheSubtrees(type).stream()
+            .sorted()
+            .map(subtree -> "/cache/" + subtree)
+            .collect(Collectors.joining(" "));
+    var script =
+        String.join(
+            " ",
+            warmUpCommand(type) + " > /dev/null 2>&1;",
+            "for dir in " + subtrees + "; do",
+            "[ -d \"$dir\" ] && find \"$dir\" -type f -size -32M -exec cat {} + > /dev/null 2>&1;",
+            "done;",
+            "touch " + WARM_MARKER + ";",
+            "while true; do sleep 3600; done");
+    var container =
+        new ContainerBuilder()
+            .withName("warm")
+            .withImage(ApplicationTypeHelper.getRecommendedBaseImage(type))
+            .withCommand("sh", "-c", script)
+            .withWorkingDir("/tmp")
+            .withEnv(
+                ApplicationTypeHelper.getBuildEnvironmentVariables(type).entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .map(
+                        env ->
+                            new EnvVarBuilder()
+                                .withName(env.getKey())
+                                .withValue(env.getValue())
+                                .build())
+                    .toList())
+            .withNewResources()
+            .addToRequests("cpu", new Quantity("100m"))
+            .addToRequests("memory", new Quantity(type.getRecommendedBuildMemory() + "Mi"))
+            .endResources()
+            .withNewReadinessProbe()
+            .withNewExec()
+            .withCommand("test", "-f", WARM_MARKER)
+            .endExec()
+            .withPeriodSeconds(2)
+            .endReadinessProbe()
+            .addNewVolumeMount()
+            .withName("dependency-cache")
+            .withMountPath("/cache")
+            .withReadOnly(true)
+            .endVolumeMount()
+            .build();
+    return new PodBuilder()
+        .withNewMetadata()
+        .withName(name)
+        .withNamespace(namespace)
+        .addToLabels("app.kubernetes.io/managed-by", "shadok-operator")
+        .addToLabels("app.kubernetes.io/component", "warm-pool")
+        .addToLabels(LABEL_POOL, type.name())
+        .addToAnnotations(ANNOTATION_CACHE_CLAIM, cacheClaim)
+        // Deleted with the last Application of the type
+        .withOwnerReferences(owners.stream().map(WarmPool::ownerReference).toList())
+        .endMetadata()
+        .withNewSpec()
+        .withContainers(container)
+        .withTerminationGracePeriodSeconds(0L)
+        .addNewVolume()
+        .withName("dependency-cache")
+        .withNewPersistentVolumeClaim()
+        .withClaimName(cacheClaim)
+        .withReadOnly(true)
+        .endPersistentVolumeClaim()
+        .endVolume()
+        .endSpec()
+        .build();
+  }
+
+  /** Start the build tool once, so that its binaries and classes are in the node page cache. */
+  private static String warmUpCommand(ApplicationType type) {
+    return switch (type.getBuildSystem()) {
+      case "maven", "gradle" -> "java -version";
+      case "npm" -> "npm --version";
+      case "yarn" -> "yarn --version";
+      case "pip", "poetry" -> "pip --version";
+      case "go-mod" -> "go version";
+      case "cargo" -> "cargo --version";
+      case "bundler" -> "bundle --version";
+      case "composer" -> "php --version";
+      case "dotnet" -> "dotnet --info";
+      case "pub" -> "flutter --version";
+      default -> "true";
+    };
+  }
+
+  private static OwnerReference ownerReference(Application owner) {
+    return new OwnerReferenceBuilder()
+        .withApiVersion(owner.getApiVersion())
+        .withKind(owner.getKind())
+        .withName(owner.getMetadata().getName())
+        .withUid(owner.getMetadata().getUid())
+        .build();
+  }
+
+  static String podName(ApplicationType type, int slot) {
+    return "shadok-pool-" + type.name().toLowerCase().replace('_', '-') + "-" + slot;
+  }
+
+  private boolean pooled(ApplicationType type) {
+    return config.enabled() && config.types().map(types -> types.contains(type)).orElse(true);
+  }
+
+  private static String annotation(Pod pod, String key) {
+    return Optional.ofNullable(pod.getMetadata().getAnnotations())
+        .map(annotations -> annotations.get(key))
+        .orElse(null);
+  }
+
+  private void registerGauge(String namespace, ApplicationType type) {
+    if (informer != null && gauges.add(namespace + "/" + type.name())) {
+      Gauge.builder(
+              "shadok.warm.pool.ready",
+              informer,
+              pools ->
+                  candidates(pools.getStore().list(), type, namespace, Optional.empty()).size())
+          .description("Ready warm pool pods")
+          .tag("namespace", namespace)
+          .tag("type", type.name())
+          .register(registry);
+    }
+  }
+}
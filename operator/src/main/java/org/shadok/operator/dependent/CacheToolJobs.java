@@ -0,0 +1,313 @@
+package org.shadok.operator.dependent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.ContainerStateTerminated;
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.DeletionPropagation;
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.VolumeBuilder;
+import io.fabric8.kubernetes.api.model.VolumeMountBuilder;
+import io.fabric8.kubernetes.api.model.batch.v1.Job;
+import io.fabric8.kubernetes.api.model.batch.v1.JobBuilder;
+import io.fabric8.kubernetes.api.model.batch.v1.JobCondition;
+import io.fabric8.kubernetes.api.model.batch.v1.JobStatus;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.shadok.operator.config.CacheConfig;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.util.cache.CacheTool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs {@link CacheTool} tasks as Kubernetes Jobs on behalf of Shadok resources.
+ *
+ * <p>The operator itself never mounts cache or source volumes: work that needs their content
+ * (fingerprinting, usage scans, eviction, ...) runs in a short-lived Job using the operator image,
+ * which writes a JSON report to its termination message. Reconcilers poll {@link #run} until it
+ * returns a terminal {@link JobResult}; the finished Job is then deleted so that the next call
+ * starts a fresh run.
+ *
+ * <p>{@link ScriptTask}s follow the same lifecycle with a shell script run in another image, for
+ * work that needs a build tool rather than the operator.
+ */
+@ApplicationScoped
+public class CacheToolJobs {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheToolJobs.class);
+
+  static final String CONTAINER_NAME = "cache-tool";
+  static final String LABEL_TASK = "shadok.org/cache-task";
+  static final String LABEL_OWNER = "shadok.org/owner";
+
+  private static final int MAX_NAME_LENGTH = 63;
+
+  private static final Predicate<JobCondition> isFailed =
+      condition -> "Failed".equals(condition.getType()) && "True".equals(condition.getStatus());
+
+  @Inject KubernetesClient client;
+  @Inject ObjectMapper objectMapper;
+  @Inject CacheConfig config;
+
+  /** PersistentVolumeClaim mounted into a task Job. */
+  public record Mount(String claimName, String mountPath, boolean readOnly) {}
+
+  /** A cache tool task run on behalf of a Shadok resource. */
+  public record Task(HasMetadata owner, String name, List<String> args, List<Mount> mounts) {}
+
+  /**
+   * A shell script run in another image than the operator's, e.g. a build tool image. The script
+   * writes its JSON report to {@code /dev/termination-log}.
+   */
+  public record ScriptTask(
+      HasMetadata owner,
+      String name,
+      String image,
+      String script,
+      Map<String, String> env,
+      List<Mount> mounts,
+      Duration timeout) {}
+
+  /**
+   * Start the task Job, or report its outcome once it has finished.
+   *
+   * @param task task to run
+   * @param reportType type the JSON report is read into
+   * @return Running while the Job is active, then Succeeded with the report or Failed
+   */
+  public <T> JobResult<T> run(Task task, Class<T> reportType) {
+    // Arguments only: the image entrypoint (JVM or native) hands them over to the cache tool
+    var args =
+        Stream.concat(Stream.of(CacheTool.COMMAND, task.name()), task.args().stream()).toList();
+    return run(
+        task.owner(),
+        task.name(),
+        jobName ->
+            desired(
+                task.owner(),
+                task.name(),
+                jobName,
+                config.tool().image(),
+                null,
+                args,
+                Map.of(),
+                task.mounts(),
+                null),
+        reportType);
+  }
+
+  /**
+   * Start the script Job, or report its outcome once it has finished.
+   *
+   * @param task script to run
+   * @param reportType type the JSON report is read into
+   * @return Running while the Job is active, then Succeeded with the report or Failed
+   */
+  public <T> JobResult<T> run(ScriptTask task, Class<T> reportType) {
+    return run(
+        task.owner(),
+        task.name(),
+        jobName ->
+            desired(
+                task.owner(),
+                task.name(),
+                jobName,
+                task.image(),
+                List.of("sh", "-c", task.script()),
+                null,
+                task.env(),
+                task.mounts(),
+                task.timeout()),
+        reportType);
+  }
+
+  private <T> JobResult<T> run(
+      HasMetadata owner, String taskName, Function<String, Job> desired, Class<T> reportType) {
+    var namespace = owner.getMetadata().getNamespace();
+    var jobName = jobName(owner, taskName);
+    var jobs = client.batch().v1().jobs().inNamespace(namespace);
+
+    var job = jobs.withName(jobName).get();
+    if (job == null) {
+      jobs.resource(desired.apply(jobName)).create();
+      log.info("🧰 Started cache tool task '{}' as Job {}/{}", taskName, namespace, jobName);
+      return new JobResult.Running<>(jobName);
+    }
+
+    var status = Optional.ofNullable(job.getStatus());
+    var succeeded = status.map(JobStatus::getSucceeded).filter(count -> count > 0).isPresent();
+    var failed =
+        status.map(JobStatus::getConditions).stream().flatMap(List::stream).anyMatch(isFailed);
+    if (!succeeded && !failed) {
+      return new JobResult.Running<>(jobName);
+    }
+
+    var message = terminationMessage(namespace, jobName);
+    jobs.withName(jobName).withPropagationPolicy(DeletionPropagation.BACKGROUND).delete();
+    if (failed) {
+      log.warn("Cache tool Job {}/{} failed: {}", namespace, jobName, message.orElse("-"));
+      return new JobResult.Failed<>(message.orElse("Job " + jobName + " failed"));
+    }
+    return message
+        .<JobResult<T>>map(json -> parse(json, reportType))
+        .orElseGet(() -> new JobResult.Failed<>("Job " + jobName + " produced no report"));
+  }
+
+  /** Delete the task Job if it exists, e.g. when its owner no longer needs the result. */
+  public void cancel(HasMetadata owner, String taskName) {
+    client
+        .batch()
+        .v1()
+        .jobs()
+        .inNamespace(owner.getMetadata().getNamespace())
+        .withName(jobName(owner, taskName))
+        .withPropagationPolicy(DeletionPropagation.BACKGROUND)
+        .delete();
+  }
+
+  private Job desired(
+      HasMetadata owner,
+      String taskName,
+      String jobName,
+      String image,
+      List<String> command,
+      List<String> args,
+      Map<String, String> env,
+      List<Mount> mounts,
+      Duration timeout) {
+    var labels =
+        Map.of(
+            "app.kubernetes.io/managed-by",
+            "shadok-operator",
+            "app.kubernetes.io/component",
+            "cache-tool",
+            LABEL_TASK,
+            taskName,
+            LABEL_OWNER,
+            owner.getMetadata().getName());
+
+    var volumeNames = IntStream.range(0, mounts.size()).mapToObj(i -> "volume-" + i).toList();
+    var volumes =
+        IntStream.range(0, mounts.size())
+            .mapToObj(
+                i ->
+                    new VolumeBuilder()
+                        .withName(volumeNames.get(i))
+                        .withNewPersistentVolumeClaim(
+                            mounts.get(i).claimName(), mounts.get(i).readOnly())
+                        .build())
+            .toList();
+    var volumeMounts =
+        IntStream.range(0, mounts.size())
+            .mapToObj(
+                i ->
+                    new VolumeMountBuilder()
+                        .withName(volumeNames.get(i))
+                        .withMountPath(mounts.get(i).mountPath())
+                        .withReadOnly(mounts.get(i).readOnly())
+                        .build())
+            .toList();
+
+    return new JobBuilder()
+        .withNewMetadata()
+        .withName(jobName)
+        .withNamespace(owner.getMetadata().getNamespace())
+        .withLabels(labels)
+        .withOwnerReferences(
+            new OwnerReferenceBuilder()
+                .withApiVersion(owner.getApiVersion())
+                .withKind(owner.getKind())
+                .withName(owner.getMetadata().getName())
+                .withUid(owner.getMetadata().getUid())
+                .build())
+        .endMetadata()
+        .withNewSpec()
+        .withBackoffLimit(1)
+        .withActiveDeadlineSeconds(
+            Optional.ofNullable(timeout).map(Duration::toSeconds).orElse(null))
+        .withTtlSecondsAfterFinished(config.tool().ttlSecondsAfterFinished())
+        .withNewTemplate()
+        .withNewMetadata()
+        .withLabels(labels)
+        .endMetadata()
+        .withNewSpec()
+        .withRestartPolicy("Never")
+        .withContainers(
+            new ContainerBuilder()
+                .withName(CONTAINER_NAME)
+                .withImage(image)
+                .withCommand(command)
+                .withArgs(args)
+                .withEnv(
+                    env.entrySet().stream()
+                        .map(entry -> new EnvVar(entry.getKey(), entry.getValue(), null))
+                        .toList())
+                .withTerminationMessagePolicy("FallbackToLogsOnError")
+                .withVolumeMounts(volumeMounts)
+                .build())
+        .withVolumes(volumes)
+        .endSpec()
+        .endTemplate()
+        .endSpec()
+        .build();
+  }
+
+  private Optional<String> terminationMessage(String namespace, String jobName) {
+    return client
+        .pods()
+        .inNamespace(namespace)
+        .withLabel("job-name", jobName)
+        .list()
+        .getItems()
+        .stream()
+        .max(Comparator.comparing(pod -> pod.getMetadata().getCreationTimestamp()))
+        .map(Pod::getStatus)
+        .flatMap(
+            status ->
+                Optional.ofNullable(status.getContainerStatuses()).stream()
+                    .flatMap(List::stream)
+                    .filter(container -> CONTAINER_NAME.equals(container.getName()))
+                    .findFirst())
+        .map(ContainerStatus::getState)
+        .map(state -> state.getTerminated())
+        .map(ContainerStateTerminated::getMessage)
+        .filter(message -> !message.isBlank());
+  }
+
+  private <T> JobResult<T> parse(String json, Class<T> reportType) {
+    try {
+      return new JobResult.Succeeded<>(objectMapper.readValue(json, reportType));
+    } catch (Exception e) {
+      return new JobResult.Failed<>("Unreadable cache tool report: " + e.getMessage());
+    }
+  }
+
+  static String jobName(Task task) {
+    return jobName(task.owner(), task.name());
+  }
+
+  static String jobName(HasMetadata owner, String taskName) {
+    var name = owner.getMetadata().getName() + "-" + taskName;
+    if (name.length() <= MAX_NAME_LENGTH) {
+      return name;
+    }
+    // Keep names unique once truncated
+    var hash = HexFormat.of().toHexDigits(name.hashCode());
+    return name.substring(0, MAX_NAME_LENGTH - hash.length() - 1) + "-" + hash;
+  }
+}
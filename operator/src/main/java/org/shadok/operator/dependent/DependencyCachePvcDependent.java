@@ -2,13 +2,19 @@ package org.shadok.operator.dependent;
 
 import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
 import io.fabric8.kubernetes.api.model.PersistentVolumeClaimBuilder;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaimSpec;
 import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.VolumeResourceRequirements;
 import io.javaoperatorsdk.operator.api.reconciler.Context;
 import io.javaoperatorsdk.operator.processing.dependent.kubernetes.CRUDKubernetesDependentResource;
 import io.javaoperatorsdk.operator.processing.dependent.kubernetes.KubernetesDependent;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.shadok.operator.model.cache.CacheExpansionStatus;
 import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
 
 /**
  * DependentResource for managing PersistentVolumeClaim creation based on DependencyCache
@@ -16,6 +22,10 @@ import org.shadok.operator.model.cache.DependencyCache;
  *
  * <p>This class handles the creation and management of PVCs that bind to existing PVs to provide
  * shared dependency caches.
+ *
+ * <p>The requested storage is the largest of {@code spec.storageSize}, the size the PVC was
+ * expanded to online ({@code status.expansion.requestedSize}) and the request of the live PVC: a
+ * PVC can never shrink, even when the status was lost or the PVC was expanded by hand.
  */
 @KubernetesDependent
 public class DependencyCachePvcDependent
@@ -56,9 +66,70 @@ public class DependencyCachePvcDependent
         .withVolumeName(spec.persistentVolumeName())
         .withStorageClassName(spec.storageClass())
         .withNewResources()
-        .withRequests(Map.of("storage", new Quantity(spec.storageSize())))
+        .withRequests(
+            Map.of(
+                "storage",
+                new Quantity(
+                    storageSize(
+                        dependencyCache,
+                        context.getSecondaryResource(PersistentVolumeClaim.class)))))
         .endResources()
         .endSpec()
         .build();
   }
+
+  /**
+   * Storage requested for the cache PVC.
+   *
+   * @param dependencyCache the cache
+   * @return {@code spec.storageSize}, or the expanded size when the PVC has been expanded beyond it
+   */
+  public static String storageSize(DependencyCache dependencyCache) {
+    return storageSize(dependencyCache, Optional.empty());
+  }
+
+  /**
+   * Storage requested for the cache PVC, never below the request of the live PVC.
+   *
+   * @param dependencyCache the cache
+   * @param live the PVC as it exists in the cluster, if any
+   * @return the largest of {@code spec.storageSize}, the expanded size and the live request
+   */
+  static String storageSize(DependencyCache dependencyCache, Optional<PersistentVolumeClaim> live) {
+    var expanded =
+        Optional.ofNullable(dependencyCache.getStatus())
+            .map(DependencyCacheStatus::getExpansion)
+            .map(CacheExpansionStatus::requestedSize);
+    var requested =
+        live.map(PersistentVolumeClaim::getSpec)
+            .map(PersistentVolumeClaimSpec::getResources)
+            .map(VolumeResourceRequirements::getRequests)
+            .map(requests -> requests.get("storage"))
+            .map(Quantity::toString);
+    return Stream.of(expanded, requested)
+        .flatMap(Optional::stream)
+        .reduce(
+            dependencyCache.getSpec().storageSize(),
+            (largest, size) -> bytes(size) > bytes(largest) ? size : largest);
+  }
+
+  /**
+   * PVC through which pods of a namespace mount the cache.
+   *
+   * @param dependencyCache the cache
+   * @param namespace namespace of the pods
+   * @return {@code spec.pvcName} in the cache's own namespace, else the PVC provisioned for the
+   *     namespace by the federation
+   */
+  public static String claimName(DependencyCache dependencyCache, String namespace) {
+    var pvcName = dependencyCache.getSpec().pvcName();
+    return namespace.equals(dependencyCache.getMetadata().getNamespace())
+        ? pvcName
+        : pvcName + "-" + dependencyCache.getMetadata().getNamespace();
+  }
+
+  /** Size of a storage quantity in bytes. */
+  public static long bytes(String quantity) {
+    return Quantity.getAmountInBytes(new Quantity(quantity)).longValue();
+  }
 }
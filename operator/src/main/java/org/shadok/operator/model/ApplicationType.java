@@ -185,6 +185,19 @@ public enum ApplicationType {
     return primaryLanguage.equals("java");
   }
 
+  /**
+   * Check if the dev-mode command forks the application JVM with options of its own command line
+   * ({@code jvm.args} of Quarkus, {@code spring-boot.run.jvmArguments} of Spring Boot with Maven).
+   *
+   * @return true if the application JVM takes options from the dev-mode command
+   */
+  public boolean hasApplicationJvmOptions() {
+    return switch (this) {
+      case QUARKUS_MAVEN, QUARKUS_GRADLE, SPRING_MAVEN -> true;
+      default -> false;
+    };
+  }
+
   /**
    * Check if this is a Node.js ecosystem application.
    *
@@ -234,6 +247,36 @@ public enum ApplicationType {
     };
   }
 
+  /**
+   * Get recommended memory-backed build volume size based on application type.
+   *
+   * @return recommended tmpfs size of {@code /build} in MiB
+   */
+  public int getRecommendedBuildMemory() {
+    return switch (this) {
+      case QUARKUS_MAVEN, QUARKUS_GRADLE, SPRING_MAVEN, SPRING_GRADLE, JAVA_MAVEN, JAVA_GRADLE ->
+          1024;
+      case NODE_NPM,
+              NODE_YARN,
+              REACT_NPM,
+              REACT_YARN,
+              NEXTJS_NPM,
+              NEXTJS_YARN,
+              VUE_NPM,
+              VUE_YARN,
+              ANGULAR_NPM,
+              ANGULAR_YARN ->
+          512;
+      case PYTHON_PIP, PYTHON_POETRY, DJANGO_PIP, DJANGO_POETRY, FASTAPI_PIP, FASTAPI_POETRY -> 256;
+      case GO_MOD -> 1024;
+      case RUST_CARGO -> 2048; // target/ holds every incremental compilation unit
+      case DOTNET_NUGET -> 512;
+      case FLUTTER_PUB -> 1024;
+      case PHP_COMPOSER, RUBY_BUNDLER, RAILS_BUNDLER -> 256;
+      case CUSTOM -> 512;
+    };
+  }
+
   /**
    * Get common dependency cache paths for this application type.
    *
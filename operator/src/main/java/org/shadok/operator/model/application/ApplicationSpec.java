@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import org.shadok.operator.model.ApplicationType;
 import org.shadok.operator.model.InitContainerMountSpec;
 
@@ -26,7 +27,30 @@ public record ApplicationSpec(
         Map<String, String> labels,
     @JsonPropertyDescription(
             "Optional name of the main container to mutate. If not specified, uses the first container or raises an error if multiple containers exist")
-        String containerName) {
+        String containerName,
+    @JsonPropertyDescription(
+            "Optional namespace of the referenced DependencyCache, to use a federated cache of a"
+                + " designated shared namespace. Defaults to the Application's namespace")
+        String dependencyCacheNamespace,
+    @JsonPropertyDescription(
+            "Optional dependency pre-resolution: a Job resolves the dependencies of the sources"
+                + " into the cache as soon as the ProjectSource and DependencyCache are ready")
+        PreResolutionSpec preResolution,
+    @JsonPropertyDescription(
+            "Optional build output volume mounted at /build: a persistent PVC per Application (or"
+                + " per pod ordinal) keeps build state across pod restarts, defaults to an emptyDir")
+        BuildVolumeSpec buildVolume,
+    @JsonPropertyDescription(
+            "Optional warm build daemon (Gradle daemon or mvnd) kept across restarts of the dev-mode"
+                + " command, sized from the container memory")
+        BuildDaemonSpec buildDaemon,
+    @JsonPropertyDescription(
+            "Optional application class-data sharing: JVM dev pods write an AppCDS archive to the"
+                + " DependencyCache and map it at the next start")
+        ClassDataSharingSpec classDataSharing,
+    @JsonPropertyDescription(
+            "Optional scale-to-zero of idle dev pods, with CRaC checkpoint and restore of the JVM")
+        IdleScaleDownSpec idleScaleDown) {
   public ApplicationSpec {
     applicationType = Objects.requireNonNull(applicationType, "applicationType cannot be null");
     projectSourceName =
@@ -35,6 +59,60 @@ public record ApplicationSpec(
         Objects.requireNonNull(dependencyCacheName, "dependencyCacheName cannot be null");
     initContainerMounts = Objects.requireNonNullElse(initContainerMounts, List.of());
     labels = Objects.requireNonNullElse(labels, Map.of());
-    // containerName is optional, can be null
+    // containerName, dependencyCacheNamespace, preResolution, buildVolume, buildDaemon,
+    // classDataSharing and idleScaleDown are optional
+  }
+
+  /**
+   * Spec without any of the optional components.
+   *
+   * @param applicationType type of the application
+   * @param projectSourceName referenced ProjectSource
+   * @param dependencyCacheName referenced DependencyCache, in the Application's namespace
+   * @return the spec
+   */
+  public static ApplicationSpec of(
+      ApplicationType applicationType, String projectSourceName, String dependencyCacheName) {
+    return new ApplicationSpec(
+        applicationType,
+        projectSourceName,
+        dependencyCacheName,
+        List.of(),
+        Map.of(),
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null);
+  }
+
+  /**
+   * Namespace of the referenced DependencyCache.
+   *
+   * @param namespace namespace of the Application
+   * @return {@code dependencyCacheNamespace}, or the Application's namespace when not set
+   */
+  public String dependencyCacheNamespace(String namespace) {
+    return Optional.ofNullable(dependencyCacheNamespace).orElse(namespace);
+  }
+
+  /**
+   * Whether the JVM of idle pods is checkpointed before scaling down. Only a PERSISTENT build
+   * volume keeps the checkpoint while the workload is at zero, so {@code idleScaleDown.checkpoint}
+   * defaults to true with one and is ignored without. The checkpoint options only reach the
+   * application JVM through the dev-mode command, see {@link
+   * ApplicationType#hasApplicationJvmOptions()}.
+   *
+   * @return true for types whose application JVM takes options from the dev-mode command, with
+   *     {@code idleScaleDown}, a PERSISTENT build volume and {@code checkpoint} not disabled
+   */
+  public boolean checkpointsWhenIdle() {
+    return idleScaleDown != null
+        && !Boolean.FALSE.equals(idleScaleDown.checkpoint())
+        && applicationType.hasApplicationJvmOptions()
+        && buildVolume != null
+        && buildVolume.type() == BuildVolumeSpec.Type.PERSISTENT;
   }
 }
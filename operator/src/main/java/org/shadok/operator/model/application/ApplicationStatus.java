@@ -1,6 +1,9 @@
 package org.shadok.operator.model.application;
 
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import io.fabric8.kubernetes.api.model.Condition;
+import java.util.ArrayList;
+import java.util.List;
 
 /** Status for Application CRD. Reports the current state of the Application resource. */
 public class ApplicationStatus {
@@ -33,6 +36,41 @@ public class ApplicationStatus {
   @JsonPropertyDescription("Generation observed by the controller")
   private Long observedGeneration;
 
+  @JsonPropertyDescription("Fingerprint of the dependency manifests (lockfile sharing only)")
+  private String dependencyFingerprint;
+
+  @JsonPropertyDescription("Timestamp of the last dependency manifest fingerprint")
+  private String fingerprintedAt;
+
+  @JsonPropertyDescription(
+      "DependencyCache whose volume is mounted by the pods (lockfile sharing only)")
+  private String sharedDependencyCache;
+
+  @JsonPropertyDescription("Dependency pre-resolution, when enabled")
+  private PreResolutionStatus preResolution;
+
+  @JsonPropertyDescription("Prefetch of dependency manifest changes, when enabled")
+  private ManifestPrefetchStatus manifestPrefetch;
+
+  @JsonPropertyDescription("Rolling restart of the pods after a change of their volumes")
+  private PodRolloutStatus rollout;
+
+  @JsonPropertyDescription("Persistent build volumes, when enabled")
+  private BuildVolumeStatus buildVolume;
+
+  @JsonPropertyDescription("Use of the operator Gradle build cache, when enabled")
+  private BuildCacheStatus buildCache;
+
+  @JsonPropertyDescription("Application class-data sharing archives, when enabled")
+  private ClassDataSharingStatus classDataSharing;
+
+  @JsonPropertyDescription("Idle scale-down of the workload, when enabled")
+  private IdleScaleDownStatus idleScaleDown;
+
+  @JsonPropertyDescription(
+      "Outcome of each feature step (BuildVolume, IdleScaleDown, ...), a failed step keeping its last status")
+  private List<Condition> conditions = new ArrayList<>();
+
   // Constructors
   public ApplicationStatus() {}
 
@@ -98,6 +136,94 @@ public class ApplicationStatus {
     this.observedGeneration = observedGeneration;
   }
 
+  public String getDependencyFingerprint() {
+    return dependencyFingerprint;
+  }
+
+  public void setDependencyFingerprint(String dependencyFingerprint) {
+    this.dependencyFingerprint = dependencyFingerprint;
+  }
+
+  public String getFingerprintedAt() {
+    return fingerprintedAt;
+  }
+
+  public void setFingerprintedAt(String fingerprintedAt) {
+    this.fingerprintedAt = fingerprintedAt;
+  }
+
+  public String getSharedDependencyCache() {
+    return sharedDependencyCache;
+  }
+
+  public void setSharedDependencyCache(String sharedDependencyCache) {
+    this.sharedDependencyCache = sharedDependencyCache;
+  }
+
+  public PreResolutionStatus getPreResolution() {
+    return preResolution;
+  }
+
+  public void setPreResolution(PreResolutionStatus preResolution) {
+    this.preResolution = preResolution;
+  }
+
+  public ManifestPrefetchStatus getManifestPrefetch() {
+    return manifestPrefetch;
+  }
+
+  public void setManifestPrefetch(ManifestPrefetchStatus manifestPrefetch) {
+    this.manifestPrefetch = manifestPrefetch;
+  }
+
+  public PodRolloutStatus getRollout() {
+    return rollout;
+  }
+
+  public void setRollout(PodRolloutStatus rollout) {
+    this.rollout = rollout;
+  }
+
+  public BuildVolumeStatus getBuildVolume() {
+    return buildVolume;
+  }
+
+  public void setBuildVolume(BuildVolumeStatus buildVolume) {
+    this.buildVolume = buildVolume;
+  }
+
+  public BuildCacheStatus getBuildCache() {
+    return buildCache;
+  }
+
+  public void setBuildCache(BuildCacheStatus buildCache) {
+    this.buildCache = buildCache;
+  }
+
+  public ClassDataSharingStatus getClassDataSharing() {
+    return classDataSharing;
+  }
+
+  public void setClassDataSharing(ClassDataSharingStatus classDataSharing) {
+    this.classDataSharing = classDataSharing;
+  }
+
+  public IdleScaleDownStatus getIdleScaleDown() {
+    return idleScaleDown;
+  }
+
+  public void setIdleScaleDown(IdleScaleDownStatus idleScaleDown) {
+    this.idleScaleDown = idleScaleDown;
+  }
+
+  public List<Condition> getConditions() {
+    return conditions;
+  }
+
+  public void setConditions(List<Condition> conditions) {
+    this.conditions = conditions;
+  }
+
   @Override
   public String toString() {
     return "ApplicationStatus{"
@@ -120,6 +246,31 @@ public class ApplicationStatus {
         + '\''
         + ", observedGeneration="
         + observedGeneration
+        + ", dependencyFingerprint='"
+        + dependencyFingerprint
+        + '\''
+        + ", fingerprintedAt='"
+        + fingerprintedAt
+        + '\''
+        + ", sharedDependencyCache='"
+        + sharedDependencyCache
+        + '\''
+        + ", preResolution="
+        + preResolution
+        + ", manifestPrefetch="
+        + manifestPrefetch
+        + ", rollout="
+        + rollout
+        + ", buildVolume="
+        + buildVolume
+        + ", buildCache="
+        + buildCache
+        + ", classDataSharing="
+        + classDataSharing
+        + ", idleScaleDown="
+        + idleScaleDown
+        + ", conditions="
+        + conditions
         + '}';
   }
 }
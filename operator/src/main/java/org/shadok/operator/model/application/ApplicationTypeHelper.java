@@ -1,7 +1,13 @@
 package org.shadok.operator.model.application;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.shadok.operator.model.ApplicationType;
 
 /**
@@ -12,10 +18,35 @@ import org.shadok.operator.model.ApplicationType;
  */
 public final class ApplicationTypeHelper {
 
+  // Per-type lookup tables computed once in the static initializer. The native build initializes
+  // this class at build time (see application.properties), so the tables live in the image heap.
+  private static final Map<ApplicationType, Map<String, String>> INTELLIGENT_LABELS =
+      tableOf(ApplicationTypeHelper::computeIntelligentLabels);
+
+  private static final Map<ApplicationType, Set<String>> RECOMMENDED_INIT_MOUNTS =
+      tableOf(ApplicationTypeHelper::computeRecommendedInitMounts);
+
+  private static final Map<ApplicationType, Map<String, String>> BUILD_ENVIRONMENT_VARIABLES =
+      tableOf(ApplicationTypeHelper::computeBuildEnvironmentVariables);
+
+  private static final Map<ApplicationType, Set<String>> CACHE_SUBTREES =
+      tableOf(ApplicationTypeHelper::computeCacheSubtrees);
+
   private ApplicationTypeHelper() {
     // Utility class
   }
 
+  private static <V> Map<ApplicationType, V> tableOf(Function<ApplicationType, V> compute) {
+    return Collections.unmodifiableMap(
+        Arrays.stream(ApplicationType.values())
+            .collect(
+                Collectors.toMap(
+                    Function.identity(),
+                    compute,
+                    (first, second) -> first,
+                    () -> new EnumMap<>(ApplicationType.class))));
+  }
+
   /**
    * Generate intelligent labels based on application type.
    *
@@ -23,6 +54,10 @@ public final class ApplicationTypeHelper {
    * @return map of recommended labels
    */
   public static Map<String, String> generateIntelligentLabels(ApplicationType applicationType) {
+    return INTELLIGENT_LABELS.get(applicationType);
+  }
+
+  private static Map<String, String> computeIntelligentLabels(ApplicationType applicationType) {
     return Map.of(
         "app.kubernetes.io/name", "shadok-application",
         "app.kubernetes.io/component", getComponentType(applicationType),
@@ -105,6 +140,10 @@ public final class ApplicationTypeHelper {
    * @return set of recommended mount paths
    */
   public static Set<String> getRecommendedInitMounts(ApplicationType applicationType) {
+    return RECOMMENDED_INIT_MOUNTS.get(applicationType);
+  }
+
+  private static Set<String> computeRecommendedInitMounts(ApplicationType applicationType) {
     return switch (applicationType) {
       case QUARKUS_MAVEN, SPRING_MAVEN, JAVA_MAVEN ->
           Set.of("/workspace/src", "/workspace/pom.xml");
@@ -149,6 +188,11 @@ public final class ApplicationTypeHelper {
    * @return map of environment variables
    */
   public static Map<String, String> getBuildEnvironmentVariables(ApplicationType applicationType) {
+    return BUILD_ENVIRONMENT_VARIABLES.get(applicationType);
+  }
+
+  private static Map<String, String> computeBuildEnvironmentVariables(
+      ApplicationType applicationType) {
     return switch (applicationType) {
       case QUARKUS_MAVEN, SPRING_MAVEN, JAVA_MAVEN ->
           Map.of(
@@ -202,6 +246,24 @@ public final class ApplicationTypeHelper {
     };
   }
 
+  /**
+   * Top-level directories of the dependency cache volume used by the build tools of this type.
+   *
+   * @param applicationType the application type
+   * @return directory names relative to {@code /cache} (e.g. {@code .npm}), empty when the build
+   *     tools use the whole volume
+   */
+  public static Set<String> getCacheSubtrees(ApplicationType applicationType) {
+    return CACHE_SUBTREES.get(applicationType);
+  }
+
+  private static Set<String> computeCacheSubtrees(ApplicationType applicationType) {
+    return computeBuildEnvironmentVariables(applicationType).values().stream()
+        .filter(value -> value.startsWith("/cache/"))
+        .map(value -> value.substring("/cache/".length()).split("/")[0])
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
   /**
    * Get the recommended base image for building this application type.
    *
@@ -227,6 +289,68 @@ public final class ApplicationTypeHelper {
     };
   }
 
+  // `gradle dependencies` only walks the graph: the artifacts of every resolvable configuration
+  // are downloaded by resolving their files, leniently so that one broken configuration does not
+  // stop the others
+  private static final String GRADLE_RESOLVE_INIT_SCRIPT =
+      """
+      allprojects {
+        tasks.register('shadokResolveDependencies') {
+          doLast {
+            project.configurations.findAll { it.canBeResolved }.each { configuration ->
+              configuration.incoming.artifactView { lenient(true) }.files.files
+            }
+          }
+        }
+      }
+      """;
+
+  /**
+   * Get the shell command downloading the dependencies of this application type without building
+   * it, so that a later build finds them in the cache.
+   *
+   * <p>The command runs in the project directory, with the cache environment variables of {@link
+   * #getBuildEnvironmentVariables} set, in the {@link #getRecommendedBaseImage recommended base
+   * image}. Java types rely on the project wrapper when the image has no build tool.
+   *
+   * @param applicationType the application type
+   * @return the shell command, empty when the type has no known resolve-only command or its base
+   *     image lacks the build tool
+   */
+  public static Optional<String> getOfflineResolveCommand(ApplicationType applicationType) {
+    return switch (applicationType) {
+      case QUARKUS_MAVEN, SPRING_MAVEN, JAVA_MAVEN ->
+          Optional.of(
+              "if [ -x ./mvnw ]; then MVN=./mvnw; else MVN=mvn; fi;"
+                  + " $MVN -B -q dependency:go-offline");
+      case QUARKUS_GRADLE, SPRING_GRADLE, JAVA_GRADLE ->
+          Optional.of(
+              "cat > /tmp/shadok-resolve.gradle <<'EOF'\n"
+                  + GRADLE_RESOLVE_INIT_SCRIPT
+                  + "EOF\n"
+                  + "if [ -x ./gradlew ]; then GRADLE=./gradlew; else GRADLE=gradle; fi;"
+                  + " $GRADLE --no-daemon --no-configuration-cache -q"
+                  + " --init-script /tmp/shadok-resolve.gradle shadokResolveDependencies");
+      case NODE_NPM, REACT_NPM, NEXTJS_NPM, VUE_NPM, ANGULAR_NPM ->
+          Optional.of(
+              "if [ -f package-lock.json ]; then npm ci --ignore-scripts;"
+                  + " else npm install --ignore-scripts; fi");
+      case NODE_YARN, REACT_YARN, NEXTJS_YARN, VUE_YARN, ANGULAR_YARN ->
+          Optional.of("yarn install --frozen-lockfile --ignore-scripts --non-interactive");
+      case PYTHON_PIP, DJANGO_PIP, FASTAPI_PIP ->
+          Optional.of("pip download -q -r requirements.txt -d /tmp/wheels");
+      case PYTHON_POETRY, DJANGO_POETRY, FASTAPI_POETRY ->
+          Optional.of("pip install -q poetry && poetry install --no-root --no-interaction");
+      case GO_MOD -> Optional.of("go mod download");
+      case RUST_CARGO -> Optional.of("cargo fetch");
+      case RUBY_BUNDLER, RAILS_BUNDLER -> Optional.of("bundle install");
+      case DOTNET_NUGET -> Optional.of("dotnet restore");
+      case FLUTTER_PUB -> Optional.of("flutter pub get");
+        // The php-fpm image has no composer, custom types have no known build tool
+      case PHP_COMPOSER, CUSTOM -> Optional.empty();
+    };
+  }
+
   /**
    * Check if the application type supports hot reload during development.
    *
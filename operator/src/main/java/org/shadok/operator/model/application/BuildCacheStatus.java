@@ -0,0 +1,15 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** Use of the operator Gradle build cache by the pods of the Application. */
+public record BuildCacheStatus(
+    @JsonPropertyDescription("Task outputs loaded from the build cache") long hits,
+    @JsonPropertyDescription("Task outputs looked up but not cached") long misses,
+    @JsonPropertyDescription("Task outputs stored in the build cache") long stores,
+    @JsonPropertyDescription("Share of lookups served from the build cache, 0 to 1") double hitRate,
+    @JsonPropertyDescription(
+            "Execution time of the tasks whose outputs were loaded instead of being run")
+        long timeSavedSeconds,
+    @JsonPropertyDescription("Counted since this timestamp (start of the operator)")
+        String since) {}
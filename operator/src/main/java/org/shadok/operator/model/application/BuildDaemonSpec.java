@@ -0,0 +1,30 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+
+/**
+ * Warm build daemon of the dev pods of an Application. Gradle types keep a Gradle daemon and Maven
+ * types run mvnd, so that a restart of the dev-mode command reuses a JVM with a loaded build model
+ * instead of paying JVM startup and build configuration again. The daemon heap is a share of the
+ * container memory.
+ */
+public record BuildDaemonSpec(
+    @JsonPropertyDescription(
+            "Share of the container memory limit (or request) given to the daemon heap, in percent"
+                + " (default 25)")
+        Integer heapPercent,
+    @JsonPropertyDescription("Minutes after which an unused daemon stops (default 180)")
+        Integer idleTimeoutMinutes) {
+
+  public BuildDaemonSpec {
+    heapPercent = Optional.ofNullable(heapPercent).orElse(25);
+    idleTimeoutMinutes = Optional.ofNullable(idleTimeoutMinutes).orElse(180);
+    if (heapPercent < 10 || heapPercent > 75) {
+      throw new IllegalArgumentException("buildDaemon.heapPercent must be between 10 and 75");
+    }
+    if (idleTimeoutMinutes < 1) {
+      throw new IllegalArgumentException("buildDaemon.idleTimeoutMinutes must be positive");
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+import org.shadok.operator.model.ApplicationType;
+
+/**
+ * Build output volume mounted at {@code /build} in the pods of an Application. Without it, {@code
+ * /build} is an unbounded emptyDir and every pod restart is a full rebuild. A PERSISTENT volume is
+ * a PVC owned by the Application, which keeps compiled classes, the Gradle project cache and
+ * dev-mode state across restarts and is deleted with the Application. A MEMORY volume is a tmpfs
+ * emptyDir: compilation I/O stays in RAM, which is charged to the container memory.
+ */
+public record BuildVolumeSpec(
+    @JsonPropertyDescription("EMPTY_DIR, MEMORY (tmpfs) or PERSISTENT (default)") Type type,
+    @JsonPropertyDescription(
+            "Size of the volume: PVC storage request, or emptyDir sizeLimit (default 2Gi, for"
+                + " MEMORY derived from the application type)")
+        String size,
+    @JsonPropertyDescription("Storage class of the PVC, defaults to the cluster default")
+        String storageClass,
+    @JsonPropertyDescription("Access mode of the PVC (default ReadWriteOnce)") String accessMode,
+    @JsonPropertyDescription(
+            "Number of per pod ordinal PVCs for StatefulSet pods; 0 (default) shares one PVC per"
+                + " Application")
+        Integer ordinals) {
+
+  public enum Type {
+    EMPTY_DIR,
+    MEMORY,
+    PERSISTENT
+  }
+
+  public BuildVolumeSpec {
+    type = Optional.ofNullable(type).orElse(Type.PERSISTENT);
+    size = Optional.ofNullable(size).orElse(type == Type.MEMORY ? null : "2Gi");
+    accessMode = Optional.ofNullable(accessMode).orElse("ReadWriteOnce");
+    ordinals = Optional.ofNullable(ordinals).orElse(0);
+    if (ordinals < 0) {
+      throw new IllegalArgumentException("buildVolume.ordinals cannot be negative");
+    }
+  }
+
+  /**
+   * Size limit of the volume for an application type.
+   *
+   * @param applicationType type of the Application
+   * @return the configured size, or for MEMORY volumes the build footprint of the type
+   */
+  public String sizeLimit(ApplicationType applicationType) {
+    return Optional.ofNullable(size)
+        .orElseGet(() -> applicationType.getRecommendedBuildMemory() + "Mi");
+  }
+}
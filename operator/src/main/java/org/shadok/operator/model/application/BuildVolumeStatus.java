@@ -0,0 +1,11 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+
+/** Persistent build volumes provisioned for the Application. */
+public record BuildVolumeStatus(
+    @JsonPropertyDescription("PVCs mounted at /build, one per pod ordinal or one shared")
+        List<String> claims,
+    @JsonPropertyDescription("PVCs bound to a volume") int boundClaims,
+    @JsonPropertyDescription("Storage requested by each PVC") String size) {}
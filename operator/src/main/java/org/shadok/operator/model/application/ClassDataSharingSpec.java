@@ -0,0 +1,30 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+
+/**
+ * Application class-data sharing of the JVM dev pods of an Application. The JVMs write an AppCDS
+ * archive of the classes they loaded to the DependencyCache and map it at the next start, so that
+ * framework classes are not parsed and verified again by every pod. Requires JDK 19 or later, older
+ * JDKs ignore it.
+ */
+public record ClassDataSharingSpec(
+    @JsonPropertyDescription("Minutes between two checks of the archives (default 10)")
+        Integer checkMinutes,
+    @JsonPropertyDescription(
+            "Archives kept per Application, one per JVM role, image and pod (default 4), older"
+                + " ones are deleted")
+        Integer keepArchives) {
+
+  public ClassDataSharingSpec {
+    checkMinutes = Optional.ofNullable(checkMinutes).orElse(10);
+    keepArchives = Optional.ofNullable(keepArchives).orElse(4);
+    if (checkMinutes < 1) {
+      throw new IllegalArgumentException("classDataSharing.checkMinutes must be positive");
+    }
+    if (keepArchives < 1) {
+      throw new IllegalArgumentException("classDataSharing.keepArchives must be positive");
+    }
+  }
+}
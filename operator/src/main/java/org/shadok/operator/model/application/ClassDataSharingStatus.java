@@ -0,0 +1,19 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+
+/** AppCDS archives of the Application and startup times of its pods with and without them. */
+public record ClassDataSharingStatus(
+    @JsonPropertyDescription("Archives on the DependencyCache, most recently written first")
+        List<String> archives,
+    @JsonPropertyDescription("Timestamp at which the most recent archive was written")
+        String archivedAt,
+    @JsonPropertyDescription("Timestamp of the last check of the archives") String checkedAt,
+    @JsonPropertyDescription("Ready pods started once the archive was written") int podsWithArchive,
+    @JsonPropertyDescription("Ready pods started without archive, or with a stale one")
+        int podsWithoutArchive,
+    @JsonPropertyDescription("Average milliseconds from creation to readiness with the archive")
+        Long startupWithArchiveMillis,
+    @JsonPropertyDescription("Average milliseconds from creation to readiness without archive")
+        Long startupWithoutArchiveMillis) {}
@@ -0,0 +1,42 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+
+/**
+ * Scale-to-zero of the dev pods of an Application once idle. Pods are idle while their CPU usage
+ * stays under a threshold and the sources are left untouched; the operator then checkpoints the JVM
+ * (CRaC-capable JDK) on the persistent build volume and scales the workload to zero, and scales it
+ * back up on a source change or a wake-up request, restoring the JVM from the checkpoint.
+ */
+public record IdleScaleDownSpec(
+    @JsonPropertyDescription("Minutes without activity before scaling down (default 30)")
+        Integer idleMinutes,
+    @JsonPropertyDescription(
+            "CPU usage per pod, in millicores, under which a pod counts as idle (default 20)")
+        Integer idleCpuMillicores,
+    @JsonPropertyDescription(
+            "Seconds between two checks of the sources of a scaled down Application (default 60)")
+        Integer sourceCheckSeconds,
+    @JsonPropertyDescription(
+            "Checkpoint the JVM with CRaC before scaling down and restore it on wake-up (JVM"
+                + " types with a PERSISTENT build volume only, default true with one; the pods get"
+                + " the CHECKPOINT_RESTORE and SYS_PTRACE capabilities)")
+        Boolean checkpoint) {
+
+  public IdleScaleDownSpec {
+    idleMinutes = Optional.ofNullable(idleMinutes).orElse(30);
+    idleCpuMillicores = Optional.ofNullable(idleCpuMillicores).orElse(20);
+    sourceCheckSeconds = Optional.ofNullable(sourceCheckSeconds).orElse(60);
+    // checkpoint defaults with the build volume, see ApplicationSpec#checkpointsWhenIdle
+    if (idleMinutes < 1) {
+      throw new IllegalArgumentException("idleScaleDown.idleMinutes must be positive");
+    }
+    if (idleCpuMillicores < 0) {
+      throw new IllegalArgumentException("idleScaleDown.idleCpuMillicores must not be negative");
+    }
+    if (sourceCheckSeconds < 10) {
+      throw new IllegalArgumentException("idleScaleDown.sourceCheckSeconds must be at least 10");
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** Idle scale-down of the Application workload: last activity, checkpoint and restore. */
+public record IdleScaleDownStatus(
+    @JsonPropertyDescription("ACTIVE, CHECKPOINTING, SCALED_DOWN or WAKING") Phase phase,
+    @JsonPropertyDescription("Timestamp of the last observed activity (CPU or source change)")
+        String lastActiveAt,
+    @JsonPropertyDescription("Workload scaled down, as Kind/name") String workload,
+    @JsonPropertyDescription("Replicas of the workload before scaling down") Integer replicas,
+    @JsonPropertyDescription("Timestamp of the last scale-down") String scaledDownAt,
+    @JsonPropertyDescription("Pods whose JVM was checkpointed at the last scale-down")
+        int checkpointedPods,
+    @JsonPropertyDescription("Memory requests released by the last scale-down")
+        String reclaimedMemory,
+    @JsonPropertyDescription("Timestamp of the last wake-up") String wokenAt,
+    @JsonPropertyDescription("Cause of the last wake-up: source change or request")
+        String wakeReason,
+    @JsonPropertyDescription("Milliseconds from the last wake-up to the first Ready pod")
+        Long restoreMillis,
+    @JsonPropertyDescription("Timestamp of the last check of the sources") String sourceCheckedAt) {
+
+  public enum Phase {
+    ACTIVE,
+    CHECKPOINTING,
+    SCALED_DOWN,
+    WAKING
+  }
+}
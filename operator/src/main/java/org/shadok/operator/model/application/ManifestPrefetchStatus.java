@@ -0,0 +1,43 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+import java.util.Map;
+
+/** Watch of the dependency manifests of the Application and prefetch of their changes. */
+public record ManifestPrefetchStatus(
+    @JsonPropertyDescription("WATCHING, PREFETCHING or FAILED") Phase phase,
+    @JsonPropertyDescription("Fingerprint of the last dependency manifests seen")
+        String fingerprint,
+    @JsonPropertyDescription("SHA-256 of each dependency manifest, by path in the ProjectSource")
+        Map<String, String> manifestDigests,
+    @JsonPropertyDescription("Manifests changed since the previous prefetch")
+        List<String> changedManifests,
+    @JsonPropertyDescription("Timestamp of the last manifest check") String checkedAt,
+    @JsonPropertyDescription("Timestamp of the last prefetch Job creation") String startedAt,
+    @JsonPropertyDescription("Timestamp of the last prefetch Job completion") String completedAt,
+    @JsonPropertyDescription("Timestamp of the last successful prefetch") String prefetchedAt,
+    @JsonPropertyDescription("Duration of the last prefetch in seconds") Long durationSeconds,
+    @JsonPropertyDescription("Failure reason") String message) {
+
+  public enum Phase {
+    WATCHING,
+    PREFETCHING,
+    FAILED
+  }
+
+  /** The same status, checked again at the given time. */
+  public ManifestPrefetchStatus checkedAt(String at) {
+    return new ManifestPrefetchStatus(
+        phase,
+        fingerprint,
+        manifestDigests,
+        changedManifests,
+        at,
+        startedAt,
+        completedAt,
+        prefetchedAt,
+        durationSeconds,
+        message);
+  }
+}
@@ -0,0 +1,27 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** Rolling restart of the Application pods after a change of the volumes they mount. */
+public record PodRolloutStatus(
+    @JsonPropertyDescription(
+            "Revision of the ProjectSource and DependencyCache volumes the pods should run with")
+        String revision,
+    @JsonPropertyDescription("IDLE or ROLLING") Phase phase,
+    @JsonPropertyDescription("Timestamp of the revision change; older pods are outdated")
+        String startedAt,
+    @JsonPropertyDescription("Timestamp at which the last outdated pod was replaced")
+        String completedAt,
+    @JsonPropertyDescription("Pods restarted by the current or last rollout") int restartedPods,
+    @JsonPropertyDescription("Outdated pods still to restart") int pendingPods,
+    @JsonPropertyDescription("Restarted pods whose replacement is not Ready yet") int inFlightPods,
+    @JsonPropertyDescription("Timestamp of the last pod restart") String lastRestartAt,
+    @JsonPropertyDescription(
+            "Observed milliseconds from creation to readiness of replacement pods, paces restarts")
+        Long averageReadyMillis) {
+
+  public enum Phase {
+    IDLE,
+    ROLLING
+  }
+}
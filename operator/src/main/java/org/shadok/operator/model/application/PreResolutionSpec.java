@@ -0,0 +1,39 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+
+/**
+ * Dependency pre-resolution of an Application. As soon as its ProjectSource and DependencyCache are
+ * ready, a Job resolves the dependencies of the sources into the cache, so that the first dev pod
+ * does not spend its startup downloading them. With {@code prefetchOnManifestChange}, the
+ * dependency manifests are then watched and a changed manifest is prefetched the same way before
+ * the dev pods are restarted.
+ */
+public record PreResolutionSpec(
+    @JsonPropertyDescription(
+            "Whether the Application only reports READY once pre-resolution has completed")
+        Boolean waitBeforeReady,
+    @JsonPropertyDescription(
+            "Image of the pre-resolution Job, defaults to the recommended base image of the"
+                + " application type")
+        String image,
+    @JsonPropertyDescription("Minutes after which the pre-resolution Job is stopped")
+        Integer timeoutMinutes,
+    @JsonPropertyDescription(
+            "Whether changes of the dependency manifests are prefetched into the cache before the"
+                + " pods of the Application are restarted")
+        Boolean prefetchOnManifestChange,
+    @JsonPropertyDescription("Seconds between two checks of the dependency manifests")
+        Integer manifestCheckSeconds) {
+
+  public PreResolutionSpec {
+    waitBeforeReady = Optional.ofNullable(waitBeforeReady).orElse(false);
+    timeoutMinutes = Optional.ofNullable(timeoutMinutes).orElse(30);
+    prefetchOnManifestChange = Optional.ofNullable(prefetchOnManifestChange).orElse(false);
+    manifestCheckSeconds = Optional.ofNullable(manifestCheckSeconds).orElse(30);
+    if (manifestCheckSeconds < 10) {
+      throw new IllegalArgumentException("preResolution.manifestCheckSeconds must be at least 10");
+    }
+  }
+}
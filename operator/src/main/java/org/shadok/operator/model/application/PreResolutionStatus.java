@@ -0,0 +1,29 @@
+package org.shadok.operator.model.application;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Objects;
+
+/** Outcome of the dependency pre-resolution of the Application. */
+public record PreResolutionStatus(
+    @JsonPropertyDescription("RUNNING, SUCCEEDED, FAILED or SKIPPED") Phase phase,
+    @JsonPropertyDescription("Application generation the pre-resolution was run for")
+        Long observedGeneration,
+    @JsonPropertyDescription("Image of the pre-resolution Job") String image,
+    @JsonPropertyDescription("Timestamp of the Job creation") String startedAt,
+    @JsonPropertyDescription("Timestamp of the Job completion") String completedAt,
+    @JsonPropertyDescription("Duration of the dependency resolution in seconds")
+        Long durationSeconds,
+    @JsonPropertyDescription("Failure or skip reason") String message) {
+
+  public enum Phase {
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    SKIPPED
+  }
+
+  /** Whether pre-resolution is over for the given Application generation. */
+  public boolean isCompleted(Long generation) {
+    return phase != Phase.RUNNING && Objects.equals(observedGeneration, generation);
+  }
+}
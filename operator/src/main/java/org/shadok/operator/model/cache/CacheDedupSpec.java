@@ -0,0 +1,26 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+
+/**
+ * Hardlink deduplication of a DependencyCache volume. Files with identical content, across all the
+ * ecosystems stored on the volume, are replaced by hardlinks to a single copy.
+ */
+public record CacheDedupSpec(
+    @JsonPropertyDescription("Minutes between two deduplication runs") Integer intervalMinutes,
+    @JsonPropertyDescription(
+            "Files modified within this many minutes are left alone, so running builds keep their"
+                + " files")
+        Integer graceMinutes,
+    @JsonPropertyDescription("Files smaller than this many bytes are not deduplicated")
+        Long minFileBytes,
+    @JsonPropertyDescription("Hashing threads of the deduplication Job") Integer parallelism) {
+
+  public CacheDedupSpec {
+    intervalMinutes = Optional.ofNullable(intervalMinutes).orElse(360);
+    graceMinutes = Optional.ofNullable(graceMinutes).orElse(60);
+    minFileBytes = Optional.ofNullable(minFileBytes).orElse(16384L);
+    parallelism = Optional.ofNullable(parallelism).orElse(4);
+  }
+}
@@ -0,0 +1,23 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** Outcome of the last deduplication run of a DependencyCache volume. */
+public record CacheDedupStatus(
+    @JsonPropertyDescription("Timestamp of the last deduplication run") String lastRunAt,
+    @JsonPropertyDescription("Regular files scanned") long scannedFiles,
+    @JsonPropertyDescription("Bytes scanned") long scannedBytes,
+    @JsonPropertyDescription("Files hashed because their size collides with another file")
+        long hashedFiles,
+    @JsonPropertyDescription("Files replaced by a hardlink to the content-addressed store")
+        long linkedFiles,
+    @JsonPropertyDescription("Bytes reclaimed by the last run") long reclaimedBytes,
+    @JsonPropertyDescription("Bytes reclaimed by all the runs since deduplication was enabled")
+        long totalReclaimedBytes,
+    @JsonPropertyDescription("Files skipped because they were modified within the grace window")
+        long recentFiles,
+    @JsonPropertyDescription("Distinct contents held by the content-addressed store")
+        long storeFiles,
+    @JsonPropertyDescription("Duration of the run in milliseconds") long durationMillis,
+    @JsonPropertyDescription("Duration of the run per GiB scanned, in milliseconds")
+        long millisPerGib) {}
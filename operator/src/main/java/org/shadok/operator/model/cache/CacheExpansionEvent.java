@@ -0,0 +1,22 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** One online expansion of a DependencyCache PVC. */
+public record CacheExpansionEvent(
+    @JsonPropertyDescription("PVC size before the expansion") String fromSize,
+    @JsonPropertyDescription("PVC size requested by the expansion") String toSize,
+    @JsonPropertyDescription("Why the PVC was expanded") String reason,
+    @JsonPropertyDescription("Timestamp of the resize request") String requestedAt,
+    @JsonPropertyDescription(
+            "Timestamp at which the new capacity was reported, while pending absent")
+        String completedAt,
+    @JsonPropertyDescription("Seconds between the resize request and the new capacity")
+        Long durationSeconds) {
+
+  /** The expansion once the volume reports its new capacity. */
+  public CacheExpansionEvent complete(String completedAt, long durationSeconds) {
+    return new CacheExpansionEvent(
+        fromSize, toSize, reason, requestedAt, completedAt, durationSeconds);
+  }
+}
@@ -0,0 +1,34 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+
+/**
+ * Online expansion of a DependencyCache PVC. When measured usage crosses the threshold, the PVC is
+ * grown to the size recommended for the referencing Applications' types, or to the size that brings
+ * the projected usage down to the target, whichever is larger.
+ */
+public record CacheExpansionSpec(
+    @JsonPropertyDescription("Usage, in percent of the PVC size, that triggers an expansion")
+        Integer thresholdPercent,
+    @JsonPropertyDescription("Usage, in percent of the new PVC size, an expansion aims for")
+        Integer targetUsagePercent,
+    @JsonPropertyDescription(
+            "Hours of the measured growth rate added to the current usage when sizing the PVC")
+        Integer growthHorizonHours,
+    @JsonPropertyDescription("Largest size the PVC may be expanded to (e.g. '50Gi')")
+        String maxSize) {
+
+  public CacheExpansionSpec {
+    thresholdPercent = Optional.ofNullable(thresholdPercent).orElse(80);
+    targetUsagePercent = Optional.ofNullable(targetUsagePercent).orElse(60);
+    growthHorizonHours = Optional.ofNullable(growthHorizonHours).orElse(24);
+    maxSize = Optional.ofNullable(maxSize).orElse("50Gi");
+    if (targetUsagePercent <= 0
+        || targetUsagePercent >= thresholdPercent
+        || thresholdPercent > 100) {
+      throw new IllegalArgumentException(
+          "expansion must satisfy 0 < targetUsagePercent < thresholdPercent <= 100");
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+
+/** Online expansion state of a DependencyCache PVC. */
+public record CacheExpansionStatus(
+    @JsonPropertyDescription("Size requested on the PVC, at least storageSize")
+        String requestedSize,
+    @JsonPropertyDescription("Capacity reported by the bound volume") String capacity,
+    @JsonPropertyDescription("Whether the storage class allows volume expansion")
+        boolean expandable,
+    @JsonPropertyDescription("Outcome of the last expansion check") String message,
+    @JsonPropertyDescription("Expansion waiting for the volume to report its new capacity")
+        CacheExpansionEvent pending,
+    @JsonPropertyDescription("Completed expansions, most recent last")
+        List<CacheExpansionEvent> history) {}
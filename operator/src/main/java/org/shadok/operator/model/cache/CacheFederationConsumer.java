@@ -0,0 +1,14 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+
+/** Namespace using a federated DependencyCache through its own PVC. */
+public record CacheFederationConsumer(
+    @JsonPropertyDescription("Consuming namespace") String namespace,
+    @JsonPropertyDescription("Applications of the namespace referencing the cache")
+        List<String> applications,
+    @JsonPropertyDescription("PVC provisioned in the namespace") String persistentVolumeClaim,
+    @JsonPropertyDescription("PersistentVolume the PVC is bound to, backed by the cache storage")
+        String persistentVolume,
+    @JsonPropertyDescription("Phase of the PVC (Pending, Bound, ...)") String phase) {}
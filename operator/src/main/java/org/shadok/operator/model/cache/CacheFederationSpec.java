@@ -0,0 +1,30 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Federation of a DependencyCache living in a designated shared namespace. Applications of the
+ * allowed namespaces may reference it; each consuming namespace gets its own PVC bound to a
+ * PersistentVolume backed by the same storage as the cache volume.
+ */
+public record CacheFederationSpec(
+    @JsonPropertyDescription(
+            "Namespaces allowed to use this cache; '*' matches any sequence of characters (e.g."
+                + " 'team-*')")
+        List<String> allowedNamespaces,
+    @JsonPropertyDescription("Whether consuming namespaces mount the cache read-only")
+        Boolean readOnly) {
+
+  public CacheFederationSpec {
+    allowedNamespaces = Optional.ofNullable(allowedNamespaces).orElse(List.of());
+    readOnly = Optional.ofNullable(readOnly).orElse(false);
+  }
+
+  /** Whether Applications of a namespace may use the cache. */
+  public boolean allows(String namespace) {
+    return allowedNamespaces.stream()
+        .anyMatch(pattern -> namespace.matches(("\\Q" + pattern + "\\E").replace("*", "\\E.*\\Q")));
+  }
+}
@@ -0,0 +1,15 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+
+/** Consumers of a federated DependencyCache. */
+public record CacheFederationStatus(
+    @JsonPropertyDescription("Namespaces using the cache through their own PVC")
+        List<CacheFederationConsumer> consumers,
+    @JsonPropertyDescription(
+            "Applications referencing the cache from a namespace that is not allowed"
+                + " (namespace/name)")
+        List<String> deniedApplications,
+    @JsonPropertyDescription("Human-readable state of the federation") String message,
+    @JsonPropertyDescription("Timestamp of the last federation update") String updatedAt) {}
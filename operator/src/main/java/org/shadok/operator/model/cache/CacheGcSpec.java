@@ -0,0 +1,32 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+
+/**
+ * Garbage collection of a DependencyCache volume. When usage exceeds the high watermark, the least
+ * recently used cache entries are evicted until usage falls below the low watermark.
+ */
+public record CacheGcSpec(
+    @JsonPropertyDescription(
+            "Usage, in percent of storageSize, above which garbage collection evicts entries")
+        Integer highWatermarkPercent,
+    @JsonPropertyDescription("Usage, in percent of storageSize, garbage collection evicts down to")
+        Integer lowWatermarkPercent,
+    @JsonPropertyDescription("Minutes between two garbage collection runs") Integer intervalMinutes,
+    @JsonPropertyDescription(
+            "Entries accessed within this many minutes are never evicted, so running builds keep"
+                + " their artifacts")
+        Integer minIdleMinutes) {
+
+  public CacheGcSpec {
+    highWatermarkPercent = Optional.ofNullable(highWatermarkPercent).orElse(85);
+    lowWatermarkPercent = Optional.ofNullable(lowWatermarkPercent).orElse(70);
+    intervalMinutes = Optional.ofNullable(intervalMinutes).orElse(60);
+    minIdleMinutes = Optional.ofNullable(minIdleMinutes).orElse(120);
+    if (lowWatermarkPercent >= highWatermarkPercent || highWatermarkPercent > 100) {
+      throw new IllegalArgumentException(
+          "gc watermarks must satisfy lowWatermarkPercent < highWatermarkPercent <= 100");
+    }
+  }
+}
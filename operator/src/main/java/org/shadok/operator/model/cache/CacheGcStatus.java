@@ -0,0 +1,16 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** Outcome of the last garbage collection run of a DependencyCache volume. */
+public record CacheGcStatus(
+    @JsonPropertyDescription("Timestamp of the last garbage collection run") String lastRunAt,
+    @JsonPropertyDescription("Whether usage was above the high watermark") boolean triggered,
+    @JsonPropertyDescription("Capacity the watermarks apply to, in bytes") long capacityBytes,
+    @JsonPropertyDescription("Bytes used before the run") long usedBytesBefore,
+    @JsonPropertyDescription("Bytes used after the run") long usedBytesAfter,
+    @JsonPropertyDescription("Cache entries evicted") int evictedEntries,
+    @JsonPropertyDescription("Bytes evicted") long evictedBytes,
+    @JsonPropertyDescription("Eviction candidates kept because they were in use or recently used")
+        int protectedEntries,
+    @JsonPropertyDescription("Duration of the run in milliseconds") long durationMillis) {}
@@ -0,0 +1,13 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** Outcome of the last merge of the pods' overlay layers into the base cache. */
+public record CacheMergeStatus(
+    @JsonPropertyDescription("Timestamp of the last merge") String lastRunAt,
+    @JsonPropertyDescription("Staged batches merged") int batches,
+    @JsonPropertyDescription("Files added to the base cache") long mergedFiles,
+    @JsonPropertyDescription("Bytes added to the base cache") long mergedBytes,
+    @JsonPropertyDescription("Staged files already present in the base cache") long duplicateFiles,
+    @JsonPropertyDescription("Incomplete batches of vanished pods discarded") int discardedBatches,
+    @JsonPropertyDescription("Duration of the merge in milliseconds") long durationMillis) {}
@@ -0,0 +1,28 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+
+/**
+ * Copy-on-write overlay mode of a DependencyCache. Pods mount the cache volume read-only as a base
+ * layer and write to a local emptyDir; what they download is merged back into the base by a single
+ * writer.
+ */
+public record CacheOverlaySpec(
+    @JsonPropertyDescription("Size limit of the per-pod writable layer (emptyDir sizeLimit)")
+        String sizeLimit,
+    @JsonPropertyDescription("Seconds between two stagings of a pod's new files")
+        Integer syncIntervalSeconds,
+    @JsonPropertyDescription("Minutes between two merges of the staged files into the base cache")
+        Integer mergeIntervalMinutes,
+    @JsonPropertyDescription(
+            "Hours after which incomplete staged batches of vanished pods are discarded")
+        Integer abandonAfterHours) {
+
+  public CacheOverlaySpec {
+    sizeLimit = Optional.ofNullable(sizeLimit).orElse("10Gi");
+    syncIntervalSeconds = Optional.ofNullable(syncIntervalSeconds).orElse(300);
+    mergeIntervalMinutes = Optional.ofNullable(mergeIntervalMinutes).orElse(10);
+    abandonAfterHours = Optional.ofNullable(abandonAfterHours).orElse(24);
+  }
+}
@@ -0,0 +1,25 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+
+/**
+ * Coordinated first population of a DependencyCache. Until the cache is populated, the first pod
+ * admitted holds a Lease and resolves the dependencies alone, the others wait for it in an init
+ * container.
+ */
+public record CachePopulationSpec(
+    @JsonPropertyDescription(
+            "Seconds after which the Lease of a writer pod that is no longer renewed can be taken"
+                + " over by the next admitted pod")
+        Integer leaseDurationSeconds,
+    @JsonPropertyDescription(
+            "Minutes after which waiting pods stop waiting and resolve their dependencies"
+                + " themselves")
+        Integer waitTimeoutMinutes) {
+
+  public CachePopulationSpec {
+    leaseDurationSeconds = Optional.ofNullable(leaseDurationSeconds).orElse(60);
+    waitTimeoutMinutes = Optional.ofNullable(waitTimeoutMinutes).orElse(20);
+  }
+}
@@ -0,0 +1,22 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** Progress of the coordinated first population of the cache. */
+public record CachePopulationStatus(
+    @JsonPropertyDescription("POPULATING while a writer pod resolves, then POPULATED") Phase phase,
+    @JsonPropertyDescription("Writer pod holding the population Lease (namespace/name)")
+        String writer,
+    @JsonPropertyDescription("Timestamp of the Lease acquisition by the first writer")
+        String startedAt,
+    @JsonPropertyDescription("Timestamp at which the cache was marked populated")
+        String populatedAt,
+    @JsonPropertyDescription("Milliseconds from the Lease acquisition to the populated marker")
+        Long durationMillis,
+    @JsonPropertyDescription("Writer pods that vanished before being Ready") int takeovers) {
+
+  public enum Phase {
+    POPULATING,
+    POPULATED
+  }
+}
@@ -0,0 +1,21 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+
+/**
+ * Lockfile sharing report of a DependencyCache that serves as the shared volume of one or more
+ * Applications.
+ */
+public record CacheSharingStatus(
+    @JsonPropertyDescription("Applications mounting this cache volume") List<String> applications,
+    @JsonPropertyDescription("DependencyCaches referenced by these Applications")
+        List<String> referencedCaches,
+    @JsonPropertyDescription(
+            "Referenced caches per shared volume (1.0 means no deduplication took place)")
+        double dedupRatio,
+    @JsonPropertyDescription("Bytes used by the shared cache volume") long usedBytes,
+    @JsonPropertyDescription(
+            "Bytes not stored thanks to sharing (usedBytes for every referenced cache but this one)")
+        long bytesSaved,
+    @JsonPropertyDescription("Timestamp of the last usage measurement") String measuredAt) {}
@@ -0,0 +1,46 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Snapshots of a DependencyCache volume in a snapshot store. A warm cache exports itself as a
+ * snapshot, new caches are seeded by importing it instead of downloading everything again.
+ */
+public record CacheSnapshotSpec(
+    @JsonPropertyDescription(
+            "Name of the PVC of the snapshot store, in the namespace of the DependencyCache")
+        String storeClaimName,
+    @JsonPropertyDescription(
+            "Name of the snapshot this cache is periodically exported to (e.g. 'quarkus-maven')")
+        String exportAs,
+    @JsonPropertyDescription("Minutes between two exports") Integer exportIntervalMinutes,
+    @JsonPropertyDescription(
+            "Name of the snapshot imported into this cache, once per generation of the"
+                + " DependencyCache")
+        String importFrom) {
+
+  private static final Pattern NAME = Pattern.compile("[a-z0-9]([a-z0-9._-]*[a-z0-9])?");
+
+  public CacheSnapshotSpec {
+    exportIntervalMinutes = Optional.ofNullable(exportIntervalMinutes).orElse(60);
+    if (storeClaimName == null || storeClaimName.isBlank()) {
+      throw new IllegalArgumentException("snapshot.storeClaimName is required");
+    }
+    if (exportAs == null && importFrom == null) {
+      throw new IllegalArgumentException("snapshot needs exportAs, importFrom or both");
+    }
+    for (var name : new String[] {exportAs, importFrom}) {
+      if (name != null && !isValidName(name)) {
+        throw new IllegalArgumentException(
+            "Invalid snapshot name '" + name + "': lower case alphanumerics, '.', '-' and '_'");
+      }
+    }
+  }
+
+  /** Whether a snapshot name is valid: lower case alphanumerics, '.', '-' and '_'. */
+  public static boolean isValidName(String name) {
+    return name != null && NAME.matcher(name).matches();
+  }
+}
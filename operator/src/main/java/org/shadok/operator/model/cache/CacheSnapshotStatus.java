@@ -0,0 +1,10 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** Last snapshot transfers of a DependencyCache volume. */
+public record CacheSnapshotStatus(
+    @JsonPropertyDescription("Last export of the cache to its snapshot")
+        CacheSnapshotTransfer lastExport,
+    @JsonPropertyDescription("Last import of a snapshot into the cache")
+        CacheSnapshotTransfer lastImport) {}
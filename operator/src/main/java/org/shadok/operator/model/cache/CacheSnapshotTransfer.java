@@ -0,0 +1,17 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** Outcome of the last export or import of a DependencyCache snapshot. */
+public record CacheSnapshotTransfer(
+    @JsonPropertyDescription("Snapshot name") String snapshot,
+    @JsonPropertyDescription("Timestamp of the transfer") String at,
+    @JsonPropertyDescription("DependencyCache generation the transfer was run for")
+        Long observedGeneration,
+    @JsonPropertyDescription("Layers of the snapshot") int layers,
+    @JsonPropertyDescription("Layers written (export) or extracted (import)") int transferredLayers,
+    @JsonPropertyDescription("Unchanged layers that were not transferred again") int reusedLayers,
+    @JsonPropertyDescription("Bytes of the transferred layers") long transferredBytes,
+    @JsonPropertyDescription("Bytes of all the layers of the snapshot") long snapshotBytes,
+    @JsonPropertyDescription("Files of the snapshot (export) or extracted (import)") long files,
+    @JsonPropertyDescription("Duration of the transfer in milliseconds") long durationMillis) {}
@@ -0,0 +1,14 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/** Usage of one ecosystem subtree of a DependencyCache volume. */
+public record CacheSubtreeUsage(
+    @JsonPropertyDescription(
+            "Top-level directory of the cache volume, or '(other)' for the smaller ones and the"
+                + " files at the root")
+        String path,
+    @JsonPropertyDescription("Bytes used by regular files of the subtree") long usedBytes,
+    @JsonPropertyDescription("Regular files in the subtree") long files,
+    @JsonPropertyDescription("Growth of the used bytes per hour since the previous measurement")
+        Double growthBytesPerHour) {}
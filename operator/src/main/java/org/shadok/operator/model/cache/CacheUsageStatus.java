@@ -0,0 +1,21 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+
+/** Last usage measurement of a DependencyCache volume. */
+public record CacheUsageStatus(
+    @JsonPropertyDescription("Timestamp of the last usage measurement") String measuredAt,
+    @JsonPropertyDescription("Bytes used by regular files of the cache volume") long usedBytes,
+    @JsonPropertyDescription("Regular files in the cache volume") long files,
+    @JsonPropertyDescription("Requested storage size of the cache volume, in bytes")
+        long capacityBytes,
+    @JsonPropertyDescription("Used bytes as a percentage of the requested storage size")
+        double usedPercent,
+    @JsonPropertyDescription(
+            "Growth of the used bytes per hour since the previous measurement (negative when the"
+                + " cache shrank, absent on the first measurement)")
+        Double growthBytesPerHour,
+    @JsonPropertyDescription("Duration of the scan in milliseconds") long scanMillis,
+    @JsonPropertyDescription("Usage per top-level directory (.m2, .gradle, .npm, .pip, ...)")
+        List<CacheSubtreeUsage> subtrees) {}
@@ -0,0 +1,27 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Optional;
+
+/**
+ * Integrity verification of a DependencyCache volume. Files that do not match the checksums the
+ * build tools recorded, or zips with an invalid central directory or entry CRC, are quarantined so
+ * that the next build re-fetches them.
+ */
+public record CacheVerifySpec(
+    @JsonPropertyDescription("Minutes between two verification runs") Integer intervalMinutes,
+    @JsonPropertyDescription(
+            "Files modified within this many minutes are not verified, as they may still be"
+                + " written")
+        Integer graceMinutes,
+    @JsonPropertyDescription("Verifying threads of the verification Job") Integer parallelism,
+    @JsonPropertyDescription("Hours quarantined files are kept before deletion")
+        Integer quarantineRetentionHours) {
+
+  public CacheVerifySpec {
+    intervalMinutes = Optional.ofNullable(intervalMinutes).orElse(1440);
+    graceMinutes = Optional.ofNullable(graceMinutes).orElse(10);
+    parallelism = Optional.ofNullable(parallelism).orElse(8);
+    quarantineRetentionHours = Optional.ofNullable(quarantineRetentionHours).orElse(72);
+  }
+}
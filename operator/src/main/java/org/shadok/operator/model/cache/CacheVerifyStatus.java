@@ -0,0 +1,18 @@
+package org.shadok.operator.model.cache;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.List;
+
+/** Outcome of the last integrity verification of a DependencyCache volume. */
+public record CacheVerifyStatus(
+    @JsonPropertyDescription("Timestamp of the last verification run") String lastRunAt,
+    @JsonPropertyDescription("Files verified against a checksum or their central directory")
+        long verifiedFiles,
+    @JsonPropertyDescription("Bytes verified") long verifiedBytes,
+    @JsonPropertyDescription("Corrupt files quarantined by the last run") long corruptFiles,
+    @JsonPropertyDescription("Corrupt files quarantined since verification was enabled")
+        long totalCorruptFiles,
+    @JsonPropertyDescription("First quarantined files of the last run, relative to the volume")
+        List<String> quarantined,
+    @JsonPropertyDescription("Duration of the run in milliseconds") long durationMillis,
+    @JsonPropertyDescription("Verification throughput in GB/s") double gigabytesPerSecond) {}
@@ -26,7 +26,43 @@ public record DependencyCacheSpec(
     @JsonPropertyDescription("List of Secrets to mount in the dependency cache")
         List<VolumeMountSpec> secrets,
     @JsonPropertyDescription("Optional labels to apply to the created PVC")
-        Map<String, String> labels) {
+        Map<String, String> labels,
+    @JsonPropertyDescription(
+            "Volume sharing between Applications: NONE (default) or LOCKFILE to map Applications with"
+                + " identical dependency manifests to one shared cache volume")
+        SharingMode sharing,
+    @JsonPropertyDescription(
+            "Optional LRU garbage collection of the cache volume between high/low watermarks")
+        CacheGcSpec gc,
+    @JsonPropertyDescription(
+            "Optional online expansion of the PVC when usage crosses a threshold (requires a storage"
+                + " class with allowVolumeExpansion)")
+        CacheExpansionSpec expansion,
+    @JsonPropertyDescription(
+            "Optional copy-on-write mode: pods mount the cache read-only and write to a local layer"
+                + " merged back into the cache by a single writer")
+        CacheOverlaySpec overlay,
+    @JsonPropertyDescription(
+            "Optional federation: Applications of allowed namespaces may use this cache, each"
+                + " consuming namespace getting a PVC backed by the same storage (the cache must live"
+                + " in a designated shared namespace)")
+        CacheFederationSpec federation,
+    @JsonPropertyDescription(
+            "Optional coordinated first population: one pod resolves the dependencies while the"
+                + " others wait until the cache is populated")
+        CachePopulationSpec population,
+    @JsonPropertyDescription(
+            "Optional hardlink deduplication: identical files of the cache volume are replaced by"
+                + " links to a single content-addressed copy")
+        CacheDedupSpec dedup,
+    @JsonPropertyDescription(
+            "Optional snapshots: export the cache to, or seed it from, content-addressed tar layers"
+                + " in a snapshot store volume")
+        CacheSnapshotSpec snapshot,
+    @JsonPropertyDescription(
+            "Optional integrity verification: corrupt files of the cache volume are quarantined so"
+                + " that the next build re-fetches them")
+        CacheVerifySpec verify) {
   public DependencyCacheSpec {
     persistentVolumeName =
         Objects.requireNonNull(persistentVolumeName, "persistentVolumeName cannot be null");
@@ -38,5 +74,37 @@ public record DependencyCacheSpec(
     configMaps = Optional.ofNullable(configMaps).orElse(List.of());
     secrets = Optional.ofNullable(secrets).orElse(List.of());
     labels = Optional.ofNullable(labels).orElse(Map.of());
+    sharing = Optional.ofNullable(sharing).orElse(SharingMode.NONE);
+  }
+
+  /**
+   * Spec without any of the optional components, with the default storage settings.
+   *
+   * @param persistentVolumeName existing PersistentVolume of the cache
+   * @param cachePath path of the cache within the PV
+   * @param pvcName name of the PVC to create
+   * @return the spec
+   */
+  public static DependencyCacheSpec of(
+      String persistentVolumeName, String cachePath, String pvcName) {
+    return new DependencyCacheSpec(
+        persistentVolumeName,
+        cachePath,
+        pvcName,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null);
   }
 }
@@ -1,6 +1,9 @@
 package org.shadok.operator.model.cache;
 
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import io.fabric8.kubernetes.api.model.Condition;
+import java.util.ArrayList;
+import java.util.List;
 
 /** Status for DependencyCache CRD. Reports the current state of the DependencyCache resource. */
 public class DependencyCacheStatus {
@@ -30,6 +33,40 @@ public class DependencyCacheStatus {
   @JsonPropertyDescription("Generation observed by the controller")
   private Long observedGeneration;
 
+  @JsonPropertyDescription("Lockfile sharing report, when Applications share this cache volume")
+  private CacheSharingStatus sharing;
+
+  @JsonPropertyDescription("Last garbage collection run, when garbage collection is enabled")
+  private CacheGcStatus gc;
+
+  @JsonPropertyDescription("Last deduplication run, when deduplication is enabled")
+  private CacheDedupStatus dedup;
+
+  @JsonPropertyDescription("Last snapshot export and import, when snapshots are enabled")
+  private CacheSnapshotStatus snapshot;
+
+  @JsonPropertyDescription("Last integrity verification run, when verification is enabled")
+  private CacheVerifyStatus verify;
+
+  @JsonPropertyDescription("Last usage measurement of the cache volume, per ecosystem subtree")
+  private CacheUsageStatus usage;
+
+  @JsonPropertyDescription("Online expansion state of the PVC, when expansion is enabled")
+  private CacheExpansionStatus expansion;
+
+  @JsonPropertyDescription("Last merge of the pods' overlay layers, in overlay mode")
+  private CacheMergeStatus merge;
+
+  @JsonPropertyDescription("Namespaces using this cache, when federation is enabled")
+  private CacheFederationStatus federation;
+
+  @JsonPropertyDescription("Coordinated first population, when enabled")
+  private CachePopulationStatus population;
+
+  @JsonPropertyDescription(
+      "Outcome of each maintenance step (GarbageCollection, Snapshot, ...), a failed step keeping its last report")
+  private List<Condition> conditions = new ArrayList<>();
+
   // Constructors
   public DependencyCacheStatus() {}
 
@@ -87,6 +124,94 @@ public class DependencyCacheStatus {
     this.observedGeneration = observedGeneration;
   }
 
+  public CacheSharingStatus getSharing() {
+    return sharing;
+  }
+
+  public void setSharing(CacheSharingStatus sharing) {
+    this.sharing = sharing;
+  }
+
+  public CacheGcStatus getGc() {
+    return gc;
+  }
+
+  public void setGc(CacheGcStatus gc) {
+    this.gc = gc;
+  }
+
+  public CacheDedupStatus getDedup() {
+    return dedup;
+  }
+
+  public void setDedup(CacheDedupStatus dedup) {
+    this.dedup = dedup;
+  }
+
+  public CacheSnapshotStatus getSnapshot() {
+    return snapshot;
+  }
+
+  public void setSnapshot(CacheSnapshotStatus snapshot) {
+    this.snapshot = snapshot;
+  }
+
+  public CacheVerifyStatus getVerify() {
+    return verify;
+  }
+
+  public void setVerify(CacheVerifyStatus verify) {
+    this.verify = verify;
+  }
+
+  public CacheUsageStatus getUsage() {
+    return usage;
+  }
+
+  public void setUsage(CacheUsageStatus usage) {
+    this.usage = usage;
+  }
+
+  public CacheExpansionStatus getExpansion() {
+    return expansion;
+  }
+
+  public void setExpansion(CacheExpansionStatus expansion) {
+    this.expansion = expansion;
+  }
+
+  public CacheMergeStatus getMerge() {
+    return merge;
+  }
+
+  public void setMerge(CacheMergeStatus merge) {
+    this.merge = merge;
+  }
+
+  public CacheFederationStatus getFederation() {
+    return federation;
+  }
+
+  public void setFederation(CacheFederationStatus federation) {
+    this.federation = federation;
+  }
+
+  public CachePopulationStatus getPopulation() {
+    return population;
+  }
+
+  public void setPopulation(CachePopulationStatus population) {
+    this.population = population;
+  }
+
+  public List<Condition> getConditions() {
+    return conditions;
+  }
+
+  public void setConditions(List<Condition> conditions) {
+    this.conditions = conditions;
+  }
+
   @Override
   public String toString() {
     return "DependencyCacheStatus{"
@@ -106,6 +231,28 @@ public class DependencyCacheStatus {
         + '\''
         + ", observedGeneration="
         + observedGeneration
+        + ", sharing="
+        + sharing
+        + ", gc="
+        + gc
+        + ", dedup="
+        + dedup
+        + ", snapshot="
+        + snapshot
+        + ", verify="
+        + verify
+        + ", usage="
+        + usage
+        + ", expansion="
+        + expansion
+        + ", merge="
+        + merge
+        + ", federation="
+        + federation
+        + ", population="
+        + population
+        + ", conditions="
+        + conditions
         + '}';
   }
 }
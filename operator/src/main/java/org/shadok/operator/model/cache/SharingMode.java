@@ -0,0 +1,12 @@
+package org.shadok.operator.model.cache;
+
+/** How the Applications referencing a DependencyCache share cache volumes. */
+public enum SharingMode {
+  /** Every DependencyCache is its own volume. */
+  NONE,
+  /**
+   * Applications whose dependency manifests (pom.xml, package-lock.json, ...) have the same
+   * fingerprint share the cache volume of the oldest of them.
+   */
+  LOCKFILE
+}
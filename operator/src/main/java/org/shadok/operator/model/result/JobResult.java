@@ -0,0 +1,30 @@
+package org.shadok.operator.model.result;
+
+/**
+ * Result type for operations delegated to a Kubernetes Job.
+ *
+ * <p>This sealed interface models the outcome of polling a Job that runs a cache tool task against
+ * a mounted volume: still running, succeeded with a report, or failed.
+ */
+public sealed interface JobResult<T>
+    permits JobResult.Running, JobResult.Succeeded, JobResult.Failed {
+
+  /** Job has been created or is still running. */
+  record Running<T>(String jobName) implements JobResult<T> {}
+
+  /** Job completed and produced a report. */
+  record Succeeded<T>(T report) implements JobResult<T> {}
+
+  /** Job failed or its report could not be read. */
+  record Failed<T>(String error) implements JobResult<T> {}
+
+  /** Check if the Job has completed successfully. */
+  default boolean isSucceeded() {
+    return this instanceof Succeeded<T>;
+  }
+
+  /** Check if the Job is still running. */
+  default boolean isRunning() {
+    return this instanceof Running<T>;
+  }
+}
@@ -0,0 +1,180 @@
+package org.shadok.operator.proxy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.shadok.operator.config.ProxyConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Artifact proxy serving Maven, npm and PyPI layouts to the dev pods ({@code shadok.proxy.*}).
+ *
+ * <p>Served over plain HTTP on its own port, so that build tools need no trust store and stored
+ * files are sent with {@code sendfile} (zero copy, which TLS would prevent). Every replica serves
+ * from its own store, but the dev pods only reach the leader's through the {@code operator-leader}
+ * Service ({@link org.shadok.operator.config.LeaderPodLabel}). Requests are counted in {@code
+ * shadok_proxy_requests_total} by repository and {@link ArtifactStore.Outcome}.
+ */
+@ApplicationScoped
+public class ArtifactProxyServer {
+
+  private static final Logger log = LoggerFactory.getLogger(ArtifactProxyServer.class);
+
+  @Inject ProxyConfig config;
+  @Inject Vertx vertx;
+  @Inject MeterRegistry registry;
+
+  private ExecutorService downloads;
+  private ArtifactStore store;
+  private HttpServer server;
+
+  void onStart(@Observes StartupEvent event) {
+    if (!config.enabled()) {
+      return;
+    }
+    downloads =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shadok-proxy-", 0).factory());
+    store =
+        new ArtifactStore(
+            Path.of(config.storage()),
+            upstreams(),
+            rewrites(),
+            config.metadataTtl(),
+            downloads,
+            Clock.systemUTC());
+    server = vertx.createHttpServer().requestHandler(this::handle);
+    server
+        .listen(config.port())
+        .onSuccess(started -> log.info("📦 Artifact proxy listening on port {}", config.port()))
+        .onFailure(e -> log.error("❌ Artifact proxy failed to start: {}", e.getMessage()));
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    Optional.ofNullable(server).ifPresent(HttpServer::close);
+    Optional.ofNullable(downloads).ifPresent(ExecutorService::shutdownNow);
+  }
+
+  private Map<ArtifactRepository, Upstream> upstreams() {
+    var client =
+        HttpClient.newBuilder()
+            .connectTimeout(config.upstreamTimeout())
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    var upstream = config.upstream();
+    Function<ArtifactRepository, String> baseUrl =
+        repository ->
+            switch (repository) {
+              case MAVEN -> upstream.maven();
+              case NPM -> upstream.npm();
+              case PYPI -> upstream.pypi();
+              case PYPI_FILES -> upstream.pypiFiles();
+            };
+    return Arrays.stream(ArtifactRepository.values())
+        .collect(
+            Collectors.toMap(
+                Function.identity(),
+                repository ->
+                    new HttpUpstream(client, baseUrl.apply(repository), config.upstreamTimeout())));
+  }
+
+  /** Tarball and file links of the npm and PyPI metadata point back to the proxy. */
+  private Map<String, String> rewrites() {
+    var proxy = config.url().replaceAll("/+$", "");
+    return Map.of(
+        slash(config.upstream().npm()), proxy + "/" + ArtifactRepository.NPM.prefix() + "/",
+        slash(config.upstream().pypiFiles()),
+            proxy + "/" + ArtifactRepository.PYPI_FILES.prefix() + "/");
+  }
+
+  private static String slash(String url) {
+    return url.endsWith("/") ? url : url + "/";
+  }
+
+  private void handle(HttpServerRequest request) {
+    var response = request.response();
+    if (request.method() != HttpMethod.GET && request.method() != HttpMethod.HEAD) {
+      response.setStatusCode(405).end();
+      return;
+    }
+    var route = ArtifactRepository.route(request.path());
+    if (route.isEmpty()) {
+      response.setStatusCode(404).end();
+      return;
+    }
+    var repository = route.get().repository();
+    var path = route.get().path();
+    var context = vertx.getOrCreateContext();
+    store
+        .fetch(repository, path)
+        .whenComplete(
+            (artifact, error) ->
+                context.runOnContext(
+                    ignored -> respond(request, repository, path, artifact, error)));
+  }
+
+  private void respond(
+      HttpServerRequest request,
+      ArtifactRepository repository,
+      String path,
+      Optional<ArtifactStore.Artifact> artifact,
+      Throwable error) {
+    var response = request.response();
+    if (error != null) {
+      var cause = error instanceof CompletionException ? error.getCause() : error;
+      if (cause instanceof IllegalArgumentException) {
+        count(repository, "invalid");
+        response.setStatusCode(400).end();
+      } else {
+        count(repository, "error");
+        log.warn("⚠️ Artifact proxy download of {} failed: {}", request.path(), cause.getMessage());
+        response.setStatusCode(502).end();
+      }
+      return;
+    }
+    if (artifact.isEmpty()) {
+      count(repository, "not_found");
+      response.setStatusCode(404).end();
+      return;
+    }
+
+    var file = artifact.get().file();
+    count(repository, artifact.get().outcome().name().toLowerCase());
+    response.putHeader(HttpHeaders.CONTENT_TYPE, repository.contentType(path));
+    if (request.method() == HttpMethod.HEAD) {
+      response.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(file.toFile().length())).end();
+    } else {
+      // Zero copy: the file is transferred by the kernel, not through the JVM heap
+      response.sendFile(file.toString());
+    }
+  }
+
+  private void count(ArtifactRepository repository, String outcome) {
+    Counter.builder("shadok.proxy.requests")
+        .description("Artifact proxy requests by repository and outcome")
+        .tag("repository", repository.name().toLowerCase())
+        .tag("outcome", outcome)
+        .register(registry)
+        .increment();
+  }
+}
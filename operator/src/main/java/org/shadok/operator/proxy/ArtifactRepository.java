@@ -0,0 +1,90 @@
+package org.shadok.operator.proxy;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Registry layouts served by the artifact proxy, each under its own URL prefix.
+ *
+ * <p>Artifacts (jars, tarballs, wheels) are immutable once published and are cached forever.
+ * Metadata documents (Maven metadata and snapshots, npm packuments, PyPI project indexes) change as
+ * versions are published and are refreshed after a TTL. They are stored as {@code .index} files in
+ * the directory of the resource, since npm and PyPI also use those paths as directories.
+ */
+public enum ArtifactRepository {
+  MAVEN("maven"),
+  NPM("npm"),
+  PYPI("pypi/simple"),
+  PYPI_FILES("pypi/files");
+
+  /** Storage name of metadata documents; requests cannot address dot-prefixed segments. */
+  static final String INDEX_FILE = ".index";
+
+  /** Repository and path relative to its upstream of a proxy request. */
+  public record Route(ArtifactRepository repository, String path) {}
+
+  private final String prefix;
+
+  ArtifactRepository(String prefix) {
+    this.prefix = prefix;
+  }
+
+  /** URL prefix of the repository, without slashes (e.g. {@code pypi/simple}). */
+  public String prefix() {
+    return prefix;
+  }
+
+  /**
+   * Find the repository serving a request path.
+   *
+   * @param requestPath raw path of the request (e.g. {@code /npm/@scope%2fname})
+   * @return the repository and the path to request from its upstream, empty when no repository
+   *     matches
+   */
+  public static Optional<Route> route(String requestPath) {
+    return Arrays.stream(values())
+        .filter(repository -> requestPath.startsWith("/" + repository.prefix + "/"))
+        .findFirst()
+        .map(
+            repository ->
+                new Route(repository, requestPath.substring(repository.prefix.length() + 2)));
+  }
+
+  /** Whether the resource may change upstream and must be refreshed. */
+  public boolean isMetadata(String path) {
+    var fileName = path.substring(path.lastIndexOf('/') + 1);
+    return switch (this) {
+      case MAVEN -> fileName.startsWith("maven-metadata.xml") || path.contains("-SNAPSHOT/");
+      case NPM -> !path.contains("/-/");
+      case PYPI -> true;
+      case PYPI_FILES -> false;
+    };
+  }
+
+  /** Path of the resource in the repository storage. */
+  String storagePath(String path) {
+    return switch (this) {
+      case NPM, PYPI ->
+          isMetadata(path)
+              ? (path.replaceAll("/+$", "") + "/" + INDEX_FILE).replaceAll("^/", "")
+              : path;
+      case MAVEN, PYPI_FILES -> path;
+    };
+  }
+
+  /** Content type returned to the build tools. */
+  public String contentType(String path) {
+    return switch (this) {
+      case MAVEN ->
+          switch (path.substring(path.lastIndexOf('.') + 1)) {
+            case "pom", "xml" -> "application/xml";
+            case "jar" -> "application/java-archive";
+            case "sha1", "sha256", "sha512", "md5", "asc" -> "text/plain";
+            default -> "application/octet-stream";
+          };
+      case NPM -> isMetadata(path) ? "application/json" : "application/octet-stream";
+      case PYPI -> "text/html";
+      case PYPI_FILES -> "application/octet-stream";
+    };
+  }
+}
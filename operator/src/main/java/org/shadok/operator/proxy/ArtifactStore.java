@@ -0,0 +1,194 @@
+package org.shadok.operator.proxy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Disk-backed store of the artifacts served by the proxy.
+ *
+ * <p>Each resource is downloaded once: concurrent requests for a resource that is being downloaded
+ * wait for the same download instead of hitting the upstream again, which is what happens when
+ * several pods of an Application resolve the same dependencies at startup. Downloads are written to
+ * a temporary file and renamed into place, so that a file present in the store is always complete
+ * and can be handed to the HTTP layer for zero-copy serving.
+ *
+ * <p>Metadata documents are refreshed once older than the TTL. When the upstream is unreachable the
+ * stale copy is served, so that builds keep working offline with what was already resolved.
+ * Upstream URLs in metadata documents (npm tarballs, PyPI file links) are rewritten to the proxy
+ * before storage.
+ */
+public final class ArtifactStore {
+
+  /** Directory of the downloads in progress, relative to the store root. */
+  static final String DOWNLOAD_DIR = ".downloads";
+
+  /** How a request was served. */
+  public enum Outcome {
+    /** From the store. */
+    HIT,
+    /** Downloaded from the upstream. */
+    MISS,
+    /** By a download already in progress for another request. */
+    COALESCED,
+    /** From an expired metadata document, the upstream being unreachable. */
+    STALE
+  }
+
+  /** Stored resource. */
+  public record Artifact(Path file, Outcome outcome) {
+
+    Artifact coalesced() {
+      return outcome == Outcome.MISS ? new Artifact(file, Outcome.COALESCED) : this;
+    }
+  }
+
+  private final Path root;
+  private final Map<ArtifactRepository, Upstream> upstreams;
+  private final Map<String, String> rewrites;
+  private final Duration metadataTtl;
+  private final Executor executor;
+  private final Clock clock;
+  private final Map<Path, CompletableFuture<Optional<Artifact>>> downloads =
+      new ConcurrentHashMap<>();
+
+  /**
+   * @param root store directory
+   * @param upstreams registry of each repository
+   * @param rewrites URL prefixes replaced in metadata documents (upstream to proxy)
+   * @param metadataTtl age after which metadata documents are refreshed
+   * @param executor runs the blocking downloads
+   * @param clock reference time for the TTL
+   */
+  public ArtifactStore(
+      Path root,
+      Map<ArtifactRepository, Upstream> upstreams,
+      Map<String, String> rewrites,
+      Duration metadataTtl,
+      Executor executor,
+      Clock clock) {
+    this.root = root.toAbsolutePath().normalize();
+    this.upstreams = Map.copyOf(upstreams);
+    this.rewrites = Map.copyOf(rewrites);
+    this.metadataTtl = metadataTtl;
+    this.executor = executor;
+    this.clock = clock;
+  }
+
+  /**
+   * Get a resource, downloading it when missing or expired.
+   *
+   * @param repository repository of the resource
+   * @param path path relative to the repository upstream
+   * @return the stored resource, empty when the upstream does not have it; fails with {@link
+   *     IllegalArgumentException} on paths escaping the repository and with {@link IOException}
+   *     when the download fails
+   */
+  public CompletableFuture<Optional<Artifact>> fetch(ArtifactRepository repository, String path) {
+    final Path file;
+    try {
+      file = resolve(repository, path);
+      if (isFresh(repository, path, file)) {
+        return CompletableFuture.completedFuture(Optional.of(new Artifact(file, Outcome.HIT)));
+      }
+    } catch (IllegalArgumentException | IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    var download = new CompletableFuture<Optional<Artifact>>();
+    var inProgress = downloads.putIfAbsent(file, download);
+    if (inProgress != null) {
+      return inProgress.thenApply(artifact -> artifact.map(Artifact::coalesced));
+    }
+    executor.execute(
+        () -> {
+          // Unregistered before completion: a request following a finished download must not
+          // join it (e.g. to refresh metadata that expired meanwhile)
+          try {
+            var artifact = download(repository, path, file);
+            downloads.remove(file, download);
+            download.complete(artifact);
+          } catch (IOException | RuntimeException e) {
+            downloads.remove(file, download);
+            download.completeExceptionally(e);
+          }
+        });
+    return download;
+  }
+
+  private Path resolve(ArtifactRepository repository, String path) {
+    var segments = path.split("/");
+    for (var segment : segments) {
+      if (segment.startsWith(".") || segment.contains("\\")) {
+        throw new IllegalArgumentException("Invalid artifact path: " + path);
+      }
+    }
+    var repositoryRoot = root.resolve(repository.prefix());
+    var file = repositoryRoot.resolve(repository.storagePath(path)).normalize();
+    if (!file.startsWith(repositoryRoot) || file.equals(repositoryRoot)) {
+      throw new IllegalArgumentException("Invalid artifact path: " + path);
+    }
+    return file;
+  }
+
+  private boolean isFresh(ArtifactRepository repository, String path, Path file)
+      throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return false;
+    }
+    return !repository.isMetadata(path)
+        || Files.getLastModifiedTime(file).toInstant().isAfter(clock.instant().minus(metadataTtl));
+  }
+
+  private Optional<Artifact> download(ArtifactRepository repository, String path, Path file)
+      throws IOException {
+    var metadata = repository.isMetadata(path);
+    final Optional<InputStream> body;
+    try {
+      body = upstreams.get(repository).open(path);
+    } catch (IOException e) {
+      if (metadata && Files.isRegularFile(file)) {
+        return Optional.of(new Artifact(file, Outcome.STALE));
+      }
+      throw e;
+    }
+    if (body.isEmpty()) {
+      return Optional.empty();
+    }
+
+    var downloadDir = Files.createDirectories(root.resolve(DOWNLOAD_DIR));
+    var partial = Files.createTempFile(downloadDir, "download-", ".part");
+    try (var in = body.get()) {
+      if (metadata && !rewrites.isEmpty()) {
+        Files.writeString(partial, rewrite(new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+      } else {
+        Files.copy(in, partial, StandardCopyOption.REPLACE_EXISTING);
+      }
+      Files.createDirectories(file.getParent());
+      Files.move(
+          partial, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      Files.deleteIfExists(partial);
+      throw e;
+    }
+    return Optional.of(new Artifact(file, Outcome.MISS));
+  }
+
+  private String rewrite(String document) {
+    var rewritten = document;
+    for (var rewrite : rewrites.entrySet()) {
+      rewritten = rewritten.replace(rewrite.getKey(), rewrite.getValue());
+    }
+    return rewritten;
+  }
+}
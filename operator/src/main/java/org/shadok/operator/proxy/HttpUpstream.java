@@ -0,0 +1,57 @@
+package org.shadok.operator.proxy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+
+/** Public registry reached over HTTP(S). */
+public final class HttpUpstream implements Upstream {
+
+  private final HttpClient client;
+  private final String baseUrl;
+  private final Duration timeout;
+
+  /**
+   * @param client shared HTTP client
+   * @param baseUrl registry base URL, resource paths are appended to it
+   * @param timeout maximum time to receive the response headers
+   */
+  public HttpUpstream(HttpClient client, String baseUrl, Duration timeout) {
+    this.client = client;
+    this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    this.timeout = timeout;
+  }
+
+  @Override
+  public Optional<InputStream> open(String path) throws IOException {
+    var request =
+        HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(timeout)
+            .header("User-Agent", "shadok-artifact-proxy")
+            .GET()
+            .build();
+    try {
+      var response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+      return switch (response.statusCode()) {
+        case 200 -> Optional.of(response.body());
+        case 404, 410 -> {
+          response.body().close();
+          yield Optional.empty();
+        }
+        default -> {
+          response.body().close();
+          throw new IOException(
+              "Upstream " + request.uri() + " returned HTTP " + response.statusCode());
+        }
+      };
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while downloading " + request.uri(), e);
+    }
+  }
+}
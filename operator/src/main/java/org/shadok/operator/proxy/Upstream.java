@@ -0,0 +1,19 @@
+package org.shadok.operator.proxy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/** Registry the artifact proxy downloads from. */
+@FunctionalInterface
+public interface Upstream {
+
+  /**
+   * Open a resource of the registry.
+   *
+   * @param path path relative to the registry base URL
+   * @return the resource content, empty when the registry does not have it
+   * @throws IOException when the registry cannot be reached or fails
+   */
+  Optional<InputStream> open(String path) throws IOException;
+}
@@ -0,0 +1,283 @@
+package org.shadok.operator.util.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Hardlink deduplication of a cache volume.
+ *
+ * <p>The same jar, wheel or tarball often sits several times on a volume: under the Maven and
+ * Gradle layouts, in the npm and Yarn caches, in several pip caches... Files with identical content
+ * are replaced by hardlinks to a single copy kept in a content-addressed store ({@code
+ * .shadok/cas/<sha-256>}), which reclaims the duplicates and lets concurrent builds share one page
+ * cache copy.
+ *
+ * <p>Only files whose size collides with another file are hashed, in parallel. Files modified
+ * within the grace window, smaller than the minimum size or held by a running download (lock and
+ * partial files) are left alone, and a file is only replaced if it did not change since it was
+ * hashed; the replacement is an atomic rename of a new link over the path. The build tools write
+ * their cache entries once and replace them by renaming, so sharing an inode between paths is safe.
+ * Store copies no longer linked from the tree, e.g. after garbage collection evicted their entries,
+ * are deleted.
+ */
+public final class CacheDedup {
+
+  /** Content-addressed store, relative to the volume root. */
+  public static final String STORE_DIR = CacheGc.STATE_DIR + "/cas";
+
+  private static final int HASH_BUFFER_BYTES = 64 * 1024;
+  private static final long GIB = 1L << 30;
+
+  /** Scan limits of a run. */
+  public record Settings(Duration grace, long minFileBytes, int parallelism, Instant now) {}
+
+  /** Outcome of a run. */
+  public record Result(
+      long scannedFiles,
+      long scannedBytes,
+      long hashedFiles,
+      long hashedBytes,
+      long linkedFiles,
+      long reclaimedBytes,
+      long recentFiles,
+      long storeFiles,
+      long prunedStoreFiles,
+      long durationMillis,
+      long millisPerGib) {}
+
+  /** A candidate file; {@code inode} identifies the files already linked together. */
+  private record Candidate(Path path, long size, FileTime modified, Object inode) {}
+
+  private CacheDedup() {
+    // Utility class
+  }
+
+  /**
+   * Deduplicate a cache tree.
+   *
+   * @param root cache volume mount point
+   * @param settings grace window, minimum file size and hashing threads
+   * @return what was linked and reclaimed
+   */
+  public static Result deduplicate(Path root, Settings settings) throws IOException {
+    var start = System.nanoTime();
+    var store = Files.createDirectories(root.resolve(STORE_DIR));
+    var recentAfter = FileTime.from(settings.now().minus(settings.grace()));
+
+    var candidates = new ArrayList<Candidate>();
+    var scanned = new long[3];
+    Files.walkFileTree(
+        root,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            return dir.equals(root.resolve(CacheGc.STATE_DIR))
+                ? FileVisitResult.SKIP_SUBTREE
+                : FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (!attrs.isRegularFile()) {
+              return FileVisitResult.CONTINUE;
+            }
+            scanned[0]++;
+            scanned[1] += attrs.size();
+            var name = file.getFileName().toString();
+            if (attrs.size() < settings.minFileBytes()
+                || CacheGc.IN_USE_SUFFIXES.stream().anyMatch(name::endsWith)) {
+              return FileVisitResult.CONTINUE;
+            }
+            if (attrs.lastModifiedTime().compareTo(recentAfter) > 0) {
+              scanned[2]++;
+              return FileVisitResult.CONTINUE;
+            }
+            candidates.add(
+                new Candidate(
+                    file,
+                    attrs.size(),
+                    attrs.lastModifiedTime(),
+                    Optional.ofNullable(attrs.fileKey()).orElse(file)));
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) {
+            return FileVisitResult.CONTINUE;
+          }
+        });
+
+    // Only sizes shared by distinct inodes can hold duplicates
+    var toHash =
+        candidates.stream().collect(Collectors.groupingBy(Candidate::size)).values().stream()
+            .filter(group -> group.stream().map(Candidate::inode).distinct().count() > 1)
+            .flatMap(List::stream)
+            .toList();
+
+    Map<String, List<Candidate>> byDigest;
+    try (var pool = new ForkJoinPool(Math.max(1, settings.parallelism()))) {
+      byDigest =
+          pool.submit(
+                  () ->
+                      toHash.parallelStream()
+                          .flatMap(
+                              candidate ->
+                                  sha256(candidate.path()).stream()
+                                      .map(digest -> Map.entry(digest, candidate)))
+                          .collect(
+                              Collectors.groupingBy(
+                                  Map.Entry::getKey,
+                                  Collectors.mapping(Map.Entry::getValue, Collectors.toList()))))
+              .join();
+    }
+
+    var linked = 0L;
+    var reclaimed = 0L;
+    for (var entry : byDigest.entrySet()) {
+      var inodes = new LinkedHashMap<Object, List<Candidate>>();
+      entry
+          .getValue()
+          .forEach(c -> inodes.computeIfAbsent(c.inode(), k -> new ArrayList<>()).add(c));
+      if (inodes.size() < 2) {
+        continue;
+      }
+      var stored = store.resolve(entry.getKey().substring(0, 2)).resolve(entry.getKey());
+      var canonical = storeCopy(stored, inodes.values().iterator().next().getFirst());
+      if (canonical.isEmpty()) {
+        continue;
+      }
+      for (var copies : inodes.entrySet()) {
+        if (copies.getKey().equals(canonical.get())) {
+          continue;
+        }
+        var replaced = copies.getValue().stream().filter(c -> replace(c, stored)).count();
+        linked += replaced;
+        if (replaced == copies.getValue().size()) {
+          reclaimed += copies.getValue().getFirst().size();
+        }
+      }
+    }
+
+    var pruned = new long[2];
+    Files.walkFileTree(
+        store,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (linkCount(file) == 1) {
+              try {
+                Files.delete(file);
+                pruned[1]++;
+              } catch (IOException e) {
+                // Left to the next run
+              }
+            } else {
+              pruned[0]++;
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+
+    var durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    return new Result(
+        scanned[0],
+        scanned[1],
+        toHash.size(),
+        toHash.stream().mapToLong(Candidate::size).sum(),
+        linked,
+        reclaimed,
+        scanned[2],
+        pruned[0],
+        pruned[1],
+        durationMillis,
+        scanned[1] == 0 ? 0 : durationMillis * GIB / scanned[1]);
+  }
+
+  /** Link the content into the store unless present; returns the inode of the store copy. */
+  private static Optional<Object> storeCopy(Path stored, Candidate source) {
+    try {
+      if (!Files.exists(stored, LinkOption.NOFOLLOW_LINKS)) {
+        Files.createDirectories(stored.getParent());
+        Files.createLink(stored, source.path());
+      }
+      var attrs = Files.readAttributes(stored, BasicFileAttributes.class);
+      return Optional.of(Optional.ofNullable(attrs.fileKey()).orElse(stored));
+    } catch (IOException e) {
+      System.err.println("Unable to store " + source.path() + ": " + e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /** Atomically replace a file by a link to the store copy, unless it changed since hashed. */
+  private static boolean replace(Candidate candidate, Path stored) {
+    var path = candidate.path();
+    var link = path.resolveSibling("." + path.getFileName() + "." + UUID.randomUUID() + ".tmp");
+    try {
+      var attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+      if (attrs.size() != candidate.size()
+          || !attrs.lastModifiedTime().equals(candidate.modified())
+          || !Objects.equals(
+              Optional.ofNullable(attrs.fileKey()).orElse(path), candidate.inode())) {
+        return false;
+      }
+      Files.createLink(link, stored);
+      Files.move(link, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      return true;
+    } catch (IOException e) {
+      try {
+        Files.deleteIfExists(link);
+      } catch (IOException ignored) {
+        // Temporary link left behind, collected as a partial file
+      }
+      return false;
+    }
+  }
+
+  private static Optional<String> sha256(Path file) {
+    try (InputStream in = Files.newInputStream(file)) {
+      var digest = MessageDigest.getInstance("SHA-256");
+      var buffer = new byte[HASH_BUFFER_BYTES];
+      for (int read; (read = in.read(buffer)) != -1; ) {
+        digest.update(buffer, 0, read);
+      }
+      return Optional.of(HexFormat.of().formatHex(digest.digest()));
+    } catch (IOException e) {
+      // Files removed while hashing are simply skipped
+      return Optional.empty();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Number of hardlinks of a file, 0 when the file system does not expose it. */
+  static int linkCount(Path file) {
+    try {
+      return (Integer) Files.getAttribute(file, "unix:nlink", LinkOption.NOFOLLOW_LINKS);
+    } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+      return 0;
+    }
+  }
+}
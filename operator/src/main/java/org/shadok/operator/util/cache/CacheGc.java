@@ -0,0 +1,327 @@
+package org.shadok.operator.util.cache;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LRU garbage collection of a cache volume.
+ *
+ * <p>A cache entry is a leaf directory of the tree: a Maven or Gradle artifact version, an npm
+ * content bucket, a pip wheel directory... Its last access is the most recent access or
+ * modification time of its files (with {@code relatime} mounts, access times have a resolution of
+ * about a day, which is enough to order entries).
+ *
+ * <p>When usage is above the high watermark, entries are evicted oldest first until usage falls
+ * below the low watermark. Running builds are left alone: entries used within {@code minIdle} or
+ * holding lock and partial download files are never evicted, and an entry is first renamed out of
+ * the tree atomically, so readers see it either complete or gone, before being deleted.
+ *
+ * <p>Files hardlinked by {@link CacheDedup} count once in the usage. Their bytes are only freed
+ * when the last entry linking them is evicted: the store copy is then deleted with it, so that the
+ * link count drops to zero.
+ */
+public final class CacheGc {
+
+  /** Directory of the cache volume reserved for Shadok bookkeeping, never collected. */
+  public static final String STATE_DIR = ".shadok";
+
+  /** Lock and partial download files written by the build tools while they fetch an entry. */
+  static final Set<String> IN_USE_SUFFIXES = Set.of(".lock", ".lck", ".part", ".tmp");
+
+  /** Watermarks and protection window of a run. */
+  public record Settings(
+      long capacityBytes,
+      int highWatermarkPercent,
+      int lowWatermarkPercent,
+      Duration minIdle,
+      Instant now) {}
+
+  /** Outcome of a run. */
+  public record Result(
+      boolean triggered,
+      long capacityBytes,
+      long usedBytesBefore,
+      long usedBytesAfter,
+      int evictedEntries,
+      long evictedBytes,
+      int protectedEntries,
+      long durationMillis) {}
+
+  /**
+   * Leaf directory of the tree.
+   *
+   * @param bytes bytes of the files linked from this entry only
+   * @param sharedInodes inodes of the files linked from other paths too
+   */
+  private record Entry(
+      Path directory, long bytes, List<Object> sharedInodes, Instant lastAccess, boolean inUse) {}
+
+  /** Inode linked from several paths, freed with its last link. */
+  private static final class SharedInode {
+
+    private final long size;
+    private final int links;
+    private int scannedLinks;
+    private int treeLinks;
+    private final List<Path> storeCopies = new ArrayList<>();
+
+    SharedInode(long size, int links) {
+      this.size = size;
+      this.links = links;
+    }
+  }
+
+  /** Files of a leaf directory candidate while walking. */
+  private static final class DirectoryFiles {
+
+    private long bytes;
+    private long lastAccess;
+    private boolean inUse;
+    private final List<Object> sharedInodes = new ArrayList<>();
+  }
+
+  private CacheGc() {
+    // Utility class
+  }
+
+  /**
+   * Collect a cache tree.
+   *
+   * @param root cache volume mount point
+   * @param settings watermarks and protection window
+   * @return what was evicted
+   */
+  public static Result collect(Path root, Settings settings) throws IOException {
+    var start = System.nanoTime();
+    var trash = root.resolve(STATE_DIR).resolve("trash");
+    if (Files.isDirectory(trash)) {
+      // Leftovers of an interrupted run
+      deleteTree(trash);
+    }
+    var entries = new ArrayList<Entry>();
+    var shared = new HashMap<Object, SharedInode>();
+    var used = scan(root, entries, shared);
+
+    var high = settings.capacityBytes() * settings.highWatermarkPercent() / 100;
+    var low = settings.capacityBytes() * settings.lowWatermarkPercent() / 100;
+    if (used <= high) {
+      return new Result(false, settings.capacityBytes(), used, used, 0, 0, 0, elapsedMillis(start));
+    }
+
+    var protectedAfter = settings.now().minus(settings.minIdle());
+    Files.createDirectories(trash);
+    var remaining = used;
+    var evicted = 0;
+    var evictedBytes = 0L;
+    var protectedEntries = 0;
+    entries.sort(Comparator.comparing(Entry::lastAccess));
+    for (var entry : entries) {
+      if (remaining <= low) {
+        break;
+      }
+      if (entry.inUse() || entry.lastAccess().isAfter(protectedAfter)) {
+        protectedEntries++;
+        continue;
+      }
+      if (evict(entry.directory(), trash)) {
+        var freed = entry.bytes() + release(entry.sharedInodes(), shared);
+        remaining -= freed;
+        evictedBytes += freed;
+        evicted++;
+      }
+    }
+    return new Result(
+        true,
+        settings.capacityBytes(),
+        used,
+        remaining,
+        evicted,
+        evictedBytes,
+        protectedEntries,
+        elapsedMillis(start));
+  }
+
+  /**
+   * Walk the tree, collecting leaf directories and the inodes linked from several paths; returns
+   * the bytes used by all regular files, once per inode.
+   */
+  private static long scan(Path root, List<Entry> entries, Map<Object, SharedInode> shared)
+      throws IOException {
+    var stateDir = root.resolve(STATE_DIR);
+    var hasSubdirectories = new HashMap<Path, Boolean>();
+    var files = new HashMap<Path, DirectoryFiles>();
+    var used = new long[1];
+
+    Files.walkFileTree(
+        root,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            if (dir.equals(stateDir)) {
+              return FileVisitResult.SKIP_SUBTREE;
+            }
+            if (dir.getParent() != null) {
+              hasSubdirectories.put(dir.getParent(), true);
+            }
+            hasSubdirectories.putIfAbsent(dir, false);
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (!attrs.isRegularFile()) {
+              return FileVisitResult.CONTINUE;
+            }
+            var lastAccess =
+                Math.max(attrs.lastAccessTime().toMillis(), attrs.lastModifiedTime().toMillis());
+            var directory = files.computeIfAbsent(file.getParent(), dir -> new DirectoryFiles());
+            directory.lastAccess = Math.max(directory.lastAccess, lastAccess);
+            var links = CacheDedup.linkCount(file);
+            if (links > 1 && attrs.fileKey() != null) {
+              var inode =
+                  shared.computeIfAbsent(
+                      attrs.fileKey(),
+                      key -> {
+                        used[0] += attrs.size();
+                        return new SharedInode(attrs.size(), links);
+                      });
+              inode.scannedLinks++;
+              inode.treeLinks++;
+              directory.sharedInodes.add(attrs.fileKey());
+            } else {
+              used[0] += attrs.size();
+              directory.bytes += attrs.size();
+            }
+            var name = file.getFileName().toString();
+            if (IN_USE_SUFFIXES.stream().anyMatch(name::endsWith)) {
+              directory.inUse = true;
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) {
+            return FileVisitResult.CONTINUE;
+          }
+        });
+
+    var store = root.resolve(CacheDedup.STORE_DIR);
+    if (!shared.isEmpty() && Files.isDirectory(store)) {
+      Files.walkFileTree(
+          store,
+          new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+              Optional.ofNullable(attrs.fileKey())
+                  .map(shared::get)
+                  .ifPresent(inode -> inode.storeCopies.add(file));
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+              return FileVisitResult.CONTINUE;
+            }
+          });
+    }
+
+    files.forEach(
+        (dir, directory) -> {
+          if (!dir.equals(root) && !hasSubdirectories.getOrDefault(dir, false)) {
+            entries.add(
+                new Entry(
+                    dir,
+                    directory.bytes,
+                    List.copyOf(directory.sharedInodes),
+                    Instant.ofEpochMilli(directory.lastAccess),
+                    directory.inUse));
+          }
+        });
+    return used[0];
+  }
+
+  /**
+   * Drop the links of an evicted entry to shared inodes. An inode no longer linked from the tree
+   * loses its store copy too, and its bytes are freed once no link is left.
+   *
+   * @return bytes freed
+   */
+  private static long release(List<Object> sharedInodes, Map<Object, SharedInode> shared) {
+    var freed = 0L;
+    for (var key : sharedInodes) {
+      var inode = shared.get(key);
+      if (--inode.treeLinks > 0 || inode.links - inode.scannedLinks != inode.storeCopies.size()) {
+        // Still linked from the tree, or from outside the tree and the store
+        continue;
+      }
+      var deleted = 0;
+      for (var copy : inode.storeCopies) {
+        try {
+          Files.deleteIfExists(copy);
+          deleted++;
+        } catch (IOException e) {
+          // Pruned by the next deduplication run
+        }
+      }
+      if (deleted == inode.storeCopies.size()) {
+        freed += inode.size;
+      }
+    }
+    return freed;
+  }
+
+  private static boolean evict(Path directory, Path trash) {
+    var target = trash.resolve(UUID.randomUUID().toString());
+    try {
+      Files.move(directory, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // Busy or vanished entry: leave it to the next run
+      return false;
+    }
+    try {
+      deleteTree(target);
+    } catch (IOException e) {
+      System.err.println("Unable to delete evicted entry " + target + ": " + e.getMessage());
+    }
+    return true;
+  }
+
+  static void deleteTree(Path root) throws IOException {
+    Files.walkFileTree(
+        root,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+              throws IOException {
+            Files.delete(file);
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+            Files.delete(dir);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  private static long elapsedMillis(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
@@ -0,0 +1,144 @@
+package org.shadok.operator.util.cache;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Single-writer merge of the per-pod overlay layers back into the shared base cache.
+ *
+ * <p>In overlay mode, pods mount the base cache read-only and write new artifacts to a local layer.
+ * A sidecar stages what it downloaded under {@code .shadok/incoming/<pod>/}: each sync is written
+ * to a {@code .batch-*} directory and renamed to its final name once complete, so a partially
+ * staged batch is never merged.
+ *
+ * <p>This merge is the only writer of the base tree. Files of complete batches are moved into place
+ * with an atomic rename (incoming and base share the volume), existing files are never overwritten,
+ * and lock or partial download files are dropped. Batches left incomplete by a pod that died, and
+ * incoming directories of pods gone for longer than {@code abandonAfter}, are discarded.
+ */
+public final class CacheOverlayMerge {
+
+  /** Per-pod staging directories, relative to the cache root. */
+  public static final String INCOMING_DIR = CacheGc.STATE_DIR + "/incoming";
+
+  /** Prefix of batches still being staged. */
+  public static final String PARTIAL_BATCH_PREFIX = ".batch-";
+
+  /** Outcome of a merge. */
+  public record Result(
+      int batches,
+      long mergedFiles,
+      long mergedBytes,
+      long duplicateFiles,
+      int discardedBatches,
+      long durationMillis) {}
+
+  private CacheOverlayMerge() {
+    // Utility class
+  }
+
+  /**
+   * Merge every complete staged batch into the base tree.
+   *
+   * @param root cache volume mount point
+   * @param abandonAfter age after which incomplete batches and idle pod directories are discarded
+   * @param now reference time for {@code abandonAfter}
+   * @return what was merged
+   */
+  public static Result merge(Path root, Duration abandonAfter, Instant now) throws IOException {
+    var start = System.nanoTime();
+    var incoming = root.resolve(INCOMING_DIR);
+    var counters = new long[3];
+    var batches = 0;
+    var discarded = 0;
+    var abandonedBefore = now.minus(abandonAfter);
+
+    for (var podDir : list(incoming)) {
+      if (!Files.isDirectory(podDir)) {
+        continue;
+      }
+      for (var batch : list(podDir)) {
+        var name = batch.getFileName().toString();
+        if (name.startsWith(PARTIAL_BATCH_PREFIX)) {
+          if (lastModified(batch).isBefore(abandonedBefore)) {
+            CacheGc.deleteTree(batch);
+            discarded++;
+          }
+          continue;
+        }
+        mergeBatch(batch, root, counters);
+        CacheGc.deleteTree(batch);
+        batches++;
+      }
+      if (list(podDir).isEmpty() && lastModified(podDir).isBefore(abandonedBefore)) {
+        Files.deleteIfExists(podDir);
+      }
+    }
+    return new Result(
+        batches,
+        counters[0],
+        counters[1],
+        counters[2],
+        discarded,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /** Move the files of a batch to the same relative path in the base tree. */
+  private static void mergeBatch(Path batch, Path root, long[] counters) throws IOException {
+    Files.walkFileTree(
+        batch,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+              throws IOException {
+            if (!attrs.isRegularFile() || isPartial(file)) {
+              return FileVisitResult.CONTINUE;
+            }
+            var target = root.resolve(batch.relativize(file).toString());
+            if (target.startsWith(root.resolve(CacheGc.STATE_DIR)) || Files.exists(target)) {
+              counters[2]++;
+              return FileVisitResult.CONTINUE;
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            counters[0]++;
+            counters[1] += attrs.size();
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) {
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  private static boolean isPartial(Path file) {
+    var name = file.getFileName().toString();
+    return CacheGc.IN_USE_SUFFIXES.stream().anyMatch(name::endsWith);
+  }
+
+  private static List<Path> list(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> children = Files.list(directory)) {
+      return new ArrayList<>(children.sorted().toList());
+    }
+  }
+
+  private static Instant lastModified(Path path) throws IOException {
+    return Files.getLastModifiedTime(path).toInstant();
+  }
+}
@@ -0,0 +1,46 @@
+package org.shadok.operator.util.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+
+/**
+ * Marker of a populated DependencyCache volume.
+ *
+ * <p>Pods waiting for the first population of a cache poll for this file from an init container:
+ * they cannot read the DependencyCache status, but they mount the volume. The marker is written by
+ * a cache tool Job once the writer pod is Ready, and renamed into place so that it is never seen
+ * half written.
+ */
+public final class CachePopulationMarker {
+
+  /** Marker file, relative to the cache root. */
+  public static final String MARKER = CacheGc.STATE_DIR + "/populated";
+
+  /** Written marker. */
+  public record Result(String writer, String markedAt) {}
+
+  private CachePopulationMarker() {
+    // Utility class
+  }
+
+  /**
+   * Mark the cache as populated.
+   *
+   * @param root cache volume mount point
+   * @param writer pod that populated the cache (namespace/name)
+   * @param now marking time
+   * @return the marker content
+   */
+  public static Result mark(Path root, String writer, Instant now) throws IOException {
+    var marker = root.resolve(MARKER);
+    Files.createDirectories(marker.getParent());
+    var partial = marker.resolveSibling(marker.getFileName() + ".part");
+    Files.writeString(partial, writer + " " + now + "\n");
+    Files.move(
+        partial, marker, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    return new Result(writer, now.toString());
+  }
+}
@@ -0,0 +1,355 @@
+package org.shadok.operator.util.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.shadok.operator.model.cache.CacheSnapshotSpec;
+
+/**
+ * Snapshots of a cache volume as content-addressed tar layers.
+ *
+ * <p>A snapshot store (a volume shared by the caches to seed) holds the layers in {@code
+ * blobs/sha256/<digest>.tar} and one manifest per snapshot in {@code manifests/<name>.json}. Each
+ * top-level directory of the cache volume ({@code .m2}, {@code .gradle}, {@code .npm}, ...) is one
+ * layer, the files at the volume root another one. Layers are reproducible (sorted entries,
+ * normalized ownership), so an unchanged subtree keeps its digest and its blob is shared by all the
+ * snapshots holding it.
+ *
+ * <p>Both directions are incremental. Export compares a fingerprint of each subtree (paths, sizes
+ * and modification times) with the previous manifest of the snapshot and reuses the layer when it
+ * is unchanged, without reading the files. Import records the digest of each imported layer on the
+ * cache volume and only extracts the layers that changed since.
+ */
+public final class CacheSnapshot {
+
+  static final String BLOB_DIR = "blobs/sha256";
+  static final String MANIFEST_DIR = "manifests";
+
+  /** Layer of the files at the volume root. */
+  static final String ROOT_LAYER = ".";
+
+  /** Unreferenced blobs younger than this may belong to an export in progress. */
+  private static final Duration BLOB_GRACE = Duration.ofHours(1);
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /** Snapshot manifest. */
+  public record Manifest(String name, String createdAt, List<Layer> layers) {}
+
+  /** Tar layer of a top-level subtree. */
+  public record Layer(
+      String subtree, String digest, long sizeBytes, long files, String fingerprint) {}
+
+  /** Outcome of an export or an import. */
+  public record Result(
+      String snapshot,
+      int layers,
+      int transferredLayers,
+      int reusedLayers,
+      long transferredBytes,
+      long snapshotBytes,
+      long files,
+      long durationMillis) {}
+
+  private CacheSnapshot() {
+    // Utility class
+  }
+
+  /**
+   * Export a cache volume to a snapshot, replacing its previous manifest.
+   *
+   * @param root cache volume mount point
+   * @param store snapshot store mount point
+   * @param name snapshot name
+   * @param now creation time recorded in the manifest
+   * @return the layers written and reused
+   */
+  public static Result export(Path root, Path store, String name, Instant now) throws IOException {
+    var start = System.nanoTime();
+    var blobs = Files.createDirectories(store.resolve(BLOB_DIR));
+    var previous =
+        readManifest(store, name).stream()
+            .flatMap(manifest -> manifest.layers().stream())
+            .collect(
+                HashMap<String, Layer>::new,
+                (layers, layer) -> layers.put(layer.subtree(), layer),
+                Map::putAll);
+
+    var layers = new ArrayList<Layer>();
+    var written = 0;
+    var writtenBytes = 0L;
+    for (var subtree : subtrees(root)) {
+      var entries = entries(root, subtree);
+      var fingerprint = fingerprint(entries);
+      var reused =
+          Optional.ofNullable(previous.get(subtree))
+              .filter(layer -> layer.fingerprint().equals(fingerprint))
+              .filter(layer -> Files.isRegularFile(blob(store, layer.digest())));
+      if (reused.isPresent()) {
+        layers.add(reused.get());
+        continue;
+      }
+      var layer = writeLayer(root, blobs, subtree, entries, fingerprint);
+      layers.add(layer);
+      written++;
+      writtenBytes += layer.sizeBytes();
+    }
+
+    var manifest = new Manifest(name, now.toString(), List.copyOf(layers));
+    var manifests = Files.createDirectories(store.resolve(MANIFEST_DIR));
+    var partial = manifests.resolve("." + name + "." + UUID.randomUUID() + ".part");
+    Files.writeString(partial, MAPPER.writeValueAsString(manifest));
+    Files.move(
+        partial,
+        manifests.resolve(name + ".json"),
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    pruneBlobs(store, now);
+
+    return new Result(
+        name,
+        layers.size(),
+        written,
+        layers.size() - written,
+        writtenBytes,
+        layers.stream().mapToLong(Layer::sizeBytes).sum(),
+        layers.stream().mapToLong(Layer::files).sum(),
+        elapsedMillis(start));
+  }
+
+  /**
+   * Import a snapshot into a cache volume. Files of the volume that are not in the snapshot are
+   * kept.
+   *
+   * @param root cache volume mount point
+   * @param store snapshot store mount point
+   * @param name snapshot name
+   * @return the layers extracted and skipped
+   */
+  public static Result importInto(Path root, Path store, String name) throws IOException {
+    var start = System.nanoTime();
+    var manifest =
+        readManifest(store, name)
+            .orElseThrow(() -> new IllegalArgumentException("No snapshot named " + name));
+    var statePath = root.resolve(CacheGc.STATE_DIR).resolve("snapshots").resolve(name + ".json");
+    var imported = new HashMap<String, String>();
+    if (Files.isRegularFile(statePath)) {
+      imported.putAll(
+          MAPPER.readValue(statePath.toFile(), new TypeReference<Map<String, String>>() {}));
+    }
+
+    var transferred = 0;
+    var transferredBytes = 0L;
+    var files = 0L;
+    for (var layer : manifest.layers()) {
+      if (layer.digest().equals(imported.get(layer.subtree()))) {
+        continue;
+      }
+      // Checked before extraction: a corrupt layer must not overwrite files of the live cache
+      var blob = blob(store, layer.digest());
+      if (!TarLayer.digest(blob).equals(layer.digest())) {
+        throw new IOException("Corrupt layer " + layer.digest() + " of snapshot " + name);
+      }
+      try (var in = FileChannel.open(blob, StandardOpenOption.READ)) {
+        var reader = new TarLayer.Reader(in);
+        files += reader.extractTo(root);
+        if (!reader.digest().equals(layer.digest())) {
+          throw new IOException("Layer " + layer.digest() + " changed while being extracted");
+        }
+      }
+      transferred++;
+      transferredBytes += layer.sizeBytes();
+      imported.put(layer.subtree(), layer.digest());
+      writeState(statePath, imported);
+    }
+
+    return new Result(
+        name,
+        manifest.layers().size(),
+        transferred,
+        manifest.layers().size() - transferred,
+        transferredBytes,
+        manifest.layers().stream().mapToLong(Layer::sizeBytes).sum(),
+        files,
+        elapsedMillis(start));
+  }
+
+  static Optional<Manifest> readManifest(Path store, String name) throws IOException {
+    if (!CacheSnapshotSpec.isValidName(name)) {
+      throw new IllegalArgumentException("Invalid snapshot name: " + name);
+    }
+    var path = store.resolve(MANIFEST_DIR).resolve(name + ".json");
+    return Files.isRegularFile(path)
+        ? Optional.of(MAPPER.readValue(path.toFile(), Manifest.class))
+        : Optional.empty();
+  }
+
+  static Path blob(Path store, String digest) {
+    return store.resolve(BLOB_DIR).resolve(digest + ".tar");
+  }
+
+  /** Top-level subtrees of the volume, sorted; the root layer first when there are loose files. */
+  private static List<String> subtrees(Path root) throws IOException {
+    var subtrees = new ArrayList<String>();
+    var loose = false;
+    try (Stream<Path> children = Files.list(root)) {
+      for (var child : children.sorted().toList()) {
+        var name = child.getFileName().toString();
+        if (name.equals(CacheGc.STATE_DIR)) {
+          continue;
+        }
+        if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+          subtrees.add(name);
+        } else if (isArchived(name)) {
+          loose = true;
+        }
+      }
+    }
+    if (loose) {
+      subtrees.addFirst(ROOT_LAYER);
+    }
+    return subtrees;
+  }
+
+  /** Entries of a layer in archive order. */
+  private static List<TarLayer.Entry> entries(Path root, String subtree) throws IOException {
+    var paths = new ArrayList<Path>();
+    if (subtree.equals(ROOT_LAYER)) {
+      try (Stream<Path> children = Files.list(root)) {
+        children
+            .filter(child -> !Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS))
+            .forEach(paths::add);
+      }
+    } else {
+      try (Stream<Path> tree = Files.walk(root.resolve(subtree))) {
+        tree.forEach(paths::add);
+      }
+    }
+    var entries = new ArrayList<TarLayer.Entry>();
+    for (var path : paths) {
+      try {
+        var attrs =
+            Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if ((attrs.isRegularFile() && isArchived(path.getFileName().toString()))
+            || attrs.isDirectory()
+            || attrs.isSymbolicLink()) {
+          entries.add(TarLayer.entry(root, path));
+        }
+      } catch (NoSuchFileException e) {
+        // Removed while walking (e.g. evicted): not part of the snapshot
+      }
+    }
+    entries.sort(Comparator.comparing(TarLayer.Entry::path));
+    return entries;
+  }
+
+  /** Lock and partial download files of running builds are not part of snapshots. */
+  private static boolean isArchived(String fileName) {
+    return CacheGc.IN_USE_SUFFIXES.stream().noneMatch(fileName::endsWith);
+  }
+
+  private static String fingerprint(List<TarLayer.Entry> entries) {
+    var digest = TarLayer.sha256();
+    for (var entry : entries) {
+      digest.update(
+          (entry.path()
+                  + '\0'
+                  + entry.type()
+                  + '\0'
+                  + entry.mode()
+                  + '\0'
+                  + entry.size()
+                  + '\0'
+                  + entry.mtimeSeconds()
+                  + '\0'
+                  + entry.linkTarget()
+                  + '\n')
+              .getBytes(StandardCharsets.UTF_8));
+    }
+    return TarLayer.hex(digest);
+  }
+
+  private static Layer writeLayer(
+      Path root, Path blobs, String subtree, List<TarLayer.Entry> entries, String fingerprint)
+      throws IOException {
+    var partial = blobs.resolve("." + UUID.randomUUID() + ".part");
+    try {
+      String digest;
+      long size;
+      try (var out =
+          FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        var writer = new TarLayer.Writer(out);
+        for (var entry : entries) {
+          writer.add(root, entry);
+        }
+        digest = writer.finish();
+        size = writer.written();
+      }
+      var blob = blobs.resolve(digest + ".tar");
+      if (Files.exists(blob)) {
+        // Same content exported by another cache or an earlier run
+        Files.setLastModifiedTime(blob, Files.getLastModifiedTime(partial));
+      } else {
+        Files.move(partial, blob, StandardCopyOption.ATOMIC_MOVE);
+      }
+      var files = entries.stream().filter(e -> e.type() == TarLayer.Type.FILE).count();
+      return new Layer(subtree, digest, size, files, fingerprint);
+    } finally {
+      Files.deleteIfExists(partial);
+    }
+  }
+
+  /** Delete the blobs no manifest references any more. */
+  private static void pruneBlobs(Path store, Instant now) throws IOException {
+    var referenced = new HashSet<String>();
+    try (Stream<Path> manifests = Files.list(store.resolve(MANIFEST_DIR))) {
+      for (var path : manifests.filter(p -> p.toString().endsWith(".json")).toList()) {
+        MAPPER.readValue(path.toFile(), Manifest.class).layers().stream()
+            .map(layer -> layer.digest() + ".tar")
+            .forEach(referenced::add);
+      }
+    }
+    var before = now.minus(BLOB_GRACE);
+    try (Stream<Path> blobs = Files.list(store.resolve(BLOB_DIR))) {
+      for (var blob : blobs.toList()) {
+        if (!referenced.contains(blob.getFileName().toString())
+            && Files.getLastModifiedTime(blob).toInstant().isBefore(before)) {
+          Files.deleteIfExists(blob);
+        }
+      }
+    }
+  }
+
+  private static void writeState(Path statePath, Map<String, String> imported) throws IOException {
+    Files.createDirectories(statePath.getParent());
+    var partial = statePath.resolveSibling(statePath.getFileName() + ".part");
+    Files.writeString(partial, MAPPER.writeValueAsString(imported));
+    Files.move(
+        partial, statePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private static long elapsedMillis(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
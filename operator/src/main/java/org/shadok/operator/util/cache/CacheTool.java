@@ -0,0 +1,162 @@
+package org.shadok.operator.util.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.shadok.operator.model.ApplicationType;
+
+/**
+ * Command line entry point of the cache tool Jobs.
+ *
+ * <p>The operator image runs this class (outside of Quarkus) in Jobs that mount a cache or source
+ * volume, with the arguments {@code cache-tool <task> --option value ...} handed over by {@link
+ * org.shadok.operator.OperatorMain} in both the JVM and the native image. The task report is
+ * written as JSON to the container termination message, where the reconcilers read it back.
+ */
+public final class CacheTool {
+
+  /** First argument of the operator image running the cache tool instead of the operator. */
+  public static final String COMMAND = "cache-tool";
+
+  /** Where Kubernetes picks up the termination message (limited to 4096 bytes). */
+  static final String REPORT_PATH_ENV = "SHADOK_REPORT_PATH";
+
+  private static final String DEFAULT_REPORT_PATH = "/dev/termination-log";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private CacheTool() {
+    // Entry point only
+  }
+
+  public static void main(String[] args) {
+    if (args.length == 0) {
+      System.err.println("Usage: CacheTool <task> [--option value ...]");
+      System.exit(2);
+    }
+    try {
+      var report = run(args[0], Options.parse(args));
+      var json = MAPPER.writeValueAsString(report);
+      System.out.println(json);
+      writeReport(json);
+    } catch (Exception e) {
+      System.err.println("Cache tool task '" + args[0] + "' failed: " + e);
+      writeReport(String.valueOf(e.getMessage()));
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Run a task.
+   *
+   * @param task task name
+   * @param options task options
+   * @return the task report, serialized as JSON
+   */
+  static Object run(String task, Options options) throws Exception {
+    return switch (task) {
+      case "fingerprint" ->
+          ManifestFingerprint.compute(
+                  options.path("root"), ApplicationType.valueOf(options.required("type")))
+              .orElse(new ManifestFingerprint.Result(null, List.of(), Map.of()));
+      case "usage" ->
+          CacheUsage.measure(
+              options.path("root"),
+              options
+                  .optional("parallelism")
+                  .map(Integer::parseInt)
+                  .orElse(Runtime.getRuntime().availableProcessors()));
+      case "gc" ->
+          CacheGc.collect(
+              options.path("root"),
+              new CacheGc.Settings(
+                  Long.parseLong(options.required("capacity-bytes")),
+                  Integer.parseInt(options.required("high")),
+                  Integer.parseInt(options.required("low")),
+                  Duration.ofMinutes(Long.parseLong(options.required("min-idle-minutes"))),
+                  Instant.now()));
+      case "merge" ->
+          CacheOverlayMerge.merge(
+              options.path("root"),
+              Duration.ofHours(Long.parseLong(options.required("abandon-after-hours"))),
+              Instant.now());
+      case "dedup" ->
+          CacheDedup.deduplicate(
+              options.path("root"),
+              new CacheDedup.Settings(
+                  Duration.ofMinutes(Long.parseLong(options.required("grace-minutes"))),
+                  Long.parseLong(options.required("min-file-bytes")),
+                  Integer.parseInt(options.required("parallelism")),
+                  Instant.now()));
+      case "snapshot-export" ->
+          CacheSnapshot.export(
+              options.path("root"), options.path("store"), options.required("name"), Instant.now());
+      case "snapshot-import" ->
+          CacheSnapshot.importInto(
+              options.path("root"), options.path("store"), options.required("name"));
+      case "verify" ->
+          CacheVerify.verify(
+              options.path("root"),
+              new CacheVerify.Settings(
+                  Duration.ofMinutes(Long.parseLong(options.required("grace-minutes"))),
+                  Integer.parseInt(options.required("parallelism")),
+                  Duration.ofHours(Long.parseLong(options.required("quarantine-retention-hours"))),
+                  Instant.now()));
+      case "populated" ->
+          CachePopulationMarker.mark(
+              options.path("root"), options.required("writer"), Instant.now());
+      case "cds-archives" ->
+          CdsArchives.list(
+              CdsArchives.directory(
+                  options.path("root"), options.required("namespace"), options.required("name")),
+              Integer.parseInt(options.required("keep")));
+      case "source-activity" -> SourceActivity.scan(options.path("root"));
+      default -> throw new IllegalArgumentException("Unknown task: " + task);
+    };
+  }
+
+  private static void writeReport(String report) {
+    var path =
+        Path.of(Optional.ofNullable(System.getenv(REPORT_PATH_ENV)).orElse(DEFAULT_REPORT_PATH));
+    try {
+      if (Files.isWritable(path) || Files.isWritable(path.toAbsolutePath().getParent())) {
+        Files.writeString(path, report);
+      }
+    } catch (Exception e) {
+      System.err.println("Unable to write the task report to " + path + ": " + e.getMessage());
+    }
+  }
+
+  /** {@code --name value} options of a task. */
+  record Options(Map<String, String> values) {
+
+    static Options parse(String[] args) {
+      var values = new HashMap<String, String>();
+      for (int i = 1; i < args.length; i++) {
+        if (!args[i].startsWith("--") || i + 1 >= args.length) {
+          throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+        }
+        values.put(args[i].substring(2), args[++i]);
+      }
+      return new Options(Map.copyOf(values));
+    }
+
+    String required(String name) {
+      return optional(name)
+          .orElseThrow(() -> new IllegalArgumentException("Missing option --" + name));
+    }
+
+    Optional<String> optional(String name) {
+      return Optional.ofNullable(values.get(name));
+    }
+
+    Path path(String name) {
+      return Path.of(required(name));
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package org.shadok.operator.util.cache;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disk usage of a cache volume, per ecosystem subtree.
+ *
+ * <p>The build tools keep their caches in top-level directories of the volume ({@code .m2}, {@code
+ * .gradle}, {@code .npm}, {@code .pip}, {@code go}, ...), so each top-level directory is reported
+ * as a subtree. The tree is walked by a fork-join pool, one task per directory: on network volumes
+ * the walk is bound by metadata round trips rather than CPU, and concurrent {@code stat} calls
+ * shorten it considerably.
+ *
+ * <p>Files hardlinked by {@link CacheDedup} count once, in the first subtree that reaches them; the
+ * content-addressed store is scanned last, so that it only holds the bytes no other path links.
+ */
+public final class CacheUsage {
+
+  /** Subtrees reported individually, the smaller ones are folded into {@link #OTHER}. */
+  static final int MAX_SUBTREES = 24;
+
+  /** Name of the subtree gathering the smaller subtrees and the files at the volume root. */
+  public static final String OTHER = "(other)";
+
+  /** Bytes and regular files under a directory and under each of its top-level subtrees. */
+  public record Result(long usedBytes, long files, List<Subtree> subtrees, long scanMillis) {}
+
+  /** Bytes and regular files of a top-level directory. */
+  public record Subtree(String path, long usedBytes, long files) {}
+
+  private record Totals(long bytes, long files) {
+
+    static final Totals ZERO = new Totals(0, 0);
+
+    Totals plus(Totals other) {
+      return new Totals(bytes + other.bytes, files + other.files);
+    }
+  }
+
+  private CacheUsage() {
+    // Utility class
+  }
+
+  /**
+   * Measure a tree using one scanning thread per available processor.
+   *
+   * @see #measure(Path, int)
+   */
+  public static Result measure(Path root) {
+    return measure(root, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Measure the bytes and files under a directory, without following symbolic links.
+   *
+   * @param root directory to measure
+   * @param parallelism number of scanning threads
+   * @return usage of the tree, zero when the directory does not exist
+   */
+  public static Result measure(Path root, int parallelism) {
+    var start = System.nanoTime();
+    if (!Files.isDirectory(root, LinkOption.NOFOLLOW_LINKS)) {
+      return new Result(0, 0, List.of(), 0);
+    }
+
+    var subtrees = new ArrayList<Subtree>();
+    var loose = Totals.ZERO;
+    var seen = ConcurrentHashMap.newKeySet();
+    try (var pool = new ForkJoinPool(Math.max(1, parallelism))) {
+      var tasks = new ArrayList<Scan>();
+      Scan state = null;
+      for (var entry : list(root)) {
+        var attrs = attributes(entry);
+        if (attrs == null) {
+          continue;
+        }
+        if (attrs.isDirectory()) {
+          var scan = new Scan(entry, seen);
+          if (entry.getFileName().toString().equals(CacheGc.STATE_DIR)) {
+            state = scan;
+          } else {
+            tasks.add(scan);
+          }
+        } else if (attrs.isRegularFile()) {
+          loose = loose.plus(new Totals(bytes(entry, attrs, seen), 1));
+        }
+      }
+      tasks.forEach(pool::execute);
+      for (var task : tasks) {
+        var totals = task.join();
+        subtrees.add(
+            new Subtree(task.directory.getFileName().toString(), totals.bytes(), totals.files()));
+      }
+      if (state != null) {
+        var totals = pool.invoke(state);
+        subtrees.add(new Subtree(CacheGc.STATE_DIR, totals.bytes(), totals.files()));
+      }
+    }
+
+    subtrees.sort(
+        Comparator.comparingLong(Subtree::usedBytes).reversed().thenComparing(Subtree::path));
+    var reported = new ArrayList<>(subtrees.subList(0, Math.min(MAX_SUBTREES, subtrees.size())));
+    var other =
+        subtrees.subList(reported.size(), subtrees.size()).stream()
+            .map(subtree -> new Totals(subtree.usedBytes(), subtree.files()))
+            .reduce(loose, Totals::plus);
+    if (other.files() > 0) {
+      reported.add(new Subtree(OTHER, other.bytes(), other.files()));
+    }
+
+    var sum =
+        reported.stream()
+            .map(subtree -> new Totals(subtree.usedBytes(), subtree.files()))
+            .reduce(Totals.ZERO, Totals::plus);
+    return new Result(
+        sum.bytes(),
+        sum.files(),
+        List.copyOf(reported),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /** Sums a directory, forking one task per subdirectory. */
+  private static final class Scan extends RecursiveTask<Totals> {
+
+    private final Path directory;
+    private final Set<Object> seen;
+
+    Scan(Path directory, Set<Object> seen) {
+      this.directory = directory;
+      this.seen = seen;
+    }
+
+    @Override
+    protected Totals compute() {
+      var totals = Totals.ZERO;
+      var children = new ArrayList<Scan>();
+      for (var entry : list(directory)) {
+        var attrs = attributes(entry);
+        if (attrs == null) {
+          continue;
+        }
+        if (attrs.isDirectory()) {
+          var child = new Scan(entry, seen);
+          child.fork();
+          children.add(child);
+        } else if (attrs.isRegularFile()) {
+          totals = totals.plus(new Totals(bytes(entry, attrs, seen), 1));
+        }
+      }
+      for (var child : children) {
+        totals = totals.plus(child.join());
+      }
+      return totals;
+    }
+  }
+
+  /** Size of a regular file, counted for the first of the paths linking its inode. */
+  private static long bytes(Path file, BasicFileAttributes attrs, Set<Object> seen) {
+    if (attrs.fileKey() == null || CacheDedup.linkCount(file) < 2 || seen.add(attrs.fileKey())) {
+      return attrs.size();
+    }
+    return 0;
+  }
+
+  private static List<Path> list(Path directory) {
+    var entries = new ArrayList<Path>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      stream.forEach(entries::add);
+    } catch (IOException e) {
+      // Directories removed while walking (e.g. build temp directories) are simply skipped
+    }
+    return entries;
+  }
+
+  private static BasicFileAttributes attributes(Path path) {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (IOException e) {
+      // Files removed while walking are simply skipped
+      return null;
+    }
+  }
+}
@@ -0,0 +1,395 @@
+package org.shadok.operator.util.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipFile;
+
+/**
+ * Integrity verification of a cache volume.
+ *
+ * <p>Concurrent writers on a shared volume occasionally leave truncated or half-written files
+ * behind, and builds then fail in confusing ways. Each file is checked against what the build tools
+ * recorded about it:
+ *
+ * <ul>
+ *   <li>Maven artifacts against their {@code .sha1} sidecar;
+ *   <li>Gradle {@code files-2.1} artifacts against the SHA-1 naming their directory;
+ *   <li>npm and Yarn {@code cacache} content against the digest its path is made of (the {@code
+ *       integrity} of the package);
+ *   <li>other jars, wheels and zips against their central directory and the CRC-32 of each entry.
+ * </ul>
+ *
+ * <p>The tree is walked by a fork-join pool, one task per directory. Corrupt files are moved to
+ * {@code .shadok/quarantine/<run>/} with their checksum sidecars, so the next build re-fetches only
+ * them; quarantined files are deleted after the retention period. Files modified within the grace
+ * window are left alone, as they may still be written.
+ */
+public final class CacheVerify {
+
+  /** Quarantine directory, relative to the volume root. */
+  public static final String QUARANTINE_DIR = CacheGc.STATE_DIR + "/quarantine";
+
+  /** Corrupt files reported by path, the others are only counted. */
+  static final int MAX_REPORTED = 10;
+
+  private static final Set<String> ZIP_EXTENSIONS = Set.of(".jar", ".war", ".aar", ".whl", ".zip");
+  private static final Map<String, String> CACACHE_ALGORITHMS =
+      Map.of("sha512", "SHA-512", "sha256", "SHA-256", "sha1", "SHA-1");
+  private static final Pattern HEX = Pattern.compile("[0-9a-f]+");
+  private static final int BUFFER_BYTES = 64 * 1024;
+
+  /** Scan limits of a run. */
+  public record Settings(
+      Duration grace, int parallelism, Duration quarantineRetention, Instant now) {}
+
+  /** Outcome of a run. */
+  public record Result(
+      long verifiedFiles,
+      long verifiedBytes,
+      long corruptFiles,
+      List<String> quarantined,
+      long durationMillis,
+      double gigabytesPerSecond) {}
+
+  /** A corrupt file and the modification time it was checked at. */
+  private record Corrupt(Path file, FileTime modified, String reason) {}
+
+  private record Totals(long files, long bytes, List<Corrupt> corrupt) {
+
+    static final Totals ZERO = new Totals(0, 0, List.of());
+
+    Totals plus(Totals other) {
+      var merged = corrupt;
+      if (!other.corrupt.isEmpty()) {
+        merged = new ArrayList<>(corrupt);
+        merged.addAll(other.corrupt);
+      }
+      return new Totals(files + other.files, bytes + other.bytes, merged);
+    }
+  }
+
+  /** Expected content of a file, when the build tools recorded one. */
+  private sealed interface Check {
+
+    record Digest(String algorithm, String hex, boolean stripLeadingZeros) implements Check {}
+
+    record ZipEntries() implements Check {}
+  }
+
+  private CacheVerify() {
+    // Utility class
+  }
+
+  /**
+   * Verify a cache tree and quarantine its corrupt files.
+   *
+   * @param root cache volume mount point
+   * @param settings grace window, verifying threads and quarantine retention
+   * @return what was verified and quarantined
+   */
+  public static Result verify(Path root, Settings settings) throws IOException {
+    var start = System.nanoTime();
+    var quarantine = root.resolve(QUARANTINE_DIR);
+    pruneQuarantine(quarantine, settings.now().minus(settings.quarantineRetention()));
+
+    var recentAfter = FileTime.from(settings.now().minus(settings.grace()));
+    Totals totals;
+    try (var pool = new ForkJoinPool(Math.max(1, settings.parallelism()))) {
+      totals = pool.invoke(new Verify(root, root, recentAfter));
+    }
+
+    var batch = quarantine.resolve(String.valueOf(settings.now().toEpochMilli()));
+    var quarantined = new ArrayList<String>();
+    for (var corrupt : totals.corrupt()) {
+      if (quarantine(root, corrupt, batch)) {
+        var relative = root.relativize(corrupt.file()).toString();
+        System.err.println("Quarantined " + relative + ": " + corrupt.reason());
+        quarantined.add(relative);
+      }
+    }
+
+    var durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    var gigabytesPerSecond =
+        durationMillis == 0
+            ? 0
+            : Math.round(totals.bytes() / 1e9 / (durationMillis / 1e3) * 1000) / 1000.0;
+    return new Result(
+        totals.files(),
+        totals.bytes(),
+        quarantined.size(),
+        List.copyOf(quarantined.subList(0, Math.min(MAX_REPORTED, quarantined.size()))),
+        durationMillis,
+        gigabytesPerSecond);
+  }
+
+  /** Verifies the files of a directory, forking one task per subdirectory. */
+  private static final class Verify extends RecursiveTask<Totals> {
+
+    private final Path root;
+    private final Path directory;
+    private final FileTime recentAfter;
+
+    Verify(Path root, Path directory, FileTime recentAfter) {
+      this.root = root;
+      this.directory = directory;
+      this.recentAfter = recentAfter;
+    }
+
+    @Override
+    protected Totals compute() {
+      var totals = Totals.ZERO;
+      var children = new ArrayList<Verify>();
+      for (var entry : list(directory)) {
+        var attrs = attributes(entry);
+        if (attrs == null) {
+          continue;
+        }
+        if (attrs.isDirectory()) {
+          if (!entry.equals(root.resolve(CacheGc.STATE_DIR))) {
+            var child = new Verify(root, entry, recentAfter);
+            child.fork();
+            children.add(child);
+          }
+        } else if (attrs.isRegularFile() && attrs.lastModifiedTime().compareTo(recentAfter) <= 0) {
+          totals = totals.plus(verifyFile(entry, attrs));
+        }
+      }
+      for (var child : children) {
+        totals = totals.plus(child.join());
+      }
+      return totals;
+    }
+  }
+
+  private static Totals verifyFile(Path file, BasicFileAttributes attrs) {
+    var check = check(file);
+    if (check.isEmpty()) {
+      return Totals.ZERO;
+    }
+    var failure =
+        switch (check.get()) {
+          case Check.Digest digest -> verifyDigest(file, digest);
+          case Check.ZipEntries zipEntries -> verifyZipEntries(file);
+        };
+    return new Totals(
+        1,
+        attrs.size(),
+        failure
+            .map(reason -> List.of(new Corrupt(file, attrs.lastModifiedTime(), reason)))
+            .orElse(List.of()));
+  }
+
+  /** What the build tools recorded about a file, if anything. */
+  private static Optional<Check> check(Path file) {
+    var name = file.getFileName().toString();
+    if (CacheGc.IN_USE_SUFFIXES.stream().anyMatch(name::endsWith) || isSidecar(name)) {
+      return Optional.empty();
+    }
+
+    // Maven: <artifact>.sha1 next to the artifact
+    var sidecar = file.resolveSibling(name + ".sha1");
+    if (Files.isRegularFile(sidecar)) {
+      try {
+        var expected = Files.readString(sidecar).trim().split("\\s+")[0].toLowerCase(Locale.ROOT);
+        if (expected.length() == 40 && HEX.matcher(expected).matches()) {
+          return Optional.of(new Check.Digest("SHA-1", expected, false));
+        }
+      } catch (IOException e) {
+        // Unreadable sidecar: fall back to the other checks
+      }
+    }
+
+    // Gradle: files-2.1/<group>/<module>/<version>/<sha1>/<file>
+    var parent = file.getParent();
+    if (parent != null && hasAncestor(file, "files-2.1")) {
+      var hash = parent.getFileName().toString();
+      if (hash.length() <= 40 && HEX.matcher(hash).matches()) {
+        return Optional.of(new Check.Digest("SHA-1", hash, true));
+      }
+    }
+
+    // cacache (npm, Yarn): content-v2/<algorithm>/<xx>/<yy>/<rest of the hex digest>
+    for (var ancestor = parent; ancestor != null; ancestor = ancestor.getParent()) {
+      var algorithm = ancestor.getFileName() == null ? null : ancestor.getFileName().toString();
+      if (algorithm != null
+          && CACACHE_ALGORITHMS.containsKey(algorithm)
+          && ancestor.getParent() != null
+          && ancestor.getParent().getFileName() != null
+          && ancestor.getParent().getFileName().toString().equals("content-v2")) {
+        var hex =
+            ancestor.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "");
+        if (HEX.matcher(hex).matches()) {
+          return Optional.of(new Check.Digest(CACACHE_ALGORITHMS.get(algorithm), hex, false));
+        }
+        return Optional.empty();
+      }
+    }
+
+    var lower = name.toLowerCase(Locale.ROOT);
+    if (ZIP_EXTENSIONS.stream().anyMatch(lower::endsWith)) {
+      return Optional.of(new Check.ZipEntries());
+    }
+    return Optional.empty();
+  }
+
+  private static Optional<String> verifyDigest(Path file, Check.Digest expected) {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      var digest = MessageDigest.getInstance(expected.algorithm());
+      var buffer = ByteBuffer.allocate(BUFFER_BYTES);
+      while (channel.read(buffer) >= 0) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+      var actual = HexFormat.of().formatHex(digest.digest());
+      var matches =
+          expected.stripLeadingZeros()
+              ? stripLeadingZeros(actual).equals(stripLeadingZeros(expected.hex()))
+              : actual.equals(expected.hex());
+      return matches
+          ? Optional.empty()
+          : Optional.of(expected.algorithm() + " mismatch, expected " + expected.hex());
+    } catch (IOException e) {
+      return Optional.of("unreadable: " + e.getMessage());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Opening a zip reads its central directory, which is what a truncated file lacks; the entries
+   * are then inflated and checked against the CRC-32 the central directory records, which catches a
+   * file corrupted in the middle.
+   */
+  private static Optional<String> verifyZipEntries(Path file) {
+    try (var zip = new ZipFile(file.toFile())) {
+      var buffer = new byte[BUFFER_BYTES];
+      for (var entries = zip.entries(); entries.hasMoreElements(); ) {
+        var entry = entries.nextElement();
+        if (entry.isDirectory()) {
+          continue;
+        }
+        var crc = new CRC32();
+        try (var in = zip.getInputStream(entry)) {
+          for (int read; (read = in.read(buffer)) >= 0; ) {
+            crc.update(buffer, 0, read);
+          }
+        }
+        if (entry.getCrc() != -1 && crc.getValue() != entry.getCrc()) {
+          return Optional.of("CRC-32 mismatch in " + entry.getName());
+        }
+      }
+      return Optional.empty();
+    } catch (IOException e) {
+      return Optional.of("invalid zip: " + e.getMessage());
+    }
+  }
+
+  /** Move a corrupt file and its sidecars to the quarantine, unless it was replaced meanwhile. */
+  private static boolean quarantine(Path root, Corrupt corrupt, Path batch) {
+    try {
+      var current = Files.getLastModifiedTime(corrupt.file(), LinkOption.NOFOLLOW_LINKS);
+      if (!current.equals(corrupt.modified())) {
+        return false;
+      }
+      var target = batch.resolve(root.relativize(corrupt.file()).toString());
+      Files.createDirectories(target.getParent());
+      Files.move(corrupt.file(), target, StandardCopyOption.ATOMIC_MOVE);
+      for (var suffix : List.of(".sha1", ".md5", ".sha256", ".sha512")) {
+        var sidecar = corrupt.file().resolveSibling(corrupt.file().getFileName() + suffix);
+        if (Files.exists(sidecar)) {
+          Files.move(
+              sidecar,
+              target.resolveSibling(target.getFileName() + suffix),
+              StandardCopyOption.ATOMIC_MOVE);
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      System.err.println("Unable to quarantine " + corrupt.file() + ": " + e.getMessage());
+      return false;
+    }
+  }
+
+  private static void pruneQuarantine(Path quarantine, Instant before) throws IOException {
+    if (!Files.isDirectory(quarantine)) {
+      return;
+    }
+    try (Stream<Path> batches = Files.list(quarantine)) {
+      for (var batch : batches.toList()) {
+        var name = batch.getFileName().toString();
+        if (name.chars().allMatch(Character::isDigit)
+            && Instant.ofEpochMilli(Long.parseLong(name)).isBefore(before)) {
+          CacheGc.deleteTree(batch);
+        }
+      }
+    }
+  }
+
+  private static boolean isSidecar(String name) {
+    return name.endsWith(".sha1")
+        || name.endsWith(".md5")
+        || name.endsWith(".sha256")
+        || name.endsWith(".sha512")
+        || name.endsWith(".asc");
+  }
+
+  private static boolean hasAncestor(Path file, String name) {
+    for (var ancestor = file.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+      if (ancestor.getFileName() != null && ancestor.getFileName().toString().equals(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String stripLeadingZeros(String hex) {
+    var stripped = hex.replaceFirst("^0+", "");
+    return stripped.isEmpty() ? "0" : stripped;
+  }
+
+  private static List<Path> list(Path directory) {
+    var entries = new ArrayList<Path>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      stream.forEach(entries::add);
+    } catch (IOException e) {
+      // Directories removed while walking are simply skipped
+    }
+    return entries;
+  }
+
+  private static BasicFileAttributes attributes(Path path) {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (IOException e) {
+      // Files removed while walking are simply skipped
+      return null;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package org.shadok.operator.util.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Application class-data sharing (AppCDS) archives of an Application on its cache volume.
+ *
+ * <p>The webhook starts the JVMs of dev pods with {@code -XX:+AutoCreateSharedArchive} (JDK 19+)
+ * and an archive under {@code .shadok/cds/<namespace>/<application>/}, named after the role of the
+ * JVM, the image, i.e. the JDK, and the pod, seeded from the most recent one of the same role and
+ * image. The JVM dumps the archive at exit when it is missing or stale (a different JDK build or
+ * classpath) and maps it at the next start. This task lists the archives for the status and deletes
+ * the least recently written ones beyond {@code keep}, left behind by deleted pods and previous
+ * images.
+ */
+public final class CdsArchives {
+
+  /** Directory of the archives, relative to the cache root. */
+  public static final String ARCHIVE_DIR = CacheGc.STATE_DIR + "/cds";
+
+  /** Archive file extension. */
+  public static final String EXTENSION = ".jsa";
+
+  /** Archive on the cache volume. */
+  public record Archive(String name, long sizeBytes, String writtenAt) {}
+
+  /** Archives kept, most recently written first, and the names of the deleted ones. */
+  public record Result(List<Archive> archives, List<String> pruned) {}
+
+  private CdsArchives() {
+    // Utility class
+  }
+
+  /**
+   * Archive directory of an Application.
+   *
+   * @param root cache volume mount point
+   * @param namespace namespace of the Application
+   * @param application name of the Application
+   * @return the directory holding its archives
+   */
+  public static Path directory(Path root, String namespace, String application) {
+    return root.resolve(ARCHIVE_DIR).resolve(namespace).resolve(application);
+  }
+
+  /**
+   * List the archives of a directory and delete the oldest ones.
+   *
+   * @param directory archive directory, possibly missing
+   * @param keep number of archives kept
+   * @return the kept and deleted archives
+   */
+  public static Result list(Path directory, int keep) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return new Result(List.of(), List.of());
+    }
+    final List<Path> files;
+    try (var stream = Files.list(directory)) {
+      files =
+          stream
+              .filter(Files::isRegularFile)
+              .filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+              .sorted(Comparator.comparing(CdsArchives::writtenAt).reversed())
+              .toList();
+    }
+    var archives = new ArrayList<Archive>();
+    var pruned = new ArrayList<String>();
+    for (var file : files) {
+      var name = file.getFileName().toString();
+      if (archives.size() < keep) {
+        archives.add(new Archive(name, Files.size(file), writtenAt(file).toInstant().toString()));
+      } else {
+        Files.deleteIfExists(file);
+        pruned.add(name);
+      }
+    }
+    return new Result(List.copyOf(archives), List.copyOf(pruned));
+  }
+
+  private static FileTime writtenAt(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+}
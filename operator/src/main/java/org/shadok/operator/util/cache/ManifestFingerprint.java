@@ -0,0 +1,124 @@
+package org.shadok.operator.util.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.ApplicationTypeHelper;
+
+/**
+ * Content fingerprint of the dependency manifests of a project.
+ *
+ * <p>The manifests are the regular files listed by {@link
+ * ApplicationTypeHelper#getRecommendedInitMounts(ApplicationType)} ({@code pom.xml}, {@code
+ * package-lock.json}, {@code go.sum}, ...); source directories are ignored and {@code *.csproj}
+ * style patterns are expanded. Two projects with the same build system and byte-identical manifests
+ * get the same fingerprint. The digest of each manifest is reported as well, so that successive
+ * results can be compared manifest by manifest.
+ */
+public final class ManifestFingerprint {
+
+  private static final String WORKSPACE = "/workspace/";
+
+  /**
+   * Fingerprint, the manifests (relative to the project root) it was computed from and the SHA-256
+   * of each of them.
+   */
+  public record Result(String fingerprint, List<String> manifests, Map<String, String> digests) {}
+
+  private ManifestFingerprint() {
+    // Utility class
+  }
+
+  /**
+   * Fingerprint the manifests of a project.
+   *
+   * @param root project root, mounted at {@code /workspace} in application pods
+   * @param type application type selecting the manifests
+   * @return the fingerprint, empty when the project has none of the expected manifests
+   */
+  public static Optional<Result> compute(Path root, ApplicationType type) {
+    var manifests =
+        ApplicationTypeHelper.getRecommendedInitMounts(type).stream()
+            .filter(mount -> mount.startsWith(WORKSPACE))
+            .map(mount -> mount.substring(WORKSPACE.length()))
+            .flatMap(pattern -> resolve(root, pattern))
+            .filter(Files::isRegularFile)
+            .map(path -> root.relativize(path).toString())
+            .distinct()
+            .sorted()
+            .toList();
+    if (manifests.isEmpty()) {
+      return Optional.empty();
+    }
+
+    var digest = sha256();
+    var digests = new TreeMap<String, String>();
+    digest.update(type.getBuildSystem().getBytes());
+    for (var manifest : manifests) {
+      var content = read(root.resolve(manifest));
+      digest.update((byte) 0);
+      digest.update(manifest.getBytes());
+      digest.update((byte) 0);
+      digest.update(content);
+      digests.put(manifest, HexFormat.of().formatHex(sha256().digest(content)));
+    }
+    return Optional.of(new Result(HexFormat.of().formatHex(digest.digest()), manifests, digests));
+  }
+
+  /**
+   * Manifests added, removed or modified between two results.
+   *
+   * @param previous manifest digests of the previous result
+   * @param current manifest digests of the current result
+   * @return the changed manifests, sorted
+   */
+  public static List<String> changedManifests(
+      Map<String, String> previous, Map<String, String> current) {
+    return Stream.concat(previous.keySet().stream(), current.keySet().stream())
+        .distinct()
+        .filter(manifest -> !Objects.equals(previous.get(manifest), current.get(manifest)))
+        .sorted()
+        .toList();
+  }
+
+  private static Stream<Path> resolve(Path root, String pattern) {
+    if (!pattern.contains("*")) {
+      return Stream.of(root.resolve(pattern));
+    }
+    var matches = new ArrayList<Path>();
+    try (var stream = Files.newDirectoryStream(root, pattern)) {
+      stream.forEach(matches::add);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return matches.stream();
+  }
+
+  private static byte[] read(Path path) {
+    try {
+      return Files.readAllBytes(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
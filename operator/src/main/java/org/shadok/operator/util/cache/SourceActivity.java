@@ -0,0 +1,88 @@
+package org.shadok.operator.util.cache;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Last modification of the sources of a project, used to wake up Applications scaled down while
+ * idle.
+ *
+ * <p>Directories written by builds and tools rather than by developers ({@code target}, {@code
+ * build}, {@code node_modules}, {@code .git}, ...) are skipped: the dev-mode process itself writes
+ * there, and a build is not a source change.
+ */
+public final class SourceActivity {
+
+  private static final Set<String> SKIPPED =
+      Set.of(
+          ".git",
+          ".gradle",
+          ".idea",
+          ".vscode",
+          ".venv",
+          "__pycache__",
+          "build",
+          "dist",
+          "node_modules",
+          "target");
+
+  /** Most recently modified source file, relative to the project root, and the files walked. */
+  public record Result(String modifiedAt, String file, long files) {}
+
+  private SourceActivity() {
+    // Utility class
+  }
+
+  /**
+   * Find the most recently modified source file of a project.
+   *
+   * @param root project root, mounted at {@code /workspace} in application pods
+   * @return the last modification, {@code modifiedAt} is null when the project has no file
+   */
+  public static Result scan(Path root) throws IOException {
+    var visitor =
+        new SimpleFileVisitor<Path>() {
+          Instant latest;
+          Path file;
+          long files;
+
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            return !dir.equals(root) && SKIPPED.contains(dir.getFileName().toString())
+                ? FileVisitResult.SKIP_SUBTREE
+                : FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+            if (attrs.isRegularFile()) {
+              files++;
+              var modified = attrs.lastModifiedTime().toInstant();
+              if (latest == null || modified.isAfter(latest)) {
+                latest = modified;
+                file = path;
+              }
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path path, IOException e) {
+            return FileVisitResult.CONTINUE;
+          }
+        };
+    if (Files.isDirectory(root)) {
+      Files.walkFileTree(root, visitor);
+    }
+    return visitor.latest == null
+        ? new Result(null, null, visitor.files)
+        : new Result(
+            visitor.latest.toString(), root.relativize(visitor.file).toString(), visitor.files);
+  }
+}
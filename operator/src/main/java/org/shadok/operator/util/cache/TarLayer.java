@@ -0,0 +1,496 @@
+package org.shadok.operator.util.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Minimal streaming tar codec (POSIX ustar with PAX path records) for cache snapshot layers.
+ *
+ * <p>Layers must be reproducible so that identical trees get identical digests: entries are written
+ * in the order given by the caller (sorted paths), with the owner and group reset to 0, and only
+ * the type, path, mode, size and modification time of each file. File content is copied between NIO
+ * channels through a single reusable buffer, and both directions compute the SHA-256 of the tar
+ * stream on the fly.
+ */
+final class TarLayer {
+
+  static final int BLOCK = 512;
+
+  private static final int NAME_LENGTH = 100;
+  private static final byte TYPE_FILE = '0';
+  private static final byte TYPE_SYMLINK = '2';
+  private static final byte TYPE_DIRECTORY = '5';
+  private static final byte TYPE_PAX = 'x';
+
+  /** Type of a layer entry. */
+  enum Type {
+    FILE,
+    DIRECTORY,
+    SYMLINK
+  }
+
+  /** Entry of a layer; {@code path} is relative to the volume root, with {@code /} separators. */
+  record Entry(String path, Type type, int mode, long size, long mtimeSeconds, String linkTarget) {}
+
+  private TarLayer() {
+    // Utility class
+  }
+
+  /** Digest of a tar stream, as lower case hexadecimal. */
+  static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static String hex(MessageDigest digest) {
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /** Writes entries to a channel, digesting what is written. */
+  static final class Writer {
+
+    private final WritableByteChannel out;
+    private final MessageDigest digest = sha256();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private long written;
+
+    Writer(WritableByteChannel out) {
+      this.out = out;
+    }
+
+    void add(Path root, Entry entry) throws IOException {
+      var name = entry.type() == Type.DIRECTORY ? entry.path() + "/" : entry.path();
+      var linkTarget = entry.linkTarget() == null ? "" : entry.linkTarget();
+      var pax = new StringBuilder();
+      if (!fits(name)) {
+        pax.append(paxRecord("path", name));
+        name = truncated(name);
+      }
+      if (!fits(linkTarget)) {
+        pax.append(paxRecord("linkpath", linkTarget));
+        linkTarget = truncated(linkTarget);
+      }
+      if (!pax.isEmpty()) {
+        var records = pax.toString().getBytes(StandardCharsets.UTF_8);
+        write(header("././@PaxHeader", TYPE_PAX, 0644, records.length, 0, ""));
+        write(padded(records));
+      }
+      var type =
+          switch (entry.type()) {
+            case FILE -> TYPE_FILE;
+            case DIRECTORY -> TYPE_DIRECTORY;
+            case SYMLINK -> TYPE_SYMLINK;
+          };
+      var size = entry.type() == Type.FILE ? entry.size() : 0;
+      write(header(name, type, entry.mode(), size, entry.mtimeSeconds(), linkTarget));
+      if (entry.type() == Type.FILE) {
+        copyFile(root.resolve(entry.path()), size);
+      }
+    }
+
+    /** Write the end-of-archive marker; returns the SHA-256 of the whole stream. */
+    String finish() throws IOException {
+      write(ByteBuffer.wrap(new byte[2 * BLOCK]));
+      return hex(digest);
+    }
+
+    long written() {
+      return written;
+    }
+
+    private void copyFile(Path file, long size) throws IOException {
+      var remaining = size;
+      try (var in = FileChannel.open(file, StandardOpenOption.READ)) {
+        while (remaining > 0) {
+          buffer.clear();
+          if (remaining < buffer.capacity()) {
+            buffer.limit((int) remaining);
+          }
+          var read = in.read(buffer);
+          if (read < 0) {
+            throw new IOException("File shrank while being archived: " + file);
+          }
+          buffer.flip();
+          remaining -= read;
+          write(buffer);
+        }
+      }
+      var padding = (int) ((BLOCK - size % BLOCK) % BLOCK);
+      if (padding > 0) {
+        write(ByteBuffer.wrap(new byte[padding]));
+      }
+    }
+
+    private void write(ByteBuffer data) throws IOException {
+      digest.update(data.duplicate());
+      while (data.hasRemaining()) {
+        written += out.write(data);
+      }
+    }
+  }
+
+  /** Reads entries from a channel, digesting what is read. */
+  static final class Reader {
+
+    private final ReadableByteChannel in;
+    private final MessageDigest digest = sha256();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    Reader(ReadableByteChannel in) {
+      this.in = in;
+    }
+
+    /**
+     * Extract all entries under a root, each file being written to a temporary sibling and renamed
+     * into place. Parents are created without following links: an entry below a symbolic link of
+     * the tree is rejected.
+     *
+     * @return the number of regular files extracted
+     */
+    long extractTo(Path root) throws IOException {
+      var files = 0L;
+      Map<String, String> pax = Map.of();
+      while (true) {
+        var header = readFully(BLOCK);
+        if (isZero(header)) {
+          readFully(BLOCK);
+          drain();
+          return files;
+        }
+        var type = header[156];
+        var size = octal(header, 124, 12);
+        if (type == TYPE_PAX) {
+          pax = paxRecords(new String(readBlocks(size), StandardCharsets.UTF_8));
+          continue;
+        }
+        var name = pax.getOrDefault("path", string(header, 0, NAME_LENGTH));
+        var linkTarget = pax.getOrDefault("linkpath", string(header, 157, NAME_LENGTH));
+        pax = Map.of();
+        var target = resolve(root, name);
+        createDirectories(root, target.getParent());
+        var mtime = FileTime.fromMillis(octal(header, 136, 12) * 1000);
+        var mode = (int) octal(header, 100, 8);
+        switch (type) {
+          case TYPE_DIRECTORY -> createDirectories(root, target);
+          case TYPE_SYMLINK -> {
+            // Links may not point outside of the root: only leading parent components are allowed,
+            // which walk up real directories, so that a chain of links cannot escape either
+            if (!isContained(target.getParent(), linkTarget, root)) {
+              throw new IOException("Invalid layer link: " + name + " -> " + linkTarget);
+            }
+            Files.deleteIfExists(target);
+            Files.createSymbolicLink(target, Path.of(linkTarget));
+          }
+          case TYPE_FILE, 0 -> {
+            var partial =
+                target.resolveSibling(
+                    "." + target.getFileName() + "." + UUID.randomUUID() + ".part");
+            try {
+              try (var out =
+                  FileChannel.open(
+                      partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                copy(size, out);
+              }
+              Files.setLastModifiedTime(partial, mtime);
+              setMode(partial, mode);
+              Files.move(
+                  partial,
+                  target,
+                  StandardCopyOption.ATOMIC_MOVE,
+                  StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+              Files.deleteIfExists(partial);
+            }
+            files++;
+          }
+          default -> readBlocks(size);
+        }
+      }
+    }
+
+    /** SHA-256 of everything read so far. */
+    String digest() {
+      return hex(digest);
+    }
+
+    private void copy(long size, FileChannel out) throws IOException {
+      var remaining = size;
+      while (remaining > 0) {
+        buffer.clear();
+        if (remaining < buffer.capacity()) {
+          buffer.limit((int) remaining);
+        }
+        read(buffer);
+        buffer.flip();
+        remaining -= buffer.remaining();
+        while (buffer.hasRemaining()) {
+          out.write(buffer);
+        }
+      }
+      var padding = (int) ((BLOCK - size % BLOCK) % BLOCK);
+      readFully(padding);
+    }
+
+    private byte[] readBlocks(long size) throws IOException {
+      var data = readFully((int) size);
+      readFully((int) ((BLOCK - size % BLOCK) % BLOCK));
+      return data;
+    }
+
+    private byte[] readFully(int length) throws IOException {
+      var data = ByteBuffer.allocate(length);
+      read(data);
+      return data.array();
+    }
+
+    /** Fill the buffer up to its limit, digesting the bytes read. */
+    private void read(ByteBuffer target) throws IOException {
+      var start = target.position();
+      while (target.hasRemaining()) {
+        if (in.read(target) < 0) {
+          throw new IOException("Truncated layer");
+        }
+      }
+      var read = target.duplicate().flip().position(start);
+      digest.update(read);
+    }
+
+    /** Digest the trailing padding some writers add after the end-of-archive marker. */
+    private void drain() throws IOException {
+      buffer.clear();
+      while (in.read(buffer) >= 0) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+  }
+
+  /** SHA-256 of a layer file, to check it before extracting anything. */
+  static String digest(Path layer) throws IOException {
+    var digest = sha256();
+    var buffer = ByteBuffer.allocateDirect(64 * 1024);
+    try (var in = FileChannel.open(layer, StandardOpenOption.READ)) {
+      while (in.read(buffer) >= 0) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+    return hex(digest);
+  }
+
+  /**
+   * Create a directory and its parents under the root, component by component without following
+   * links, so that no entry is ever written through a symbolic link of the tree.
+   */
+  static void createDirectories(Path root, Path directory) throws IOException {
+    var current = root;
+    for (var component : root.relativize(directory)) {
+      current = current.resolve(component);
+      var attrs = attributes(current);
+      if (attrs == null) {
+        Files.createDirectory(current);
+      } else if (!attrs.isDirectory()) {
+        throw new IOException("Layer entry written through a non-directory: " + current);
+      }
+    }
+  }
+
+  private static BasicFileAttributes attributes(Path path) throws IOException {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  /** Whether a relative link target only walks up leading parents and stays under the root. */
+  static boolean isContained(Path directory, String linkTarget, Path root) {
+    var link = Path.of(linkTarget);
+    if (linkTarget.isEmpty() || link.isAbsolute()) {
+      return false;
+    }
+    var descending = false;
+    for (var component : link) {
+      if (component.toString().equals("..")) {
+        if (descending) {
+          return false;
+        }
+      } else {
+        descending = true;
+      }
+    }
+    return directory.resolve(link).normalize().startsWith(root);
+  }
+
+  /** Resolve an entry path, rejecting absolute paths and paths escaping the root. */
+  static Path resolve(Path root, String name) throws IOException {
+    var relative = name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+    var target = root.resolve(relative).normalize();
+    if (relative.isEmpty() || relative.startsWith("/") || !target.startsWith(root)) {
+      throw new IOException("Invalid layer entry: " + name);
+    }
+    return target;
+  }
+
+  /** Entry of a path, relative to the volume root. */
+  static Entry entry(Path root, Path path) throws IOException {
+    var relative = root.relativize(path).toString().replace('\\', '/');
+    var attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    var mtime = attrs.lastModifiedTime().toMillis() / 1000;
+    if (attrs.isSymbolicLink()) {
+      return new Entry(
+          relative, Type.SYMLINK, 0777, 0, mtime, Files.readSymbolicLink(path).toString());
+    }
+    if (attrs.isDirectory()) {
+      return new Entry(relative, Type.DIRECTORY, mode(path, 0755), 0, mtime, null);
+    }
+    return new Entry(relative, Type.FILE, mode(path, 0644), attrs.size(), mtime, null);
+  }
+
+  private static int mode(Path path, int fallback) {
+    try {
+      var mode = 0;
+      for (var permission : Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS)) {
+        mode |= 1 << (8 - permission.ordinal());
+      }
+      return mode;
+    } catch (IOException | UnsupportedOperationException e) {
+      return fallback;
+    }
+  }
+
+  private static void setMode(Path path, int mode) {
+    try {
+      var permissions = EnumSet.noneOf(PosixFilePermission.class);
+      for (var permission : PosixFilePermission.values()) {
+        if ((mode & (1 << (8 - permission.ordinal()))) != 0) {
+          permissions.add(permission);
+        }
+      }
+      Files.setPosixFilePermissions(path, permissions);
+    } catch (IOException | UnsupportedOperationException e) {
+      // Default permissions of the volume
+    }
+  }
+
+  private static ByteBuffer header(
+      String name, byte type, int mode, long size, long mtime, String linkTarget) {
+    var header = new byte[BLOCK];
+    put(header, 0, NAME_LENGTH, name);
+    putOctal(header, 100, 8, mode);
+    putOctal(header, 108, 8, 0);
+    putOctal(header, 116, 8, 0);
+    putOctal(header, 124, 12, size);
+    putOctal(header, 136, 12, mtime);
+    header[156] = type;
+    put(header, 157, NAME_LENGTH, linkTarget);
+    put(header, 257, 6, "ustar");
+    put(header, 263, 2, "00");
+    // Checksum computed with its own field set to spaces
+    for (int i = 148; i < 156; i++) {
+      header[i] = ' ';
+    }
+    var checksum = 0L;
+    for (var b : header) {
+      checksum += b & 0xff;
+    }
+    putOctal(header, 148, 7, checksum);
+    return ByteBuffer.wrap(header);
+  }
+
+  private static String paxRecord(String key, String value) {
+    var payload = " " + key + "=" + value + "\n";
+    var payloadLength = payload.getBytes(StandardCharsets.UTF_8).length;
+    // The length prefix counts its own digits
+    var length = payloadLength + String.valueOf(payloadLength).length();
+    if (String.valueOf(length).length() != String.valueOf(payloadLength).length()) {
+      length++;
+    }
+    return length + payload;
+  }
+
+  private static Map<String, String> paxRecords(String records) {
+    var values = new HashMap<String, String>();
+    for (var record : records.split("\n")) {
+      var keyValue = record.substring(record.indexOf(' ') + 1);
+      var separator = keyValue.indexOf('=');
+      if (separator > 0) {
+        values.put(keyValue.substring(0, separator), keyValue.substring(separator + 1));
+      }
+    }
+    return values;
+  }
+
+  private static boolean fits(String value) {
+    return value.getBytes(StandardCharsets.UTF_8).length <= NAME_LENGTH;
+  }
+
+  private static ByteBuffer padded(byte[] data) {
+    var padded = new byte[(data.length + BLOCK - 1) / BLOCK * BLOCK];
+    System.arraycopy(data, 0, padded, 0, data.length);
+    return ByteBuffer.wrap(padded);
+  }
+
+  /** ASCII prefix of a name carried by a PAX record, for readers ignoring PAX headers. */
+  private static String truncated(String name) {
+    var ascii = name.replaceAll("[^\\x20-\\x7e]", "_");
+    return ascii.substring(0, Math.min(NAME_LENGTH, ascii.length()));
+  }
+
+  private static void put(byte[] header, int offset, int length, String value) {
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    System.arraycopy(bytes, 0, header, offset, Math.min(bytes.length, length));
+  }
+
+  private static void putOctal(byte[] header, int offset, int length, long value) {
+    var octal = String.format("%0" + (length - 1) + "o", value);
+    put(header, offset, length - 1, octal);
+  }
+
+  private static long octal(byte[] header, int offset, int length) {
+    var value = string(header, offset, length).trim();
+    return value.isEmpty() ? 0 : Long.parseLong(value, 8);
+  }
+
+  private static String string(byte[] header, int offset, int length) {
+    var end = offset;
+    while (end < offset + length && header[end] != 0) {
+      end++;
+    }
+    return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+  }
+
+  private static boolean isZero(byte[] block) {
+    for (var b : block) {
+      if (b != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,52 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.Pod;
+import java.util.Optional;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationSpec;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.code.ProjectSource;
+
+/**
+ * A pod of an Application being admitted, with the resources it references.
+ *
+ * @param application the Application named by the pod annotation
+ * @param pod the pod as submitted, before any mutation
+ * @param projectSource the ProjectSource of the Application, when found
+ * @param dependencyCache the DependencyCache mounted by the pod, when found and mountable
+ * @param dryRun whether the admission is a dry run, which mutators must not act upon outside of the
+ *     pod
+ */
+public record AdmittedPod(
+    Application application,
+    Pod pod,
+    Optional<ProjectSource> projectSource,
+    Optional<DependencyCache> dependencyCache,
+    boolean dryRun) {
+
+  public ApplicationSpec spec() {
+    return application.getSpec();
+  }
+
+  public ApplicationType applicationType() {
+    return application.getSpec().applicationType();
+  }
+
+  public String namespace() {
+    return pod.getMetadata().getNamespace();
+  }
+
+  /** Main container as submitted: the first one, which the live-reload mutations transform. */
+  public Optional<Container> mainContainer() {
+    return Optional.ofNullable(pod.getSpec().getContainers()).flatMap(c -> c.stream().findFirst());
+  }
+
+  /** Whether the pod writes to the shared cache volume itself (no overlay, not read-only). */
+  public boolean writesSharedCache() {
+    return dependencyCache
+        .filter(cache -> CacheVolumes.writableLayer(cache, namespace()).isEmpty())
+        .isPresent();
+  }
+}
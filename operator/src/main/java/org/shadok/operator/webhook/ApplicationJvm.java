@@ -0,0 +1,57 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.shadok.operator.model.ApplicationType;
+
+/**
+ * Options of the application JVM forked by the dev-mode command, set by the mutators on the main
+ * container. They go through the argument of the goal or task that configures the forked JVM
+ * ({@code jvm.args} of Quarkus, {@code spring-boot.run.jvmArguments} of Spring Boot), never through
+ * {@code JAVA_TOOL_OPTIONS}, which every JVM of the pod (build daemons, test workers, jcmd) reads.
+ */
+final class ApplicationJvm {
+
+  private ApplicationJvm() {}
+
+  /**
+   * Appends options to the application JVM of a container, merged into the last definition of the
+   * property when the command already sets it. Containers without command (image entrypoint) and
+   * types without such an argument (see {@link ApplicationType#hasApplicationJvmOptions()}) are
+   * left unchanged.
+   */
+  static Container withOptions(
+      Container container, ApplicationType applicationType, String options) {
+    var command = new ArrayList<>(Optional.ofNullable(container.getCommand()).orElse(List.of()));
+    if (command.isEmpty() || !applicationType.hasApplicationJvmOptions()) {
+      return container;
+    }
+    switch (applicationType) {
+      case QUARKUS_MAVEN -> withProperty(command, "-Djvm.args=", options);
+      case SPRING_MAVEN -> withProperty(command, "-Dspring-boot.run.jvmArguments=", options);
+        // --jvm-args is repeatable
+      default ->
+          Arrays.stream(options.split(" "))
+              .map(option -> "--jvm-args=" + option)
+              .forEach(command::add);
+    }
+    return new ContainerBuilder(container).withCommand(command).build();
+  }
+
+  private static void withProperty(List<String> command, String property, String options) {
+    var index =
+        IntStream.range(0, command.size())
+            .filter(i -> command.get(i).startsWith(property))
+            .reduce((first, second) -> second);
+    if (index.isEmpty()) {
+      command.add(property + options);
+    } else {
+      command.set(index.getAsInt(), command.get(index.getAsInt()) + " " + options);
+    }
+  }
+}
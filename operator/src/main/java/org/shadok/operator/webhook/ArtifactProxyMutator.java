@@ -0,0 +1,161 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.shadok.operator.config.ProxyConfig;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.webhook.PodMutatingWebhook.PodMutation;
+
+/**
+ * Points the build tools of dev pods at the in-operator artifact proxy ({@code shadok.proxy.*}):
+ * registry variables on the main container, Maven settings or Gradle init script on the cache (its
+ * writable layer for overlay and read-only caches).
+ */
+@ApplicationScoped
+@Priority(60)
+public class ArtifactProxyMutator implements PodMutator {
+
+  // Artifact proxy: registry settings pointing the build tools at the operator mirror
+  static final String ARTIFACT_PROXY_URL = "SHADOK_ARTIFACT_PROXY_URL";
+  private static final String MAVEN_PROXY_SETTINGS = "/cache/.m2/shadok-artifact-proxy.xml";
+  private static final String GRADLE_PROXY_INIT_SCRIPT =
+      "/cache/.gradle/init.d/shadok-artifact-proxy.gradle";
+
+  /**
+   * Maven settings and Gradle init script read the proxy URL from the environment, so that the
+   * files left on a shared cache volume are inert for pods admitted while the proxy is disabled.
+   */
+  private static final String MAVEN_PROXY_SETTINGS_CONTENT =
+      String.join(
+          "\n",
+          "<settings>",
+          "  <mirrors>",
+          "    <mirror>",
+          "      <id>shadok-artifact-proxy</id>",
+          "      <mirrorOf>central</mirrorOf>",
+          "      <url>${env." + ARTIFACT_PROXY_URL + "}/maven/</url>",
+          "    </mirror>",
+          "  </mirrors>",
+          "</settings>");
+
+  private static final String GRADLE_PROXY_INIT_SCRIPT_CONTENT =
+      String.join(
+          "\n",
+          "def proxy = System.getenv('" + ARTIFACT_PROXY_URL + "')",
+          "if (proxy) {",
+          "  def central = ['repo.maven.apache.org', 'repo1.maven.org']",
+          "  def mirror = { repositories ->",
+          "    repositories.withType(MavenArtifactRepository).configureEach { repository ->",
+          "      if (repository.url.host in central) {",
+          "        repository.url = \"${proxy}/maven/\"",
+          "        repository.allowInsecureProtocol = true",
+          "      }",
+          "    }",
+          "  }",
+          "  settingsEvaluated { settings ->",
+          "    mirror(settings.pluginManagement.repositories)",
+          "    mirror(settings.dependencyResolutionManagement.repositories)",
+          "  }",
+          "  allprojects {",
+          "    mirror(buildscript.repositories)",
+          "    mirror(repositories)",
+          "  }",
+          "}");
+
+  @Inject ProxyConfig proxyConfig;
+
+  @Override
+  public List<PodMutation> mutations(AdmittedPod pod) {
+    var applicationType = pod.applicationType();
+    return artifactProxyUrl()
+        .map(
+            url -> {
+              var mutations = new ArrayList<PodMutation>();
+              mutations.add(
+                  new PodMutation.TransformMainContainer(
+                      container -> withArtifactProxy(container, applicationType, url)));
+              createArtifactProxyConfigContainer(
+                      applicationType, pod.dependencyCache(), pod.namespace())
+                  .map(PodMutation.AddInitContainer::new)
+                  .ifPresent(mutations::add);
+              return List.copyOf(mutations);
+            })
+        .orElse(List.of());
+  }
+
+  private Optional<String> artifactProxyUrl() {
+    return Optional.of(proxyConfig)
+        .filter(ProxyConfig::enabled)
+        .map(config -> config.url().replaceAll("/+$", ""));
+  }
+
+  /** Registry variables of each build tool; variables already set on the container are kept. */
+  static Container withArtifactProxy(
+      Container container, ApplicationType applicationType, String url) {
+    var proxyEnv = new LinkedHashMap<String, String>();
+    switch (applicationType.getBuildSystem()) {
+      case "maven" -> {
+        proxyEnv.put(ARTIFACT_PROXY_URL, url);
+        // Mirrors cannot be set through MAVEN_OPTS system properties, MAVEN_ARGS (Maven 3.9+) adds
+        // the settings file to the command line
+        proxyEnv.put("MAVEN_ARGS", "--global-settings " + MAVEN_PROXY_SETTINGS);
+      }
+      case "gradle" -> proxyEnv.put(ARTIFACT_PROXY_URL, url);
+      case "npm", "yarn" -> proxyEnv.put("NPM_CONFIG_REGISTRY", url + "/npm/");
+      case "pip" -> {
+        proxyEnv.put("PIP_INDEX_URL", url + "/pypi/simple/");
+        proxyEnv.put("PIP_TRUSTED_HOST", URI.create(url).getHost());
+      }
+      default -> {
+        // No mirror for this ecosystem
+      }
+    }
+    var env = new ArrayList<>(Optional.ofNullable(container.getEnv()).orElse(List.of()));
+    var existing = env.stream().map(EnvVar::getName).collect(Collectors.toSet());
+    proxyEnv.forEach(
+        (name, value) -> {
+          if (!existing.contains(name)) {
+            env.add(new EnvVarBuilder().withName(name).withValue(value).build());
+          }
+        });
+    return new ContainerBuilder(container).withEnv(env).build();
+  }
+
+  /** Writes the Maven settings or Gradle init script to the cache volume seen as /cache. */
+  static Optional<Container> createArtifactProxyConfigContainer(
+      ApplicationType applicationType,
+      Optional<DependencyCache> dependencyCache,
+      String podNamespace) {
+    var file =
+        switch (applicationType.getBuildSystem()) {
+          case "maven" ->
+              Optional.of(Map.entry(MAVEN_PROXY_SETTINGS, MAVEN_PROXY_SETTINGS_CONTENT));
+          case "gradle" ->
+              Optional.of(Map.entry(GRADLE_PROXY_INIT_SCRIPT, GRADLE_PROXY_INIT_SCRIPT_CONTENT));
+          default -> Optional.<Map.Entry<String, String>>empty();
+        };
+    return dependencyCache.flatMap(
+        cache ->
+            file.map(
+                entry ->
+                    CacheVolumes.fileContainer(
+                        "artifact-proxy-config",
+                        entry.getKey(),
+                        entry.getValue(),
+                        cache,
+                        podNamespace)));
+  }
+}
@@ -0,0 +1,105 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.Container;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Optional;
+import org.shadok.operator.buildcache.BuildCacheCredentials;
+import org.shadok.operator.config.BuildCacheConfig;
+import org.shadok.operator.webhook.PodMutatingWebhook.PodMutation;
+
+/**
+ * Gradle pods use the operator build cache ({@code shadok.build-cache.*}) as remote cache. Their
+ * URL carries the Application, so that lookups and saved time are reported per Application, and
+ * they authenticate with the credentials of their namespace, which scope the entries they reach.
+ */
+@ApplicationScoped
+@Priority(50)
+public class BuildCacheMutator implements PodMutator {
+
+  // Gradle build cache: remote HttpBuildCache served by the operator
+  static final String BUILD_CACHE_URL = "SHADOK_BUILD_CACHE_URL";
+  static final String BUILD_CACHE_USER = "SHADOK_BUILD_CACHE_USER";
+  static final String BUILD_CACHE_PASSWORD = "SHADOK_BUILD_CACHE_PASSWORD";
+  private static final String GRADLE_BUILD_CACHE_INIT_SCRIPT =
+      "/cache/.gradle/init.d/shadok-build-cache.gradle";
+
+  /** Like the proxy init script, inert for pods admitted while the build cache is disabled. */
+  private static final String GRADLE_BUILD_CACHE_INIT_SCRIPT_CONTENT =
+      String.join(
+          "\n",
+          "def cacheUrl = System.getenv('" + BUILD_CACHE_URL + "')",
+          "if (cacheUrl) {",
+          "  startParameter.buildCacheEnabled = true",
+          "  settingsEvaluated { settings ->",
+          "    settings.buildCache {",
+          "      remote(HttpBuildCache) {",
+          "        url = cacheUrl",
+          "        allowInsecureProtocol = true",
+          "        push = true",
+          "        credentials {",
+          "          username = System.getenv('" + BUILD_CACHE_USER + "')",
+          "          password = System.getenv('" + BUILD_CACHE_PASSWORD + "')",
+          "        }",
+          "      }",
+          "    }",
+          "  }",
+          "}");
+
+  @Inject BuildCacheConfig buildCacheConfig;
+
+  @Override
+  public List<PodMutation> mutations(AdmittedPod pod) {
+    if (!"gradle".equals(pod.applicationType().getBuildSystem())) {
+      return List.of();
+    }
+    var metadata = pod.application().getMetadata();
+    var secret = buildCacheConfig.secret().orElse("");
+    return buildCacheUrl()
+        .flatMap(
+            url ->
+                pod.dependencyCache()
+                    .map(
+                        cache ->
+                            List.<PodMutation>of(
+                                new PodMutation.TransformMainContainer(
+                                    container ->
+                                        withBuildCache(
+                                            container,
+                                            url
+                                                + "/cache/"
+                                                + metadata.getNamespace()
+                                                + "/"
+                                                + metadata.getName()
+                                                + "/",
+                                            metadata.getNamespace(),
+                                            secret)),
+                                new PodMutation.AddInitContainer(
+                                    CacheVolumes.fileContainer(
+                                        "build-cache-config",
+                                        GRADLE_BUILD_CACHE_INIT_SCRIPT,
+                                        GRADLE_BUILD_CACHE_INIT_SCRIPT_CONTENT,
+                                        cache,
+                                        pod.namespace())))))
+        .orElse(List.of());
+  }
+
+  /** The URL and the credentials of the namespace, unless the pod sets its own. */
+  static Container withBuildCache(
+      Container container, String url, String namespace, String secret) {
+    var result = ContainerEnv.withEnvDefault(container, BUILD_CACHE_URL, url);
+    result = ContainerEnv.withEnvDefault(result, BUILD_CACHE_USER, namespace);
+    return ContainerEnv.withEnvDefault(
+        result, BUILD_CACHE_PASSWORD, BuildCacheCredentials.password(secret, namespace));
+  }
+
+  /** Pods are pointed at the build cache only when it is served, that is with a secret. */
+  private Optional<String> buildCacheUrl() {
+    return Optional.of(buildCacheConfig)
+        .filter(BuildCacheConfig::enabled)
+        .filter(config -> config.secret().isPresent())
+        .map(config -> config.url().replaceAll("/+$", ""));
+  }
+}
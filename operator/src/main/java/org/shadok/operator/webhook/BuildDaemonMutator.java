@@ -0,0 +1,157 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.ResourceRequirements;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.shadok.operator.model.application.BuildDaemonSpec;
+import org.shadok.operator.webhook.PodMutatingWebhook.PodMutation;
+
+/** Dev-mode commands of Applications with {@code spec.buildDaemon} run against a warm daemon. */
+@ApplicationScoped
+@Priority(70)
+public class BuildDaemonMutator implements PodMutator {
+
+  // Warm build daemons: registries on the build volume, so that a restarted client finds them. Not
+  // in GRADLE_USER_HOME on the cache volume: it is shared by the pods of every Application and
+  // read-only for most, while a daemon lives and dies with its container, whose registry lists
+  // daemons on the loopback interface of its own pod only
+  private static final String GRADLE_DAEMON_REGISTRY = "/build/.gradle-daemon";
+  private static final String MVND_REGISTRY = "/build/.mvnd/registry.bin";
+
+  // Build client failures in a row after which the container exits, see RESTART_LOOP
+  private static final int MAX_FAILURES = 5;
+
+  /**
+   * Restart loop of the build client, run as PID 1. The client runs in the background so that the
+   * shell can forward SIGTERM to it (the application JVM then exits normally, dumping its CDS
+   * archive) and exit with it instead of waiting for the grace period. A client exiting in error
+   * within a minute of its start counts as a failure; after {@value #MAX_FAILURES} in a row
+   * (missing executable, broken build) the container exits with its status and goes into crash loop
+   * back-off.
+   */
+  private static final String RESTART_LOOP =
+      String.join(
+          " ",
+          "trap 'kill -TERM \"$child\" 2>/dev/null; wait \"$child\"; exit 143' TERM INT;",
+          "failures=0;",
+          "while true; do",
+          "started=$(date +%s);",
+          "\"$@\" & child=$!;",
+          "wait \"$child\"; status=$?;",
+          "if [ \"$status\" -ne 0 ] && [ $(($(date +%s) - started)) -lt 60 ];",
+          "then failures=$((failures + 1)); else failures=0; fi;",
+          "if [ \"$failures\" -ge " + MAX_FAILURES + " ]; then",
+          "echo \"build client failed $failures times in a row ($status), giving up\";",
+          "exit \"$status\";",
+          "fi;",
+          "echo \"build client exited ($status), restarting on the warm daemon\";",
+          "sleep 2;",
+          "done");
+
+  /**
+   * Maven without mvnd in the image: the loop runs {@code mvn} instead, which ignores the {@code
+   * mvnd.*} properties, so that the dev mode still starts without a warm daemon.
+   */
+  private static final String MVND_FALLBACK =
+      String.join(
+          " ",
+          "if ! command -v mvnd > /dev/null 2>&1; then",
+          "echo \"mvnd not found in the image, running mvn without a build daemon\";",
+          "shift; set -- mvn \"$@\";",
+          "fi;");
+
+  @Override
+  public List<PodMutation> mutations(AdmittedPod pod) {
+    // Heap sized from the memory of the container as submitted, before the tmpfs build volume
+    var memory = pod.mainContainer().flatMap(BuildDaemonMutator::memory);
+    return Optional.ofNullable(pod.spec().buildDaemon())
+        .map(
+            daemon ->
+                List.<PodMutation>of(
+                    new PodMutation.TransformMainContainer(
+                        container ->
+                            new ContainerBuilder(container)
+                                .withCommand(
+                                    withBuildDaemon(
+                                        Optional.ofNullable(container.getCommand())
+                                            .orElse(List.of()),
+                                        daemon,
+                                        memory))
+                                .build())))
+        .orElse(List.of());
+  }
+
+  /**
+   * Run the dev-mode command against a warm build daemon: Gradle keeps its daemon instead of {@code
+   * --no-daemon}, Maven runs mvnd. The command runs in a loop, so that when the application exits
+   * (restart requested from the IDE, crash during a reload) the build client is started again
+   * against the daemon, still loaded with the build model, instead of restarting the container. The
+   * loop forwards SIGTERM to the client and gives up after repeated startup failures, see {@link
+   * #RESTART_LOOP}. Maven falls back to {@code mvn} when the image has no mvnd, see {@link
+   * #MVND_FALLBACK}. Commands without a Gradle or Maven executable are left unchanged.
+   *
+   * @param devCommand dev-mode command of the application type
+   * @param daemon daemon settings of the Application
+   * @param memory memory limit (or request) of the container, sizing the daemon heap
+   */
+  static List<String> withBuildDaemon(
+      List<String> devCommand, BuildDaemonSpec daemon, Optional<Quantity> memory) {
+    if (devCommand.isEmpty()) {
+      return devCommand;
+    }
+    var heapMegabytes =
+        memory.map(
+            quantity ->
+                Quantity.getAmountInBytes(quantity)
+                    .multiply(BigDecimal.valueOf(daemon.heapPercent()))
+                    .divide(BigDecimal.valueOf(100L * 1024 * 1024), RoundingMode.DOWN)
+                    .longValue());
+    var executable = devCommand.getFirst();
+    var args = new ArrayList<>(devCommand.subList(1, devCommand.size()));
+    final List<String> command;
+    var script = RESTART_LOOP;
+    switch (executable) {
+      case "./gradlew" -> {
+        args.remove("--no-daemon");
+        command = new ArrayList<>(List.of(executable, "--daemon"));
+        command.add("-Dorg.gradle.daemon.registry.base=" + GRADLE_DAEMON_REGISTRY);
+        command.add(
+            "-Dorg.gradle.daemon.idletimeout="
+                + Duration.ofMinutes(daemon.idleTimeoutMinutes()).toMillis());
+        heapMegabytes.ifPresent(heap -> command.add("-Dorg.gradle.jvmargs=-Xmx" + heap + "m"));
+      }
+      case "mvn" -> {
+        command = new ArrayList<>(List.of("mvnd"));
+        script = MVND_FALLBACK + " " + RESTART_LOOP;
+        command.add("-Dmvnd.registry=" + MVND_REGISTRY);
+        command.add("-Dmvnd.idleTimeout=" + daemon.idleTimeoutMinutes() + "m");
+        command.add("-Dmaven.repo.local=/cache/.m2/repository");
+        heapMegabytes.ifPresent(heap -> command.add("-Dmvnd.maxHeapSize=" + heap + "m"));
+      }
+      default -> {
+        return devCommand;
+      }
+    }
+    command.addAll(args);
+    return Stream.concat(Stream.of("sh", "-c", script, "shadok-dev"), command.stream()).toList();
+  }
+
+  /** Memory limit of a container, or its request without limit. */
+  private static Optional<Quantity> memory(Container container) {
+    var resources = Optional.ofNullable(container.getResources());
+    return resources
+        .map(ResourceRequirements::getLimits)
+        .map(limits -> limits.get("memory"))
+        .or(() -> resources.map(ResourceRequirements::getRequests).map(r -> r.get("memory")));
+  }
+}
@@ -0,0 +1,100 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import io.fabric8.kubernetes.api.model.Volume;
+import io.fabric8.kubernetes.api.model.VolumeBuilder;
+import io.fabric8.kubernetes.api.model.VolumeMountBuilder;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
+import org.shadok.operator.controller.CachePopulation;
+import org.shadok.operator.model.cache.CachePopulationSpec;
+import org.shadok.operator.util.cache.CachePopulationMarker;
+import org.shadok.operator.webhook.PodMutatingWebhook.PodMutation;
+
+/**
+ * Until a cache with {@code spec.population} is populated, pods that write to it wait in an init
+ * container, labelled as candidates of the population. The operator elects one of them as the
+ * writer (annotation read through the downward API): it resolves the dependencies while the next
+ * ones wait for the populated marker. Admission itself has no side effect, so that dry runs and
+ * pods rejected after the webhook never hold the population Lease.
+ */
+@ApplicationScoped
+@Priority(10)
+public class CachePopulationMutator implements PodMutator {
+
+  // Downward API view of the writer annotation, set on the elected pod after its admission
+  private static final String WRITER_DIR = "/etc/shadok/population";
+
+  @Override
+  public List<PodMutation> mutations(AdmittedPod pod) {
+    if (!pod.writesSharedCache()) {
+      return List.of();
+    }
+    return pod.dependencyCache()
+        .filter(CachePopulation::coordinates)
+        .map(
+            cache ->
+                List.<PodMutation>of(
+                    new PodMutation.AddLabel(CachePopulation.LABEL_CANDIDATE, "true"),
+                    new PodMutation.AddAnnotation(
+                        CachePopulation.ANNOTATION_CACHE, CachePopulation.cacheRef(cache)),
+                    new PodMutation.AddVolume("cache-population", createWriterVolume()),
+                    new PodMutation.AddInitContainer(
+                        createCachePopulationGateContainer(cache.getSpec().population()))))
+        .orElse(List.of());
+  }
+
+  private Volume createWriterVolume() {
+    return new VolumeBuilder()
+        .withName("cache-population")
+        .withNewDownwardAPI()
+        .addNewItem()
+        .withPath("writer")
+        .withNewFieldRef()
+        .withFieldPath("metadata.annotations['" + CachePopulation.ANNOTATION_WRITER + "']")
+        .endFieldRef()
+        .endItem()
+        .endDownwardAPI()
+        .build();
+  }
+
+  /**
+   * Waits for the populated marker, then lets the pod start; also when the pod is elected writer
+   * (the kubelet refreshes the annotation file within its sync period) or after the wait timeout.
+   */
+  private Container createCachePopulationGateContainer(CachePopulationSpec population) {
+    return new ContainerBuilder()
+        .withName("cache-population-gate")
+        .withImage("busybox:latest")
+        .withCommand(
+            "sh",
+            "-c",
+            "deadline=$(($(date +%s) + TIMEOUT_SECONDS)); until [ -f \"$MARKER\" ]; do"
+                + " if [ -s \"$WRITER\" ]; then echo \"Elected writer, populating the cache\";"
+                + " exit 0; fi;"
+                + " if [ \"$(date +%s)\" -ge \"$deadline\" ]; then"
+                + " echo \"Cache not populated after ${TIMEOUT_SECONDS}s, resolving\"; exit 0; fi;"
+                + " sleep 2; done")
+        .withEnv(
+            new EnvVarBuilder()
+                .withName("MARKER")
+                .withValue("/cache/" + CachePopulationMarker.MARKER)
+                .build(),
+            new EnvVarBuilder().withName("WRITER").withValue(WRITER_DIR + "/writer").build(),
+            new EnvVarBuilder()
+                .withName("TIMEOUT_SECONDS")
+                .withValue(String.valueOf(population.waitTimeoutMinutes() * 60))
+                .build())
+        .withVolumeMounts(
+            CacheVolumes.baseMount("/cache"),
+            new VolumeMountBuilder()
+                .withName("cache-population")
+                .withMountPath(WRITER_DIR)
+                .withReadOnly(true)
+                .build())
+        .build();
+  }
+}
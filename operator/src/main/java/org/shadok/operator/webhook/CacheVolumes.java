@@ -0,0 +1,96 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import io.fabric8.kubernetes.api.model.VolumeMount;
+import io.fabric8.kubernetes.api.model.VolumeMountBuilder;
+import java.util.Optional;
+import org.shadok.operator.model.cache.CacheOverlaySpec;
+import org.shadok.operator.model.cache.DependencyCache;
+
+/** Mounts of the dependency cache in the containers of Application pods. */
+final class CacheVolumes {
+
+  static final String CACHE_VOLUME = "dependency-cache";
+  // Copy-on-write cache overlay: read-only base layer, local writable layer, staged merge-back
+  static final String CACHE_OVERLAY_VOLUME = "cache-overlay";
+  static final String CACHE_BASE_PATH = "/cache-base";
+
+  private CacheVolumes() {}
+
+  /** Federated caches may be mounted read-only by the consuming namespaces. */
+  static boolean isReadOnly(DependencyCache dependencyCache, String podNamespace) {
+    var federation = dependencyCache.getSpec().federation();
+    return federation != null
+        && federation.readOnly()
+        && !podNamespace.equals(dependencyCache.getMetadata().getNamespace());
+  }
+
+  /**
+   * Local writable layer of the pods that do not write to the cache volume itself: the overlay of
+   * the cache, or a default one for a read-only federated cache, whose volume is only mounted as
+   * the read-only base layer.
+   *
+   * @return the layer settings, empty when the pod writes to the cache volume
+   */
+  static Optional<CacheOverlaySpec> writableLayer(
+      DependencyCache dependencyCache, String podNamespace) {
+    return Optional.ofNullable(dependencyCache.getSpec().overlay())
+        .or(
+            () ->
+                isReadOnly(dependencyCache, podNamespace)
+                    ? Optional.of(new CacheOverlaySpec(null, null, null, null))
+                    : Optional.empty());
+  }
+
+  /** The cache as the containers of a pod write to it, seen as /cache. */
+  static VolumeMount writableMount(DependencyCache dependencyCache, String podNamespace) {
+    return writableLayer(dependencyCache, podNamespace).isPresent() ? overlayMount() : cacheMount();
+  }
+
+  static VolumeMount cacheMount() {
+    return new VolumeMountBuilder()
+        .withName(CACHE_VOLUME)
+        .withMountPath("/cache")
+        .withReadOnly(false)
+        .build();
+  }
+
+  static VolumeMount baseMount(String mountPath) {
+    return new VolumeMountBuilder()
+        .withName(CACHE_VOLUME)
+        .withMountPath(mountPath)
+        .withReadOnly(true)
+        .build();
+  }
+
+  static VolumeMount overlayMount() {
+    return new VolumeMountBuilder()
+        .withName(CACHE_OVERLAY_VOLUME)
+        .withMountPath("/cache")
+        .withReadOnly(false)
+        .build();
+  }
+
+  /**
+   * Init container atomically writing a file to the cache seen as /cache: the writable layer of the
+   * pod when it has one, so that read-only caches are never written.
+   */
+  static Container fileContainer(
+      String name, String target, String content, DependencyCache cache, String podNamespace) {
+    return new ContainerBuilder()
+        .withName(name)
+        .withImage("busybox:latest")
+        .withCommand(
+            "sh",
+            "-c",
+            "mkdir -p \"$(dirname \"$TARGET\")\" && printf '%s\\n' \"$CONTENT\""
+                + " > \"$TARGET.$HOSTNAME\" && mv \"$TARGET.$HOSTNAME\" \"$TARGET\"")
+        .withEnv(
+            new EnvVarBuilder().withName("TARGET").withValue(target).build(),
+            new EnvVarBuilder().withName("CONTENT").withValue(content).build())
+        .withVolumeMounts(writableMount(cache, podNamespace))
+        .build();
+  }
+}
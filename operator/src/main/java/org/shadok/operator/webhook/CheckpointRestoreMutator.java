@@ -0,0 +1,115 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.Capabilities;
+import io.fabric8.kubernetes.api.model.CapabilitiesBuilder;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.SecurityContext;
+import io.fabric8.kubernetes.api.model.SecurityContextBuilder;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.ApplicationSpec;
+import org.shadok.operator.webhook.PodMutatingWebhook.PodMutation;
+
+/**
+ * JVM pods of Applications scaled down while idle can be checkpointed and restored, when their
+ * build volume keeps the checkpoint (see {@link ApplicationSpec#checkpointsWhenIdle()}).
+ */
+@ApplicationScoped
+@Priority(30)
+public class CheckpointRestoreMutator implements PodMutator {
+
+  // Idle scale-down: CRaC checkpoints of the application JVM on the build volume, one per pod
+  public static final String CHECKPOINT_DIR = "/build/crac";
+
+  // Pod UID naming the checkpoint: unlike the name, it changes when a StatefulSet pod is recreated
+  public static final String POD_UID = "SHADOK_POD_UID";
+
+  // CRIU dumps and restores the process tree of the JVM
+  private static final List<String> CRIU_CAPABILITIES = List.of("CHECKPOINT_RESTORE", "SYS_PTRACE");
+
+  @Override
+  public List<PodMutation> mutations(AdmittedPod pod) {
+    return pod.spec().checkpointsWhenIdle()
+        ? List.of(
+            new PodMutation.TransformMainContainer(
+                container -> withCheckpointRestore(container, pod.spec().applicationType())))
+        : List.of();
+  }
+
+  /**
+   * Let the JVM be checkpointed to {@code CHECKPOINT_DIR/<pod uid>} and restore a checkpoint of
+   * another pod at startup. The operator checkpoints the application JVM with {@code jcmd <pid>
+   * JDK.checkpoint} before scaling down; at the next start, the container claims one of the
+   * checkpoints by renaming it, so that replicas sharing the build volume never restore the same
+   * one, and restores it instead of running the dev-mode command. The checkpoint of the pod itself
+   * is never restored: when the checkpointed JVM exits and the container restarts before the
+   * workload is scaled down, it starts cold and leaves the checkpoint to the pods of the wake-up. A
+   * claimed checkpoint is deleted once the restored JVM exits; when the restore fails (JDK without
+   * CRaC, other image) or the restored JVM exits, the dev-mode command starts as usual, and SIGTERM
+   * is forwarded to the restored JVM. {@code -XX:CRaCCheckpointTo} only goes to the application JVM
+   * (see {@link ApplicationJvm}), which is how the operator tells it from the build tool JVMs. The
+   * container gets the capabilities CRIU needs. Containers without command (image entrypoint) are
+   * left unchanged.
+   *
+   * @param container main container, after the live-reload transformation
+   * @param applicationType type of the Application, picking the application JVM argument
+   */
+  static Container withCheckpointRestore(Container container, ApplicationType applicationType) {
+    var command = Optional.ofNullable(container.getCommand()).orElse(List.of());
+    if (command.isEmpty()) {
+      return container;
+    }
+    var restore = CHECKPOINT_DIR + ".restore/$" + POD_UID;
+    var script =
+        String.join(
+            " ",
+            "trap 'kill -TERM \"$child\" 2>/dev/null; wait \"$child\"; exit 143' TERM INT;",
+            "for image in " + CHECKPOINT_DIR + "/*; do",
+            "[ -d \"$image\" ] && [ \"$image\" != \"" + CHECKPOINT_DIR + "/$" + POD_UID + "\" ]",
+            "|| continue;",
+            "mkdir -p " + CHECKPOINT_DIR + ".restore && rm -rf \"" + restore + "\";",
+            "mv \"$image\" \"" + restore + "\" 2>/dev/null || continue;",
+            "echo \"shadok: restoring JVM from checkpoint $image\";",
+            "env -u JAVA_TOOL_OPTIONS java -XX:CRaCRestoreFrom=\"" + restore + "\" & child=$!;",
+            "wait \"$child\" || echo \"shadok: restore failed, starting cold\";",
+            "rm -rf \"" + restore + "\";",
+            "break;",
+            "done;",
+            "exec \"$@\"");
+    var wrapped = new ArrayList<>(List.of("sh", "-c", script, "shadok-restore"));
+    wrapped.addAll(command);
+    var securityContext =
+        new SecurityContextBuilder(
+                Optional.ofNullable(container.getSecurityContext()).orElse(new SecurityContext()))
+            .build();
+    var capabilities =
+        new CapabilitiesBuilder(
+                Optional.ofNullable(securityContext.getCapabilities()).orElse(new Capabilities()))
+            .build();
+    var added = new ArrayList<>(Optional.ofNullable(capabilities.getAdd()).orElse(List.of()));
+    CRIU_CAPABILITIES.stream()
+        .filter(capability -> !added.contains(capability))
+        .forEach(added::add);
+    capabilities.setAdd(added);
+    securityContext.setCapabilities(capabilities);
+    return ApplicationJvm.withOptions(
+        ContainerEnv.withPodField(
+            new ContainerBuilder(container)
+                .withCommand(wrapped)
+                .withSecurityContext(securityContext)
+                .build(),
+            POD_UID,
+            "metadata.uid"),
+        applicationType,
+        "-XX:+IgnoreUnrecognizedVMOptions -XX:CRaCCheckpointTo="
+            + CHECKPOINT_DIR
+            + "/$("
+            + POD_UID
+            + ")");
+  }
+}
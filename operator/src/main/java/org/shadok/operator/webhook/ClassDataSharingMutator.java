@@ -0,0 +1,163 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.util.cache.CdsArchives;
+import org.shadok.operator.webhook.PodMutatingWebhook.PodMutation;
+
+/**
+ * JVM pods of Applications with {@code spec.classDataSharing} map AppCDS archives of the cache
+ * volume, which the JVMs create at exit when they are missing or stale. Pods that cannot write to
+ * the cache volume itself (overlay or read-only federated cache) are left alone: their archives
+ * would never be shared.
+ */
+@ApplicationScoped
+@Priority(40)
+public class ClassDataSharingMutator implements PodMutator {
+
+  // Application class-data sharing: AppCDS archives per Application, JVM role, image (JDK) and pod
+  private static final String CDS_ARCHIVE_ROOT = "/cache/" + CdsArchives.ARCHIVE_DIR;
+
+  // Pod name, expanded by the kubelet in the archive paths
+  static final String POD_NAME = "SHADOK_POD_NAME";
+
+  @Override
+  public List<PodMutation> mutations(AdmittedPod pod) {
+    var appSpec = pod.spec();
+    if (appSpec.classDataSharing() == null
+        || !appSpec.applicationType().isJvmBased()
+        || !pod.writesSharedCache()) {
+      return List.of();
+    }
+    var directory =
+        String.join(
+            "/", CDS_ARCHIVE_ROOT, pod.namespace(), pod.application().getMetadata().getName());
+    var archives =
+        pod.mainContainer()
+            .map(container -> archives(container, appSpec.applicationType()))
+            .orElse(List.of());
+    return List.of(
+        new PodMutation.AddInitContainer(createCdsArchiveDirContainer(directory, archives)),
+        new PodMutation.TransformMainContainer(
+            container -> withClassDataSharing(container, appSpec.applicationType(), directory)));
+  }
+
+  /**
+   * The archive directory is writable by the JVM whatever the user the image runs as. The archives
+   * of the pod are seeded from the most recent archive of the same role and image, copied aside and
+   * renamed into place so that a JVM never maps a partial copy; without a copy, the JVM dumps a new
+   * archive at exit.
+   */
+  private Container createCdsArchiveDirContainer(String directory, List<String> archives) {
+    var script =
+        String.join(
+            " ",
+            "mkdir -p \"$DIR\" && chmod 1777 \"$DIR\" || exit 1;",
+            "for archive in $ARCHIVES; do",
+            "latest=$(ls -t \"$DIR\"/\"$archive\"-*" + CdsArchives.EXTENSION,
+            "2>/dev/null | head -n 1);",
+            "[ -n \"$latest\" ] || continue;",
+            "part=\"$DIR/.$archive-$POD.part\";",
+            "cp -p \"$latest\" \"$part\" && chmod 666 \"$part\"",
+            "&& mv \"$part\" \"$DIR/$archive-$POD" + CdsArchives.EXTENSION + "\"",
+            "|| rm -f \"$part\";",
+            "done");
+    return new ContainerBuilder()
+        .withName("cds-archive-dir")
+        .withImage("busybox:latest")
+        .withCommand("sh", "-c", script)
+        .withEnv(
+            new EnvVarBuilder().withName("DIR").withValue(directory).build(),
+            new EnvVarBuilder().withName("ARCHIVES").withValue(String.join(" ", archives)).build(),
+            new EnvVarBuilder()
+                .withName("POD")
+                .withNewValueFrom()
+                .withNewFieldRef()
+                .withFieldPath("metadata.name")
+                .endFieldRef()
+                .endValueFrom()
+                .build())
+        .withVolumeMounts(CacheVolumes.cacheMount())
+        .build();
+  }
+
+  /**
+   * Map AppCDS archives in the JVMs of a container. The application JVM gets its options through
+   * the dev-mode command (see {@link ApplicationJvm}), never through {@code JAVA_TOOL_OPTIONS},
+   * which every JVM of the pod (build daemons, test workers, jcmd) would read; the build tool gets
+   * its own archive through {@code MAVEN_OPTS} or {@code GRADLE_OPTS}. Types without such an
+   * argument (Spring Boot with Gradle, plain Java) only archive the build tool. Each archive is
+   * named after its role, the container image, so that a new JDK gets a new archive, and the pod,
+   * so that replicas sharing the cache volume never dump the same file. {@code
+   * -XX:+AutoCreateSharedArchive} (JDK 19+) dumps the archive at exit when it is missing or does
+   * not match the JDK or classpath, older JDKs ignore the options.
+   *
+   * @param container main container, after the live-reload transformation
+   * @param applicationType type of the Application, picking the build tool variable
+   * @param directory archive directory of the Application
+   */
+  static Container withClassDataSharing(
+      Container container, ApplicationType applicationType, String directory) {
+    var image = shortDigest(Objects.toString(container.getImage(), ""));
+    var result = ContainerEnv.withPodField(container, POD_NAME, "metadata.name");
+    switch (applicationType.getBuildSystem()) {
+      case "maven" ->
+          result =
+              ContainerEnv.withJvmOptions(result, "MAVEN_OPTS", options(directory, "maven", image));
+      case "gradle" ->
+          result =
+              ContainerEnv.withJvmOptions(
+                  result, "GRADLE_OPTS", options(directory, "gradle", image));
+      default -> {}
+    }
+    return ApplicationJvm.withOptions(result, applicationType, options(directory, "app", image));
+  }
+
+  /** Base names of the archives of a container, one per JVM role. */
+  static List<String> archives(Container container, ApplicationType applicationType) {
+    var image = shortDigest(Objects.toString(container.getImage(), ""));
+    var roles = new ArrayList<String>();
+    if (applicationType.hasApplicationJvmOptions()) {
+      roles.add("app");
+    }
+    switch (applicationType.getBuildSystem()) {
+      case "maven", "gradle" -> roles.add(applicationType.getBuildSystem());
+      default -> {}
+    }
+    return roles.stream().map(role -> role + "-" + image).toList();
+  }
+
+  private static String options(String directory, String role, String image) {
+    return "-XX:+IgnoreUnrecognizedVMOptions -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile="
+        + directory
+        + "/"
+        + role
+        + "-"
+        + image
+        + "-$("
+        + POD_NAME
+        + ")"
+        + CdsArchives.EXTENSION;
+  }
+
+  private static String shortDigest(String value) {
+    try {
+      var digest =
+          MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest, 0, 4);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
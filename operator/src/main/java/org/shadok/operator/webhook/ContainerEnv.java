@@ -0,0 +1,70 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/** Environment variables set by the mutators on the main container. */
+final class ContainerEnv {
+
+  private ContainerEnv() {}
+
+  /** Adds an environment variable unless the container already sets it. */
+  static Container withEnvDefault(Container container, String name, String value) {
+    var env = new ArrayList<>(Optional.ofNullable(container.getEnv()).orElse(List.of()));
+    if (env.stream().noneMatch(envVar -> name.equals(envVar.getName()))) {
+      env.add(new EnvVarBuilder().withName(name).withValue(value).build());
+    }
+    return new ContainerBuilder(container).withEnv(env).build();
+  }
+
+  /**
+   * Adds a variable set from a field of the pod, first so that the other variables can reference it
+   * as {@code $(NAME)}, unless the container already sets it.
+   */
+  static Container withPodField(Container container, String name, String fieldPath) {
+    var env = Optional.ofNullable(container.getEnv()).orElse(List.<EnvVar>of());
+    if (env.stream().anyMatch(envVar -> name.equals(envVar.getName()))) {
+      return container;
+    }
+    var withField = new ArrayList<EnvVar>();
+    withField.add(
+        new EnvVarBuilder()
+            .withName(name)
+            .withNewValueFrom()
+            .withNewFieldRef()
+            .withFieldPath(fieldPath)
+            .endFieldRef()
+            .endValueFrom()
+            .build());
+    withField.addAll(env);
+    return new ContainerBuilder(container).withEnv(withField).build();
+  }
+
+  /**
+   * Appends options to the last definition of a variable, the one Kubernetes keeps. Variables set
+   * from a reference are left unchanged.
+   */
+  static Container withJvmOptions(Container container, String name, String options) {
+    var env = new ArrayList<>(Optional.ofNullable(container.getEnv()).orElse(List.of()));
+    var index =
+        IntStream.range(0, env.size())
+            .filter(i -> name.equals(env.get(i).getName()))
+            .reduce((first, second) -> second);
+    if (index.isEmpty()) {
+      env.add(new EnvVarBuilder().withName(name).withValue(options).build());
+    } else if (env.get(index.getAsInt()).getValueFrom() == null) {
+      var existing = Objects.toString(env.get(index.getAsInt()).getValue(), "");
+      env.set(
+          index.getAsInt(),
+          new EnvVarBuilder().withName(name).withValue((existing + " " + options).strip()).build());
+    }
+    return new ContainerBuilder(container).withEnv(env).build();
+  }
+}
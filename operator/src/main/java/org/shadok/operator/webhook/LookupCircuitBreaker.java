@@ -0,0 +1,129 @@
+package org.shadok.operator.webhook;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.shadok.operator.config.WebhookConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker guarding the live API server reads of the admission path.
+ *
+ * <p>The circuit opens after {@code failureThreshold} consecutive failed or slow reads. While open,
+ * reads are rejected immediately so that admissions fall back to last-known data instead of waiting
+ * on a degraded API server. After {@code openDuration} a single probe read is let through
+ * (half-open): success closes the circuit, failure opens it again.
+ */
+final class LookupCircuitBreaker {
+
+  private static final Logger log = LoggerFactory.getLogger(LookupCircuitBreaker.class);
+
+  /** Circuit state, the ordinal is published as the breaker state gauge. */
+  enum State {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+  }
+
+  private final WebhookConfig.Lookup settings;
+  private final LongSupplier nanoTime;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private boolean probeInFlight;
+
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+
+  LookupCircuitBreaker(WebhookConfig.Lookup settings) {
+    this(settings, System::nanoTime);
+  }
+
+  LookupCircuitBreaker(WebhookConfig.Lookup settings, LongSupplier nanoTime) {
+    this.settings = settings;
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * Ask permission for a live read.
+   *
+   * @return true if the read may go to the API server, false if it must be served from cache
+   */
+  synchronized boolean tryAcquire() {
+    if (state == State.OPEN
+        && nanoTime.getAsLong() - openedAt >= settings.openDuration().toNanos()) {
+      transition(State.HALF_OPEN);
+    }
+    var permitted =
+        switch (state) {
+          case CLOSED -> true;
+          case HALF_OPEN -> !probeInFlight;
+          case OPEN -> false;
+        };
+    if (!permitted) {
+      rejected.incrementAndGet();
+    } else if (state == State.HALF_OPEN) {
+      probeInFlight = true;
+    }
+    return permitted;
+  }
+
+  /** Record a completed read; reads slower than the threshold count as failures. */
+  synchronized void onSuccess(long elapsedNanos) {
+    probeInFlight = false;
+    if (elapsedNanos > settings.slowCallThreshold().toNanos()) {
+      log.debug("Slow API server read: {} ms", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+      recordFailure();
+      return;
+    }
+    consecutiveFailures = 0;
+    if (state != State.CLOSED) {
+      transition(State.CLOSED);
+    }
+  }
+
+  /** Record a failed or timed out read. */
+  synchronized void onFailure() {
+    probeInFlight = false;
+    recordFailure();
+  }
+
+  synchronized State state() {
+    return state;
+  }
+
+  /** Reads rejected while the circuit was open. */
+  long rejectedCalls() {
+    return rejected.get();
+  }
+
+  /** Reads that failed, timed out or were slower than the threshold. */
+  long failedCalls() {
+    return failures.get();
+  }
+
+  private void recordFailure() {
+    failures.incrementAndGet();
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= settings.failureThreshold()) {
+      openedAt = nanoTime.getAsLong();
+      if (state != State.OPEN) {
+        transition(State.OPEN);
+      }
+    }
+  }
+
+  private void transition(State next) {
+    if (next == State.OPEN) {
+      log.warn(
+          "⚡ API server lookups degraded after {} failures, serving last-known resources for {}",
+          consecutiveFailures,
+          settings.openDuration());
+    } else {
+      log.info("API server lookup circuit {} -> {}", state, next);
+    }
+    state = next;
+  }
+}
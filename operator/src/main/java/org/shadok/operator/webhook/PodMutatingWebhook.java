@@ -2,23 +2,33 @@ package org.shadok.operator.webhook;
 
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.admission.v1.AdmissionReview;
-import io.fabric8.kubernetes.client.KubernetesClient;
 import io.javaoperatorsdk.webhook.admission.AdmissionController;
 import io.javaoperatorsdk.webhook.admission.Operation;
+import io.quarkus.arc.All;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
+import org.shadok.operator.controller.BuildVolumes;
+import org.shadok.operator.controller.PodRollout;
+import org.shadok.operator.dependent.DependencyCachePvcDependent;
 import org.shadok.operator.model.ApplicationType;
 import org.shadok.operator.model.InitContainerMountSpec;
 import org.shadok.operator.model.application.Application;
 import org.shadok.operator.model.application.ApplicationSpec;
+import org.shadok.operator.model.application.ApplicationStatus;
+import org.shadok.operator.model.application.ApplicationTypeHelper;
+import org.shadok.operator.model.application.BuildVolumeSpec;
+import org.shadok.operator.model.cache.CacheOverlaySpec;
 import org.shadok.operator.model.cache.DependencyCache;
 import org.shadok.operator.model.code.ProjectSource;
+import org.shadok.operator.util.cache.CacheOverlayMerge;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,25 +38,59 @@ import org.slf4j.LoggerFactory;
 public class PodMutatingWebhook {
 
   private static final Logger log = LoggerFactory.getLogger(PodMutatingWebhook.class);
-  // 🔌 Fabric8 client injected by Quarkus/Spring runtime
-  @Inject KubernetesClient client;
+  // 🗂️ Informer-backed lookups of Shadok resources
+  @Inject ShadokResourceCache resourceCache;
+  // 🧩 Mutations of the optional features, in decreasing priority order
+  @Inject @All List<PodMutator> mutators = List.of();
 
   private static final String ANNOTATION_CONFIG = "org.shadok/application";
+  // Set when the mutation used last-known resources while the API server was degraded
+  static final String ANNOTATION_STALE_DATA_AGE = "org.shadok/stale-data-age-seconds";
+
+  // Latency of the first live admission, reported next to the warm-up figures
+  private final AtomicLong firstAdmissionNanos = new AtomicLong(-1);
 
   @POST
   public AdmissionReview mutate(AdmissionReview req) {
     log.info("🚀 Received Pod mutation request: {}", req.getRequest().getUid());
-    return admissionController().handle(req);
+    var start = System.nanoTime();
+    var response = handle(req, resourceCache.forAdmission());
+    var elapsed = System.nanoTime() - start;
+    if (firstAdmissionNanos.compareAndSet(-1, elapsed)) {
+      log.info("First live admission handled in {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+    return response;
+  }
+
+  /**
+   * Latency of the first live admission handled by this instance.
+   *
+   * @return latency in nanoseconds, empty until a live admission was handled
+   */
+  public OptionalLong firstAdmissionNanos() {
+    var nanos = firstAdmissionNanos.get();
+    return nanos < 0 ? OptionalLong.empty() : OptionalLong.of(nanos);
+  }
+
+  /**
+   * Run an admission through the mutation pipeline using the given resource lookup. Dry-run
+   * admissions get the same mutations, without the side effects of the mutators (Leases, warm pool
+   * claims).
+   */
+  AdmissionReview handle(AdmissionReview req, ShadokResourceLookup lookup) {
+    var dryRun = Boolean.TRUE.equals(req.getRequest().getDryRun());
+    return admissionController(lookup, dryRun).handle(req);
   }
 
-  private AdmissionController<Pod> admissionController() {
+  private AdmissionController<Pod> admissionController(
+      ShadokResourceLookup lookup, boolean dryRun) {
     return new AdmissionController<>(
         (pod, operation) ->
             Optional.of(operation)
                 .filter(isCreateOp)
                 .flatMap(op -> findAnnotation.apply(pod))
-                .flatMap(findAppSpec(client))
-                .map(mutateOp)
+                .flatMap(findApplication(lookup))
+                .map(mutateOp(lookup, dryRun))
                 .map(mutator -> mutator.apply(pod))
                 .orElse(pod));
   }
@@ -64,32 +108,40 @@ public class PodMutatingWebhook {
               .filter(name -> !name.isEmpty())
               .map(name -> new CrdRef(name, pod.getMetadata().getNamespace()));
 
-  Function<CrdRef, Optional<ApplicationSpec>> findAppSpec(KubernetesClient kubernetesClient) {
-    return ref ->
-        Optional.ofNullable(
-                kubernetesClient
-                    .resources(Application.class)
-                    .inNamespace(ref.nameSpace())
-                    .withName(ref.name)
-                    .get())
-            .map(Application::getSpec);
+  Function<CrdRef, Optional<Application>> findApplication(ShadokResourceLookup lookup) {
+    return ref -> lookup.findApplication(ref.name(), ref.nameSpace());
+  }
+
+  Function<Application, UnaryOperator<Pod>> mutateOp(ShadokResourceLookup lookup, boolean dryRun) {
+    return application ->
+        pod -> {
+          var mutationContext = createMutationContext(application, pod, lookup, dryRun);
+          return applyMutations(pod, mutationContext);
+        };
   }
 
-  Function<ApplicationSpec, UnaryOperator<Pod>> mutateOp =
-      appSpec ->
-          pod -> {
-            var mutationContext = createMutationContext(appSpec, pod);
-            return applyMutations(pod, mutationContext);
-          };
+  /** Cache volume to mount: the shared one under lockfile sharing, else the referenced one. */
+  private String dependencyCacheName(Application application) {
+    return Optional.ofNullable(application.getStatus())
+        .map(ApplicationStatus::getSharedDependencyCache)
+        .orElse(application.getSpec().dependencyCacheName());
+  }
 
   // ADT to model different types of mutations
   public sealed interface PodMutation
-      permits PodMutation.AddInitContainer,
+      permits PodMutation.AddAnnotation,
+          PodMutation.AddLabel,
+          PodMutation.AddInitContainer,
           PodMutation.AddVolume,
           PodMutation.AddVolumeMount,
+          PodMutation.PreferNode,
           PodMutation.StartupProbe,
           PodMutation.TransformMainContainer {
 
+    record AddAnnotation(String key, String value) implements PodMutation {}
+
+    record AddLabel(String key, String value) implements PodMutation {}
+
     record AddVolume(String name, Volume volume) implements PodMutation {}
 
     record AddVolumeMount(String containerName, VolumeMount mount) implements PodMutation {}
@@ -99,6 +151,8 @@ public class PodMutatingWebhook {
     record TransformMainContainer(UnaryOperator<Container> transformation) implements PodMutation {}
 
     record StartupProbe(String containerName) implements PodMutation {}
+
+    record PreferNode(String nodeName) implements PodMutation {}
   }
 
   // Mutation context containing all necessary information
@@ -109,18 +163,34 @@ public class PodMutatingWebhook {
       ApplicationType applicationType,
       List<PodMutation> mutations) {}
 
-  private MutationContext createMutationContext(ApplicationSpec appSpec, Pod pod) {
+  private MutationContext createMutationContext(
+      Application application, Pod pod, ShadokResourceLookup lookup, boolean dryRun) {
+    var appSpec = application.getSpec();
     var projectSource =
-        findProjectSource(appSpec.projectSourceName(), pod.getMetadata().getNamespace());
+        lookup.findProjectSource(appSpec.projectSourceName(), pod.getMetadata().getNamespace());
+    var podNamespace = pod.getMetadata().getNamespace();
     var dependencyCache =
-        findDependencyCache(appSpec.dependencyCacheName(), pod.getMetadata().getNamespace());
+        lookup
+            .findDependencyCache(
+                dependencyCacheName(application), appSpec.dependencyCacheNamespace(podNamespace))
+            .filter(cache -> isMountable(cache, podNamespace));
     var applicationType = appSpec.applicationType();
 
     var mutations =
         Stream.of(
-                createVolumeMutations(projectSource, dependencyCache),
+                // Selects the pods of the Application for rollouts, idle scale-down and CDS
+                List.<PodMutation>of(
+                    new PodMutation.AddLabel(
+                        PodRollout.LABEL_APPLICATION,
+                        PodRollout.labelValue(application.getMetadata().getName()))),
+                createVolumeMutations(application, pod, projectSource, dependencyCache),
                 createInitContainerMutations(appSpec, projectSource),
-                createMainContainerMutations(appSpec, pod))
+                createCacheOverlayMutations(appSpec, dependencyCache, podNamespace),
+                createMainContainerMutations(appSpec, pod, dependencyCache),
+                createBuildMemoryMutations(appSpec, projectSource),
+                createFeatureMutations(
+                    new AdmittedPod(application, pod, projectSource, dependencyCache, dryRun)),
+                createStaleDataMutations(lookup))
             .flatMap(List::stream)
             .toList();
 
@@ -133,6 +203,8 @@ public class PodMutatingWebhook {
 
   private Pod applyMutation(Pod pod, PodMutation mutation) {
     return switch (mutation) {
+      case PodMutation.AddAnnotation(var key, var value) -> addAnnotation(pod, key, value);
+      case PodMutation.AddLabel(var key, var value) -> addLabel(pod, key, value);
       case PodMutation.AddVolume(var name, var volume) -> addVolume(pod, volume);
       case PodMutation.AddVolumeMount(var containerName, var mount) ->
           addVolumeMount(pod, containerName, mount);
@@ -154,17 +226,63 @@ public class PodMutatingWebhook {
             .ifPresent(increaseStartupProbeTimeout);
         yield pod;
       }
+      case PodMutation.PreferNode(var nodeName) -> preferNode(pod, nodeName);
     };
   }
 
+  /** Scheduling preference for a node, on top of the affinity the pod already has. */
+  static Pod preferNode(Pod pod, String nodeName) {
+    var affinity = Optional.ofNullable(pod.getSpec().getAffinity()).orElseGet(Affinity::new);
+    var nodeAffinity = Optional.ofNullable(affinity.getNodeAffinity()).orElseGet(NodeAffinity::new);
+    var preferred =
+        new ArrayList<>(
+            Optional.ofNullable(nodeAffinity.getPreferredDuringSchedulingIgnoredDuringExecution())
+                .orElse(List.of()));
+    preferred.add(
+        new PreferredSchedulingTermBuilder()
+            .withWeight(100)
+            .withNewPreference()
+            .addNewMatchField()
+            .withKey("metadata.name")
+            .withOperator("In")
+            .withValues(nodeName)
+            .endMatchField()
+            .endPreference()
+            .build());
+    nodeAffinity.setPreferredDuringSchedulingIgnoredDuringExecution(preferred);
+    affinity.setNodeAffinity(nodeAffinity);
+    pod.getSpec().setAffinity(affinity);
+    return pod;
+  }
+
   // Functions for creating mutations
+  private List<PodMutation> createFeatureMutations(AdmittedPod admittedPod) {
+    return mutators.stream().flatMap(mutator -> mutator.mutations(admittedPod).stream()).toList();
+  }
+
+  private List<PodMutation> createStaleDataMutations(ShadokResourceLookup lookup) {
+    return lookup.staleness().stream()
+        .map(
+            age ->
+                (PodMutation)
+                    new PodMutation.AddAnnotation(
+                        ANNOTATION_STALE_DATA_AGE, String.valueOf(age.toSeconds())))
+        .toList();
+  }
+
   private List<PodMutation> createVolumeMutations(
-      Optional<ProjectSource> projectSource, Optional<DependencyCache> dependencyCache) {
+      Application application,
+      Pod pod,
+      Optional<ProjectSource> projectSource,
+      Optional<DependencyCache> dependencyCache) {
+    var podNamespace = pod.getMetadata().getNamespace();
     return Stream.of(
             Optional.of(createConfigGradleConfigMapVolumeMutation()),
-            projectSource.map(this::createTemporaryBuildVolumeMutation),
+            projectSource.map(source -> createTemporaryBuildVolumeMutation(application, pod)),
             projectSource.map(this::createProjectSourceVolumeMutation),
-            dependencyCache.map(this::createDependencyCacheVolumeMutation))
+            dependencyCache.map(cache -> createDependencyCacheVolumeMutation(cache, podNamespace)),
+            writableLayer(dependencyCache, podNamespace)
+                .map(this::createCacheOverlayVolumeMutation))
         .filter(Optional::isPresent)
         .map(Optional::get)
         .toList();
@@ -183,28 +301,137 @@ public class PodMutatingWebhook {
     return new PodMutation.AddVolume("project-source", volume);
   }
 
-  private PodMutation createTemporaryBuildVolumeMutation(ProjectSource projectSource) {
-    var volume =
-        new VolumeBuilder()
-            .withName("temporary-build")
-            .withEmptyDir(new EmptyDirVolumeSourceBuilder().build())
-            .build();
-    return new PodMutation.AddVolume("temporary-build", volume);
+  /**
+   * Build output volume: the Application's build PVC when persistent, a tmpfs when in memory, else
+   * an emptyDir.
+   */
+  private PodMutation createTemporaryBuildVolumeMutation(Application application, Pod pod) {
+    var appSpec = application.getSpec();
+    var buildVolume = Optional.ofNullable(appSpec.buildVolume());
+    var volume = new VolumeBuilder().withName("temporary-build");
+    buildVolume
+        .filter(spec -> spec.type() == BuildVolumeSpec.Type.PERSISTENT)
+        .flatMap(spec -> buildClaimName(application, spec, pod))
+        .ifPresentOrElse(
+            claimName ->
+                volume.withPersistentVolumeClaim(
+                    new PersistentVolumeClaimVolumeSourceBuilder()
+                        .withClaimName(claimName)
+                        .build()),
+            () ->
+                volume.withEmptyDir(
+                    new EmptyDirVolumeSourceBuilder()
+                        .withMedium(buildMemory(appSpec).isPresent() ? "Memory" : null)
+                        .withSizeLimit(
+                            buildVolume
+                                .map(
+                                    spec -> new Quantity(spec.sizeLimit(appSpec.applicationType())))
+                                .orElse(null))
+                        .build()));
+    return new PodMutation.AddVolume("temporary-build", volume.build());
+  }
+
+  /** Size of the tmpfs build volume, when the Application keeps {@code /build} in memory. */
+  private static Optional<Quantity> buildMemory(ApplicationSpec appSpec) {
+    return Optional.ofNullable(appSpec.buildVolume())
+        .filter(spec -> spec.type() == BuildVolumeSpec.Type.MEMORY)
+        .map(spec -> new Quantity(spec.sizeLimit(appSpec.applicationType())));
+  }
+
+  /** tmpfs pages are charged to the container: its memory request and limit grow by the volume. */
+  private List<PodMutation> createBuildMemoryMutations(
+      ApplicationSpec appSpec, Optional<ProjectSource> projectSource) {
+    return projectSource
+        .flatMap(source -> buildMemory(appSpec))
+        .map(
+            tmpfs ->
+                List.<PodMutation>of(
+                    new PodMutation.TransformMainContainer(
+                        container -> withBuildMemory(container, tmpfs))))
+        .orElse(List.of());
+  }
+
+  /**
+   * Raise the memory of a container by the size of its tmpfs build volume. Without a request the
+   * limit (the request Kubernetes would default to) is raised; without a limit none is added.
+   */
+  static Container withBuildMemory(Container container, Quantity tmpfs) {
+    var resources =
+        Optional.ofNullable(container.getResources()).orElseGet(ResourceRequirements::new);
+    var requests =
+        new LinkedHashMap<>(Optional.ofNullable(resources.getRequests()).orElse(Map.of()));
+    var limits = new LinkedHashMap<>(Optional.ofNullable(resources.getLimits()).orElse(Map.of()));
+    var request =
+        Optional.ofNullable(requests.get("memory"))
+            .or(() -> Optional.ofNullable(limits.get("memory")));
+    requests.put("memory", request.map(memory -> memory.add(tmpfs)).orElse(tmpfs));
+    Optional.ofNullable(limits.get("memory"))
+        .ifPresent(limit -> limits.put("memory", limit.add(tmpfs)));
+    return new ContainerBuilder(container)
+        .withResources(
+            new ResourceRequirementsBuilder(resources)
+                .withRequests(requests)
+                .withLimits(limits.isEmpty() ? null : limits)
+                .build())
+        .build();
+  }
+
+  /**
+   * Build PVC of a pod: the one of its Application, or the one of its ordinal for StatefulSet pods.
+   * Pods without ordinal, or beyond the provisioned ordinals, get an emptyDir.
+   */
+  private static Optional<String> buildClaimName(
+      Application application, BuildVolumeSpec spec, Pod pod) {
+    var name = application.getMetadata().getName();
+    if (spec.ordinals() == 0) {
+      return Optional.of(BuildVolumes.claimName(name, null));
+    }
+    var labels = Optional.ofNullable(pod.getMetadata().getLabels()).orElse(Map.of());
+    return Optional.ofNullable(labels.get("apps.kubernetes.io/pod-index"))
+        .or(
+            () ->
+                Optional.ofNullable(labels.get("statefulset.kubernetes.io/pod-name"))
+                    .map(podName -> podName.substring(podName.lastIndexOf('-') + 1)))
+        .filter(index -> index.matches("\\d+"))
+        .map(Integer::valueOf)
+        .filter(ordinal -> ordinal < spec.ordinals())
+        .map(ordinal -> BuildVolumes.claimName(name, ordinal));
+  }
+
+  /** A cache of another namespace is only mounted when federated to the pod namespace. */
+  private static boolean isMountable(DependencyCache dependencyCache, String podNamespace) {
+    var federation = dependencyCache.getSpec().federation();
+    return podNamespace.equals(dependencyCache.getMetadata().getNamespace())
+        || (federation != null && federation.allows(podNamespace));
   }
 
-  private PodMutation createDependencyCacheVolumeMutation(DependencyCache dependencyCache) {
+  private PodMutation createDependencyCacheVolumeMutation(
+      DependencyCache dependencyCache, String podNamespace) {
     var volume =
         new VolumeBuilder()
             .withName("dependency-cache")
             .withPersistentVolumeClaim(
                 new PersistentVolumeClaimVolumeSourceBuilder()
-                    .withClaimName(dependencyCache.getSpec().pvcName())
-                    .withReadOnly(false)
+                    .withClaimName(
+                        DependencyCachePvcDependent.claimName(dependencyCache, podNamespace))
+                    .withReadOnly(CacheVolumes.isReadOnly(dependencyCache, podNamespace))
                     .build())
             .build();
     return new PodMutation.AddVolume("dependency-cache", volume);
   }
 
+  private PodMutation createCacheOverlayVolumeMutation(CacheOverlaySpec overlay) {
+    var volume =
+        new VolumeBuilder()
+            .withName(CacheVolumes.CACHE_OVERLAY_VOLUME)
+            .withEmptyDir(
+                new EmptyDirVolumeSourceBuilder()
+                    .withSizeLimit(new Quantity(overlay.sizeLimit()))
+                    .build())
+            .build();
+    return new PodMutation.AddVolume(CacheVolumes.CACHE_OVERLAY_VOLUME, volume);
+  }
+
   private PodMutation createConfigGradleConfigMapVolumeMutation() {
     var volume =
         new VolumeBuilder()
@@ -254,18 +481,189 @@ public class PodMutatingWebhook {
         });
   }
 
-  private List<PodMutation> createMainContainerMutations(ApplicationSpec appSpec, Pod pod) {
+  private List<PodMutation> createMainContainerMutations(
+      ApplicationSpec appSpec, Pod pod, Optional<DependencyCache> dependencyCache) {
     // Logic for finding the target container name based on ApplicationSpec
     String targetContainerName = determineTargetContainerName(appSpec, pod);
+    var layer = writableLayer(dependencyCache, pod.getMetadata().getNamespace());
+
+    var common =
+        Stream.of(
+            new PodMutation.StartupProbe(targetContainerName),
+            new PodMutation.TransformMainContainer(
+                container -> transformForLiveReload(container, appSpec.applicationType())),
+            new PodMutation.AddVolumeMount(targetContainerName, createTemporaryBuildVolumeMount()),
+            new PodMutation.AddVolumeMount(targetContainerName, createProjectSourceVolumeMount()),
+            new PodMutation.AddVolumeMount(targetContainerName, createGradleIinitVolume()));
+    var cache =
+        layer.isPresent()
+            ? Stream.of(
+                new PodMutation.TransformMainContainer(
+                    container -> withCacheBaseLayer(container, appSpec.applicationType())),
+                new PodMutation.AddVolumeMount(
+                    targetContainerName, CacheVolumes.baseMount(CacheVolumes.CACHE_BASE_PATH)),
+                new PodMutation.AddVolumeMount(targetContainerName, CacheVolumes.overlayMount()))
+            : Stream.of(
+                new PodMutation.AddVolumeMount(targetContainerName, CacheVolumes.cacheMount()));
+    return Stream.concat(common, cache).map(PodMutation.class::cast).toList();
+  }
+
+  /** Local writable layer of the pod over the cache volume, see {@link CacheVolumes}. */
+  private static Optional<CacheOverlaySpec> writableLayer(
+      Optional<DependencyCache> dependencyCache, String podNamespace) {
+    return dependencyCache.flatMap(cache -> CacheVolumes.writableLayer(cache, podNamespace));
+  }
+
+  /**
+   * Seed the writable layer and, for overlay caches the pod may write to, stage its new files for
+   * the merge-back. Read-only federated caches get no sync sidecar: nothing is written to them.
+   */
+  private List<PodMutation> createCacheOverlayMutations(
+      ApplicationSpec appSpec, Optional<DependencyCache> dependencyCache, String podNamespace) {
+    var seed =
+        writableLayer(dependencyCache, podNamespace).stream()
+            .map(
+                layer ->
+                    new PodMutation.AddInitContainer(
+                        createCacheOverlaySeedContainer(appSpec.applicationType())));
+    var sync =
+        dependencyCache
+            .filter(cache -> !CacheVolumes.isReadOnly(cache, podNamespace))
+            .map(cache -> cache.getSpec().overlay())
+            .stream()
+            .map(
+                overlay ->
+                    new PodMutation.AddInitContainer(createCacheOverlaySyncContainer(overlay)));
+    return Stream.concat(seed, sync).map(PodMutation.class::cast).toList();
+  }
+
+  /**
+   * Seed the writable layer with the base cache subtrees of build tools that cannot read a
+   * read-only cache layer themselves; Maven and Gradle read the base layer in place. Only the
+   * subtrees of the application type are copied: types without known subtrees start from an empty
+   * layer rather than a copy of the whole shared cache into the size-limited emptyDir.
+   */
+  private Container createCacheOverlaySeedContainer(ApplicationType applicationType) {
+    var subtrees =
+        isNativelyLayered(applicationType)
+            ? List.<String>of()
+            : ApplicationTypeHelper.getCacheSubtrees(applicationType).stream()
+                .sorted()
+                .map(subtree -> CacheVolumes.CACHE_BASE_PATH + "/" + subtree)
+                .toList();
+    var copy =
+        subtrees.stream()
+            .map(subtree -> "if [ -d " + subtree + " ]; then cp -a " + subtree + " /cache/; fi; ")
+            .reduce("", String::concat);
+    return new ContainerBuilder()
+        .withName("cache-overlay-seed")
+        .withImage("busybox:latest")
+        .withCommand("sh", "-c", copy + "mkdir -p /cache/.shadok && touch /cache/.shadok/synced")
+        .withVolumeMounts(
+            CacheVolumes.baseMount(CacheVolumes.CACHE_BASE_PATH), CacheVolumes.overlayMount())
+        .build();
+  }
+
+  /**
+   * Native sidecar staging the files written to the local layer under {@code
+   * .shadok/incoming/<pod>} of the cache volume, in batches renamed into place once complete. It
+   * stages one last time when the pod terminates.
+   */
+  private Container createCacheOverlaySyncContainer(CacheOverlaySpec overlay) {
+    var script =
+        String.join(
+            "\n",
+            "incoming=/incoming/$POD_NAME",
+            "n=0",
+            "stage() {",
+            "  touch /cache/.shadok/next",
+            "  n=$((n + 1))",
+            "  batch=$incoming/.batch-$(date +%s)-$n",
+            "  cd /cache && find . -path ./.shadok -prune -o -path ./init -prune -o -type f"
+                + " -newer /cache/.shadok/synced -print | while read -r f; do",
+            "    mkdir -p \"$batch/$(dirname \"$f\")\" && cp -p \"$f\" \"$batch/$f\"",
+            "  done",
+            "  if [ -d \"$batch\" ]; then mv \"$batch\" \"$incoming/${batch##*/.batch-}\"; fi",
+            "  mv /cache/.shadok/next /cache/.shadok/synced",
+            "}",
+            "mkdir -p $incoming",
+            "trap 'stage; exit 0' TERM",
+            "while true; do sleep $SYNC_INTERVAL_SECONDS & wait $!; stage; done");
+    return new ContainerBuilder()
+        .withName("cache-overlay-sync")
+        .withImage("busybox:latest")
+        .withRestartPolicy("Always")
+        .withCommand("sh", "-c", script)
+        .withEnv(
+            new EnvVarBuilder()
+                .withName("POD_NAME")
+                .withNewValueFrom()
+                .withNewFieldRef()
+                .withFieldPath("metadata.name")
+                .endFieldRef()
+                .endValueFrom()
+                .build(),
+            new EnvVarBuilder()
+                .withName("SYNC_INTERVAL_SECONDS")
+                .withValue(String.valueOf(overlay.syncIntervalSeconds()))
+                .build())
+        .withVolumeMounts(
+            CacheVolumes.overlayMount(),
+            new VolumeMountBuilder()
+                .withName("dependency-cache")
+                .withMountPath("/incoming")
+                .withSubPath(CacheOverlayMerge.INCOMING_DIR)
+                .withReadOnly(false)
+                .build())
+        .withNewResources()
+        .addToRequests("cpu", new Quantity("10m"))
+        .addToRequests("memory", new Quantity("16Mi"))
+        .endResources()
+        .build();
+  }
+
+  private static boolean isNativelyLayered(ApplicationType applicationType) {
+    return switch (applicationType.getBuildSystem()) {
+      case "maven", "gradle" -> true;
+      default -> false;
+    };
+  }
 
-    return List.of(
-        new PodMutation.StartupProbe(targetContainerName),
-        new PodMutation.TransformMainContainer(
-            container -> transformForLiveReload(container, appSpec.applicationType())),
-        new PodMutation.AddVolumeMount(targetContainerName, createTemporaryBuildVolumeMount()),
-        new PodMutation.AddVolumeMount(targetContainerName, createProjectSourceVolumeMount()),
-        new PodMutation.AddVolumeMount(targetContainerName, createGradleIinitVolume()),
-        new PodMutation.AddVolumeMount(targetContainerName, createDependencyCacheVolumeMount()));
+  /** Point Maven and Gradle at the read-only base layer. */
+  private Container withCacheBaseLayer(Container container, ApplicationType applicationType) {
+    var env = new ArrayList<>(Optional.ofNullable(container.getEnv()).orElse(List.of()));
+    switch (applicationType.getBuildSystem()) {
+      case "maven" -> {
+        // Maven 3.9+: artifacts missing from the local repository are looked up in the tail
+        var tail = "-Dmaven.repo.local.tail=" + CacheVolumes.CACHE_BASE_PATH + "/.m2/repository";
+        var existing =
+            env.stream().filter(variable -> "MAVEN_OPTS".equals(variable.getName())).findFirst();
+        // A new variable: the container of the admitted pod is never modified in place
+        existing.ifPresentOrElse(
+            opts ->
+                env.set(
+                    env.indexOf(opts),
+                    new EnvVarBuilder(opts)
+                        .withValue(Optional.ofNullable(opts.getValue()).orElse("") + " " + tail)
+                        .build()),
+            () ->
+                env.add(
+                    new EnvVarBuilder()
+                        .withName("MAVEN_OPTS")
+                        .withValue("-Dmaven.repo.local=/cache/.m2/repository " + tail)
+                        .build()));
+      }
+      case "gradle" ->
+          env.add(
+              new EnvVarBuilder()
+                  .withName("GRADLE_RO_DEP_CACHE")
+                  .withValue(CacheVolumes.CACHE_BASE_PATH + "/.gradle/caches")
+                  .build());
+      default -> {
+        // Seeded into the writable layer by the cache-overlay-seed init container
+      }
+    }
+    return new ContainerBuilder(container).withEnv(env).build();
   }
 
   /**
@@ -309,6 +707,21 @@ public class PodMutatingWebhook {
   }
 
   // Functions for applying mutations
+  private Pod addAnnotation(Pod pod, String key, String value) {
+    var annotations =
+        new HashMap<>(Optional.ofNullable(pod.getMetadata().getAnnotations()).orElse(Map.of()));
+    annotations.put(key, value);
+    pod.getMetadata().setAnnotations(annotations);
+    return pod;
+  }
+
+  private Pod addLabel(Pod pod, String key, String value) {
+    var labels = new HashMap<>(Optional.ofNullable(pod.getMetadata().getLabels()).orElse(Map.of()));
+    labels.put(key, value);
+    pod.getMetadata().setLabels(labels);
+    return pod;
+  }
+
   private Pod addVolume(Pod pod, Volume volume) {
     var volumes =
         new ArrayList<>(Optional.ofNullable(pod.getSpec().getVolumes()).orElse(List.of()));
@@ -571,14 +984,6 @@ public class PodMutatingWebhook {
         .build();
   }
 
-  private VolumeMount createDependencyCacheVolumeMount() {
-    return new VolumeMountBuilder()
-        .withName("dependency-cache")
-        .withMountPath("/cache")
-        .withReadOnly(false)
-        .build();
-  }
-
   private String getInitContainerImage(InitContainerMountSpec mountSpec) {
     // Default image or configured based on mount type
     return switch (mountSpec.name()) {
@@ -587,14 +992,4 @@ public class PodMutatingWebhook {
       default -> "busybox:latest";
     };
   }
-
-  private Optional<ProjectSource> findProjectSource(String name, String namespace) {
-    return Optional.ofNullable(
-        client.resources(ProjectSource.class).inNamespace(namespace).withName(name).get());
-  }
-
-  private Optional<DependencyCache> findDependencyCache(String name, String namespace) {
-    return Optional.ofNullable(
-        client.resources(DependencyCache.class).inNamespace(namespace).withName(name).get());
-  }
 }
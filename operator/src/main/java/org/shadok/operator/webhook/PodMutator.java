@@ -0,0 +1,22 @@
+package org.shadok.operator.webhook;
+
+import java.util.List;
+import org.shadok.operator.webhook.PodMutatingWebhook.PodMutation;
+
+/**
+ * Pod mutations of an optional feature (artifact proxy, build cache, class-data sharing, ...).
+ *
+ * <p>Implementations are CDI beans picked up by the {@link PodMutatingWebhook}. Their mutations are
+ * applied after the live-reload ones, in decreasing {@link jakarta.annotation.Priority} order, so
+ * that a mutator wrapping the command of the main container sees the command of the ones before.
+ */
+public interface PodMutator {
+
+  /**
+   * Mutations of a pod of an Application.
+   *
+   * @param pod the pod being admitted, with the resources it references
+   * @return the mutations, empty when the feature is disabled or does not apply to the pod
+   */
+  List<PodMutation> mutations(AdmittedPod pod);
+}
@@ -0,0 +1,350 @@
+package org.shadok.operator.webhook;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import org.shadok.operator.config.WebhookConfig;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.code.ProjectSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Informer-backed view of the Shadok custom resources used on the admission path.
+ *
+ * <p>Lookups are served from the local informer stores so that admissions do not wait on the API
+ * server. A resource missing from the store (e.g. created a few milliseconds before the pod) falls
+ * back to a live GET.
+ *
+ * <p>Live GETs go through a {@link LookupCircuitBreaker} and a client whose request timeout is
+ * {@code shadok.webhook.lookup.timeout}, without retries. When a read fails, times out or is
+ * rejected by the open circuit, and whenever the informer watches are down, the last-known copy of
+ * the resource is served as long as it is younger than {@code shadok.webhook.lookup.max-staleness}.
+ * The age of a resource is the time since it was last read successfully: by a live GET, by a watch
+ * event, or from the store of a watching informer. It is reported through {@link
+ * ShadokResourceLookup#staleness()} of the per-admission lookup returned by {@link
+ * #forAdmission()}.
+ */
+@ApplicationScoped
+public class ShadokResourceCache implements ShadokResourceLookup {
+
+  private static final Logger log = LoggerFactory.getLogger(ShadokResourceCache.class);
+
+  @Inject KubernetesClient client;
+  @Inject WebhookConfig config;
+
+  private SharedIndexInformer<Application> applications;
+  private SharedIndexInformer<ProjectSource> projectSources;
+  private SharedIndexInformer<DependencyCache> dependencyCaches;
+  private CompletableFuture<Void> synced;
+
+  // Last successful read of each resource
+  private final Map<String, Known> lastKnown = new ConcurrentHashMap<>();
+  private final AtomicLong staleServes = new AtomicLong();
+  private volatile LookupCircuitBreaker breaker;
+  private volatile KubernetesClient liveReads;
+
+  // Clock of the read ages and of the circuit breaker
+  LongSupplier nanoTime = System::nanoTime;
+
+  private record Known(HasMetadata resource, long confirmedAt) {}
+
+  /** A resource served to an admission, with its age when it did not come from a live source. */
+  record Served<T>(T resource, Optional<Duration> staleness) {
+
+    static <T> Served<T> fresh(T resource) {
+      return new Served<>(resource, Optional.empty());
+    }
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    start();
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    informers().forEach(SharedIndexInformer::stop);
+    Optional.ofNullable(liveReads).ifPresent(KubernetesClient::close);
+  }
+
+  /** Start the informers once; returns a future completed when all of them have synced. */
+  synchronized CompletableFuture<Void> start() {
+    if (synced == null) {
+      applications = client.resources(Application.class).inAnyNamespace().runnableInformer(0);
+      projectSources = client.resources(ProjectSource.class).inAnyNamespace().runnableInformer(0);
+      dependencyCaches =
+          client.resources(DependencyCache.class).inAnyNamespace().runnableInformer(0);
+      applications.addEventHandler(new ReadTracker<>(Application.class));
+      projectSources.addEventHandler(new ReadTracker<>(ProjectSource.class));
+      dependencyCaches.addEventHandler(new ReadTracker<>(DependencyCache.class));
+
+      synced =
+          CompletableFuture.allOf(
+              informers()
+                  .map(informer -> informer.start().toCompletableFuture())
+                  .toArray(CompletableFuture[]::new));
+      synced.whenComplete(
+          (ignored, error) -> {
+            if (error != null) {
+              log.error("Shadok informers failed to sync: {}", error.getMessage(), error);
+            } else {
+              log.info("Shadok informers synced");
+            }
+          });
+    }
+    return synced;
+  }
+
+  /**
+   * Block until the informers have synced.
+   *
+   * @param timeout maximum time to wait
+   * @return true if all informers synced within the timeout
+   */
+  public boolean awaitSync(Duration timeout) {
+    try {
+      start().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (Exception e) {
+      log.warn("Shadok informers not synced after {}: {}", timeout, e.getMessage());
+      return false;
+    }
+  }
+
+  /** Whether all informers have completed their initial list. */
+  public boolean hasSynced() {
+    return synced != null && synced.isDone() && !synced.isCompletedExceptionally();
+  }
+
+  @Override
+  public Optional<Application> findApplication(String name, String namespace) {
+    return resolve(applications, Application.class, name, namespace).map(Served::resource);
+  }
+
+  @Override
+  public Optional<ProjectSource> findProjectSource(String name, String namespace) {
+    return resolve(projectSources, ProjectSource.class, name, namespace).map(Served::resource);
+  }
+
+  @Override
+  public Optional<DependencyCache> findDependencyCache(String name, String namespace) {
+    return resolve(dependencyCaches, DependencyCache.class, name, namespace).map(Served::resource);
+  }
+
+  /** Lookup for a single admission, remembering the age of the oldest stale resource it served. */
+  ShadokResourceLookup forAdmission() {
+    return new AdmissionLookup();
+  }
+
+  /** Current state of the lookup circuit breaker. */
+  LookupCircuitBreaker.State circuitState() {
+    return breaker().state();
+  }
+
+  /** Number of resources served from last-known data. */
+  public long staleServes() {
+    return staleServes.get();
+  }
+
+  /** Number of live reads rejected by the open circuit. */
+  public long rejectedLookups() {
+    return breaker().rejectedCalls();
+  }
+
+  /** Number of live reads that failed, timed out or were slow. */
+  public long failedLookups() {
+    return breaker().failedCalls();
+  }
+
+  private <T extends HasMetadata> Optional<Served<T>> resolve(
+      SharedIndexInformer<T> informer, Class<T> type, String name, String namespace) {
+    var key = key(type, namespace, name);
+    var watching =
+        Optional.ofNullable(informer)
+            .filter(SharedIndexInformer::hasSynced)
+            .filter(SharedIndexInformer::isWatching);
+    var stored = watching.map(i -> i.getStore().getByKey(Cache.namespaceKeyFunc(namespace, name)));
+    if (stored.isPresent()) {
+      lastKnown.put(key, new Known(stored.get(), nanoTime.getAsLong()));
+      return stored.map(Served::fresh);
+    }
+
+    var circuit = breaker();
+    if (circuit.tryAcquire()) {
+      var start = nanoTime.getAsLong();
+      try {
+        var fetched = fetch(type, name, namespace);
+        circuit.onSuccess(nanoTime.getAsLong() - start);
+        if (fetched == null) {
+          lastKnown.remove(key);
+          return Optional.empty();
+        }
+        lastKnown.put(key, new Known(fetched, nanoTime.getAsLong()));
+        return Optional.of(Served.fresh(fetched));
+      } catch (Exception e) {
+        circuit.onFailure();
+        log.warn(
+            "Live read of {} {}/{} failed: {}",
+            type.getSimpleName(),
+            namespace,
+            name,
+            e.getMessage());
+      }
+    }
+    return lastKnown(type, key);
+  }
+
+  private <T extends HasMetadata> Optional<Served<T>> lastKnown(Class<T> type, String key) {
+    var maxStaleness = config.lookup().maxStaleness();
+    return Optional.ofNullable(lastKnown.get(key))
+        .map(known -> new Served<>(type.cast(known.resource()), age(known)))
+        .filter(served -> served.staleness().orElseThrow().compareTo(maxStaleness) <= 0)
+        .map(
+            served -> {
+              staleServes.incrementAndGet();
+              log.debug("Serving last-known {} ({} old)", key, served.staleness().orElseThrow());
+              return served;
+            });
+  }
+
+  private Optional<Duration> age(Known known) {
+    return Optional.of(Duration.ofNanos(nanoTime.getAsLong() - known.confirmedAt()));
+  }
+
+  private static String key(Class<?> type, String namespace, String name) {
+    return type.getSimpleName() + "/" + Cache.namespaceKeyFunc(namespace, name);
+  }
+
+  private <T extends HasMetadata> T fetch(Class<T> type, String name, String namespace) {
+    log.debug(
+        "Cache miss for {} {}/{}, reading from API server", type.getSimpleName(), namespace, name);
+    return liveReads().resources(type).inNamespace(namespace).withName(name).get();
+  }
+
+  /** Client of the live reads: the request timeout is enforced by the HTTP client, no retries. */
+  private KubernetesClient liveReads() {
+    var current = liveReads;
+    if (current == null) {
+      synchronized (this) {
+        if (liveReads == null) {
+          liveReads =
+              new KubernetesClientBuilder()
+                  .withConfig(
+                      new ConfigBuilder(client.getConfiguration())
+                          .withRequestTimeout((int) config.lookup().timeout().toMillis())
+                          .withRequestRetryBackoffLimit(0)
+                          .build())
+                  .build();
+        }
+        current = liveReads;
+      }
+    }
+    return current;
+  }
+
+  private LookupCircuitBreaker breaker() {
+    var current = breaker;
+    if (current == null) {
+      synchronized (this) {
+        if (breaker == null) {
+          breaker = new LookupCircuitBreaker(config.lookup(), nanoTime);
+        }
+        current = breaker;
+      }
+    }
+    return current;
+  }
+
+  /** Tracks the age of the oldest stale resource served during one admission. */
+  private final class AdmissionLookup implements ShadokResourceLookup {
+
+    private Optional<Duration> staleness = Optional.empty();
+
+    @Override
+    public Optional<Application> findApplication(String name, String namespace) {
+      return track(resolve(applications, Application.class, name, namespace));
+    }
+
+    @Override
+    public Optional<ProjectSource> findProjectSource(String name, String namespace) {
+      return track(resolve(projectSources, ProjectSource.class, name, namespace));
+    }
+
+    @Override
+    public Optional<DependencyCache> findDependencyCache(String name, String namespace) {
+      return track(resolve(dependencyCaches, DependencyCache.class, name, namespace));
+    }
+
+    @Override
+    public Optional<Duration> staleness() {
+      return staleness;
+    }
+
+    private <T> Optional<T> track(Optional<Served<T>> served) {
+      served
+          .flatMap(Served::staleness)
+          .filter(age -> staleness.map(oldest -> age.compareTo(oldest) > 0).orElse(true))
+          .ifPresent(age -> staleness = Optional.of(age));
+      return served.map(Served::resource);
+    }
+  }
+
+  /** Resources delivered by the watches were read successfully when they were delivered. */
+  private final class ReadTracker<T extends HasMetadata> implements ResourceEventHandler<T> {
+
+    private final Class<T> type;
+
+    private ReadTracker(Class<T> type) {
+      this.type = type;
+    }
+
+    @Override
+    public void onAdd(T resource) {
+      track(resource);
+    }
+
+    @Override
+    public void onUpdate(T previous, T resource) {
+      track(resource);
+    }
+
+    @Override
+    public void onDelete(T resource, boolean deletedFinalStateUnknown) {
+      lastKnown.remove(
+          key(type, resource.getMetadata().getNamespace(), resource.getMetadata().getName()));
+    }
+
+    private void track(T resource) {
+      lastKnown.put(
+          key(type, resource.getMetadata().getNamespace(), resource.getMetadata().getName()),
+          new Known(resource, nanoTime.getAsLong()));
+    }
+  }
+
+  private Stream<SharedIndexInformer<? extends HasMetadata>> informers() {
+    return Stream.<SharedIndexInformer<? extends HasMetadata>>of(
+            applications, projectSources, dependencyCaches)
+        .filter(informer -> informer != null);
+  }
+}
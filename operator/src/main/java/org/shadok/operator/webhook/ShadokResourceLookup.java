@@ -0,0 +1,31 @@
+package org.shadok.operator.webhook;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.code.ProjectSource;
+
+/**
+ * Resolves the Shadok resources referenced by a pod during admission.
+ *
+ * <p>The webhook uses the informer-backed {@link ShadokResourceCache}; the warm-up uses a synthetic
+ * implementation so that it never touches the API server.
+ */
+interface ShadokResourceLookup {
+
+  Optional<Application> findApplication(String name, String namespace);
+
+  Optional<ProjectSource> findProjectSource(String name, String namespace);
+
+  Optional<DependencyCache> findDependencyCache(String name, String namespace);
+
+  /**
+   * Age of the oldest last-known resource this lookup served instead of live data.
+   *
+   * @return empty when every resource came from a watching informer or a live read
+   */
+  default Optional<Duration> staleness() {
+    return Optional.empty();
+  }
+}
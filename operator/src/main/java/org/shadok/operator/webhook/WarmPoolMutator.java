@@ -0,0 +1,52 @@
+package org.shadok.operator.webhook;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.List;
+import org.shadok.operator.controller.WarmPool;
+import org.shadok.operator.dependent.DependencyCachePvcDependent;
+import org.shadok.operator.webhook.PodMutatingWebhook.PodMutation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The pod of an Application claims a warm pool pod of its type and prefers its node, where the
+ * image is pulled and the cache volume attached. The pod is labelled with the pool pod, which this
+ * replica deletes as soon as the pod is created; the claim lapses when it is not. Admission never
+ * fails on the pool; dry runs claim nothing.
+ */
+@ApplicationScoped
+@Priority(20)
+public class WarmPoolMutator implements PodMutator {
+
+  private static final Logger log = LoggerFactory.getLogger(WarmPoolMutator.class);
+
+  @Inject WarmPool warmPool;
+
+  @Override
+  public List<PodMutation> mutations(AdmittedPod pod) {
+    if (pod.dryRun()) {
+      return List.of();
+    }
+    try {
+      return warmPool
+          .select(
+              pod.applicationType(),
+              pod.namespace(),
+              pod.dependencyCache()
+                  .map(cache -> DependencyCachePvcDependent.claimName(cache, pod.namespace())))
+          .map(
+              selection ->
+                  List.<PodMutation>of(
+                      new PodMutation.AddLabel(WarmPool.LABEL_SELECTED, selection.pod()),
+                      new PodMutation.AddAnnotation(
+                          WarmPool.ANNOTATION_SELECTED_UID, selection.uid()),
+                      new PodMutation.PreferNode(selection.node())))
+          .orElse(List.of());
+    } catch (RuntimeException e) {
+      log.warn("⚠️ Warm pool unavailable, pod scheduled as usual: {}", e.getMessage());
+      return List.of();
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package org.shadok.operator.webhook;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Prometheus metrics of the admission path lookups.
+ *
+ * <ul>
+ *   <li>{@code shadok_webhook_lookup_circuit_state}: 0 closed, 1 half-open, 2 open
+ *   <li>{@code shadok_webhook_lookup_stale_served_total}: resources served from last-known data
+ *   <li>{@code shadok_webhook_lookup_rejected_total}: live reads short-circuited by the breaker
+ *   <li>{@code shadok_webhook_lookup_failures_total}: live reads that failed, timed out or were
+ *       slow
+ * </ul>
+ */
+@Singleton
+public class WebhookLookupMetrics implements MeterBinder {
+
+  @Inject ShadokResourceCache resourceCache;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder(
+            "shadok.webhook.lookup.circuit.state",
+            resourceCache,
+            cache -> cache.circuitState().ordinal())
+        .description("Lookup circuit breaker state (0 closed, 1 half-open, 2 open)")
+        .register(registry);
+    FunctionCounter.builder(
+            "shadok.webhook.lookup.stale.served", resourceCache, ShadokResourceCache::staleServes)
+        .description("Shadok resources served from last-known data")
+        .register(registry);
+    FunctionCounter.builder(
+            "shadok.webhook.lookup.rejected", resourceCache, ShadokResourceCache::rejectedLookups)
+        .description("Live API server reads rejected by the open circuit")
+        .register(registry);
+    FunctionCounter.builder(
+            "shadok.webhook.lookup.failures", resourceCache, ShadokResourceCache::failedLookups)
+        .description("Live API server reads that failed, timed out or were slow")
+        .register(registry);
+  }
+}
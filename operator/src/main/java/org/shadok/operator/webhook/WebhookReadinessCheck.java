@@ -0,0 +1,50 @@
+package org.shadok.operator.webhook;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Readiness of the pod mutating webhook.
+ *
+ * <p>Reports DOWN until the Shadok informers have synced and the synthetic warm-up has completed
+ * after they did, so that the Service only routes admissions to a replica with warm caches and a
+ * warm JIT. The cold/warm warm-up latencies and the first live admission latency are published as
+ * check data.
+ */
+@Readiness
+@ApplicationScoped
+public class WebhookReadinessCheck implements HealthCheck {
+
+  static final String NAME = "Shadok webhook";
+
+  @Inject ShadokResourceCache resourceCache;
+  @Inject WebhookWarmup warmup;
+  @Inject PodMutatingWebhook webhook;
+
+  @Override
+  public HealthCheckResponse call() {
+    var builder =
+        HealthCheckResponse.named(NAME).withData("informersSynced", resourceCache.hasSynced());
+
+    var report = warmup.report();
+    report.ifPresent(
+        r ->
+            builder
+                .withData("warmupAdmissions", r.admissions())
+                .withData("coldAdmissionMicros", TimeUnit.NANOSECONDS.toMicros(r.coldNanos()))
+                .withData("warmAdmissionMicros", TimeUnit.NANOSECONDS.toMicros(r.warmNanos())));
+    webhook
+        .firstAdmissionNanos()
+        .ifPresent(
+            nanos ->
+                builder.withData("firstLiveAdmissionMicros", TimeUnit.NANOSECONDS.toMicros(nanos)));
+
+    var ready =
+        resourceCache.hasSynced() && report.filter(WebhookWarmup.Report::synced).isPresent();
+    return builder.status(ready).build();
+  }
+}
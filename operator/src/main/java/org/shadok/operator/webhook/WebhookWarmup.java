@@ -0,0 +1,186 @@
+package org.shadok.operator.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.GroupVersionKind;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.admission.v1.AdmissionRequest;
+import io.fabric8.kubernetes.api.model.admission.v1.AdmissionReview;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.shadok.operator.config.WebhookConfig;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationSpec;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheSpec;
+import org.shadok.operator.model.code.ProjectSource;
+import org.shadok.operator.model.code.ProjectSourceSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Warms up the admission path before the webhook reports ready.
+ *
+ * <p>Once the Shadok informers have synced, a configurable number of synthetic AdmissionReviews are
+ * serialized, replayed through {@link PodMutatingWebhook} with a synthetic resource lookup (no API
+ * server calls), and serialized back, covering every {@link ApplicationType}. The latency of the
+ * first (cold) and last (warm) replay is kept for the readiness report. The synthetic admissions
+ * are dry runs, so that mutators with side effects outside of the pod leave the cluster alone.
+ *
+ * <p>When the informers have not synced within {@code shadok.webhook.warmup.sync-timeout}, an
+ * unsynced report is published and the warm-up runs as soon as they do.
+ */
+@ApplicationScoped
+public class WebhookWarmup {
+
+  private static final Logger log = LoggerFactory.getLogger(WebhookWarmup.class);
+
+  private static final String WARMUP_NAMESPACE = "shadok-warmup";
+
+  @Inject PodMutatingWebhook webhook;
+  @Inject ShadokResourceCache resourceCache;
+  @Inject ObjectMapper objectMapper;
+  @Inject WebhookConfig config;
+
+  /** Outcome of the warm-up, exposed through the readiness check. */
+  public record Report(boolean synced, int admissions, long coldNanos, long warmNanos) {}
+
+  private volatile Optional<Report> report = Optional.empty();
+
+  // Runs the warm-up off the startup and informer threads
+  Executor warmups = task -> Thread.ofVirtual().name("shadok-webhook-warmup").start(task);
+
+  void onStart(@Observes StartupEvent event) {
+    warmups.execute(this::run);
+  }
+
+  /**
+   * Warm-up report.
+   *
+   * @return the report once the warm-up has finished, empty while it is still running
+   */
+  public Optional<Report> report() {
+    return report;
+  }
+
+  void run() {
+    if (!resourceCache.awaitSync(config.warmup().syncTimeout())) {
+      log.warn("Webhook not ready until the Shadok informers sync, warm-up deferred");
+      report = Optional.of(new Report(false, 0, 0, 0));
+      resourceCache.start().thenRunAsync(this::warmUp, warmups);
+      return;
+    }
+    warmUp();
+  }
+
+  private void warmUp() {
+    var warmup = config.warmup();
+    if (!warmup.enabled()) {
+      log.info("Webhook warm-up disabled, reporting ready");
+      report = Optional.of(new Report(true, 0, 0, 0));
+      return;
+    }
+
+    var types = ApplicationType.values();
+    var admissions = Math.max(warmup.admissions(), types.length);
+    var latencies =
+        IntStream.range(0, admissions).mapToLong(i -> replay(types[i % types.length], i)).toArray();
+
+    var result = new Report(true, admissions, latencies[0], latencies[latencies.length - 1]);
+    log.info(
+        "Webhook warm-up completed: {} synthetic admissions, first {} µs, last {} µs",
+        admissions,
+        TimeUnit.NANOSECONDS.toMicros(result.coldNanos()),
+        TimeUnit.NANOSECONDS.toMicros(result.warmNanos()));
+    report = Optional.of(result);
+  }
+
+  private long replay(ApplicationType type, int index) {
+    var start = System.nanoTime();
+    try {
+      var request = roundTrip(syntheticReview(type, index));
+      roundTrip(webhook.handle(request, new SyntheticLookup(type)));
+    } catch (Exception e) {
+      log.warn("Synthetic admission for {} failed: {}", type, e.getMessage());
+    }
+    return System.nanoTime() - start;
+  }
+
+  private AdmissionReview roundTrip(AdmissionReview review) throws Exception {
+    return objectMapper.readValue(objectMapper.writeValueAsBytes(review), AdmissionReview.class);
+  }
+
+  private AdmissionReview syntheticReview(ApplicationType type, int index) {
+    Pod pod =
+        new PodBuilder()
+            .withMetadata(
+                new ObjectMetaBuilder()
+                    .withName("warmup-" + type.name().toLowerCase().replace('_', '-') + "-" + index)
+                    .withNamespace(WARMUP_NAMESPACE)
+                    .withAnnotations(Map.of("org.shadok/application", type.name()))
+                    .build())
+            .withNewSpec()
+            .withContainers(
+                new ContainerBuilder().withName("app").withImage("warmup:latest").build())
+            .endSpec()
+            .build();
+
+    var request = new AdmissionRequest();
+    request.setKind(new GroupVersionKind("", "Pod", "v1"));
+    request.setOperation("CREATE");
+    request.setNamespace(WARMUP_NAMESPACE);
+    request.setObject(pod);
+    request.setUid("warmup-" + index);
+    request.setDryRun(true);
+
+    var review = new AdmissionReview();
+    review.setApiVersion("admission.k8s.io/v1");
+    review.setKind("AdmissionReview");
+    review.setRequest(request);
+    return review;
+  }
+
+  /** Resolves every reference to an in-memory resource of the given type. */
+  private record SyntheticLookup(ApplicationType type) implements ShadokResourceLookup {
+
+    @Override
+    public Optional<Application> findApplication(String name, String namespace) {
+      var application = new Application();
+      application.setMetadata(metadata(name, namespace));
+      application.setSpec(ApplicationSpec.of(type, "warmup-source", "warmup-cache"));
+      return Optional.of(application);
+    }
+
+    @Override
+    public Optional<ProjectSource> findProjectSource(String name, String namespace) {
+      var projectSource = new ProjectSource();
+      projectSource.setMetadata(metadata(name, namespace));
+      projectSource.setSpec(
+          new ProjectSourceSpec("warmup-pv", "/warmup", name, null, null, null, null));
+      return Optional.of(projectSource);
+    }
+
+    @Override
+    public Optional<DependencyCache> findDependencyCache(String name, String namespace) {
+      var dependencyCache = new DependencyCache();
+      dependencyCache.setMetadata(metadata(name, namespace));
+      dependencyCache.setSpec(DependencyCacheSpec.of("warmup-pv", "/warmup", name));
+      return Optional.of(dependencyCache);
+    }
+
+    private static ObjectMeta metadata(String name, String namespace) {
+      return new ObjectMetaBuilder().withName(name).withNamespace(namespace).build();
+    }
+  }
+}
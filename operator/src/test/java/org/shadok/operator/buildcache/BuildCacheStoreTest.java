@@ -0,0 +1,105 @@
+package org.shadok.operator.buildcache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** LRU eviction, namespace scoping and entry metadata of the Gradle build cache store. */
+class BuildCacheStoreTest {
+
+  private static final String A = "a".repeat(32);
+  private static final String B = "b".repeat(32);
+  private static final String C = "c".repeat(32);
+  private static final String DEV = "dev";
+
+  @TempDir Path root;
+
+  @Test
+  @DisplayName("The least recently used entries are evicted beyond the maximum size")
+  void evictsLeastRecentlyUsed() throws IOException {
+    var store = new BuildCacheStore(root, 250, Clock.systemUTC());
+    put(store, A, 100);
+    put(store, B, 100);
+    assertTrue(store.load(DEV, A).isPresent());
+
+    var stored = put(store, C, 100);
+
+    assertEquals(1, stored.evicted());
+    assertTrue(store.load(DEV, A).isPresent());
+    assertTrue(store.load(DEV, B).isEmpty());
+    assertEquals(200, store.size());
+    assertEquals(2, new BuildCacheStore(root, 250, Clock.systemUTC()).count());
+    assertThrows(IllegalArgumentException.class, () -> store.load(DEV, "../../etc/passwd"));
+  }
+
+  @Test
+  @DisplayName("Entries are scoped by namespace, which only the credentials of its pods reach")
+  void scopesEntriesByNamespace() throws IOException {
+    var store = new BuildCacheStore(root, 1000, Clock.systemUTC());
+    put(store, A, 100);
+
+    assertTrue(store.load(DEV, A).isPresent());
+    assertTrue(store.load("other", A).isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> store.load("..", A));
+    assertEquals(1, new BuildCacheStore(root, 1000, Clock.systemUTC()).count());
+
+    var credentials = "Basic " + base64(DEV + ":" + BuildCacheCredentials.password("s3cr3t", DEV));
+    assertTrue(BuildCacheCredentials.authorizes("s3cr3t", DEV, credentials));
+    assertFalse(BuildCacheCredentials.authorizes("s3cr3t", "other", credentials));
+    assertFalse(BuildCacheCredentials.authorizes("changed", DEV, credentials));
+    assertFalse(BuildCacheCredentials.authorizes("s3cr3t", DEV, null));
+    assertFalse(BuildCacheCredentials.authorizes("s3cr3t", DEV, "Basic %%%"));
+  }
+
+  @Test
+  @DisplayName("The task execution time is read from the entry METADATA")
+  void readsExecutionTime() throws IOException {
+    var entry = root.resolve("entry");
+    Files.write(entry, entry("buildInvocationId=x\nexecutionTime=4200\ngradleVersion=8.14\n"));
+
+    assertEquals(Optional.of(Duration.ofMillis(4200)), BuildCacheStore.executionTime(entry));
+    Files.writeString(entry, "not an archive");
+    assertTrue(BuildCacheStore.executionTime(entry).isEmpty());
+  }
+
+  private static BuildCacheStore.Stored put(BuildCacheStore store, String key, int size)
+      throws IOException {
+    var upload = store.upload();
+    Files.write(upload, new byte[size]);
+    return store.store(DEV, key, upload);
+  }
+
+  private static String base64(String value) {
+    return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Gzipped tar starting with a METADATA file, as packed by Gradle. */
+  private static byte[] entry(String metadata) throws IOException {
+    var content = metadata.getBytes(StandardCharsets.UTF_8);
+    var header = new byte[512];
+    var name = "METADATA".getBytes(StandardCharsets.US_ASCII);
+    System.arraycopy(name, 0, header, 0, name.length);
+    var size = String.format("%011o", content.length).getBytes(StandardCharsets.US_ASCII);
+    System.arraycopy(size, 0, header, 124, size.length);
+
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new GZIPOutputStream(bytes)) {
+      out.write(header);
+      out.write(content);
+      out.write(new byte[512 - content.length % 512]);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,129 @@
+package org.shadok.operator.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.extended.leaderelection.LeaderCallbacks;
+import io.fabric8.kubernetes.client.extended.leaderelection.LeaderElectionConfigBuilder;
+import io.fabric8.kubernetes.client.extended.leaderelection.LeaderElector;
+import io.fabric8.kubernetes.client.extended.leaderelection.resourcelock.LeaseLock;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.javaoperatorsdk.operator.api.config.LeaderElectionConfiguration;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Leader election of the reconcilers against a mock API server. */
+@EnableKubernetesMockClient(crud = true)
+class LeaderElectionConfigurationProducerTest {
+
+  private static final String NAMESPACE = "shadok";
+
+  KubernetesMockServer server;
+  KubernetesClient client;
+
+  @Test
+  @DisplayName("Configuration uses the Shadok lease settings")
+  void configurationUsesShadokSettings() {
+    var configuration = LeaderElectionConfigurationProducer.create(new TestConfig("replica-a"));
+
+    assertEquals("shadok-operator-leader", configuration.getLeaseName());
+    assertEquals(Optional.of(NAMESPACE), configuration.getLeaseNamespace());
+    assertEquals(Optional.of("replica-a"), configuration.getIdentity());
+    assertEquals(Duration.ofSeconds(6), configuration.getLeaseDuration());
+    assertTrue(configuration.getLeaderCallbacks().isPresent());
+  }
+
+  @Test
+  @DisplayName("A follower takes over the lease shortly after the leader stops renewing")
+  void followerTakesOverAfterLeaderLoss() throws Exception {
+    var configuration = LeaderElectionConfigurationProducer.create(new TestConfig("replica-a"));
+    var executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      var leaderStarted = new CountDownLatch(1);
+      var leader = elector(configuration, "replica-a", leaderStarted, executor);
+      var leading = leader.start();
+      assertTrue(leaderStarted.await(10, TimeUnit.SECONDS));
+
+      var followerStarted = new CountDownLatch(1);
+      var follower = elector(configuration, "replica-b", followerStarted, executor).start();
+
+      // Simulate a crashed leader: stop renewing without releasing the lease
+      leading.cancel(true);
+      var lostAt = System.nanoTime();
+      var maxFailover = configuration.getLeaseDuration().plus(configuration.getRetryPeriod());
+      assertTrue(followerStarted.await(maxFailover.toSeconds() + 5, TimeUnit.SECONDS));
+      var failover = Duration.ofNanos(System.nanoTime() - lostAt);
+
+      var lease =
+          client
+              .resources(Lease.class)
+              .inNamespace(NAMESPACE)
+              .withName(configuration.getLeaseName())
+              .get();
+      assertEquals("replica-b", lease.getSpec().getHolderIdentity());
+      assertTrue(failover.compareTo(maxFailover.plusSeconds(2)) < 0, "failover took " + failover);
+      follower.cancel(true);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private LeaderElector elector(
+      LeaderElectionConfiguration configuration,
+      String identity,
+      CountDownLatch started,
+      Executor executor) {
+    var config =
+        new LeaderElectionConfigBuilder()
+            .withName(configuration.getLeaseName())
+            .withLock(new LeaseLock(NAMESPACE, configuration.getLeaseName(), identity))
+            .withLeaseDuration(configuration.getLeaseDuration())
+            .withRenewDeadline(configuration.getRenewDeadline())
+            .withRetryPeriod(configuration.getRetryPeriod())
+            .withReleaseOnCancel(false)
+            .withLeaderCallbacks(new LeaderCallbacks(started::countDown, () -> {}, leader -> {}))
+            .build();
+    return new LeaderElector(server.createClient(), config, executor);
+  }
+
+  private record TestConfig(String replica) implements ShadokLeaderElectionConfig {
+
+    @Override
+    public String leaseName() {
+      return "shadok-operator-leader";
+    }
+
+    @Override
+    public Optional<String> leaseNamespace() {
+      return Optional.of(NAMESPACE);
+    }
+
+    @Override
+    public Optional<String> identity() {
+      return Optional.of(replica);
+    }
+
+    @Override
+    public Duration leaseDuration() {
+      return Duration.ofSeconds(6);
+    }
+
+    @Override
+    public Duration renewDeadline() {
+      return Duration.ofSeconds(4);
+    }
+
+    @Override
+    public Duration retryPeriod() {
+      return Duration.ofSeconds(1);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package org.shadok.operator.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Leader pod label selected by the operator-leader Service, against a mock API server. */
+@EnableKubernetesMockClient(crud = true)
+class LeaderPodLabelTest {
+
+  private static final String NAMESPACE = "shadok";
+
+  KubernetesMockServer server;
+  KubernetesClient client;
+
+  @Test
+  @DisplayName("The new leader labels its pod and unlabels the previous leader")
+  void leaderTakesOverTheLabel() {
+    pod("operator-a", true);
+    pod("operator-b", false);
+
+    label("operator-b").acquired();
+
+    assertFalse(leader("operator-a"));
+    assertTrue(leader("operator-b"));
+
+    label("operator-b").lost();
+    assertFalse(leader("operator-b"));
+  }
+
+  @Test
+  @DisplayName("Nothing is labelled outside of a cluster")
+  void noPodName() {
+    pod("operator-a", false);
+    var podLabel = label("operator-a");
+    podLabel.podName = Optional.empty();
+
+    podLabel.acquired();
+
+    assertFalse(leader("operator-a"));
+  }
+
+  private LeaderPodLabel label(String podName) {
+    var podLabel = new LeaderPodLabel();
+    podLabel.client = client;
+    podLabel.podName = Optional.of(podName);
+    podLabel.podNamespace = Optional.of(NAMESPACE);
+    return podLabel;
+  }
+
+  private void pod(String name, boolean leader) {
+    var pod =
+        new PodBuilder()
+            .withNewMetadata()
+            .withName(name)
+            .withNamespace(NAMESPACE)
+            .addToLabels("app.kubernetes.io/name", "operator")
+            .endMetadata()
+            .build();
+    if (leader) {
+      pod.getMetadata().getLabels().put(LeaderPodLabel.LABEL, "true");
+    }
+    client.resource(pod).create();
+  }
+
+  private boolean leader(String name) {
+    return "true"
+        .equals(
+            client
+                .pods()
+                .inNamespace(NAMESPACE)
+                .withName(name)
+                .get()
+                .getMetadata()
+                .getLabels()
+                .get(LeaderPodLabel.LABEL));
+  }
+}
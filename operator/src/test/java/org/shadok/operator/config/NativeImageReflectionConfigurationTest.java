@@ -0,0 +1,94 @@
+package org.shadok.operator.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.application.ApplicationSpec;
+import org.shadok.operator.model.application.ApplicationStatus;
+import org.shadok.operator.model.cache.DependencyCacheSpec;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.code.ProjectSourceSpec;
+import org.shadok.operator.model.code.ProjectSourceStatus;
+import org.shadok.operator.model.result.JobResult;
+import org.shadok.operator.model.result.ResourceCheckResult;
+import org.shadok.operator.webhook.PodMutatingWebhook;
+
+/** The native image registers every class the JVM operator reaches through reflection. */
+class NativeImageReflectionConfigurationTest {
+
+  private static final Set<Class<?>> REGISTERED =
+      Set.of(
+          NativeImageReflectionConfiguration.class
+              .getAnnotation(RegisterForReflection.class)
+              .targets());
+
+  @Test
+  @DisplayName("Every case of the sealed hierarchies matched at runtime is registered")
+  void sealedHierarchiesAreRegistered() {
+    var missing =
+        Stream.of(PodMutatingWebhook.PodMutation.class, ResourceCheckResult.class, JobResult.class)
+            .flatMap(type -> Stream.concat(Stream.of(type), permitted(type)))
+            .filter(type -> !REGISTERED.contains(type))
+            .toList();
+
+    assertEquals(List.of(), missing);
+  }
+
+  @Test
+  @DisplayName("Every Shadok type reachable from the CRD specs and statuses is registered")
+  void crdPayloadsAreRegistered() {
+    var pending =
+        new ArrayDeque<Class<?>>(
+            List.of(
+                ApplicationSpec.class,
+                ApplicationStatus.class,
+                DependencyCacheSpec.class,
+                DependencyCacheStatus.class,
+                ProjectSourceSpec.class,
+                ProjectSourceStatus.class));
+    var seen = new HashSet<Class<?>>();
+    var missing = new HashSet<Class<?>>();
+    while (!pending.isEmpty()) {
+      var type = pending.pop();
+      if (!seen.add(type)) {
+        continue;
+      }
+      if (!REGISTERED.contains(type)) {
+        missing.add(type);
+      }
+      Arrays.stream(type.getDeclaredFields())
+          .filter(field -> !Modifier.isStatic(field.getModifiers()))
+          .flatMap(field -> shadokTypes(field.getGenericType()))
+          .forEach(pending::push);
+    }
+
+    assertEquals(Set.of(), missing);
+  }
+
+  private static Stream<Class<?>> permitted(Class<?> type) {
+    return Stream.ofNullable(type.getPermittedSubclasses())
+        .flatMap(Arrays::stream)
+        .flatMap(subtype -> Stream.concat(Stream.of(subtype), permitted(subtype)));
+  }
+
+  private static Stream<Class<?>> shadokTypes(Type type) {
+    return switch (type) {
+      case Class<?> c when c.getPackageName().startsWith("org.shadok.operator.model") ->
+          Stream.of(c);
+      case ParameterizedType p ->
+          Arrays.stream(p.getActualTypeArguments()).flatMap(arg -> shadokTypes(arg));
+      default -> Stream.empty();
+    };
+  }
+}
@@ -0,0 +1,71 @@
+package org.shadok.operator.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.BuildVolumeSpec;
+import org.shadok.operator.model.application.TestApplicationSpecs;
+
+/** Provisioning of the persistent build volumes of Applications. */
+@EnableKubernetesMockClient(crud = true)
+class BuildVolumesTest {
+
+  KubernetesMockServer server;
+  KubernetesClient client;
+
+  private BuildVolumes buildVolumes;
+
+  @BeforeEach
+  void setUp() {
+    buildVolumes = new BuildVolumes();
+    buildVolumes.client = client;
+  }
+
+  @Test
+  @DisplayName("One PVC per pod ordinal is created, owned by the Application")
+  void createsOwnedClaimPerOrdinal() {
+    var status =
+        buildVolumes
+            .provision(application(new BuildVolumeSpec(null, "5Gi", null, null, 2)))
+            .orElseThrow();
+
+    assertEquals(List.of("demo-build-0", "demo-build-1"), status.claims());
+    var pvc = client.persistentVolumeClaims().inNamespace("dev").withName("demo-build-1").get();
+    assertEquals("5Gi", pvc.getSpec().getResources().getRequests().get("storage").toString());
+    assertEquals("demo", pvc.getMetadata().getOwnerReferences().getFirst().getName());
+  }
+
+  @Test
+  @DisplayName("PVCs no longer needed are deleted")
+  void deletesUnneededClaims() {
+    buildVolumes.provision(application(new BuildVolumeSpec(null, null, null, null, 2)));
+
+    var shared =
+        buildVolumes.provision(application(new BuildVolumeSpec(null, null, null, null, 0)));
+    var emptyDir =
+        buildVolumes.provision(
+            application(new BuildVolumeSpec(BuildVolumeSpec.Type.EMPTY_DIR, null, null, null, 0)));
+
+    assertEquals(List.of("demo-build"), shared.orElseThrow().claims());
+    assertTrue(emptyDir.isEmpty());
+    assertTrue(client.persistentVolumeClaims().inNamespace("dev").list().getItems().isEmpty());
+  }
+
+  private static Application application(BuildVolumeSpec buildVolume) {
+    var application = new Application();
+    application.setMetadata(
+        new ObjectMetaBuilder().withName("demo").withNamespace("dev").withUid("uid").build());
+    application.setSpec(
+        TestApplicationSpecs.of(ApplicationType.QUARKUS_GRADLE).buildVolume(buildVolume).build());
+    return application;
+  }
+}
@@ -0,0 +1,64 @@
+package org.shadok.operator.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.cache.CacheExpansionSpec;
+import org.shadok.operator.model.cache.CacheUsageStatus;
+
+/** Unit tests for the target size of DependencyCache PVC expansions. */
+class CacheExpansionTest {
+
+  private static final long GIB = CacheExpansion.GIB;
+
+  private static final CacheExpansionSpec DEFAULTS = new CacheExpansionSpec(null, null, null, null);
+
+  @Test
+  @DisplayName("The recommended size of the application types wins over a small usage")
+  void recommendedSizeWins() {
+    var target = CacheExpansion.target(DEFAULTS, usage(850 * (1L << 20), null), 4);
+
+    assertEquals(4 * GIB, target.bytes());
+  }
+
+  @Test
+  @DisplayName("Projected usage is brought down to the target usage percentage")
+  void projectedUsageSizesTheVolume() {
+    // 4.5Gi used, growing 0.125Gi/h: 7.5Gi in 24h, 12.5Gi at 60%
+    var target = CacheExpansion.target(DEFAULTS, usage(9 * GIB / 2, GIB / 8.0), 4);
+
+    assertEquals(13 * GIB, target.bytes());
+    assertTrue(target.reason().contains("projected 8Gi in 24h"), target.reason());
+  }
+
+  @Test
+  @DisplayName("The target is capped at maxSize")
+  void targetIsCapped() {
+    var capped = new CacheExpansionSpec(null, null, null, "10Gi");
+
+    var target = CacheExpansion.target(capped, usage(9 * GIB, null), 2);
+
+    assertEquals(10 * GIB, target.bytes());
+    assertTrue(target.reason().endsWith("capped at 10Gi"), target.reason());
+  }
+
+  @Test
+  @DisplayName("Target usage must stay below the threshold")
+  void rejectsTargetAboveThreshold() {
+    assertThrows(IllegalArgumentException.class, () -> new CacheExpansionSpec(70, 80, null, null));
+  }
+
+  private static CacheUsageStatus usage(long usedBytes, Double growthBytesPerHour) {
+    return new CacheUsageStatus(
+        "2025-06-01T12:00:00Z",
+        usedBytes,
+        1000,
+        5 * GIB,
+        usedBytes * 100.0 / (5 * GIB),
+        growthBytesPerHour,
+        10,
+        List.of());
+  }
+}
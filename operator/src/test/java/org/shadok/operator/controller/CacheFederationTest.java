@@ -0,0 +1,193 @@
+package org.shadok.operator.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.PersistentVolumeBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.config.CacheConfig;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.TestApplicationSpecs;
+import org.shadok.operator.model.cache.CacheFederationSpec;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.cache.TestDependencyCacheSpecs;
+
+/** PersistentVolume clones and PVCs of the namespaces consuming a federated cache. */
+@EnableKubernetesMockClient(crud = true)
+class CacheFederationTest {
+
+  private static final String SHARED = "shadok-shared";
+
+  KubernetesMockServer server;
+  KubernetesClient client;
+
+  private CacheFederation federation;
+  private DependencyCache cache;
+
+  @BeforeEach
+  void setUp() {
+    federation = new CacheFederation();
+    federation.client = client;
+    federation.config = new TestConfig(new TestFederation());
+
+    client
+        .persistentVolumes()
+        .resource(
+            new PersistentVolumeBuilder()
+                .withNewMetadata()
+                .withName("maven-pv")
+                .endMetadata()
+                .withNewSpec()
+                .withAccessModes("ReadWriteMany")
+                .withStorageClassName("nfs")
+                .addToCapacity("storage", new Quantity("20Gi"))
+                .withNewNfs()
+                .withServer("nfs.example.com")
+                .withPath("/exports/maven")
+                .endNfs()
+                .endSpec()
+                .build())
+        .create();
+
+    cache = new DependencyCache();
+    cache.setMetadata(new ObjectMetaBuilder().withName("maven").withNamespace(SHARED).build());
+    cache.setSpec(
+        TestDependencyCacheSpecs.of("maven-pv", "maven-pvc")
+            .federation(new CacheFederationSpec(List.of("team-*"), true))
+            .build());
+    cache = client.resource(cache).create();
+  }
+
+  @Test
+  @DisplayName("Allowed namespaces get a read-only PV clone and a pre-bound PVC, others are denied")
+  void provisionsAllowedNamespaces() {
+    application("team-a", "app");
+    application("sandbox", "app");
+    var status = new DependencyCacheStatus();
+
+    var recheck = federation.maintain(cache, status);
+
+    assertEquals(Duration.ofMinutes(1), recheck.orElseThrow());
+    var clone = client.persistentVolumes().withName("maven-pv-team-a").get();
+    assertEquals(List.of("ReadOnlyMany"), clone.getSpec().getAccessModes());
+    assertEquals("Retain", clone.getSpec().getPersistentVolumeReclaimPolicy());
+    assertEquals("/exports/maven", clone.getSpec().getNfs().getPath());
+    assertEquals("team-a", clone.getSpec().getClaimRef().getNamespace());
+    assertEquals("maven-pvc-shadok-shared", clone.getSpec().getClaimRef().getName());
+
+    var pvc =
+        client
+            .persistentVolumeClaims()
+            .inNamespace("team-a")
+            .withName("maven-pvc-shadok-shared")
+            .get();
+    assertEquals("maven-pv-team-a", pvc.getSpec().getVolumeName());
+    assertEquals(new Quantity("20Gi"), pvc.getSpec().getResources().getRequests().get("storage"));
+
+    var consumers = status.getFederation().consumers();
+    assertEquals(1, consumers.size());
+    assertEquals("team-a", consumers.getFirst().namespace());
+    assertEquals(List.of("sandbox/app"), status.getFederation().deniedApplications());
+    assertNull(client.persistentVolumes().withName("maven-pv-sandbox").get());
+  }
+
+  @Test
+  @DisplayName("Namespaces no longer referencing the cache are released, the source PV is kept")
+  void releasesUnusedNamespaces() {
+    var application = application("team-a", "app");
+    application("team-b", "app");
+    federation.maintain(cache, new DependencyCacheStatus());
+
+    client.resource(application).delete();
+    var status = new DependencyCacheStatus();
+    federation.maintain(cache, status);
+
+    assertNull(client.persistentVolumes().withName("maven-pv-team-a").get());
+    assertNull(
+        client
+            .persistentVolumeClaims()
+            .inNamespace("team-a")
+            .withName("maven-pvc-shadok-shared")
+            .get());
+    assertNotNull(client.persistentVolumes().withName("maven-pv-team-b").get());
+    assertEquals(1, status.getFederation().consumers().size());
+
+    federation.releaseAll(cache);
+
+    assertEquals(
+        List.of("maven-pv"),
+        client.persistentVolumes().list().getItems().stream()
+            .map(pv -> pv.getMetadata().getName())
+            .toList());
+    assertTrue(client.persistentVolumeClaims().inAnyNamespace().list().getItems().isEmpty());
+  }
+
+  @Test
+  @DisplayName("Caches outside of the shared namespaces are not federated")
+  void requiresSharedNamespace() {
+    cache.getMetadata().setNamespace("team-a");
+    application("team-b", "app");
+    var status = new DependencyCacheStatus();
+
+    assertTrue(federation.maintain(cache, status).isEmpty());
+    assertTrue(status.getFederation().consumers().isEmpty());
+    assertEquals(1, client.persistentVolumes().list().getItems().size());
+  }
+
+  private Application application(String namespace, String name) {
+    var application = new Application();
+    application.setMetadata(
+        new ObjectMetaBuilder().withName(name).withNamespace(namespace).build());
+    application.setSpec(
+        TestApplicationSpecs.of(ApplicationType.QUARKUS_MAVEN)
+            .dependencyCache("maven", SHARED)
+            .build());
+    return client.resource(application).create();
+  }
+
+  record TestConfig(CacheConfig.Federation federation) implements CacheConfig {
+
+    @Override
+    public Tool tool() {
+      throw new UnsupportedOperationException("no cache tool Job in federation");
+    }
+
+    @Override
+    public Sharing sharing() {
+      throw new UnsupportedOperationException("sharing is not used by federation");
+    }
+
+    @Override
+    public Usage usage() {
+      throw new UnsupportedOperationException("usage is not used by federation");
+    }
+
+    @Override
+    public Rollout rollout() {
+      throw new UnsupportedOperationException("rollouts are not used by federation");
+    }
+  }
+
+  record TestFederation() implements CacheConfig.Federation {
+
+    @Override
+    public List<String> namespaces() {
+      return List.of(SHARED);
+    }
+
+    @Override
+    public Duration refreshInterval() {
+      return Duration.ofMinutes(1);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package org.shadok.operator.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.cache.CachePopulationSpec;
+import org.shadok.operator.model.cache.CachePopulationStatus;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.DependencyCacheStatus;
+import org.shadok.operator.model.cache.TestDependencyCacheSpecs;
+
+/** Writer election of the first population of a DependencyCache against a mock API server. */
+@EnableKubernetesMockClient(crud = true)
+class CachePopulationTest {
+
+  KubernetesMockServer server;
+  KubernetesClient client;
+
+  private CachePopulation population;
+  private DependencyCache cache;
+
+  @BeforeEach
+  void setUp() {
+    population = new CachePopulation();
+    population.client = client;
+
+    cache = new DependencyCache();
+    cache.setMetadata(new ObjectMetaBuilder().withName("maven").withNamespace("dev").build());
+    cache.setSpec(
+        TestDependencyCacheSpecs.of("maven-pv", "maven-pvc")
+            .population(new CachePopulationSpec(30, null))
+            .build());
+  }
+
+  @Test
+  @DisplayName("The oldest candidate pod of a cold start is elected writer, the others wait")
+  void electsSingleWriter() {
+    IntStream.range(0, 30)
+        .forEach(i -> createCandidate("app-" + i, "2026-01-01T00:00:%02dZ".formatted(i)));
+
+    population.maintain(cache, new DependencyCacheStatus());
+    population.maintain(cache, new DependencyCacheStatus());
+
+    var writers =
+        client.pods().inNamespace("dev").list().getItems().stream()
+            .filter(
+                pod ->
+                    pod.getMetadata()
+                        .getAnnotations()
+                        .containsKey(CachePopulation.ANNOTATION_WRITER))
+            .map(pod -> pod.getMetadata().getName())
+            .toList();
+    assertEquals(List.of("app-0"), writers);
+    assertEquals("dev/app-0", lease().getSpec().getHolderIdentity());
+  }
+
+  @Test
+  @DisplayName("Pods that were never created, such as dry runs, hold no Lease")
+  void noCandidateNoLease() {
+    var status = new DependencyCacheStatus();
+
+    population.maintain(cache, status);
+
+    assertNull(lease());
+    assertNull(status.getPopulation());
+  }
+
+  @Test
+  @DisplayName("The expired Lease of a vanished writer is handed over to the next candidate")
+  void takesOverExpiredLease() {
+    createCandidate("app-0", "2026-01-01T00:00:00Z");
+    createCandidate("app-1", "2026-01-01T00:00:01Z");
+    var status = new DependencyCacheStatus();
+    population.maintain(cache, status);
+    client.pods().inNamespace("dev").withName("app-0").delete();
+    var lease = lease();
+    lease.getSpec().setRenewTime(ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(5));
+    client.resource(lease).update();
+
+    population.maintain(cache, status);
+
+    assertEquals("dev/app-1", lease().getSpec().getHolderIdentity());
+    assertEquals("dev/app-1", status.getPopulation().writer());
+    assertEquals(1, status.getPopulation().takeovers());
+  }
+
+  @Test
+  @DisplayName("Populated or uncoordinated caches do not gate pods")
+  void populatedCacheIsNotCoordinated() {
+    createCandidate("app-0", "2026-01-01T00:00:00Z");
+    var status = new DependencyCacheStatus();
+    status.setPopulation(
+        new CachePopulationStatus(
+            CachePopulationStatus.Phase.POPULATED, "dev/app-0", null, null, null, 0));
+    cache.setStatus(status);
+
+    assertFalse(CachePopulation.coordinates(cache));
+    assertTrue(population.maintain(cache, status).isEmpty());
+    assertNull(lease());
+  }
+
+  private void createCandidate(String name, String creationTimestamp) {
+    client
+        .pods()
+        .inNamespace("dev")
+        .resource(
+            new PodBuilder()
+                .withNewMetadata()
+                .withName(name)
+                .withNamespace("dev")
+                .withCreationTimestamp(creationTimestamp)
+                .addToLabels(CachePopulation.LABEL_CANDIDATE, "true")
+                .addToAnnotations(CachePopulation.ANNOTATION_CACHE, "dev/maven")
+                .endMetadata()
+                .build())
+        .create();
+  }
+
+  private Lease lease() {
+    return client
+        .resources(Lease.class)
+        .inNamespace("dev")
+        .withName("shadok-population-maven")
+        .get();
+  }
+}
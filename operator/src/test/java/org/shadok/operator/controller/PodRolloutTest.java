@@ -0,0 +1,277 @@
+package org.shadok.operator.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodListBuilder;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.config.CacheConfig;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationStatus;
+import org.shadok.operator.model.application.PodRolloutStatus;
+import org.shadok.operator.model.application.TestApplicationSpecs;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.TestDependencyCacheSpecs;
+import org.shadok.operator.model.code.ProjectSource;
+import org.shadok.operator.model.code.ProjectSourceSpec;
+
+/** Window and pacing of the rolling restarts of Application pods. */
+@EnableKubernetesMockClient(crud = true)
+class PodRolloutTest {
+
+  private static final Instant STARTED_AT = Instant.now().minus(Duration.ofMinutes(5));
+
+  KubernetesMockServer server;
+  KubernetesClient client;
+
+  private PodRollout rollout;
+  private ProjectSource source;
+  private DependencyCache cache;
+
+  @BeforeEach
+  void setUp() {
+    rollout = new PodRollout();
+    rollout.client = client;
+    rollout.cached = false;
+    rollout.config = new TestConfig(new TestRollout());
+
+    source = new ProjectSource();
+    source.setMetadata(
+        new ObjectMetaBuilder().withName("demo-source").withNamespace("dev").build());
+    source.setSpec(new ProjectSourceSpec("demo-pv", "/src", "demo-pvc", null, null, null, null));
+    source = client.resource(source).create();
+    cache = new DependencyCache();
+    cache.setMetadata(new ObjectMetaBuilder().withName("demo-cache").withNamespace("dev").build());
+    cache.setSpec(TestDependencyCacheSpecs.of("maven-pv", "maven-pvc").build());
+    cache = client.resource(cache).create();
+  }
+
+  @Test
+  @DisplayName("The first revision seen is recorded without restarting pods")
+  void recordsFirstRevision() {
+    serve(pod("old-1", STARTED_AT.minusSeconds(600), null));
+    var status = new ApplicationStatus(ApplicationStatus.State.READY, "ready");
+
+    rollout.roll(application(null), status);
+
+    assertEquals(PodRolloutStatus.Phase.IDLE, status.getRollout().phase());
+    assertEquals(List.of("old-1"), pods());
+  }
+
+  @Test
+  @DisplayName("Outdated pods wait while the window is full of not Ready replacements")
+  void waitsForWindow() {
+    serve(
+        pod("old-1", STARTED_AT.minusSeconds(600), null),
+        pod("new-1", STARTED_AT.plusSeconds(10), null),
+        pod("new-2", STARTED_AT.plusSeconds(20), null));
+    var status = new ApplicationStatus(ApplicationStatus.State.READY, "ready");
+
+    rollout.roll(application(rolling()), status);
+
+    assertEquals(List.of("new-1", "new-2", "old-1"), pods());
+    assertEquals(1, status.getRollout().pendingPods());
+    assertEquals(2, status.getRollout().inFlightPods());
+  }
+
+  @Test
+  @DisplayName("One outdated pod is restarted per pacing interval, oldest first")
+  void restartsOldestFirstWithPacing() throws Exception {
+    var old = pod("old-1", STARTED_AT.minusSeconds(600), null);
+    var ready = pod("new-1", STARTED_AT.plusSeconds(10), STARTED_AT.plusSeconds(70));
+    serve(old, pod("old-2", STARTED_AT.minusSeconds(900), null), ready);
+    var status = new ApplicationStatus(ApplicationStatus.State.READY, "ready");
+    evictable("old-2");
+
+    var delay = rollout.roll(application(rolling()), status).orElseThrow();
+
+    assertEquals("/api/v1/namespaces/dev/pods/old-2/eviction", server.getLastRequest().getPath());
+    client.pods().inNamespace("dev").withName("old-2").delete();
+    assertEquals(List.of("new-1", "old-1"), pods());
+    assertEquals(1, status.getRollout().restartedPods());
+    assertEquals(60_000L, status.getRollout().averageReadyMillis());
+    assertTrue(delay.compareTo(Duration.ofSeconds(5)) <= 0);
+
+    serve(old, ready);
+    var next = new ApplicationStatus(ApplicationStatus.State.READY, "ready");
+    rollout.roll(application(status.getRollout()), next);
+
+    assertEquals(List.of("new-1", "old-1"), pods());
+    assertEquals(1, next.getRollout().pendingPods());
+    assertEquals(Duration.ofSeconds(30), rollout.pacing(Duration.ofMinutes(1), 2));
+  }
+
+  @Test
+  @DisplayName("Pods admitted before the label are found by their annotation and labelled")
+  void labelsLegacyPods() {
+    var legacy = pod("old-1", STARTED_AT.minusSeconds(600), null);
+    legacy.getMetadata().setLabels(Map.of());
+    client.resource(legacy).create();
+
+    var pods = rollout.pods(application(null));
+
+    assertEquals(List.of("old-1"), pods.stream().map(pod -> pod.getMetadata().getName()).toList());
+    assertEquals(
+        "demo",
+        client
+            .pods()
+            .inNamespace("dev")
+            .withName("old-1")
+            .get()
+            .getMetadata()
+            .getLabels()
+            .get(PodRollout.LABEL_APPLICATION));
+  }
+
+  private PodRolloutStatus rolling() {
+    var status = new ApplicationStatus();
+    return new PodRolloutStatus(
+        PodRollout.revision(source, cache, status),
+        PodRolloutStatus.Phase.ROLLING,
+        STARTED_AT.toString(),
+        null,
+        0,
+        0,
+        0,
+        null,
+        null);
+  }
+
+  private static Application application(PodRolloutStatus rollout) {
+    var application = new Application();
+    application.setMetadata(new ObjectMetaBuilder().withName("demo").withNamespace("dev").build());
+    application.setSpec(TestApplicationSpecs.of(ApplicationType.QUARKUS_MAVEN).build());
+    var status = new ApplicationStatus(ApplicationStatus.State.READY, "ready");
+    status.setRollout(rollout);
+    application.setStatus(status);
+    return application;
+  }
+
+  private static Pod pod(String name, Instant createdAt, Instant readyAt) {
+    return new PodBuilder()
+        .withNewMetadata()
+        .withName(name)
+        .withNamespace("dev")
+        .withCreationTimestamp(createdAt.toString())
+        .withAnnotations(Map.of(PodRollout.ANNOTATION_APPLICATION, "demo"))
+        .withLabels(Map.of(PodRollout.LABEL_APPLICATION, "demo"))
+        .addNewOwnerReference()
+        .withApiVersion("apps/v1")
+        .withKind("ReplicaSet")
+        .withName("demo-rs")
+        .withUid("uid")
+        .withController(true)
+        .endOwnerReference()
+        .endMetadata()
+        .withNewStatus()
+        .addNewCondition()
+        .withType("Ready")
+        .withStatus(readyAt == null ? "False" : "True")
+        .withLastTransitionTime(readyAt == null ? null : readyAt.toString())
+        .endCondition()
+        .endStatus()
+        .build();
+  }
+
+  /** Store the pods, and serve the next list with their creation times (the server resets them). */
+  private void serve(Pod... pods) {
+    for (var pod : pods) {
+      if (client.pods().inNamespace("dev").withName(pod.getMetadata().getName()).get() == null) {
+        client.resource(pod).create();
+      }
+    }
+    server
+        .expect()
+        .get()
+        .withPath("/api/v1/namespaces/dev/pods?labelSelector=org.shadok%2Fapplication%3Ddemo")
+        .andReturn(200, new PodListBuilder().withItems(pods).build())
+        .once();
+  }
+
+  /** Accept the eviction of a pod, left to the test to delete as the API server would. */
+  private void evictable(String name) {
+    server
+        .expect()
+        .post()
+        .withPath("/api/v1/namespaces/dev/pods/" + name + "/eviction")
+        .andReturn(201, new StatusBuilder().withStatus("Success").build())
+        .once();
+  }
+
+  private List<String> pods() {
+    return client.pods().inNamespace("dev").list().getItems().stream()
+        .map(Pod::getMetadata)
+        .map(metadata -> metadata.getName())
+        .sorted()
+        .toList();
+  }
+
+  record TestConfig(CacheConfig.Rollout rollout) implements CacheConfig {
+
+    @Override
+    public Tool tool() {
+      throw new UnsupportedOperationException("no cache tool Job in rollouts");
+    }
+
+    @Override
+    public Sharing sharing() {
+      throw new UnsupportedOperationException("sharing is not used by rollouts");
+    }
+
+    @Override
+    public Usage usage() {
+      throw new UnsupportedOperationException("usage is not used by rollouts");
+    }
+
+    @Override
+    public Federation federation() {
+      throw new UnsupportedOperationException("federation is not used by rollouts");
+    }
+  }
+
+  record TestRollout() implements CacheConfig.Rollout {
+
+    @Override
+    public boolean enabled() {
+      return true;
+    }
+
+    @Override
+    public int maxConcurrent() {
+      return 2;
+    }
+
+    @Override
+    public Duration minInterval() {
+      return Duration.ofSeconds(5);
+    }
+
+    @Override
+    public Duration maxInterval() {
+      return Duration.ofMinutes(2);
+    }
+
+    @Override
+    public Duration initialReadyTime() {
+      return Duration.ofSeconds(30);
+    }
+
+    @Override
+    public Duration checkInterval() {
+      return Duration.ofMinutes(1);
+    }
+  }
+}
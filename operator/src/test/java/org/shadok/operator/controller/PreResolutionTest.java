@@ -0,0 +1,99 @@
+package org.shadok.operator.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationStatus;
+import org.shadok.operator.model.application.PreResolutionSpec;
+import org.shadok.operator.model.application.PreResolutionStatus;
+import org.shadok.operator.model.application.TestApplicationSpecs;
+import org.shadok.operator.model.cache.CacheOverlaySpec;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.TestDependencyCacheSpecs;
+import org.shadok.operator.model.code.ProjectSource;
+import org.shadok.operator.model.code.ProjectSourceSpec;
+
+/** Cases where dependency pre-resolution does not start a Job. */
+@EnableKubernetesMockClient(crud = true)
+class PreResolutionTest {
+
+  KubernetesMockServer server;
+  KubernetesClient client;
+
+  private PreResolution preResolution;
+
+  @BeforeEach
+  void setUp() {
+    // No CacheToolJobs: none of these cases may run a Job
+    preResolution = new PreResolution();
+    preResolution.client = client;
+  }
+
+  @Test
+  @DisplayName("Application types without resolve-only command are skipped")
+  void skipsTypesWithoutCommand() {
+    var status = preResolution.resolve(application(ApplicationType.PHP_COMPOSER, 1L)).orElseThrow();
+
+    assertEquals(PreResolutionStatus.Phase.SKIPPED, status.phase());
+    assertEquals(1L, status.observedGeneration());
+  }
+
+  @Test
+  @DisplayName("Caches in overlay mode are skipped")
+  void skipsOverlayCaches() {
+    var source = new ProjectSource();
+    source.setMetadata(
+        new ObjectMetaBuilder().withName("demo-source").withNamespace("dev").build());
+    source.setSpec(new ProjectSourceSpec("demo-pv", "/src", "demo-pvc", null, null, null, null));
+    client.resource(source).create();
+    var cache = new DependencyCache();
+    cache.setMetadata(new ObjectMetaBuilder().withName("demo-cache").withNamespace("dev").build());
+    cache.setSpec(
+        TestDependencyCacheSpecs.of("maven-pv", "maven-pvc")
+            .overlay(new CacheOverlaySpec(null, null, null, null))
+            .build());
+    client.resource(cache).create();
+
+    var status =
+        preResolution.resolve(application(ApplicationType.QUARKUS_MAVEN, 1L)).orElseThrow();
+
+    assertEquals(PreResolutionStatus.Phase.SKIPPED, status.phase());
+  }
+
+  @Test
+  @DisplayName("Pre-resolution runs once per Application generation")
+  void keepsCompletedOutcome() {
+    var application = application(ApplicationType.QUARKUS_MAVEN, 2L);
+    var completed =
+        new PreResolutionStatus(
+            PreResolutionStatus.Phase.SUCCEEDED, 2L, "maven", null, null, 42L, null);
+    var status = new ApplicationStatus(ApplicationStatus.State.READY, "ready");
+    status.setPreResolution(completed);
+    application.setStatus(status);
+
+    assertSame(completed, preResolution.resolve(application).orElseThrow());
+  }
+
+  private static Application application(ApplicationType type, long generation) {
+    var application = new Application();
+    application.setMetadata(
+        new ObjectMetaBuilder()
+            .withName("demo")
+            .withNamespace("dev")
+            .withGeneration(generation)
+            .build());
+    application.setSpec(
+        TestApplicationSpecs.of(type)
+            .preResolution(new PreResolutionSpec(null, null, null, null, null))
+            .build());
+    return application;
+  }
+}
@@ -0,0 +1,59 @@
+package org.shadok.operator.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.Condition;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Reconciliation steps reported as status conditions. */
+class StatusConditionsTest {
+
+  @Test
+  @DisplayName("A failing step turns its condition False and keeps its previous result")
+  void failingStep() {
+    var conditions = new ArrayList<Condition>();
+    var result = new AtomicReference<>("previous");
+    var steps = new StatusConditions(conditions, 3L);
+
+    var failed =
+        steps.run(
+            "Usage",
+            () -> {
+              throw new IllegalStateException("scan failed");
+            },
+            (Optional<String> value) -> result.set(value.orElse(null)));
+    var next = steps.run("Expansion", () -> Optional.of("done"));
+
+    assertTrue(failed.isEmpty());
+    assertEquals("previous", result.get());
+    assertEquals(Optional.of("done"), next);
+    assertTrue(steps.failed());
+    assertEquals(2, conditions.size());
+    var usage = conditions.getFirst();
+    assertEquals("Usage", usage.getType());
+    assertEquals("False", usage.getStatus());
+    assertEquals("scan failed", usage.getMessage());
+    assertEquals(3L, usage.getObservedGeneration());
+    assertEquals("True", conditions.getLast().getStatus());
+  }
+
+  @Test
+  @DisplayName("A step that is no longer enabled loses its condition")
+  void disabledStep() {
+    var conditions = new ArrayList<Condition>();
+    new StatusConditions(conditions, 1L).run("Snapshot", () -> Optional.of(1));
+    var transition = conditions.getFirst().getLastTransitionTime();
+
+    new StatusConditions(conditions, 2L).run("Snapshot", () -> Optional.of(2));
+    assertEquals(transition, conditions.getFirst().getLastTransitionTime());
+
+    var steps = new StatusConditions(conditions, 3L);
+    steps.run("Snapshot", Optional::empty);
+    assertTrue(conditions.isEmpty());
+    assertFalse(steps.failed());
+  }
+}
@@ -0,0 +1,124 @@
+package org.shadok.operator.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.ApplicationTypeHelper;
+
+/** Pods of the warm pools and the order in which the webhook selects them. */
+class WarmPoolTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+  @Test
+  @DisplayName("Ready pods mounting the same cache are selected first, then the longest warm")
+  void selectionOrder() {
+    var pods =
+        List.of(
+            pod("a", ApplicationType.QUARKUS_MAVEN, "other-cache", NOW.minusSeconds(600), "node-1"),
+            pod("b", ApplicationType.QUARKUS_MAVEN, "maven-cache", NOW.minusSeconds(60), "node-2"),
+            pod("c", ApplicationType.QUARKUS_MAVEN, "other-cache", NOW.minusSeconds(900), "node-3"),
+            pod("not-ready", ApplicationType.QUARKUS_MAVEN, "maven-cache", null, "node-1"),
+            pod("unscheduled", ApplicationType.QUARKUS_MAVEN, "maven-cache", null, null),
+            pod("node", ApplicationType.NODE_NPM, "maven-cache", NOW.minusSeconds(900), "node-1"),
+            new PodBuilder(
+                    pod("released", ApplicationType.QUARKUS_MAVEN, "maven-cache", NOW, "node-1"))
+                .editMetadata()
+                .withDeletionTimestamp(NOW.toString())
+                .endMetadata()
+                .build());
+
+    var candidates =
+        WarmPool.candidates(pods, ApplicationType.QUARKUS_MAVEN, "dev", Optional.of("maven-cache"));
+
+    assertEquals(
+        List.of("b", "c", "a"),
+        candidates.stream().map(pod -> pod.getMetadata().getName()).toList());
+    assertTrue(
+        WarmPool.candidates(pods, ApplicationType.QUARKUS_MAVEN, "qa", Optional.empty()).isEmpty());
+  }
+
+  @Test
+  @DisplayName("A pool pod is claimed by one admission at a time until the claim lapses")
+  void claims() {
+    var pool = new WarmPool();
+
+    assertTrue(pool.claim("uid-1", NOW));
+    assertFalse(pool.claim("uid-1", NOW.plusSeconds(1)));
+    assertTrue(pool.claim("uid-2", NOW.plusSeconds(1)));
+    assertTrue(pool.claim("uid-1", NOW.plus(WarmPool.CLAIM_TTL)));
+  }
+
+  @Test
+  @DisplayName("Pool pods run the recommended image, get Ready once warmed and outlive each owner")
+  void poolPod() {
+    var owners = List.of(application("demo", "uid-1"), application("api", "uid-2"));
+
+    var pod =
+        WarmPool.pod(
+            owners,
+            WarmPool.podName(ApplicationType.QUARKUS_MAVEN, 0),
+            ApplicationType.QUARKUS_MAVEN,
+            "cache");
+
+    assertEquals("shadok-pool-quarkus-maven-0", pod.getMetadata().getName());
+    assertEquals("dev", pod.getMetadata().getNamespace());
+    assertEquals(
+        List.of("uid-1", "uid-2"),
+        pod.getMetadata().getOwnerReferences().stream().map(ref -> ref.getUid()).toList());
+    assertTrue(
+        pod.getMetadata().getOwnerReferences().stream()
+            .noneMatch(ref -> Boolean.TRUE.equals(ref.getController())));
+    assertEquals("QUARKUS_MAVEN", pod.getMetadata().getLabels().get(WarmPool.LABEL_POOL));
+    assertEquals("cache", pod.getMetadata().getAnnotations().get(WarmPool.ANNOTATION_CACHE_CLAIM));
+    var container = pod.getSpec().getContainers().getFirst();
+    assertEquals(
+        ApplicationTypeHelper.getRecommendedBaseImage(ApplicationType.QUARKUS_MAVEN),
+        container.getImage());
+    assertTrue(container.getCommand().get(2).startsWith("java -version"));
+    assertEquals(
+        List.of("test", "-f", WarmPool.WARM_MARKER),
+        container.getReadinessProbe().getExec().getCommand());
+    assertTrue(container.getVolumeMounts().getFirst().getReadOnly());
+    assertEquals(
+        "cache", pod.getSpec().getVolumes().getFirst().getPersistentVolumeClaim().getClaimName());
+  }
+
+  private static Application application(String name, String uid) {
+    var application = new Application();
+    application.setMetadata(
+        new ObjectMetaBuilder().withName(name).withNamespace("dev").withUid(uid).build());
+    return application;
+  }
+
+  private static Pod pod(
+      String name, ApplicationType type, String cacheClaim, Instant readyAt, String node) {
+    return new PodBuilder()
+        .withNewMetadata()
+        .withName(name)
+        .withNamespace("dev")
+        .addToLabels(WarmPool.LABEL_POOL, type.name())
+        .addToAnnotations(WarmPool.ANNOTATION_CACHE_CLAIM, cacheClaim)
+        .endMetadata()
+        .withNewSpec()
+        .withNodeName(node)
+        .endSpec()
+        .withNewStatus()
+        .addNewCondition()
+        .withType("Ready")
+        .withStatus(readyAt == null ? "False" : "True")
+        .withLastTransitionTime(readyAt == null ? null : readyAt.toString())
+        .endCondition()
+        .endStatus()
+        .build();
+  }
+}
@@ -0,0 +1,82 @@
+package org.shadok.operator.model.application;
+
+import java.util.List;
+import java.util.Map;
+import org.shadok.operator.model.ApplicationType;
+
+/**
+ * ApplicationSpec of the tests: the {@code demo-source} ProjectSource and {@code demo-cache}
+ * DependencyCache, with only the optional features a test sets, so that new spec components do not
+ * ripple through every test.
+ */
+public final class TestApplicationSpecs {
+
+  private TestApplicationSpecs() {}
+
+  public static Builder of(ApplicationType applicationType) {
+    return new Builder(applicationType);
+  }
+
+  public static final class Builder {
+
+    private final ApplicationType applicationType;
+    private String dependencyCacheName = "demo-cache";
+    private String dependencyCacheNamespace;
+    private PreResolutionSpec preResolution;
+    private BuildVolumeSpec buildVolume;
+    private BuildDaemonSpec buildDaemon;
+    private ClassDataSharingSpec classDataSharing;
+    private IdleScaleDownSpec idleScaleDown;
+
+    private Builder(ApplicationType applicationType) {
+      this.applicationType = applicationType;
+    }
+
+    public Builder dependencyCache(String name, String namespace) {
+      this.dependencyCacheName = name;
+      this.dependencyCacheNamespace = namespace;
+      return this;
+    }
+
+    public Builder preResolution(PreResolutionSpec preResolution) {
+      this.preResolution = preResolution;
+      return this;
+    }
+
+    public Builder buildVolume(BuildVolumeSpec buildVolume) {
+      this.buildVolume = buildVolume;
+      return this;
+    }
+
+    public Builder buildDaemon(BuildDaemonSpec buildDaemon) {
+      this.buildDaemon = buildDaemon;
+      return this;
+    }
+
+    public Builder classDataSharing(ClassDataSharingSpec classDataSharing) {
+      this.classDataSharing = classDataSharing;
+      return this;
+    }
+
+    public Builder idleScaleDown(IdleScaleDownSpec idleScaleDown) {
+      this.idleScaleDown = idleScaleDown;
+      return this;
+    }
+
+    public ApplicationSpec build() {
+      return new ApplicationSpec(
+          applicationType,
+          "demo-source",
+          dependencyCacheName,
+          List.of(),
+          Map.of(),
+          null,
+          dependencyCacheNamespace,
+          preResolution,
+          buildVolume,
+          buildDaemon,
+          classDataSharing,
+          idleScaleDown);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package org.shadok.operator.model.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for the namespace allow-list of DependencyCache federation. */
+class CacheFederationSpecTest {
+
+  @Test
+  @DisplayName("Allowed namespaces match exactly or by glob")
+  void matchesNamespaces() {
+    var federation = new CacheFederationSpec(List.of("team-*", "payments"), null);
+
+    assertTrue(federation.allows("team-a"));
+    assertTrue(federation.allows("team-"));
+    assertTrue(federation.allows("payments"));
+    assertFalse(federation.allows("payments-dev"));
+    assertFalse(federation.allows("my-team-a"));
+    assertFalse(federation.readOnly());
+  }
+
+  @Test
+  @DisplayName("Namespace patterns are not regular expressions and default to none")
+  void rejectsByDefault() {
+    assertFalse(new CacheFederationSpec(null, true).allows("team-a"));
+    assertFalse(new CacheFederationSpec(List.of("team.a"), true).allows("teamXa"));
+    assertTrue(new CacheFederationSpec(List.of("*"), true).allows("anything"));
+  }
+}
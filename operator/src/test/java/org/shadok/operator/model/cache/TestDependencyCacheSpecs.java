@@ -0,0 +1,71 @@
+package org.shadok.operator.model.cache;
+
+/**
+ * DependencyCacheSpec of the tests: a PersistentVolume mounted at {@code /cache}, with only the
+ * optional features a test sets, so that new spec components do not ripple through every test.
+ */
+public final class TestDependencyCacheSpecs {
+
+  private TestDependencyCacheSpecs() {}
+
+  public static Builder of(String persistentVolumeName, String pvcName) {
+    return new Builder(persistentVolumeName, pvcName);
+  }
+
+  public static final class Builder {
+
+    private final String persistentVolumeName;
+    private final String pvcName;
+    private String storageSize;
+    private CacheOverlaySpec overlay;
+    private CacheFederationSpec federation;
+    private CachePopulationSpec population;
+
+    private Builder(String persistentVolumeName, String pvcName) {
+      this.persistentVolumeName = persistentVolumeName;
+      this.pvcName = pvcName;
+    }
+
+    public Builder storageSize(String storageSize) {
+      this.storageSize = storageSize;
+      return this;
+    }
+
+    public Builder overlay(CacheOverlaySpec overlay) {
+      this.overlay = overlay;
+      return this;
+    }
+
+    public Builder federation(CacheFederationSpec federation) {
+      this.federation = federation;
+      return this;
+    }
+
+    public Builder population(CachePopulationSpec population) {
+      this.population = population;
+      return this;
+    }
+
+    public DependencyCacheSpec build() {
+      return new DependencyCacheSpec(
+          persistentVolumeName,
+          "/cache",
+          pvcName,
+          null,
+          storageSize,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          overlay,
+          federation,
+          population,
+          null,
+          null,
+          null);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package org.shadok.operator.proxy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Routing of proxy requests to the registry layouts. */
+class ArtifactRepositoryTest {
+
+  @Test
+  @DisplayName("Requests are routed by URL prefix to the path of the upstream registry")
+  void routesByPrefix() {
+    assertEquals(
+        route(ArtifactRepository.MAVEN, "org/acme/app/1.0/app-1.0.jar"),
+        ArtifactRepository.route("/maven/org/acme/app/1.0/app-1.0.jar"));
+    assertEquals(
+        route(ArtifactRepository.NPM, "@scope%2fname"),
+        ArtifactRepository.route("/npm/@scope%2fname"));
+    assertEquals(
+        route(ArtifactRepository.PYPI, "requests/"),
+        ArtifactRepository.route("/pypi/simple/requests/"));
+    assertEquals(
+        route(ArtifactRepository.PYPI_FILES, "packages/ab/cd/requests-2.0.whl"),
+        ArtifactRepository.route("/pypi/files/packages/ab/cd/requests-2.0.whl"));
+  }
+
+  @Test
+  @DisplayName("Unknown prefixes and prefixes without a path are not routed")
+  void rejectsUnknownPaths() {
+    assertTrue(ArtifactRepository.route("/gradle/plugin.jar").isEmpty());
+    assertTrue(ArtifactRepository.route("/maven").isEmpty());
+    assertTrue(ArtifactRepository.route("/pypi/requests/").isEmpty());
+  }
+
+  @Test
+  @DisplayName("Metadata documents are stored as index files, artifacts under their own path")
+  void storagePaths() {
+    assertTrue(ArtifactRepository.MAVEN.isMetadata("org/acme/app/maven-metadata.xml"));
+    assertFalse(ArtifactRepository.MAVEN.isMetadata("org/acme/app/1.0/app-1.0.jar"));
+    assertEquals("express/.index", ArtifactRepository.NPM.storagePath("express"));
+    assertEquals(
+        "express/-/express-4.0.0.tgz",
+        ArtifactRepository.NPM.storagePath("express/-/express-4.0.0.tgz"));
+    assertEquals("text/html", ArtifactRepository.PYPI.contentType("requests/"));
+  }
+
+  private static Optional<ArtifactRepository.Route> route(
+      ArtifactRepository repository, String path) {
+    return Optional.of(new ArtifactRepository.Route(repository, path));
+  }
+}
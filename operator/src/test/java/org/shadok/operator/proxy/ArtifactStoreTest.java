@@ -0,0 +1,165 @@
+package org.shadok.operator.proxy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for the artifact proxy store, against a file-based upstream registry. */
+class ArtifactStoreTest {
+
+  private static final String NPM_REGISTRY = "https://registry.npmjs.org/";
+  private static final String PROXY = "http://operator.shadok.svc:8081/npm/";
+
+  @TempDir Path registry;
+  @TempDir Path storage;
+
+  private final AtomicInteger downloads = new AtomicInteger();
+  private final AtomicBoolean offline = new AtomicBoolean();
+  private CountDownLatch release = new CountDownLatch(0);
+  private ExecutorService executor;
+  private ArtifactStore store;
+
+  /** Serves the files of a directory, like a registry would. */
+  private Upstream fileUpstream() {
+    return path -> {
+      if (offline.get()) {
+        throw new IOException("Registry unreachable");
+      }
+      downloads.incrementAndGet();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      var file = registry.resolve(path.isEmpty() ? "index" : path);
+      return Files.isRegularFile(file)
+          ? Optional.<InputStream>of(Files.newInputStream(file))
+          : Optional.empty();
+    };
+  }
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    store =
+        new ArtifactStore(
+            storage,
+            Map.of(
+                ArtifactRepository.MAVEN, fileUpstream(), ArtifactRepository.NPM, fileUpstream()),
+            Map.of(NPM_REGISTRY, PROXY),
+            Duration.ofMinutes(10),
+            executor,
+            Clock.systemUTC());
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("Artifacts are downloaded once and then served from disk")
+  void downloadsOnceThenServesFromDisk() throws Exception {
+    publish("org/acme/lib/1.0/lib-1.0.jar", "jar");
+
+    var first = fetch(ArtifactRepository.MAVEN, "org/acme/lib/1.0/lib-1.0.jar");
+    var second = fetch(ArtifactRepository.MAVEN, "org/acme/lib/1.0/lib-1.0.jar");
+
+    assertEquals(ArtifactStore.Outcome.MISS, first.outcome());
+    assertEquals(ArtifactStore.Outcome.HIT, second.outcome());
+    assertEquals("jar", Files.readString(second.file()));
+    assertEquals(1, downloads.get());
+  }
+
+  @Test
+  @DisplayName("Concurrent requests for the same artifact share one download")
+  void coalescesConcurrentRequests() throws Exception {
+    publish("lodash/-/lodash-4.17.21.tgz", "tarball");
+    release = new CountDownLatch(1);
+
+    var requests =
+        IntStream.range(0, 16)
+            .mapToObj(i -> store.fetch(ArtifactRepository.NPM, "lodash/-/lodash-4.17.21.tgz"))
+            .toList();
+    release.countDown();
+    var outcomes =
+        requests.stream()
+            .map(CompletableFuture::join)
+            .map(artifact -> artifact.orElseThrow().outcome())
+            .toList();
+
+    assertEquals(1, downloads.get());
+    assertEquals(1, outcomes.stream().filter(ArtifactStore.Outcome.MISS::equals).count());
+    assertEquals(15, outcomes.stream().filter(ArtifactStore.Outcome.COALESCED::equals).count());
+  }
+
+  @Test
+  @DisplayName(
+      "Metadata is rewritten to the proxy, refreshed after the TTL and served stale offline")
+  void refreshesMetadata() throws Exception {
+    publish("lodash", "{\"tarball\":\"" + NPM_REGISTRY + "lodash/-/lodash-4.17.21.tgz\"}");
+
+    var packument = fetch(ArtifactRepository.NPM, "lodash");
+    assertEquals(
+        "{\"tarball\":\"" + PROXY + "lodash/-/lodash-4.17.21.tgz\"}",
+        Files.readString(packument.file()));
+    assertEquals(ArtifactStore.Outcome.HIT, fetch(ArtifactRepository.NPM, "lodash").outcome());
+
+    expire(packument.file());
+    assertEquals(ArtifactStore.Outcome.MISS, fetch(ArtifactRepository.NPM, "lodash").outcome());
+
+    expire(packument.file());
+    offline.set(true);
+    assertEquals(ArtifactStore.Outcome.STALE, fetch(ArtifactRepository.NPM, "lodash").outcome());
+  }
+
+  @Test
+  @DisplayName("Missing artifacts and paths escaping the store are rejected")
+  void rejectsMissingAndInvalidPaths() {
+    assertTrue(store.fetch(ArtifactRepository.MAVEN, "org/acme/missing.jar").join().isEmpty());
+    for (var path : List.of("../secret", "org/../../secret", "lodash/.index")) {
+      var error =
+          assertThrows(
+              CompletionException.class, () -> store.fetch(ArtifactRepository.NPM, path).join());
+      assertInstanceOf(IllegalArgumentException.class, error.getCause());
+    }
+  }
+
+  private ArtifactStore.Artifact fetch(ArtifactRepository repository, String path) {
+    return store.fetch(repository, path).join().orElseThrow();
+  }
+
+  private void publish(String path, String content) throws IOException {
+    var file = registry.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+  }
+
+  private static void expire(Path file) throws IOException {
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+  }
+}
@@ -0,0 +1,95 @@
+package org.shadok.operator.util.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for the hardlink deduplication of cache volumes. */
+class CacheDedupTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+  @TempDir Path cache;
+
+  @Test
+  @DisplayName("Identical files across ecosystems are linked to one store copy")
+  void linksIdenticalFiles() throws Exception {
+    var maven =
+        file(".m2/repository/org/a/1.0/a-1.0.jar", 'a', 2048, NOW.minus(Duration.ofDays(1)));
+    var gradle =
+        file(".gradle/caches/files-2.1/org/a/a-1.0.jar", 'a', 2048, NOW.minus(Duration.ofDays(2)));
+    var other =
+        file(".m2/repository/org/b/1.0/b-1.0.jar", 'b', 2048, NOW.minus(Duration.ofDays(1)));
+
+    var result = CacheDedup.deduplicate(cache, settings());
+
+    assertEquals(3, result.hashedFiles());
+    assertEquals(1, result.linkedFiles());
+    assertEquals(2048, result.reclaimedBytes());
+    assertEquals(1, result.storeFiles());
+    assertTrue(Files.isSameFile(maven, gradle));
+    assertFalse(Files.isSameFile(maven, other));
+    assertArrayEquals(content('a', 2048), Files.readAllBytes(gradle));
+
+    var again = CacheDedup.deduplicate(cache, settings());
+    assertEquals(0, again.linkedFiles());
+    assertEquals(0, again.reclaimedBytes());
+  }
+
+  @Test
+  @DisplayName("Recently modified and small files are left alone")
+  void skipsRecentAndSmallFiles() throws Exception {
+    var old = file(".npm/_cacache/content-v2/old", 'c', 2048, NOW.minus(Duration.ofDays(1)));
+    var recent = file(".pip/wheels/recent.whl", 'c', 2048, NOW.minus(Duration.ofMinutes(5)));
+    var small = file(".m2/small.pom", 'd', 100, NOW.minus(Duration.ofDays(1)));
+    var smallCopy = file(".gradle/small.pom", 'd', 100, NOW.minus(Duration.ofDays(1)));
+
+    var result = CacheDedup.deduplicate(cache, settings());
+
+    assertEquals(1, result.recentFiles());
+    assertEquals(0, result.linkedFiles());
+    assertFalse(Files.isSameFile(old, recent));
+    assertFalse(Files.isSameFile(small, smallCopy));
+  }
+
+  @Test
+  @DisplayName("Store copies no longer linked from the cache are pruned")
+  void prunesUnreferencedStoreCopies() throws Exception {
+    var first = file(".m2/a.jar", 'e', 2048, NOW.minus(Duration.ofDays(1)));
+    var second = file(".gradle/a.jar", 'e', 2048, NOW.minus(Duration.ofDays(1)));
+    CacheDedup.deduplicate(cache, settings());
+
+    Files.delete(first);
+    Files.delete(second);
+    var result = CacheDedup.deduplicate(cache, settings());
+
+    assertEquals(0, result.storeFiles());
+    assertEquals(1, result.prunedStoreFiles());
+  }
+
+  private static CacheDedup.Settings settings() {
+    return new CacheDedup.Settings(Duration.ofHours(1), 1024, 2, NOW);
+  }
+
+  private Path file(String path, char fill, int size, Instant modified) throws Exception {
+    var file = cache.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content(fill, size));
+    Files.setLastModifiedTime(file, FileTime.from(modified));
+    return file;
+  }
+
+  private static byte[] content(char fill, int size) {
+    var bytes = new byte[size];
+    Arrays.fill(bytes, (byte) fill);
+    return bytes;
+  }
+}
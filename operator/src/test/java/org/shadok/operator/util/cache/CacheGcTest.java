@@ -0,0 +1,96 @@
+package org.shadok.operator.util.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for the LRU garbage collection of cache volumes. */
+class CacheGcTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+  @TempDir Path cache;
+
+  @Test
+  @DisplayName("Below the high watermark nothing is evicted")
+  void belowHighWatermarkNothingIsEvicted() throws Exception {
+    entry(".m2/repository/org/a/1.0", 100, NOW.minus(Duration.ofDays(30)));
+
+    var result = CacheGc.collect(cache, settings(1000));
+
+    assertFalse(result.triggered());
+    assertEquals(0, result.evictedEntries());
+    assertTrue(Files.exists(cache.resolve(".m2/repository/org/a/1.0/artifact.jar")));
+  }
+
+  @Test
+  @DisplayName("Least recently used entries are evicted down to the low watermark")
+  void evictsLeastRecentlyUsedDownToLowWatermark() throws Exception {
+    entry(".m2/repository/org/old/1.0", 300, NOW.minus(Duration.ofDays(30)));
+    entry(".m2/repository/org/older/1.0", 300, NOW.minus(Duration.ofDays(60)));
+    entry(".npm/_cacache/content-v2/sha512/ab", 300, NOW.minus(Duration.ofDays(10)));
+
+    // 900 bytes used of 1000: above 85%, evict down to 70%
+    var result = CacheGc.collect(cache, settings(1000));
+
+    assertTrue(result.triggered());
+    assertEquals(1, result.evictedEntries());
+    assertEquals(300, result.evictedBytes());
+    assertEquals(600, result.usedBytesAfter());
+    assertFalse(Files.exists(cache.resolve(".m2/repository/org/older/1.0")));
+    assertTrue(Files.exists(cache.resolve(".m2/repository/org/old/1.0")));
+  }
+
+  @Test
+  @DisplayName("Recently used and locked entries are protected")
+  void protectsRecentAndLockedEntries() throws Exception {
+    entry(".gradle/caches/recent", 450, NOW.minus(Duration.ofMinutes(5)));
+    var locked = entry(".gradle/caches/locked", 450, NOW.minus(Duration.ofDays(5)));
+    Files.writeString(locked.resolve("download.part"), "");
+
+    var result = CacheGc.collect(cache, settings(1000));
+
+    assertTrue(result.triggered());
+    assertEquals(0, result.evictedEntries());
+    assertEquals(2, result.protectedEntries());
+  }
+
+  @Test
+  @DisplayName("Deduplicated bytes are freed with the last entry linking them, store copy included")
+  void freesHardlinksWithTheirLastLink() throws Exception {
+    entry(".npm/_cacache/content-v2/sha512/ab", 700, NOW.minus(Duration.ofDays(10)));
+    var maven = entry(".m2/repository/org/a/1.0", 300, NOW.minus(Duration.ofDays(60)));
+    var gradle = Files.createDirectories(cache.resolve(".gradle/caches/files/org.a/1.0"));
+    Files.createLink(gradle.resolve("artifact.jar"), maven.resolve("artifact.jar"));
+    var stored = Files.createDirectories(cache.resolve(CacheDedup.STORE_DIR)).resolve("0123");
+    Files.createLink(stored, maven.resolve("artifact.jar"));
+
+    var result = CacheGc.collect(cache, settings(1000));
+
+    assertEquals(1000, result.usedBytesBefore());
+    assertEquals(2, result.evictedEntries());
+    assertEquals(300, result.evictedBytes());
+    assertEquals(700, result.usedBytesAfter());
+    assertFalse(Files.exists(stored));
+    assertTrue(Files.exists(cache.resolve(".npm/_cacache/content-v2/sha512/ab")));
+  }
+
+  private static CacheGc.Settings settings(long capacity) {
+    return new CacheGc.Settings(capacity, 85, 70, Duration.ofHours(2), NOW);
+  }
+
+  private Path entry(String path, int bytes, Instant lastAccess) throws Exception {
+    var dir = Files.createDirectories(cache.resolve(path));
+    var file = Files.write(dir.resolve("artifact.jar"), new byte[bytes]);
+    Files.setLastModifiedTime(file, FileTime.from(lastAccess));
+    Files.setAttribute(file, "lastAccessTime", FileTime.from(lastAccess));
+    return dir;
+  }
+}
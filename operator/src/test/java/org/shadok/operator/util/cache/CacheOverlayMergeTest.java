@@ -0,0 +1,91 @@
+package org.shadok.operator.util.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for the merge of overlay layers into the base cache. */
+class CacheOverlayMergeTest {
+
+  private static final Duration ABANDON_AFTER = Duration.ofHours(24);
+
+  @TempDir Path cache;
+
+  @Test
+  @DisplayName("Complete batches are moved into the base tree")
+  void mergesCompleteBatches() throws Exception {
+    write("incoming/pod-a/batch-1/.m2/repository/org/a/1.0/a-1.0.jar", "jar");
+    write("incoming/pod-b/batch-1/.npm/_cacache/index-v5/ab/cd", "index");
+
+    var result = CacheOverlayMerge.merge(cache, ABANDON_AFTER, Instant.now());
+
+    assertEquals(2, result.batches());
+    assertEquals(2, result.mergedFiles());
+    assertEquals(8, result.mergedBytes());
+    assertEquals("jar", Files.readString(cache.resolve(".m2/repository/org/a/1.0/a-1.0.jar")));
+    assertTrue(Files.exists(cache.resolve(".npm/_cacache/index-v5/ab/cd")));
+    assertFalse(Files.exists(incoming("pod-a/batch-1")));
+  }
+
+  @Test
+  @DisplayName("Files already in the base tree are never overwritten")
+  void neverOverwritesBaseFiles() throws Exception {
+    Files.createDirectories(cache.resolve(".m2/repository/org/a/1.0"));
+    Files.writeString(cache.resolve(".m2/repository/org/a/1.0/a-1.0.jar"), "base");
+    write("incoming/pod-a/batch-1/.m2/repository/org/a/1.0/a-1.0.jar", "other");
+
+    var result = CacheOverlayMerge.merge(cache, ABANDON_AFTER, Instant.now());
+
+    assertEquals(0, result.mergedFiles());
+    assertEquals(1, result.duplicateFiles());
+    assertEquals("base", Files.readString(cache.resolve(".m2/repository/org/a/1.0/a-1.0.jar")));
+  }
+
+  @Test
+  @DisplayName("Batches being staged and partial downloads are not merged")
+  void skipsPartialBatchesAndFiles() throws Exception {
+    write("incoming/pod-a/.batch-2/.gradle/caches/modules-2/b.jar", "jar");
+    write("incoming/pod-a/batch-1/.gradle/caches/modules-2/c.jar.part", "partial");
+
+    var result = CacheOverlayMerge.merge(cache, ABANDON_AFTER, Instant.now());
+
+    assertEquals(1, result.batches());
+    assertEquals(0, result.mergedFiles());
+    assertFalse(Files.exists(cache.resolve(".gradle/caches/modules-2/b.jar")));
+    assertFalse(Files.exists(cache.resolve(".gradle/caches/modules-2/c.jar.part")));
+    assertTrue(Files.exists(incoming("pod-a/.batch-2")));
+  }
+
+  @Test
+  @DisplayName("Abandoned batches and pod directories are discarded")
+  void discardsAbandonedBatches() throws Exception {
+    write("incoming/pod-gone/.batch-1/.pip/http/x", "x");
+    var old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+    Files.setLastModifiedTime(incoming("pod-gone/.batch-1"), old);
+
+    var result = CacheOverlayMerge.merge(cache, ABANDON_AFTER, Instant.now());
+    assertEquals(1, result.discardedBatches());
+    assertFalse(Files.exists(incoming("pod-gone/.batch-1")));
+
+    Files.setLastModifiedTime(incoming("pod-gone"), old);
+    CacheOverlayMerge.merge(cache, ABANDON_AFTER, Instant.now());
+    assertFalse(Files.exists(incoming("pod-gone")));
+  }
+
+  private Path incoming(String path) {
+    return cache.resolve(CacheOverlayMerge.INCOMING_DIR).resolve(path);
+  }
+
+  private void write(String path, String content) throws Exception {
+    var file = cache.resolve(path.replaceFirst("^incoming", CacheOverlayMerge.INCOMING_DIR));
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+  }
+}
@@ -0,0 +1,146 @@
+package org.shadok.operator.util.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for the snapshot export and import of cache volumes. */
+class CacheSnapshotTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+  private static final String LONG_PATH =
+      ".m2/repository/io/quarkus/quarkus-resteasy-reactive-jackson-deployment/3.23.2/"
+          + "quarkus-resteasy-reactive-jackson-deployment-3.23.2.jar";
+
+  @TempDir Path source;
+  @TempDir Path target;
+  @TempDir Path store;
+
+  @Test
+  @DisplayName("An imported snapshot reproduces the exported cache")
+  void roundTrip() throws Exception {
+    file(LONG_PATH, "jar");
+    file(".npm/_cacache/index-v5/ab/cd", "index");
+    file("settings.xml", "<settings/>");
+    Files.createSymbolicLink(source.resolve(".npm/latest"), Path.of("_cacache"));
+    file(".gradle/caches/modules-2/modules-2.lock", "lock");
+
+    var exported = CacheSnapshot.export(source, store, "quarkus-maven", NOW);
+    var imported = CacheSnapshot.importInto(target, store, "quarkus-maven");
+
+    assertEquals(4, exported.layers());
+    assertEquals(4, imported.transferredLayers());
+    assertEquals(3, imported.files());
+    assertEquals("jar", Files.readString(target.resolve(LONG_PATH)));
+    assertEquals(
+        Files.getLastModifiedTime(source.resolve(LONG_PATH)),
+        Files.getLastModifiedTime(target.resolve(LONG_PATH)));
+    assertEquals("<settings/>", Files.readString(target.resolve("settings.xml")));
+    assertEquals(Path.of("_cacache"), Files.readSymbolicLink(target.resolve(".npm/latest")));
+    assertFalse(Files.exists(target.resolve(".gradle/caches/modules-2/modules-2.lock")));
+  }
+
+  @Test
+  @DisplayName("Only changed layers are exported and imported again")
+  void transfersChangedLayersOnly() throws Exception {
+    file(".m2/repository/org/a/1.0/a-1.0.jar", "a");
+    file(".npm/_cacache/content-v2/sha512/ab", "npm");
+    CacheSnapshot.export(source, store, "node", NOW);
+    CacheSnapshot.importInto(target, store, "node");
+
+    file(".npm/_cacache/content-v2/sha512/cd", "more npm");
+    var exported = CacheSnapshot.export(source, store, "node", NOW);
+    var imported = CacheSnapshot.importInto(target, store, "node");
+
+    assertEquals(1, exported.transferredLayers());
+    assertEquals(1, exported.reusedLayers());
+    assertEquals(1, imported.transferredLayers());
+    assertEquals(1, imported.reusedLayers());
+    assertEquals(
+        "more npm", Files.readString(target.resolve(".npm/_cacache/content-v2/sha512/cd")));
+  }
+
+  @Test
+  @DisplayName("Identical trees produce identical layers")
+  void layersAreReproducible() throws Exception {
+    file(".m2/repository/org/a/1.0/a-1.0.jar", "a");
+    var first = CacheSnapshot.export(source, store, "first", NOW);
+    var second = CacheSnapshot.export(source, store, "second", NOW.plusSeconds(60));
+
+    assertEquals(
+        CacheSnapshot.readManifest(store, "first").orElseThrow().layers().getFirst().digest(),
+        CacheSnapshot.readManifest(store, "second").orElseThrow().layers().getFirst().digest());
+    assertEquals(first.snapshotBytes(), second.snapshotBytes());
+    try (var blobs = Files.list(store.resolve(CacheSnapshot.BLOB_DIR))) {
+      assertEquals(1, blobs.count());
+    }
+  }
+
+  @Test
+  @DisplayName("A corrupt layer is rejected before anything is extracted")
+  void rejectsCorruptLayerBeforeExtraction() throws Exception {
+    file(".m2/repository/org/a/1.0/a-1.0.jar", "a");
+    CacheSnapshot.export(source, store, "maven", NOW);
+    var layer = CacheSnapshot.readManifest(store, "maven").orElseThrow().layers().getFirst();
+    var blob = CacheSnapshot.blob(store, layer.digest());
+    var bytes = Files.readAllBytes(blob);
+    bytes[TarLayer.BLOCK * 3] ^= 1;
+    Files.write(blob, bytes);
+
+    assertThrows(IOException.class, () -> CacheSnapshot.importInto(target, store, "maven"));
+    assertFalse(Files.exists(target.resolve(".m2")));
+  }
+
+  @Test
+  @DisplayName("Layer entries are never written through links, nor links chained out of the root")
+  void rejectsWritesThroughLinks() throws Exception {
+    file("d2/x", "x");
+    var chained =
+        layer(
+            new TarLayer.Entry("d1", TarLayer.Type.DIRECTORY, 0755, 0, 0, null),
+            new TarLayer.Entry("d1/l", TarLayer.Type.SYMLINK, 0777, 0, 0, ".."),
+            new TarLayer.Entry("d1/m", TarLayer.Type.SYMLINK, 0777, 0, 0, "l/.."));
+    var throughLink =
+        layer(
+            new TarLayer.Entry("d1", TarLayer.Type.DIRECTORY, 0755, 0, 0, null),
+            new TarLayer.Entry("d2", TarLayer.Type.SYMLINK, 0777, 0, 0, "d1"),
+            new TarLayer.Entry("d2/x", TarLayer.Type.FILE, 0644, 1, 0, null));
+
+    assertThrows(IOException.class, () -> extract(chained));
+    assertFalse(Files.exists(target.resolve("d1/m"), LinkOption.NOFOLLOW_LINKS));
+    assertThrows(IOException.class, () -> extract(throughLink));
+    assertFalse(Files.exists(target.resolve("d1/x")));
+  }
+
+  private byte[] layer(TarLayer.Entry... entries) throws Exception {
+    var out = new ByteArrayOutputStream();
+    var writer = new TarLayer.Writer(Channels.newChannel(out));
+    for (var entry : entries) {
+      writer.add(source, entry);
+    }
+    writer.finish();
+    return out.toByteArray();
+  }
+
+  private void extract(byte[] layer) throws Exception {
+    new TarLayer.Reader(Channels.newChannel(new ByteArrayInputStream(layer))).extractTo(target);
+  }
+
+  private void file(String path, String content) throws Exception {
+    var file = source.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+    Files.setLastModifiedTime(file, FileTime.from(NOW.minusSeconds(3600)));
+  }
+}
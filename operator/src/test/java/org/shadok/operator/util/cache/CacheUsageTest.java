@@ -0,0 +1,94 @@
+package org.shadok.operator.util.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for the parallel usage scan of cache volumes. */
+class CacheUsageTest {
+
+  @TempDir Path cache;
+
+  @Test
+  @DisplayName("Usage is reported per top-level subtree, largest first")
+  void reportsUsagePerSubtree() throws Exception {
+    file(".m2/repository/org/a/1.0/a.jar", 300);
+    file(".m2/repository/org/b/2.0/b.jar", 200);
+    file(".npm/_cacache/content-v2/sha512/ab/cd", 100);
+    file(".pip/http/0/1/2", 50);
+
+    var result = CacheUsage.measure(cache, 4);
+
+    assertEquals(650, result.usedBytes());
+    assertEquals(4, result.files());
+    assertEquals(3, result.subtrees().size());
+    assertEquals(new CacheUsage.Subtree(".m2", 500, 2), result.subtrees().get(0));
+    assertEquals(new CacheUsage.Subtree(".npm", 100, 1), result.subtrees().get(1));
+    assertEquals(new CacheUsage.Subtree(".pip", 50, 1), result.subtrees().get(2));
+  }
+
+  @Test
+  @DisplayName("Small subtrees and root files are folded into (other)")
+  void foldsSmallSubtreesIntoOther() throws Exception {
+    IntStream.range(0, CacheUsage.MAX_SUBTREES + 2)
+        .forEach(i -> file("dir-" + i + "/file", 1000 + i));
+    file("loose.txt", 10);
+
+    var result = CacheUsage.measure(cache, 2);
+
+    assertEquals(CacheUsage.MAX_SUBTREES + 1, result.subtrees().size());
+    var other = result.subtrees().getLast();
+    assertEquals(CacheUsage.OTHER, other.path());
+    // dir-0 and dir-1 are the smallest, plus the loose file
+    assertEquals(1000 + 1001 + 10, other.usedBytes());
+    assertEquals(3, other.files());
+    assertEquals(CacheUsage.MAX_SUBTREES + 3, result.files());
+  }
+
+  @Test
+  @DisplayName("Hardlinked files count once, outside the deduplication store")
+  void countsHardlinksOnce() throws Exception {
+    file(".m2/repository/org/a/1.0/a.jar", 300);
+    var jar = cache.resolve(".m2/repository/org/a/1.0/a.jar");
+    Files.createDirectories(cache.resolve(CacheDedup.STORE_DIR));
+    Files.createLink(cache.resolve(CacheDedup.STORE_DIR).resolve("0123"), jar);
+    Files.createDirectories(cache.resolve(".gradle/files"));
+    Files.createLink(cache.resolve(".gradle/files/a.jar"), jar);
+
+    var result = CacheUsage.measure(cache, 4);
+
+    assertEquals(300, result.usedBytes());
+    assertEquals(3, result.files());
+    assertEquals(
+        0,
+        result.subtrees().stream()
+            .filter(subtree -> subtree.path().equals(CacheGc.STATE_DIR))
+            .findFirst()
+            .orElseThrow()
+            .usedBytes());
+  }
+
+  @Test
+  @DisplayName("A missing volume is reported empty")
+  void missingVolumeIsEmpty() {
+    var result = CacheUsage.measure(cache.resolve("missing"));
+
+    assertEquals(0, result.usedBytes());
+    assertTrue(result.subtrees().isEmpty());
+  }
+
+  private void file(String path, int size) {
+    try {
+      var file = cache.resolve(path);
+      Files.createDirectories(file.getParent());
+      Files.write(file, new byte[size]);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
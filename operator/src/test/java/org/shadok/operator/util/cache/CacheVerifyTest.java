@@ -0,0 +1,125 @@
+package org.shadok.operator.util.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for the integrity verification of cache volumes. */
+class CacheVerifyTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+  @TempDir Path cache;
+
+  @Test
+  @DisplayName("Files matching their recorded checksums are kept")
+  void keepsValidFiles() throws Exception {
+    var jar = zip();
+    write(".m2/repository/org/a/1.0/a-1.0.jar", jar);
+    write(".m2/repository/org/a/1.0/a-1.0.jar.sha1", hex("SHA-1", jar).getBytes());
+    write(".gradle/caches/modules-2/files-2.1/org/a/1.0/" + hex("SHA-1", jar) + "/a-1.0.jar", jar);
+    var tarball = "npm tarball".getBytes();
+    var sha512 = hex("SHA-512", tarball);
+    write(
+        ".npm/_cacache/content-v2/sha512/"
+            + sha512.substring(0, 2)
+            + "/"
+            + sha512.substring(2, 4)
+            + "/"
+            + sha512.substring(4),
+        tarball);
+    write(".pip/wheels/b-1.0-py3-none-any.whl", zip());
+
+    var result = CacheVerify.verify(cache, settings());
+
+    assertEquals(4, result.verifiedFiles());
+    assertEquals(0, result.corruptFiles());
+  }
+
+  @Test
+  @DisplayName("Truncated and mismatching files are quarantined with their sidecars")
+  void quarantinesCorruptFiles() throws Exception {
+    var jar = zip();
+    write(".m2/repository/org/a/1.0/a-1.0.jar", Arrays.copyOf(jar, jar.length / 2));
+    write(".m2/repository/org/a/1.0/a-1.0.jar.sha1", hex("SHA-1", jar).getBytes());
+    write(".pip/wheels/b-1.0-py3-none-any.whl", Arrays.copyOf(jar, jar.length - 10));
+    var sha512 = hex("SHA-512", "complete".getBytes());
+    write(
+        ".npm/_cacache/content-v2/sha512/" + sha512.substring(0, 2) + "/" + sha512.substring(2),
+        "comp".getBytes());
+
+    var result = CacheVerify.verify(cache, settings());
+
+    assertEquals(3, result.corruptFiles());
+    assertFalse(Files.exists(cache.resolve(".m2/repository/org/a/1.0/a-1.0.jar")));
+    assertFalse(Files.exists(cache.resolve(".m2/repository/org/a/1.0/a-1.0.jar.sha1")));
+    assertFalse(Files.exists(cache.resolve(".pip/wheels/b-1.0-py3-none-any.whl")));
+    var batch =
+        cache.resolve(CacheVerify.QUARANTINE_DIR).resolve(String.valueOf(NOW.toEpochMilli()));
+    assertTrue(Files.exists(batch.resolve(".m2/repository/org/a/1.0/a-1.0.jar.sha1")));
+  }
+
+  @Test
+  @DisplayName("A zip corrupted in the middle fails the CRC of its entry")
+  void quarantinesZipWithCorruptEntry() throws Exception {
+    var wheel = zip();
+    wheel[60] ^= 0x5a;
+    write(".pip/wheels/b-1.0-py3-none-any.whl", wheel);
+
+    var result = CacheVerify.verify(cache, settings());
+
+    assertEquals(1, result.corruptFiles());
+    assertFalse(Files.exists(cache.resolve(".pip/wheels/b-1.0-py3-none-any.whl")));
+  }
+
+  @Test
+  @DisplayName("Files modified within the grace window are not verified")
+  void skipsRecentFiles() throws Exception {
+    write(".pip/wheels/partial.whl", "not a zip yet".getBytes());
+    Files.setLastModifiedTime(
+        cache.resolve(".pip/wheels/partial.whl"), FileTime.from(NOW.minusSeconds(30)));
+
+    var result = CacheVerify.verify(cache, settings());
+
+    assertEquals(0, result.verifiedFiles());
+    assertTrue(Files.exists(cache.resolve(".pip/wheels/partial.whl")));
+  }
+
+  private static CacheVerify.Settings settings() {
+    return new CacheVerify.Settings(Duration.ofMinutes(10), 2, Duration.ofDays(3), NOW);
+  }
+
+  private void write(String path, byte[] content) throws Exception {
+    var file = cache.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content);
+    Files.setLastModifiedTime(file, FileTime.from(NOW.minus(Duration.ofDays(1))));
+  }
+
+  private static byte[] zip() throws Exception {
+    var bytes = new ByteArrayOutputStream();
+    try (var zip = new ZipOutputStream(bytes)) {
+      zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+      zip.write("Manifest-Version: 1.0\n".repeat(20).getBytes());
+      zip.closeEntry();
+    }
+    return bytes.toByteArray();
+  }
+
+  private static String hex(String algorithm, byte[] content) throws Exception {
+    return HexFormat.of().formatHex(MessageDigest.getInstance(algorithm).digest(content));
+  }
+}
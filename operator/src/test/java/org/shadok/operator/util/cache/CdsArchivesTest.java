@@ -0,0 +1,57 @@
+package org.shadok.operator.util.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Listing and pruning of the class-data sharing archives of an Application. */
+class CdsArchivesTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+  @TempDir Path cache;
+
+  @Test
+  @DisplayName("Archives are listed most recent first, the oldest beyond the limit are deleted")
+  void prunesOldestArchives() throws Exception {
+    var directory = CdsArchives.directory(cache, "dev", "demo");
+    Files.createDirectories(directory);
+    write(directory.resolve("app-0000aaaa.jsa"), 3);
+    write(directory.resolve("maven-0000aaaa.jsa"), 2);
+    write(directory.resolve("app-1111bbbb.jsa"), 1);
+    write(directory.resolve("notes.txt"), 0);
+
+    var result = CdsArchives.list(directory, 2);
+
+    assertEquals(
+        List.of("app-1111bbbb.jsa", "maven-0000aaaa.jsa"),
+        result.archives().stream().map(CdsArchives.Archive::name).toList());
+    assertEquals(NOW.minusSeconds(60).toString(), result.archives().getFirst().writtenAt());
+    assertEquals(List.of("app-0000aaaa.jsa"), result.pruned());
+    assertFalse(Files.exists(directory.resolve("app-0000aaaa.jsa")));
+    assertTrue(Files.exists(directory.resolve("notes.txt")));
+  }
+
+  @Test
+  @DisplayName("An Application whose JVMs wrote no archive yet has none")
+  void missingDirectory() throws Exception {
+    var result = CdsArchives.list(CdsArchives.directory(cache, "dev", "demo"), 4);
+
+    assertTrue(result.archives().isEmpty());
+    assertTrue(result.pruned().isEmpty());
+    assertTrue(
+        CdsArchives.directory(cache, "dev", "demo").startsWith(cache.resolve(CacheGc.STATE_DIR)));
+  }
+
+  private static void write(Path file, int minutesAgo) throws Exception {
+    Files.write(file, new byte[16]);
+    Files.setLastModifiedTime(file, FileTime.from(NOW.minusSeconds(minutesAgo * 60L)));
+  }
+}
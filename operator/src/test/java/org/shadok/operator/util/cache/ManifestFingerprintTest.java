@@ -0,0 +1,88 @@
+package org.shadok.operator.util.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.shadok.operator.model.ApplicationType;
+
+/** Unit tests for the dependency manifest fingerprint used by lockfile sharing. */
+class ManifestFingerprintTest {
+
+  @TempDir Path projects;
+
+  @Test
+  @DisplayName("Identical manifests give the same fingerprint whatever the sources")
+  void identicalManifestsShareFingerprint() throws Exception {
+    var first = project("first", "package.json", "{\"name\":\"a\"}", "package-lock.json", "{}");
+    var second = project("second", "package.json", "{\"name\":\"a\"}", "package-lock.json", "{}");
+    Files.writeString(Files.createDirectories(second.resolve("src")).resolve("index.js"), "x");
+
+    var a = ManifestFingerprint.compute(first, ApplicationType.NODE_NPM).orElseThrow();
+    var b = ManifestFingerprint.compute(second, ApplicationType.NODE_NPM).orElseThrow();
+
+    assertEquals(a.fingerprint(), b.fingerprint());
+    assertEquals(List.of("package-lock.json", "package.json"), a.manifests());
+  }
+
+  @Test
+  @DisplayName("A changed lockfile changes the fingerprint")
+  void changedLockfileChangesFingerprint() throws Exception {
+    var first = project("first", "pom.xml", "<project>1</project>");
+    var second = project("second", "pom.xml", "<project>2</project>");
+
+    assertNotEquals(
+        ManifestFingerprint.compute(first, ApplicationType.SPRING_MAVEN)
+            .orElseThrow()
+            .fingerprint(),
+        ManifestFingerprint.compute(second, ApplicationType.SPRING_MAVEN)
+            .orElseThrow()
+            .fingerprint());
+  }
+
+  @Test
+  @DisplayName("Changed manifests are found from the manifest digests")
+  void changedManifests() throws Exception {
+    var before =
+        ManifestFingerprint.compute(
+                project("before", "package.json", "{}", "package-lock.json", "{\"v\":1}"),
+                ApplicationType.NODE_NPM)
+            .orElseThrow();
+    var after =
+        ManifestFingerprint.compute(
+                project("after", "package.json", "{}", "yarn.lock", "# yarn"),
+                ApplicationType.NODE_NPM)
+            .orElseThrow();
+
+    assertEquals(
+        List.of("package-lock.json", "yarn.lock"),
+        ManifestFingerprint.changedManifests(before.digests(), after.digests()));
+    assertEquals(List.of(), ManifestFingerprint.changedManifests(after.digests(), after.digests()));
+  }
+
+  @Test
+  @DisplayName("Glob manifests are expanded and missing manifests give no fingerprint")
+  void globsAndMissingManifests() throws Exception {
+    var dotnet = project("dotnet", "Api.csproj", "<Project/>");
+    var empty = Files.createDirectories(projects.resolve("empty"));
+
+    assertEquals(
+        List.of("Api.csproj"),
+        ManifestFingerprint.compute(dotnet, ApplicationType.DOTNET_NUGET)
+            .orElseThrow()
+            .manifests());
+    assertTrue(ManifestFingerprint.compute(empty, ApplicationType.GO_MOD).isEmpty());
+  }
+
+  private Path project(String name, String... files) throws Exception {
+    var root = Files.createDirectories(projects.resolve(name));
+    for (int i = 0; i < files.length; i += 2) {
+      Files.writeString(root.resolve(files[i]), files[i + 1]);
+    }
+    return root;
+  }
+}
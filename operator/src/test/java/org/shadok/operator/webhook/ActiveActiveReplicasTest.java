@@ -0,0 +1,162 @@
+package org.shadok.operator.webhook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.GroupVersionKind;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.admission.v1.AdmissionRequest;
+import io.fabric8.kubernetes.api.model.admission.v1.AdmissionReview;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.TestApplicationSpecs;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.TestDependencyCacheSpecs;
+import org.shadok.operator.model.code.ProjectSource;
+import org.shadok.operator.model.code.ProjectSourceSpec;
+
+/**
+ * Active-active webhook replicas against a mock API server.
+ *
+ * <p>Each replica owns its informer-backed cache; once synced, admissions on any replica are served
+ * without API server round trips, so admission capacity scales with the number of replicas.
+ */
+@EnableKubernetesMockClient(crud = true)
+class ActiveActiveReplicasTest {
+
+  private static final String NAMESPACE = "dev";
+  private static final int REPLICAS = 3;
+  private static final int ADMISSIONS_PER_REPLICA = 50;
+
+  KubernetesMockServer server;
+  KubernetesClient client;
+
+  private List<ShadokResourceCache> caches;
+  private List<PodMutatingWebhook> webhooks;
+
+  @BeforeEach
+  void setUp() {
+    var application = new Application();
+    application.setMetadata(metadata("demo"));
+    application.setSpec(TestApplicationSpecs.of(ApplicationType.SPRING_MAVEN).build());
+    client.resource(application).create();
+
+    var projectSource = new ProjectSource();
+    projectSource.setMetadata(metadata("demo-source"));
+    projectSource.setSpec(
+        new ProjectSourceSpec("source-pv", "/src", "demo-source-pvc", null, null, null, null));
+    client.resource(projectSource).create();
+
+    var dependencyCache = new DependencyCache();
+    dependencyCache.setMetadata(metadata("demo-cache"));
+    dependencyCache.setSpec(TestDependencyCacheSpecs.of("cache-pv", "demo-cache-pvc").build());
+    client.resource(dependencyCache).create();
+
+    caches =
+        IntStream.range(0, REPLICAS)
+            .mapToObj(
+                i -> {
+                  var cache = new ShadokResourceCache();
+                  cache.client = server.createClient();
+                  cache.config = StaleLookupTest.defaultConfig();
+                  return cache;
+                })
+            .toList();
+    webhooks =
+        caches.stream()
+            .map(
+                cache -> {
+                  var webhook = new PodMutatingWebhook();
+                  webhook.resourceCache = cache;
+                  return webhook;
+                })
+            .toList();
+  }
+
+  @AfterEach
+  void tearDown() {
+    caches.forEach(cache -> cache.onStop(null));
+    caches.forEach(cache -> cache.client.close());
+  }
+
+  @Test
+  @DisplayName("Every replica syncs its own informers and serves the same resources")
+  void everyReplicaSyncsAndResolves() {
+    caches.forEach(cache -> assertTrue(cache.awaitSync(Duration.ofSeconds(10))));
+
+    caches.forEach(
+        cache -> {
+          assertTrue(cache.findApplication("demo", NAMESPACE).isPresent());
+          assertTrue(cache.findProjectSource("demo-source", NAMESPACE).isPresent());
+          assertTrue(cache.findDependencyCache("demo-cache", NAMESPACE).isPresent());
+        });
+  }
+
+  @Test
+  @DisplayName("Concurrent admissions on all replicas are mutated without API server reads")
+  void concurrentAdmissionsAreServedFromReplicaCaches() throws Exception {
+    caches.forEach(cache -> assertTrue(cache.awaitSync(Duration.ofSeconds(10))));
+    var requestsAfterSync = server.getRequestCount();
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var responses =
+          IntStream.range(0, REPLICAS * ADMISSIONS_PER_REPLICA)
+              .mapToObj(i -> executor.submit(() -> webhooks.get(i % REPLICAS).mutate(review(i))))
+              .toList();
+      for (var response : responses) {
+        var admission = response.get().getResponse();
+        assertTrue(admission.getAllowed());
+        assertNotNull(admission.getPatch(), "pod should have been mutated");
+      }
+    }
+
+    assertEquals(requestsAfterSync, server.getRequestCount());
+    webhooks.forEach(webhook -> assertTrue(webhook.firstAdmissionNanos().isPresent()));
+  }
+
+  private static AdmissionReview review(int index) {
+    var pod =
+        new PodBuilder()
+            .withMetadata(
+                new ObjectMetaBuilder()
+                    .withName("demo-" + index)
+                    .withNamespace(NAMESPACE)
+                    .withAnnotations(Map.of("org.shadok/application", "demo"))
+                    .build())
+            .withNewSpec()
+            .withContainers(new ContainerBuilder().withName("app").withImage("demo:dev").build())
+            .endSpec()
+            .build();
+
+    var request = new AdmissionRequest();
+    request.setKind(new GroupVersionKind("", "Pod", "v1"));
+    request.setOperation("CREATE");
+    request.setNamespace(NAMESPACE);
+    request.setObject(pod);
+    request.setUid("uid-" + index);
+
+    var review = new AdmissionReview();
+    review.setApiVersion("admission.k8s.io/v1");
+    review.setKind("AdmissionReview");
+    review.setRequest(request);
+    return review;
+  }
+
+  private static ObjectMeta metadata(String name) {
+    return new ObjectMetaBuilder().withName(name).withNamespace(NAMESPACE).build();
+  }
+}
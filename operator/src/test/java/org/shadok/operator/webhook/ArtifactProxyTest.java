@@ -0,0 +1,126 @@
+package org.shadok.operator.webhook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.cache.CacheFederationSpec;
+import org.shadok.operator.model.cache.CacheOverlaySpec;
+import org.shadok.operator.model.cache.DependencyCache;
+import org.shadok.operator.model.cache.TestDependencyCacheSpecs;
+
+/** Build tools of dev pods pointed at the in-operator artifact proxy. */
+class ArtifactProxyTest {
+
+  private static final String URL = "http://operator-leader.shadok.svc:8081";
+
+  @Test
+  @DisplayName("Registry variables point each build tool at the proxy, set variables are kept")
+  void registryVariables() {
+    var maven =
+        env(
+            ArtifactProxyMutator.withArtifactProxy(
+                container(), ApplicationType.QUARKUS_MAVEN, URL));
+    assertEquals(URL, maven.get(ArtifactProxyMutator.ARTIFACT_PROXY_URL));
+    assertEquals("--global-settings /cache/.m2/shadok-artifact-proxy.xml", maven.get("MAVEN_ARGS"));
+
+    var pip =
+        env(ArtifactProxyMutator.withArtifactProxy(container(), ApplicationType.PYTHON_PIP, URL));
+    assertEquals(URL + "/pypi/simple/", pip.get("PIP_INDEX_URL"));
+    assertEquals("operator-leader.shadok.svc", pip.get("PIP_TRUSTED_HOST"));
+
+    var npm =
+        new ContainerBuilder(container())
+            .addNewEnv()
+            .withName("NPM_CONFIG_REGISTRY")
+            .withValue("https://npm.example.com/")
+            .endEnv()
+            .build();
+    assertEquals(
+        Map.of("NPM_CONFIG_REGISTRY", "https://npm.example.com/"),
+        env(ArtifactProxyMutator.withArtifactProxy(npm, ApplicationType.NODE_NPM, URL)));
+  }
+
+  @Test
+  @DisplayName("Maven settings and Gradle init script are written to the cache seen as /cache")
+  void configFiles() {
+    var cache = cache(false);
+
+    var maven =
+        ArtifactProxyMutator.createArtifactProxyConfigContainer(
+                ApplicationType.QUARKUS_MAVEN, Optional.of(cache), "dev")
+            .orElseThrow();
+    assertEquals("artifact-proxy-config", maven.getName());
+    assertEquals("/cache/.m2/shadok-artifact-proxy.xml", env(maven).get("TARGET"));
+    assertTrue(env(maven).get("CONTENT").contains("<url>${env.SHADOK_ARTIFACT_PROXY_URL}/maven/"));
+    assertEquals(CacheVolumes.cacheMount(), maven.getVolumeMounts().getFirst());
+
+    var gradle =
+        ArtifactProxyMutator.createArtifactProxyConfigContainer(
+                ApplicationType.QUARKUS_GRADLE, Optional.of(cache(true)), "dev")
+            .orElseThrow();
+    assertEquals("/cache/.gradle/init.d/shadok-artifact-proxy.gradle", env(gradle).get("TARGET"));
+    assertEquals(CacheVolumes.overlayMount(), gradle.getVolumeMounts().getFirst());
+
+    assertTrue(
+        ArtifactProxyMutator.createArtifactProxyConfigContainer(
+                ApplicationType.NODE_NPM, Optional.of(cache), "dev")
+            .isEmpty());
+    assertTrue(
+        ArtifactProxyMutator.createArtifactProxyConfigContainer(
+                ApplicationType.QUARKUS_MAVEN, Optional.empty(), "dev")
+            .isEmpty());
+  }
+
+  @Test
+  @DisplayName("Pods of a read-only federated cache write the files to their local layer")
+  void readOnlyFederatedCache() {
+    var cache = cache(false);
+    cache.setSpec(
+        TestDependencyCacheSpecs.of("maven-pv", "maven-pvc")
+            .federation(new CacheFederationSpec(List.of("team-*"), true))
+            .build());
+
+    var consumer =
+        ArtifactProxyMutator.createArtifactProxyConfigContainer(
+                ApplicationType.QUARKUS_MAVEN, Optional.of(cache), "team-a")
+            .orElseThrow();
+    var owner =
+        ArtifactProxyMutator.createArtifactProxyConfigContainer(
+                ApplicationType.QUARKUS_MAVEN, Optional.of(cache), "dev")
+            .orElseThrow();
+
+    assertEquals(List.of(CacheVolumes.overlayMount()), consumer.getVolumeMounts());
+    assertEquals(List.of(CacheVolumes.cacheMount()), owner.getVolumeMounts());
+    assertTrue(CacheVolumes.writableLayer(cache, "team-a").isPresent());
+    assertTrue(CacheVolumes.baseMount(CacheVolumes.CACHE_BASE_PATH).getReadOnly());
+  }
+
+  private static Container container() {
+    return new ContainerBuilder().withName("app").withImage("app:dev").build();
+  }
+
+  private static DependencyCache cache(boolean overlay) {
+    var cache = new DependencyCache();
+    cache.setMetadata(new ObjectMetaBuilder().withName("maven").withNamespace("dev").build());
+    var spec = TestDependencyCacheSpecs.of("maven-pv", "maven-pvc");
+    if (overlay) {
+      spec.overlay(new CacheOverlaySpec(null, null, null, null));
+    }
+    cache.setSpec(spec.build());
+    return cache;
+  }
+
+  private static Map<String, String> env(Container container) {
+    return container.getEnv().stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue));
+  }
+}
@@ -0,0 +1,58 @@
+package org.shadok.operator.webhook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.Quantity;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.application.BuildDaemonSpec;
+
+/** Dev-mode commands run against a warm Gradle daemon or mvnd. */
+class BuildDaemonTest {
+
+  @Test
+  @DisplayName("Gradle keeps a daemon sized from the container memory, restarted in a loop")
+  void gradleDaemon() {
+    var command =
+        BuildDaemonMutator.withBuildDaemon(
+            List.of("./gradlew", "--info", "--no-daemon", "quarkusDev"),
+            new BuildDaemonSpec(null, 60),
+            Optional.of(new Quantity("2Gi")));
+
+    assertEquals(List.of("sh", "-c"), command.subList(0, 2));
+    assertTrue(command.get(2).startsWith("trap 'kill -TERM \"$child\""));
+    assertTrue(command.get(2).contains("-ge 5 ]"));
+    assertFalse(command.get(2).contains("mvnd"));
+    assertEquals(
+        List.of(
+            "./gradlew",
+            "--daemon",
+            "-Dorg.gradle.daemon.registry.base=/build/.gradle-daemon",
+            "-Dorg.gradle.daemon.idletimeout=3600000",
+            "-Dorg.gradle.jvmargs=-Xmx512m",
+            "--info",
+            "quarkusDev"),
+        command.subList(4, command.size()));
+  }
+
+  @Test
+  @DisplayName("Maven runs mvnd, or mvn without it; commands of other build tools are unchanged")
+  void mavenDaemon() {
+    var npm = List.of("npm", "run", "dev");
+    var daemon = new BuildDaemonSpec(null, null);
+
+    var command =
+        BuildDaemonMutator.withBuildDaemon(List.of("mvn", "quarkus:dev"), daemon, Optional.empty());
+
+    assertEquals("mvnd", command.get(4));
+    assertTrue(command.get(2).startsWith("if ! command -v mvnd"));
+    assertTrue(command.get(2).contains("set -- mvn \"$@\""));
+    assertTrue(command.contains("-Dmvnd.idleTimeout=180m"));
+    assertTrue(command.stream().noneMatch(arg -> arg.startsWith("-Dmvnd.maxHeapSize")));
+    assertEquals("quarkus:dev", command.getLast());
+    assertSame(npm, BuildDaemonMutator.withBuildDaemon(npm, daemon, Optional.empty()));
+    assertThrows(IllegalArgumentException.class, () -> new BuildDaemonSpec(90, null));
+  }
+}
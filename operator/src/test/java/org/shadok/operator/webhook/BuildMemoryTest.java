@@ -0,0 +1,50 @@
+package org.shadok.operator.webhook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.BuildVolumeSpec;
+
+/** Sizing of tmpfs build volumes and of the memory of their containers. */
+class BuildMemoryTest {
+
+  @Test
+  @DisplayName("Memory request and limit grow by the tmpfs size")
+  void raisesRequestAndLimit() {
+    var container =
+        new ContainerBuilder()
+            .withName("app")
+            .withNewResources()
+            .withRequests(Map.of("memory", new Quantity("512Mi"), "cpu", new Quantity("1")))
+            .withLimits(Map.of("memory", new Quantity("1Gi")))
+            .endResources()
+            .build();
+
+    var resources =
+        PodMutatingWebhook.withBuildMemory(container, new Quantity("1Gi")).getResources();
+
+    assertEquals(0, new Quantity("1536Mi").compareTo(resources.getRequests().get("memory")));
+    assertEquals(new Quantity("1"), resources.getRequests().get("cpu"));
+    assertEquals(0, new Quantity("2Gi").compareTo(resources.getLimits().get("memory")));
+  }
+
+  @Test
+  @DisplayName("Without resources only a request is added, sized by application type")
+  void addsRequestSizedByType() {
+    var spec = new BuildVolumeSpec(BuildVolumeSpec.Type.MEMORY, null, null, null, null);
+    var tmpfs = new Quantity(spec.sizeLimit(ApplicationType.NODE_NPM));
+
+    var resources =
+        PodMutatingWebhook.withBuildMemory(new ContainerBuilder().withName("app").build(), tmpfs)
+            .getResources();
+
+    assertEquals(new Quantity("512Mi"), resources.getRequests().get("memory"));
+    assertNull(resources.getLimits());
+    assertEquals("1024Mi", spec.sizeLimit(ApplicationType.QUARKUS_GRADLE));
+  }
+}
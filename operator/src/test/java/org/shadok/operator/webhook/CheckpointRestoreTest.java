@@ -0,0 +1,116 @@
+package org.shadok.operator.webhook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.ApplicationSpec;
+import org.shadok.operator.model.application.BuildVolumeSpec;
+import org.shadok.operator.model.application.IdleScaleDownSpec;
+import org.shadok.operator.model.application.TestApplicationSpecs;
+
+/** CRaC checkpoint and restore of the JVM of Applications scaled down while idle. */
+class CheckpointRestoreTest {
+
+  @Test
+  @DisplayName("The dev-mode command runs after restoring another pod's checkpoint, if any")
+  void wrapsDevModeCommand() {
+    var container =
+        new ContainerBuilder()
+            .withName("app")
+            .withCommand("mvn", "quarkus:dev")
+            .addNewEnv()
+            .withName("JAVA_TOOL_OPTIONS")
+            .withValue("-Xmx512m")
+            .endEnv()
+            .build();
+
+    var restored =
+        CheckpointRestoreMutator.withCheckpointRestore(container, ApplicationType.QUARKUS_MAVEN);
+
+    var command = restored.getCommand();
+    assertEquals(List.of("sh", "-c"), command.subList(0, 2));
+    assertTrue(
+        command.get(2).contains("-XX:CRaCRestoreFrom=\"/build/crac.restore/$SHADOK_POD_UID\""));
+    assertTrue(command.get(2).contains("[ \"$image\" != \"/build/crac/$SHADOK_POD_UID\" ]"));
+    assertTrue(command.get(2).endsWith("exec \"$@\""));
+    assertEquals(
+        List.of(
+            "shadok-restore",
+            "mvn",
+            "quarkus:dev",
+            "-Djvm.args=-XX:+IgnoreUnrecognizedVMOptions"
+                + " -XX:CRaCCheckpointTo=/build/crac/$(SHADOK_POD_UID)"),
+        command.subList(3, command.size()));
+    assertEquals(2, restored.getEnv().size());
+    assertEquals(
+        "metadata.uid", restored.getEnv().getFirst().getValueFrom().getFieldRef().getFieldPath());
+    // Build tool JVMs and jcmd never get the checkpoint options
+    assertEquals("-Xmx512m", restored.getEnv().getLast().getValue());
+    assertEquals(
+        List.of("CHECKPOINT_RESTORE", "SYS_PTRACE"),
+        restored.getSecurityContext().getCapabilities().getAdd());
+  }
+
+  @Test
+  @DisplayName("Checkpoint options join the other application JVM options of the command")
+  void mergesApplicationJvmOptions() {
+    var container =
+        new ContainerBuilder()
+            .withName("app")
+            .withCommand("mvn", "spring-boot:run", "-Dspring-boot.run.jvmArguments=-Xmx1g")
+            .build();
+
+    var command =
+        CheckpointRestoreMutator.withCheckpointRestore(container, ApplicationType.SPRING_MAVEN)
+            .getCommand();
+
+    assertEquals(
+        "-Dspring-boot.run.jvmArguments=-Xmx1g -XX:+IgnoreUnrecognizedVMOptions"
+            + " -XX:CRaCCheckpointTo=/build/crac/$(SHADOK_POD_UID)",
+        command.getLast());
+    assertEquals(1, command.stream().filter(arg -> arg.startsWith("-Dspring-boot.run")).count());
+  }
+
+  @Test
+  @DisplayName("Only a persistent build volume keeps checkpoints, and enables them by default")
+  void checkpointsWithPersistentBuildVolume() {
+    var idle = new IdleScaleDownSpec(null, null, null, null);
+    var persistent = new BuildVolumeSpec(null, null, null, null, null);
+
+    assertTrue(spec(idle, persistent).checkpointsWhenIdle());
+    assertFalse(spec(idle, null).checkpointsWhenIdle());
+    assertFalse(
+        spec(idle, new BuildVolumeSpec(BuildVolumeSpec.Type.EMPTY_DIR, null, null, null, null))
+            .checkpointsWhenIdle());
+    assertFalse(
+        spec(new IdleScaleDownSpec(null, null, null, false), persistent).checkpointsWhenIdle());
+    // Spring Boot with Gradle has no application JVM argument for the checkpoint directory
+    assertFalse(
+        TestApplicationSpecs.of(ApplicationType.SPRING_GRADLE)
+            .idleScaleDown(idle)
+            .buildVolume(persistent)
+            .build()
+            .checkpointsWhenIdle());
+  }
+
+  private static ApplicationSpec spec(IdleScaleDownSpec idle, BuildVolumeSpec buildVolume) {
+    return TestApplicationSpecs.of(ApplicationType.QUARKUS_MAVEN)
+        .idleScaleDown(idle)
+        .buildVolume(buildVolume)
+        .build();
+  }
+
+  @Test
+  @DisplayName("Containers started by the image entrypoint are left unchanged")
+  void keepsEntrypoint() {
+    var container = new ContainerBuilder().withName("app").withImage("app:dev").build();
+
+    assertSame(
+        container,
+        CheckpointRestoreMutator.withCheckpointRestore(container, ApplicationType.QUARKUS_MAVEN));
+  }
+}
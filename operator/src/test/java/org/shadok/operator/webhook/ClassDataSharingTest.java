@@ -0,0 +1,82 @@
+package org.shadok.operator.webhook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.EnvVar;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.model.ApplicationType;
+
+/** AppCDS archives of the JVM dev pods, per role, image and pod. */
+class ClassDataSharingTest {
+
+  private static final String DIRECTORY = "/cache/.shadok/cds/dev/demo";
+
+  @Test
+  @DisplayName("The application JVM gets its archive through jvm.args, never JAVA_TOOL_OPTIONS")
+  void archivesApplicationJvmOnly() {
+    var container =
+        new ContainerBuilder()
+            .withName("app")
+            .withImage("quarkus:dev")
+            .withCommand("mvn", "quarkus:dev")
+            .addNewEnv()
+            .withName("JAVA_TOOL_OPTIONS")
+            .withValue("-Xmx512m")
+            .endEnv()
+            .build();
+
+    var mapped =
+        ClassDataSharingMutator.withClassDataSharing(
+            container, ApplicationType.QUARKUS_MAVEN, DIRECTORY);
+
+    var env = mapped.getEnv();
+    assertEquals(ClassDataSharingMutator.POD_NAME, env.getFirst().getName());
+    assertEquals("metadata.name", env.getFirst().getValueFrom().getFieldRef().getFieldPath());
+    assertEquals("-Xmx512m", value(env, "JAVA_TOOL_OPTIONS"));
+    var archives = ClassDataSharingMutator.archives(container, ApplicationType.QUARKUS_MAVEN);
+    assertEquals(2, archives.size());
+    assertTrue(
+        value(env, "MAVEN_OPTS")
+            .endsWith(DIRECTORY + "/" + archives.get(1) + "-$(SHADOK_POD_NAME).jsa"));
+    assertEquals(List.of("mvn", "quarkus:dev"), mapped.getCommand().subList(0, 2));
+    assertEquals(
+        "-Djvm.args=-XX:+IgnoreUnrecognizedVMOptions -XX:+AutoCreateSharedArchive"
+            + " -XX:SharedArchiveFile="
+            + DIRECTORY
+            + "/"
+            + archives.get(0)
+            + "-$(SHADOK_POD_NAME).jsa",
+        mapped.getCommand().getLast());
+  }
+
+  @Test
+  @DisplayName("Types without an application JVM argument only archive the build tool")
+  void archivesBuildToolOnly() {
+    var container =
+        new ContainerBuilder()
+            .withName("app")
+            .withImage("spring:dev")
+            .withCommand("./gradlew", "bootRun")
+            .build();
+
+    var mapped =
+        ClassDataSharingMutator.withClassDataSharing(
+            container, ApplicationType.SPRING_GRADLE, DIRECTORY);
+
+    assertEquals(List.of("./gradlew", "bootRun"), mapped.getCommand());
+    assertTrue(value(mapped.getEnv(), "GRADLE_OPTS").contains("/gradle-"));
+    assertEquals(
+        1, ClassDataSharingMutator.archives(container, ApplicationType.SPRING_GRADLE).size());
+  }
+
+  private static String value(List<EnvVar> env, String name) {
+    return env.stream()
+        .filter(var -> name.equals(var.getName()))
+        .findFirst()
+        .orElseThrow()
+        .getValue();
+  }
+}
@@ -0,0 +1,205 @@
+package org.shadok.operator.webhook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.GroupVersionKind;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.admission.v1.AdmissionRequest;
+import io.fabric8.kubernetes.api.model.admission.v1.AdmissionReview;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.config.WebhookConfig;
+import org.shadok.operator.model.ApplicationType;
+import org.shadok.operator.model.application.Application;
+import org.shadok.operator.model.application.TestApplicationSpecs;
+
+/** Circuit breaking and last-known serving of admission lookups against a failing API server. */
+@EnableKubernetesMockClient
+class StaleLookupTest {
+
+  private static final String NAMESPACE = "dev";
+  private static final String APPLICATION_PATH =
+      "/apis/shadok.org/v1/namespaces/dev/applications/demo";
+
+  KubernetesMockServer server;
+  KubernetesClient client;
+
+  private final AtomicLong clock = new AtomicLong();
+  private ShadokResourceCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new ShadokResourceCache();
+    cache.config =
+        new TestConfig(
+            new TestLookup(
+                Duration.ofSeconds(5),
+                Duration.ofSeconds(5),
+                2,
+                Duration.ofMillis(300),
+                Duration.ofMinutes(10)));
+    cache.client = client;
+    cache.nanoTime = clock::get;
+  }
+
+  @AfterEach
+  void tearDown() {
+    cache.onStop(null);
+  }
+
+  @Test
+  @DisplayName("Failing reads open the circuit, serve last-known data and recover")
+  void failingReadsServeLastKnownAndRecover() {
+    var application = application();
+    server.expect().get().withPath(APPLICATION_PATH).andReturn(200, application).once();
+    server.expect().get().withPath(APPLICATION_PATH).andReturn(500, "degraded").times(2);
+    server.expect().get().withPath(APPLICATION_PATH).andReturn(200, application).always();
+
+    var fresh = cache.forAdmission();
+    assertTrue(fresh.findApplication("demo", NAMESPACE).isPresent());
+    assertTrue(fresh.staleness().isEmpty());
+
+    // Two failed reads: served from last-known data, then the circuit opens
+    for (int i = 0; i < 2; i++) {
+      var lookup = cache.forAdmission();
+      assertTrue(lookup.findApplication("demo", NAMESPACE).isPresent());
+      assertTrue(lookup.staleness().isPresent());
+    }
+    assertEquals(LookupCircuitBreaker.State.OPEN, cache.circuitState());
+
+    // Live reads do not retry: each lookup is exactly one API server request
+    assertEquals(3, server.getRequestCount());
+
+    // Open circuit: no request reaches the API server
+    var requests = server.getRequestCount();
+    var degraded = cache.forAdmission();
+    assertTrue(degraded.findApplication("demo", NAMESPACE).isPresent());
+    assertEquals(requests, server.getRequestCount());
+    assertEquals(3, cache.staleServes());
+    assertEquals(1, cache.rejectedLookups());
+
+    // After the open duration a probe read succeeds and closes the circuit
+    clock.addAndGet(Duration.ofMillis(400).toNanos());
+    var recovered = cache.forAdmission();
+    assertTrue(recovered.findApplication("demo", NAMESPACE).isPresent());
+    assertTrue(recovered.staleness().isEmpty());
+    assertEquals(LookupCircuitBreaker.State.CLOSED, cache.circuitState());
+  }
+
+  @Test
+  @DisplayName("Each resource ages from its own last successful read")
+  void stalenessIsTrackedPerResource() {
+    var other = APPLICATION_PATH.replace("/demo", "/other");
+    server.expect().get().withPath(APPLICATION_PATH).andReturn(200, application()).once();
+    server.expect().get().withPath(other).andReturn(200, application("other")).once();
+    server.expect().get().withPath(APPLICATION_PATH).andReturn(500, "degraded").always();
+    server.expect().get().withPath(other).andReturn(500, "degraded").always();
+
+    assertTrue(cache.forAdmission().findApplication("demo", NAMESPACE).isPresent());
+    clock.addAndGet(Duration.ofMinutes(6).toNanos());
+    assertTrue(cache.forAdmission().findApplication("other", NAMESPACE).isPresent());
+    clock.addAndGet(Duration.ofMinutes(5).toNanos());
+
+    // demo was read 11 minutes ago, beyond the 10 minutes of max staleness
+    assertTrue(cache.forAdmission().findApplication("demo", NAMESPACE).isEmpty());
+    var lookup = cache.forAdmission();
+    assertTrue(lookup.findApplication("other", NAMESPACE).isPresent());
+    assertEquals(Optional.of(Duration.ofMinutes(5)), lookup.staleness());
+  }
+
+  @Test
+  @DisplayName("Pods mutated from last-known data are annotated with its age")
+  void stalePodsAreAnnotated() {
+    server.expect().get().withPath(APPLICATION_PATH).andReturn(200, application()).once();
+    server.expect().get().withPath(APPLICATION_PATH).andReturn(500, "degraded").always();
+    assertTrue(cache.forAdmission().findApplication("demo", NAMESPACE).isPresent());
+
+    var webhook = new PodMutatingWebhook();
+    webhook.resourceCache = cache;
+    var response = webhook.mutate(review()).getResponse();
+
+    assertTrue(response.getAllowed());
+    var patch = new String(Base64.getDecoder().decode(response.getPatch()), StandardCharsets.UTF_8);
+    assertTrue(patch.contains("stale-data-age-seconds"), patch);
+  }
+
+  /** Webhook settings with the default lookup thresholds. */
+  static WebhookConfig defaultConfig() {
+    return new TestConfig(
+        new TestLookup(
+            Duration.ofMillis(750),
+            Duration.ofMillis(250),
+            5,
+            Duration.ofSeconds(15),
+            Duration.ofMinutes(10)));
+  }
+
+  record TestConfig(WebhookConfig.Lookup lookup) implements WebhookConfig {
+
+    @Override
+    public Warmup warmup() {
+      throw new UnsupportedOperationException("warm-up is not used by lookups");
+    }
+  }
+
+  record TestLookup(
+      Duration timeout,
+      Duration slowCallThreshold,
+      int failureThreshold,
+      Duration openDuration,
+      Duration maxStaleness)
+      implements WebhookConfig.Lookup {}
+
+  private static Application application() {
+    return application("demo");
+  }
+
+  private static Application application(String name) {
+    var application = new Application();
+    application.setMetadata(
+        new ObjectMetaBuilder().withName(name).withNamespace(NAMESPACE).build());
+    application.setSpec(TestApplicationSpecs.of(ApplicationType.NODE_NPM).build());
+    return application;
+  }
+
+  private static AdmissionReview review() {
+    var pod =
+        new PodBuilder()
+            .withMetadata(
+                new ObjectMetaBuilder()
+                    .withName("demo-pod")
+                    .withNamespace(NAMESPACE)
+                    .withAnnotations(Map.of("org.shadok/application", "demo"))
+                    .build())
+            .withNewSpec()
+            .withContainers(new ContainerBuilder().withName("app").withImage("demo:dev").build())
+            .endSpec()
+            .build();
+
+    var request = new AdmissionRequest();
+    request.setKind(new GroupVersionKind("", "Pod", "v1"));
+    request.setOperation("CREATE");
+    request.setNamespace(NAMESPACE);
+    request.setObject(pod);
+    request.setUid("stale-1");
+
+    var review = new AdmissionReview();
+    review.setApiVersion("admission.k8s.io/v1");
+    review.setKind("AdmissionReview");
+    review.setRequest(request);
+    return review;
+  }
+}
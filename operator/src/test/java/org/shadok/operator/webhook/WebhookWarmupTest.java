@@ -0,0 +1,100 @@
+package org.shadok.operator.webhook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.shadok.operator.config.WebhookConfig;
+import org.shadok.operator.model.ApplicationType;
+
+/** Readiness of the webhook, gated on the informer sync and the synthetic warm-up. */
+class WebhookWarmupTest {
+
+  private final CompletableFuture<Void> sync = new CompletableFuture<>();
+  private final List<Boolean> dryRuns = new CopyOnWriteArrayList<>();
+
+  private WebhookWarmup warmup;
+  private WebhookReadinessCheck readiness;
+
+  @BeforeEach
+  void setUp() {
+    var cache =
+        new ShadokResourceCache() {
+          @Override
+          synchronized CompletableFuture<Void> start() {
+            return sync;
+          }
+
+          @Override
+          public boolean hasSynced() {
+            return sync.isDone();
+          }
+        };
+    var webhook = new PodMutatingWebhook();
+    webhook.mutators =
+        List.of(
+            pod -> {
+              dryRuns.add(pod.dryRun());
+              return List.of();
+            });
+
+    warmup = new WebhookWarmup();
+    warmup.webhook = webhook;
+    warmup.resourceCache = cache;
+    warmup.objectMapper = new ObjectMapper();
+    warmup.config = new TestConfig(new TestWarmup(true, 5, Duration.ofMillis(10)));
+    warmup.warmups = Runnable::run;
+
+    readiness = new WebhookReadinessCheck();
+    readiness.resourceCache = cache;
+    readiness.warmup = warmup;
+    readiness.webhook = webhook;
+  }
+
+  @Test
+  @DisplayName("Informers synced after the timeout keep the webhook down until the warm-up ran")
+  void lateSyncRunsTheWarmup() {
+    warmup.run();
+
+    assertFalse(warmup.report().orElseThrow().synced());
+    assertEquals(HealthCheckResponse.Status.DOWN, readiness.call().getStatus());
+
+    sync.complete(null);
+
+    var report = warmup.report().orElseThrow();
+    assertTrue(report.synced());
+    assertEquals(ApplicationType.values().length, report.admissions());
+    assertEquals(HealthCheckResponse.Status.UP, readiness.call().getStatus());
+  }
+
+  @Test
+  @DisplayName("Synthetic admissions are dry runs for every mutator")
+  void warmupAdmissionsAreDryRuns() {
+    assertEquals(HealthCheckResponse.Status.DOWN, readiness.call().getStatus());
+    sync.complete(null);
+
+    warmup.run();
+
+    assertEquals(ApplicationType.values().length, dryRuns.size());
+    assertTrue(dryRuns.stream().allMatch(Boolean::booleanValue));
+    assertEquals(HealthCheckResponse.Status.UP, readiness.call().getStatus());
+  }
+
+  record TestConfig(WebhookConfig.Warmup warmup) implements WebhookConfig {
+
+    @Override
+    public Lookup lookup() {
+      throw new UnsupportedOperationException("lookups are synthetic during the warm-up");
+    }
+  }
+
+  record TestWarmup(boolean enabled, int admissions, Duration syncTimeout)
+      implements WebhookConfig.Warmup {}
+}